@@ -28,12 +28,13 @@ dependencies {
             true
         )
         bundledPlugin("com.intellij.java")
-
+        testFramework(TestFrameworkType.Platform)
     }
     implementation("cn.hutool:hutool-all:5.8.26")
     compileOnly("org.projectlombok:lombok:1.18.38")
     annotationProcessor("org.projectlombok:lombok:1.18.38")
     implementation("com.fifesoft:rsyntaxtextarea:3.3.3")
+    testImplementation("junit:junit:4.13.2")
 }
 
 intellijPlatform {
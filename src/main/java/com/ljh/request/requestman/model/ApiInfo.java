@@ -5,7 +5,10 @@ import com.intellij.psi.PsiMethod;
 import com.ljh.request.requestman.ui.CookiesPanel;
 import com.ljh.request.requestman.ui.HeadersPanel;
 import com.ljh.request.requestman.util.ApiInfoExtractor;
+import com.ljh.request.requestman.util.BodyBlobStore;
+import com.ljh.request.requestman.util.LogUtil;
 import com.ljh.request.requestman.ui.PostOpPanel;
+import com.ljh.request.requestman.ui.PreOpPanel;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
@@ -17,7 +20,7 @@ import java.util.List;
  * @Description 接口信息数据结构，包含url、方法、参数、请求体等。
  * @date 2025/06/17 16:12
  */
-public class ApiInfo {
+public class ApiInfo implements BodyBlobStore.Holder {
     /**
      * 接口注释/中文名
      */
@@ -96,6 +99,21 @@ public class ApiInfo {
      */
     private String body;
 
+    /**
+     * 外置存储的请求体哈希，请求体未修改时有效，非bean属性，由存储层读写
+     */
+    private transient String bodyBlob;
+
+    /**
+     * 外置请求体读取失败，保存时保留原哈希
+     */
+    private transient boolean bodyUnresolved;
+
+    /**
+     * 前置操作列表（按顺序执行）
+     */
+    private List<PreOpPanel.PreOpItem> preOps = new ArrayList<>();
+
     /**
      * 后置操作列表
      */
@@ -133,6 +151,14 @@ public class ApiInfo {
         this.authValue = authValue;
     }
 
+    public List<PreOpPanel.PreOpItem> getPreOps() {
+        return preOps;
+    }
+
+    public void setPreOps(List<PreOpPanel.PreOpItem> preOps) {
+        this.preOps = preOps;
+    }
+
     public List<PostOpPanel.PostOpItem> getPostOps() {
         return postOps;
     }
@@ -162,12 +188,52 @@ public class ApiInfo {
         return bodyType;
     }
 
+    /**
+     * 获取请求体，外置请求体在首次访问时读取。读取失败（blob缺失或损坏）时返回空串并保留哈希，
+     * 条目标记为未解析：保存时仍引用原哈希，不会以空请求体覆盖
+     */
     public String getBody() {
+        if (body == null && bodyBlob != null) {
+            try {
+                body = BodyBlobStore.read(bodyBlob);
+                bodyUnresolved = false;
+            } catch (Exception e) {
+                if (!bodyUnresolved) {
+                    LogUtil.warn("读取请求体失败[" + bodyBlob + "]: " + e.getMessage());
+                    bodyUnresolved = true;
+                }
+                return "";
+            }
+        }
         return body;
     }
 
     public void setBody(String body) {
+        if (bodyUnresolved && (body == null || body.isEmpty())) {
+            // 写回的是读取失败时显示的空请求体，保留原哈希
+            return;
+        }
         this.body = body;
+        this.bodyBlob = null;
+        this.bodyUnresolved = false;
+    }
+
+    /**
+     * 请求体是否已在内存中（外置请求体读取前为false），非bean属性
+     */
+    public boolean bodyLoaded() {
+        return body != null || bodyBlob == null;
+    }
+
+    @Override
+    public String bodyBlob() {
+        return bodyBlob;
+    }
+
+    @Override
+    public void attachBodyBlob(String hash) {
+        this.bodyBlob = hash;
+        this.body = null;
     }
 
     //---------- 基础字段
@@ -216,6 +282,7 @@ public class ApiInfo {
         this.cookieItems = apiInfo.cookieItems;
         this.authMode = apiInfo.authMode;
         this.authValue = apiInfo.authValue;
+        this.preOps = apiInfo.preOps;
         this.postOps = apiInfo.postOps;
         this.bodyType = guessDefaultBodyType(apiInfo.bodyParams);
         if (!StringUtils.equalsAny(this.bodyType, "form-data", "x-www-form-urlencoded")) {
@@ -225,6 +292,60 @@ public class ApiInfo {
         }
     }
 
+    /**
+     * 深拷贝当前内容（用于在界面线程中取得快照，在后台序列化）；外置请求体尚未读取时只复制哈希，不访问磁盘
+     *
+     * @return 与当前对象不共享可变状态的副本
+     */
+    public ApiInfo snapshot() {
+        // 简化构造方法按空参数生成默认请求体，开销可忽略，其余字段随后直接复制
+        ApiInfo copy = new ApiInfo(name, methodName, url, httpMethod, className);
+        copy.params = ApiParam.copyAll(params);
+        copy.bodyParams = ApiParam.copyAll(bodyParams);
+        copy.paramTypes = paramTypes != null ? new ArrayList<>(paramTypes) : null;
+        copy.description = description;
+        copy.responseParams = ApiParam.copyAll(responseParams);
+        if (headers != null) {
+            copy.headers = new ArrayList<>(headers.size());
+            for (HeadersPanel.HeaderItem h : headers) {
+                copy.headers.add(new HeadersPanel.HeaderItem(h.getName(), h.getValue(), h.getType(), h.getDescription()));
+            }
+        } else {
+            copy.headers = null;
+        }
+        if (cookieItems != null) {
+            copy.cookieItems = new ArrayList<>(cookieItems.size());
+            for (CookiesPanel.CookieItem c : cookieItems) {
+                copy.cookieItems.add(new CookiesPanel.CookieItem(c.getName(), c.getValue(), c.getType(), c.getDescription()));
+            }
+        } else {
+            copy.cookieItems = null;
+        }
+        if (preOps != null) {
+            copy.preOps = new ArrayList<>(preOps.size());
+            for (PreOpPanel.PreOpItem op : preOps) {
+                copy.preOps.add(new PreOpPanel.PreOpItem(op.name, op.type, op.value));
+            }
+        } else {
+            copy.preOps = null;
+        }
+        if (postOps != null) {
+            copy.postOps = new ArrayList<>(postOps.size());
+            for (PostOpPanel.PostOpItem op : postOps) {
+                copy.postOps.add(new PostOpPanel.PostOpItem(op.name, op.type, op.value));
+            }
+        } else {
+            copy.postOps = null;
+        }
+        copy.authMode = authMode;
+        copy.authValue = authValue;
+        copy.bodyType = bodyType;
+        copy.body = body;
+        copy.bodyBlob = bodyBlob;
+        copy.bodyUnresolved = bodyUnresolved;
+        return copy;
+    }
+
     /**
      * 全字段构造方法
      *
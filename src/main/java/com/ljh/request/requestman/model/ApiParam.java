@@ -3,6 +3,7 @@ package com.ljh.request.requestman.model;
 import com.ljh.request.requestman.enums.ParamDataType;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -97,6 +98,37 @@ public class ApiParam implements Serializable {
         this.contentType = contentType;
     }
 
+    /**
+     * 深拷贝（含子参数）
+     *
+     * @return 副本
+     */
+    public ApiParam copy() {
+        ApiParam copy = new ApiParam(name, type, description, dataType, rawCanonicalType, contentType);
+        copy.rawType = rawType;
+        copy.value = value;
+        copy.recursive = recursive;
+        copy.children = copyAll(children);
+        return copy;
+    }
+
+    /**
+     * 深拷贝参数列表
+     *
+     * @param params 参数列表，可为null
+     * @return 副本，原列表为null时返回null
+     */
+    public static List<ApiParam> copyAll(List<ApiParam> params) {
+        if (params == null) {
+            return null;
+        }
+        List<ApiParam> copies = new ArrayList<>(params.size());
+        for (ApiParam param : params) {
+            copies.add(param != null ? param.copy() : null);
+        }
+        return copies;
+    }
+
     /**
      * 获取参数名
      *
@@ -3,7 +3,12 @@ package com.ljh.request.requestman.model;
 import com.ljh.request.requestman.ui.CookiesPanel;
 import com.ljh.request.requestman.ui.HeadersPanel;
 import com.ljh.request.requestman.ui.PostOpPanel;
+import com.ljh.request.requestman.ui.PreOpPanel;
+import com.ljh.request.requestman.util.BodyBlobStore;
+import com.ljh.request.requestman.util.LogUtil;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,9 +19,17 @@ import java.util.Objects;
  * @Description 自定义接口信息数据结构，支持持久化和多种参数类型。
  * @date 2025/06/19 09:36
  */
-public class CustomApiInfo implements Serializable {
+public class CustomApiInfo implements Serializable, BodyBlobStore.Holder {
 
     private static final long serialVersionUID = 6664074267456260461L;
+    /**
+     * 条目标识，保存后不再变化，用于合并其他编辑者对共享文件的修改（旧文件中没有时由存储层生成）
+     */
+    private String id;
+    /**
+     * 条目版本，每次修改并保存时递增，用于检测并发修改冲突
+     */
+    private long version;
     /**
      * 接口名称
      */
@@ -37,10 +50,18 @@ public class CustomApiInfo implements Serializable {
      * 请求体（可选，支持JSON等）
      */
     private String body;
+    /**
+     * 外置存储的请求体哈希，请求体未修改时有效，非bean属性，由存储层读写（随拖拽复制一起序列化）
+     */
+    private String bodyBlob;
     /**
      * 接口描述
      */
     private String description;
+    /**
+     * 前置操作列表（按顺序执行）
+     */
+    private List<PreOpPanel.PreOpItem> preOps;
     /**
      * 后置操作列表
      */
@@ -69,7 +90,26 @@ public class CustomApiInfo implements Serializable {
      * cookie
      */
     private List<CookiesPanel.CookieItem> cookieItems = new ArrayList<>();
-
+    /**
+     * 连接超时（毫秒），0表示使用环境/全局设置
+     */
+    private int connectTimeout;
+    /**
+     * 读取超时（毫秒），0表示使用环境/全局设置
+     */
+    private int readTimeout;
+    /**
+     * 总超时（毫秒），0表示使用环境/全局设置
+     */
+    private int totalTimeout;
+    /**
+     * 延迟加载的详情：列表只加载名称/方法/URL，首次访问其他字段时才解析完整条目；详情加载后置为null
+     */
+    private transient volatile LazyDetails lazyDetails;
+    /**
+     * 外置请求体读取失败，保存时保留原哈希
+     */
+    private transient boolean bodyUnresolved;
 
     public CustomApiInfo() {
     }
@@ -89,18 +129,37 @@ public class CustomApiInfo implements Serializable {
     }
 
     public List<CookiesPanel.CookieItem> getCookieItems() {
+        ensureDetails();
         return cookieItems;
     }
 
     public void setCookieItems(List<CookiesPanel.CookieItem> cookieItems) {
+        ensureDetails();
         this.cookieItems = cookieItems;
     }
 
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
 
     public void setName(String name) {
+        ensureDetails();
         this.name = name;
     }
 
@@ -109,6 +168,7 @@ public class CustomApiInfo implements Serializable {
     }
 
     public void setUrl(String url) {
+        ensureDetails();
         this.url = url;
     }
 
@@ -117,81 +177,258 @@ public class CustomApiInfo implements Serializable {
     }
 
     public void setHttpMethod(String httpMethod) {
+        ensureDetails();
         this.httpMethod = httpMethod;
     }
 
     public List<ApiParam> getParams() {
+        ensureDetails();
         return params;
     }
 
     public void setParams(List<ApiParam> params) {
+        ensureDetails();
         this.params = params;
     }
 
+    /**
+     * 获取请求体，外置请求体在首次访问时读取。读取失败（blob缺失或损坏）时返回空串并保留哈希，
+     * 条目标记为未解析：保存时仍引用原哈希，不会以空请求体覆盖
+     */
     public String getBody() {
+        ensureDetails();
+        if (body == null && bodyBlob != null) {
+            try {
+                body = BodyBlobStore.read(bodyBlob);
+                bodyUnresolved = false;
+            } catch (Exception e) {
+                if (!bodyUnresolved) {
+                    LogUtil.warn("读取请求体失败[" + bodyBlob + "]: " + e.getMessage());
+                    bodyUnresolved = true;
+                }
+                return "";
+            }
+        }
         return body;
     }
 
     public void setBody(String body) {
+        ensureDetails();
+        if (bodyUnresolved && (body == null || body.isEmpty())) {
+            // 写回的是读取失败时显示的空请求体，保留原哈希
+            return;
+        }
         this.body = body;
+        this.bodyBlob = null;
+        this.bodyUnresolved = false;
+    }
+
+    @Override
+    public String bodyBlob() {
+        ensureDetails();
+        return bodyBlob;
+    }
+
+    @Override
+    public void attachBodyBlob(String hash) {
+        ensureDetails();
+        this.bodyBlob = hash;
+        this.body = null;
     }
 
     public String getDescription() {
+        ensureDetails();
         return description;
     }
 
     public void setDescription(String description) {
+        ensureDetails();
         this.description = description;
     }
 
+    public List<PreOpPanel.PreOpItem> getPreOps() {
+        ensureDetails();
+        return preOps;
+    }
+
+    public void setPreOps(List<PreOpPanel.PreOpItem> preOps) {
+        ensureDetails();
+        this.preOps = preOps;
+    }
+
     public List<PostOpPanel.PostOpItem> getPostOps() {
+        ensureDetails();
         return postOps;
     }
 
     public void setPostOps(List<PostOpPanel.PostOpItem> postOps) {
+        ensureDetails();
         this.postOps = postOps;
     }
 
     public String getBodyType() {
+        ensureDetails();
         return bodyType;
     }
 
     public void setBodyType(String bodyType) {
+        ensureDetails();
         this.bodyType = bodyType;
     }
 
     public List<ApiParam> getBodyParams() {
+        ensureDetails();
         return bodyParams;
     }
 
     public void setBodyParams(List<ApiParam> bodyParams) {
+        ensureDetails();
         this.bodyParams = bodyParams;
     }
 
     public int getAuthMode() {
+        ensureDetails();
         return authMode;
     }
 
     public void setAuthMode(int authMode) {
+        ensureDetails();
         this.authMode = authMode;
     }
 
     public String getAuthValue() {
+        ensureDetails();
         return authValue;
     }
 
     public void setAuthValue(String authValue) {
+        ensureDetails();
         this.authValue = authValue;
     }
 
     public List<com.ljh.request.requestman.ui.HeadersPanel.HeaderItem> getHeaders() {
+        ensureDetails();
         return headers;
     }
 
     public void setHeaders(List<com.ljh.request.requestman.ui.HeadersPanel.HeaderItem> headers) {
+        ensureDetails();
         this.headers = headers;
     }
 
+    public int getConnectTimeout() {
+        ensureDetails();
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        ensureDetails();
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        ensureDetails();
+        return readTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        ensureDetails();
+        this.readTimeout = readTimeout;
+    }
+
+    public int getTotalTimeout() {
+        ensureDetails();
+        return totalTimeout;
+    }
+
+    public void setTotalTimeout(int totalTimeout) {
+        ensureDetails();
+        this.totalTimeout = totalTimeout;
+    }
+
+    /**
+     * 详情加载器，由存储层在流式加载列表时挂载
+     */
+    @FunctionalInterface
+    public interface LazyDetails {
+        /**
+         * @return 完整条目
+         */
+        CustomApiInfo load();
+    }
+
+    /**
+     * 创建只含列表元数据的条目，其余字段在首次访问时通过loader加载
+     */
+    public static CustomApiInfo lazy(String name, String url, String httpMethod, LazyDetails loader) {
+        CustomApiInfo info = new CustomApiInfo();
+        info.name = name;
+        info.url = url;
+        info.httpMethod = httpMethod;
+        info.lazyDetails = loader;
+        return info;
+    }
+
+    /**
+     * 用其他编辑者修改后的内容替换本条目：对象本身不变（界面中的引用继续有效），详情在下次访问时通过loader重新加载
+     */
+    public synchronized void reset(String name, String url, String httpMethod, long version, LazyDetails loader) {
+        this.name = name;
+        this.url = url;
+        this.httpMethod = httpMethod;
+        this.version = version;
+        this.lazyDetails = loader;
+    }
+
+    /**
+     * 尚未加载详情时返回加载器，否则返回null（此时条目可能已被修改）
+     */
+    public LazyDetails pendingDetails() {
+        return lazyDetails;
+    }
+
+    private void ensureDetails() {
+        if (lazyDetails == null) {
+            return;
+        }
+        synchronized (this) {
+            LazyDetails loader = lazyDetails;
+            if (loader == null) {
+                return;
+            }
+            CustomApiInfo full = loader.load();
+            if (full == null) {
+                // 加载失败（文件被占用、正在写入等）时保留加载器，下次访问重试；保存时仍按原字节复制
+                return;
+            }
+            params = full.params;
+            body = full.body;
+            bodyBlob = full.bodyBlob;
+            bodyUnresolved = false;
+            description = full.description;
+            preOps = full.preOps;
+            postOps = full.postOps;
+            bodyType = full.bodyType;
+            bodyParams = full.bodyParams;
+            authMode = full.authMode;
+            authValue = full.authValue;
+            headers = full.headers;
+            cookieItems = full.cookieItems;
+            connectTimeout = full.connectTimeout;
+            readTimeout = full.readTimeout;
+            totalTimeout = full.totalTimeout;
+            lazyDetails = null;
+        }
+    }
+
+    /**
+     * Java序列化（如拖拽复制）前加载详情，延迟加载器本身不参与序列化
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ensureDetails();
+        out.defaultWriteObject();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,5 +1,7 @@
 package com.ljh.request.requestman.model;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -26,6 +28,45 @@ public class Environment {
      */
     private String preUrl;
 
+    /**
+     * 连接超时（毫秒），0表示使用全局设置
+     */
+    private int connectTimeout;
+
+    /**
+     * 读取超时（毫秒），0表示使用全局设置
+     */
+    private int readTimeout;
+
+    /**
+     * 总超时（毫秒），0表示使用全局设置
+     */
+    private int totalTimeout;
+
+    /**
+     * 环境变量，作用域介于全局变量与批量运行变量之间
+     */
+    private Map<String, String> variables = new LinkedHashMap<>();
+
+    /**
+     * 全局认证提供者类型（见EnvironmentAuthProvider），为空表示使用项目级静态全局认证
+     */
+    private String authType;
+
+    /**
+     * 认证提供者参数，格式随类型而定，支持{{变量}}
+     */
+    private String authConfig;
+
+    /**
+     * Authorization请求头模板，{{token}}为获取到的令牌，为空时使用"Bearer {{token}}"
+     */
+    private String authHeader;
+
+    /**
+     * 令牌有效期（秒），0表示取响应中的expires_in或默认值
+     */
+    private int authTtl;
 
     // 移除默认环境字段
 
@@ -135,6 +176,69 @@ public class Environment {
         this.updateTime = System.currentTimeMillis();
     }
 
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public int getTotalTimeout() {
+        return totalTimeout;
+    }
+
+    public void setTotalTimeout(int totalTimeout) {
+        this.totalTimeout = totalTimeout;
+    }
+
+    public Map<String, String> getVariables() {
+        return variables;
+    }
+
+    public void setVariables(Map<String, String> variables) {
+        this.variables = variables != null ? variables : new LinkedHashMap<>();
+    }
+
+    public String getAuthType() {
+        return authType;
+    }
+
+    public void setAuthType(String authType) {
+        this.authType = authType;
+    }
+
+    public String getAuthConfig() {
+        return authConfig;
+    }
+
+    public void setAuthConfig(String authConfig) {
+        this.authConfig = authConfig;
+    }
+
+    public String getAuthHeader() {
+        return authHeader;
+    }
+
+    public void setAuthHeader(String authHeader) {
+        this.authHeader = authHeader;
+    }
+
+    public int getAuthTtl() {
+        return authTtl;
+    }
+
+    public void setAuthTtl(int authTtl) {
+        this.authTtl = authTtl;
+    }
 
     // 移除默认环境相关方法
 
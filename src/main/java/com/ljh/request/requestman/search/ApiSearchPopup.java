@@ -21,6 +21,7 @@ import com.intellij.util.ui.AsyncProcessIcon;
 import com.ljh.request.requestman.model.ApiInfo;
 import com.ljh.request.requestman.util.LogUtil;
 import com.ljh.request.requestman.util.PerformanceMonitor;
+import com.ljh.request.requestman.util.ProjectIdentity;
 import com.ljh.request.requestman.util.RequestManBundle;
 import org.apache.commons.lang3.StringUtils;
 
@@ -97,7 +98,7 @@ public class ApiSearchPopup {
     private final Map<String, Icon> methodIconCache = new HashMap<>();
 
     /**
-     * 项目级别的缓存管理器，解决多工程缓存混淆问题
+     * 项目级别的缓存管理器，key为项目标识，解决多工程缓存混淆问题
      */
     private static final ConcurrentHashMap<String, ProjectCache> projectCacheMap = new ConcurrentHashMap<>();
 
@@ -105,7 +106,7 @@ public class ApiSearchPopup {
      * 获取项目缓存
      */
     private ProjectCache getProjectCache() {
-        ProjectCache cache = projectCacheMap.computeIfAbsent(project.getName(), ProjectCache::new);
+        ProjectCache cache = projectCacheMap.computeIfAbsent(ProjectIdentity.id(project), ProjectCache::new);
         return cache;
     }
 
@@ -115,7 +116,7 @@ public class ApiSearchPopup {
      * 清理项目缓存
      */
     public static void clearProjectCache(Project project) {
-        ProjectCache cache = projectCacheMap.remove(project.getName());
+        ProjectCache cache = projectCacheMap.remove(ProjectIdentity.id(project));
         if (cache != null) {
             // 移除缓存时也清理过期项
         }
@@ -131,7 +132,7 @@ public class ApiSearchPopup {
     public ApiSearchPopup(Project project) {
         this.project = project;
         // 创建项目级别的搜索文本框，使用项目名称作为历史记录键
-        this.searchField = new SearchTextField("requestman.apiSearchPopup." + project.getName());
+        this.searchField = new SearchTextField("requestman.apiSearchPopup." + ProjectIdentity.id(project));
         // 弹窗创建时读取设置，决定搜索模式
         String mode = PropertiesComponent.getInstance().getValue("requestman.searchMode", "popup_init");
         isInitSearchMode = "init".equals(mode) || "popup_init".equals(mode);
@@ -1248,7 +1249,7 @@ public class ApiSearchPopup {
      * 带回调的缓存方法，避免轮询等待
      */
     public static void cacheApisOnSettingSavedWithCallback(Project project, boolean includeLibs, Runnable callback) {
-        ProjectCache projectCache = projectCacheMap.computeIfAbsent(project.getName(), ProjectCache::new);
+        ProjectCache projectCache = projectCacheMap.computeIfAbsent(ProjectIdentity.id(project), ProjectCache::new);
 
         if (includeLibs) {
             projectCache.clearAllApisCache();
@@ -19,6 +19,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -62,6 +63,27 @@ public class ProjectApiScanner {
      * @return 接口信息列表
      */
     public static List<ApiInfo> scanApisParallel(Project project, String keyword, int offset, int limit, String mode, com.intellij.psi.search.GlobalSearchScope scope, boolean isScanResult) {
+        return scanApisParallel(project, keyword, offset, limit, mode, scope, isScanResult, new AtomicBoolean(true));
+    }
+
+    /**
+     * 完整扫描范围内的所有接口，用于判断接口是否已被删除。
+     * 扫描超时或有批次未完成时结果不完整，返回null，调用方不能据此认定缺失的接口已删除。
+     *
+     * @param project 当前Project
+     * @param scope   搜索范围（项目/全局）
+     * @return 接口信息列表，扫描未完成时返回null
+     */
+    public static List<ApiInfo> scanApisCompletely(Project project, com.intellij.psi.search.GlobalSearchScope scope) {
+        AtomicBoolean complete = new AtomicBoolean(true);
+        List<ApiInfo> apis = scanApisParallel(project, "", 0, Integer.MAX_VALUE, "URL", scope, false, complete);
+        return complete.get() ? apis : null;
+    }
+
+    /**
+     * 并行扫描，扫描超时或批次失败时把complete置为false
+     */
+    private static List<ApiInfo> scanApisParallel(Project project, String keyword, int offset, int limit, String mode, com.intellij.psi.search.GlobalSearchScope scope, boolean isScanResult, AtomicBoolean complete) {
         // 性能监控
         long monitorStartTime = PerformanceMonitor.startOperation("scanApisParallel");
 
@@ -90,6 +112,7 @@ public class ProjectApiScanner {
             com.intellij.psi.search.searches.AllClassesSearch.search(scope, project).forEach(psiClass -> {
                 // 检查超时
                 if (System.currentTimeMillis() - startTime > timeoutMs) {
+                    complete.set(false);
                     // 显示右下角气泡提示
                     ApplicationManager.getApplication().invokeLater(() -> {
                         com.intellij.notification.NotificationGroupManager.getInstance()
@@ -131,6 +154,7 @@ public class ProjectApiScanner {
             ApplicationManager.getApplication().runReadAction(() -> {
                 for (com.intellij.psi.PsiClass psiClass : controllerClasses) {
                     if (System.currentTimeMillis() - startTime > timeoutMs) {
+                        complete.set(false);
                         break;
                     }
                     processControllerClass(psiClass, keyword, mode, isScanResult, resultQueue, processedCount, targetCount);
@@ -162,6 +186,7 @@ public class ProjectApiScanner {
                             for (com.intellij.psi.PsiClass psiClass : batch) {
                                 // 检查超时
                                 if (System.currentTimeMillis() - startTime > timeoutMs) {
+                                    complete.set(false);
                                                                     // 显示右下角气泡提示
                                 ApplicationManager.getApplication().invokeLater(() -> {
                                     com.intellij.notification.NotificationGroupManager.getInstance()
@@ -189,6 +214,7 @@ public class ProjectApiScanner {
                     try {
                         future.get(Math.max(1, (timeoutMs - (System.currentTimeMillis() - startTime)) / futures.size()), TimeUnit.MILLISECONDS);
                     } catch (Exception e) {
+                        complete.set(false);
                         future.cancel(true);
                     }
                 }
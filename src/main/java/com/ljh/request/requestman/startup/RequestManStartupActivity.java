@@ -13,9 +13,14 @@ import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.ljh.request.requestman.search.ApiSearchPopup;
 import com.ljh.request.requestman.ui.RequestManPanel;
+import com.ljh.request.requestman.util.ApiEditStore;
+import com.ljh.request.requestman.util.CacheGarbageCollector;
+import com.ljh.request.requestman.util.CustomApiFileWatcher;
 import com.ljh.request.requestman.util.LogUtil;
+import com.ljh.request.requestman.util.PersistenceQueue;
 import com.ljh.request.requestman.util.PojoFieldScanner;
 import com.ljh.request.requestman.util.ProjectHistoryCleaner;
+import com.ljh.request.requestman.util.ProjectSettingsManager;
 import kotlin.Unit;
 import kotlin.coroutines.Continuation;
 import org.jetbrains.annotations.NotNull;
@@ -57,6 +62,8 @@ public class RequestManStartupActivity implements ProjectActivity {
                             LogUtil.info("[RequestMan] 项目 " + project.getName() + " 正在关闭，清理缓存");
                             ApiSearchPopup.clearProjectCache(project);
                             ProjectHistoryCleaner.clearProjectHistory(project);
+                            // 写入尚在延迟中的变量修改
+                            ProjectSettingsManager.flushProjectVariables(project);
                             // 项目关闭时检查是否有未保存的更改
                             RequestManPanel requestManPanel = RequestManPanel.findRequestManPanel(project);
                             if (requestManPanel != null) {
@@ -64,6 +71,11 @@ public class RequestManStartupActivity implements ProjectActivity {
                                 // 清理基线缓存，防止内存泄漏
                                 requestManPanel.clearBaselines();
                             }
+                            // 未保存更改处理完毕后写入延迟中的保存，再关闭接口编辑存储
+                            CustomApiFileWatcher.unregister(project);
+                            PersistenceQueue.flush();
+                            ApiEditStore.closeProject(project);
+                            ProjectSettingsManager.closeProject(project);
                             // 清理接口实现缓存，防止内存泄漏
                             PojoFieldScanner.clearImplementationCache();
                         }
@@ -75,6 +87,10 @@ public class RequestManStartupActivity implements ProjectActivity {
         ApplicationManager.getApplication().executeOnPooledThread(() -> {
             try {
                 ProjectHistoryCleaner.clearProjectHistory(project);
+                // 记录打开时间并清理长期未打开的项目数据
+                ProjectHistoryCleaner.onProjectOpened(project);
+                // 延迟在后台清理已删除接口留下的编辑缓存
+                CacheGarbageCollector.schedule(project);
                 // 检查是否启用自动扫描
                 String searchMode = PropertiesComponent.getInstance().getValue("requestman.searchMode", "init");
                 if (!"init".equals(searchMode)) {
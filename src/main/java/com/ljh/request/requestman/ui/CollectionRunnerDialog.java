@@ -0,0 +1,260 @@
+package com.ljh.request.requestman.ui;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.ljh.request.requestman.model.CustomApiInfo;
+import com.ljh.request.requestman.util.AssertionResult;
+import com.ljh.request.requestman.util.CollectionRunner;
+import com.ljh.request.requestman.util.LogUtil;
+import com.ljh.request.requestman.util.RequestManBundle;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量运行对话框：调整执行顺序、并行度与迭代数据，运行后以表格汇总每个步骤的耗时与结果。
+ *
+ * @author leijianhui
+ * @Description 自定义接口批量运行对话框，展示运行汇总表。
+ * @date 2025/09/08 11:00
+ */
+public class CollectionRunnerDialog extends DialogWrapper {
+
+    private final Project project;
+    private final DefaultListModel<CustomApiInfo> orderModel = new DefaultListModel<>();
+    private final JList<CustomApiInfo> orderList = new JList<>(orderModel);
+    private final JSpinner parallelismSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 64, 1));
+    private final JTextField dataFileField = new JTextField();
+    private final JCheckBox stopOnFailureCheckBox = new JCheckBox(RequestManBundle.message("runner.stopOnFailure"));
+    private final JCheckBox promoteCheckBox = new JCheckBox(RequestManBundle.message("runner.promote"));
+    private final JButton runButton = new JButton(RequestManBundle.message("runner.run"));
+    private final JProgressBar progressBar = new JProgressBar();
+    private final JLabel summaryLabel = new JLabel(" ");
+    private final DefaultTableModel resultModel;
+
+    /**
+     * 当前运行中的运行器，未运行时为null
+     */
+    private volatile CollectionRunner runner;
+
+    /**
+     * 构造函数
+     *
+     * @param project 项目对象
+     * @param apis    待运行的接口（初始顺序）
+     */
+    public CollectionRunnerDialog(Project project, List<CustomApiInfo> apis) {
+        super(project, false);
+        this.project = project;
+        for (CustomApiInfo api : apis) {
+            orderModel.addElement(api);
+        }
+        resultModel = new DefaultTableModel(new Object[]{
+                RequestManBundle.message("runner.col.iteration"),
+                RequestManBundle.message("runner.col.name"),
+                RequestManBundle.message("runner.col.method"),
+                RequestManBundle.message("runner.col.status"),
+                RequestManBundle.message("runner.col.time"),
+                RequestManBundle.message("runner.col.result"),
+                RequestManBundle.message("runner.col.message")}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        setTitle(RequestManBundle.message("runner.title"));
+        setModal(false);
+        init();
+    }
+
+    @Override
+    protected JComponent createCenterPanel() {
+        JPanel panel = new JPanel(new BorderLayout(8, 8));
+
+        // 左侧：执行顺序
+        orderList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        JPanel orderPanel = new JPanel(new BorderLayout(4, 4));
+        orderPanel.setBorder(BorderFactory.createTitledBorder(RequestManBundle.message("runner.order")));
+        orderPanel.add(new JBScrollPane(orderList), BorderLayout.CENTER);
+        JPanel moveButtons = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+        JButton upButton = new JButton(RequestManBundle.message("runner.moveUp"));
+        JButton downButton = new JButton(RequestManBundle.message("runner.moveDown"));
+        upButton.addActionListener(e -> moveSelected(-1));
+        downButton.addActionListener(e -> moveSelected(1));
+        moveButtons.add(upButton);
+        moveButtons.add(downButton);
+        orderPanel.add(moveButtons, BorderLayout.SOUTH);
+        orderPanel.setPreferredSize(new Dimension(240, 300));
+        panel.add(orderPanel, BorderLayout.WEST);
+
+        // 顶部：运行选项
+        JPanel optionsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+        optionsPanel.add(new JLabel(RequestManBundle.message("runner.parallelism")));
+        optionsPanel.add(parallelismSpinner);
+        optionsPanel.add(new JLabel(RequestManBundle.message("runner.dataFile")));
+        dataFileField.setColumns(18);
+        optionsPanel.add(dataFileField);
+        JButton browseButton = new JButton("...");
+        browseButton.addActionListener(e -> chooseDataFile());
+        optionsPanel.add(browseButton);
+        optionsPanel.add(stopOnFailureCheckBox);
+        promoteCheckBox.setToolTipText(RequestManBundle.message("runner.promote.tip"));
+        optionsPanel.add(promoteCheckBox);
+        runButton.addActionListener(e -> {
+            if (runner != null) {
+                runner.cancel();
+            } else {
+                startRun();
+            }
+        });
+        optionsPanel.add(runButton);
+
+        // 中部：结果表
+        JPanel resultPanel = new JPanel(new BorderLayout(4, 4));
+        resultPanel.add(optionsPanel, BorderLayout.NORTH);
+        JBTable resultTable = new JBTable(resultModel);
+        resultPanel.add(new JBScrollPane(resultTable), BorderLayout.CENTER);
+        JPanel statusPanel = new JPanel(new BorderLayout(8, 0));
+        progressBar.setStringPainted(true);
+        statusPanel.add(progressBar, BorderLayout.CENTER);
+        statusPanel.add(summaryLabel, BorderLayout.SOUTH);
+        resultPanel.add(statusPanel, BorderLayout.SOUTH);
+        panel.add(resultPanel, BorderLayout.CENTER);
+
+        panel.setPreferredSize(new Dimension(960, 520));
+        return panel;
+    }
+
+    @Override
+    protected Action[] createActions() {
+        return new Action[]{getCancelAction()};
+    }
+
+    @Override
+    public void doCancelAction() {
+        CollectionRunner current = runner;
+        if (current != null) {
+            current.cancel();
+        }
+        super.doCancelAction();
+    }
+
+    /**
+     * 上移/下移选中接口
+     */
+    private void moveSelected(int delta) {
+        int index = orderList.getSelectedIndex();
+        int target = index + delta;
+        if (index < 0 || target < 0 || target >= orderModel.getSize()) {
+            return;
+        }
+        CustomApiInfo api = orderModel.remove(index);
+        orderModel.add(target, api);
+        orderList.setSelectedIndex(target);
+    }
+
+    /**
+     * 选择CSV/JSON迭代数据文件
+     */
+    private void chooseDataFile() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV / JSON", "csv", "json"));
+        if (chooser.showOpenDialog(getContentPanel()) == JFileChooser.APPROVE_OPTION) {
+            dataFileField.setText(chooser.getSelectedFile().getAbsolutePath());
+        }
+    }
+
+    /**
+     * 开始运行：后台执行，逐步回填结果表
+     */
+    private void startRun() {
+        List<Map<String, String>> iterations = new ArrayList<>();
+        String dataFile = dataFileField.getText().trim();
+        if (!dataFile.isEmpty()) {
+            try {
+                iterations = CollectionRunner.loadIterationData(new File(dataFile));
+            } catch (Exception ex) {
+                Messages.showErrorDialog(getContentPanel(), RequestManBundle.message("runner.dataFile.fail") + ex.getMessage(),
+                        RequestManBundle.message("common.error"));
+                return;
+            }
+        }
+        List<CustomApiInfo> ordered = new ArrayList<>();
+        for (int i = 0; i < orderModel.getSize(); i++) {
+            ordered.add(orderModel.get(i));
+        }
+        CollectionRunner current = new CollectionRunner(project, ordered, (Integer) parallelismSpinner.getValue(),
+                iterations, stopOnFailureCheckBox.isSelected());
+        runner = current;
+        resultModel.setRowCount(0);
+        progressBar.setMaximum(current.getTotalSteps());
+        progressBar.setValue(0);
+        summaryLabel.setText(" ");
+        runButton.setText(RequestManBundle.message("runner.stop"));
+
+        boolean promote = promoteCheckBox.isSelected();
+        long start = System.currentTimeMillis();
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            List<CollectionRunner.StepResult> collected = new ArrayList<>();
+            try {
+                collected = current.run((result, completed, total) -> ApplicationManager.getApplication().invokeLater(() -> {
+                    resultModel.addRow(new Object[]{
+                            result.getIteration(),
+                            result.getApi().getName(),
+                            result.getApi().getHttpMethod(),
+                            result.getStatus() > 0 ? result.getStatus() : "-",
+                            result.getDurationMs(),
+                            result.isPassed() ? RequestManBundle.message("runner.pass")
+                                    : result.isSkipped() ? RequestManBundle.message("runner.skipped") : RequestManBundle.message("runner.fail"),
+                            result.getMessage()});
+                    progressBar.setValue(completed);
+                }));
+            } catch (Exception ex) {
+                LogUtil.warn("批量运行失败: " + ex.getMessage());
+            }
+            List<CollectionRunner.StepResult> results = collected;
+            if (promote) {
+                current.promoteToGlobal();
+                ApplicationManager.getApplication().invokeLater(VariablePanel::reloadIfExists);
+            }
+            long cost = System.currentTimeMillis() - start;
+            long passed = results.stream().filter(CollectionRunner.StepResult::isPassed).count();
+            long skipped = results.stream().filter(CollectionRunner.StepResult::isSkipped).count();
+            long failed = results.size() - passed - skipped;
+            // 耗时聚合断言（p95等）按接口汇总求值
+            List<AssertionResult> aggregates = CollectionRunner.evaluateAggregates(results);
+            long aggregatePassed = aggregates.stream().filter(AssertionResult::isPassed).count();
+            ApplicationManager.getApplication().invokeLater(() -> {
+                for (AssertionResult aggregate : aggregates) {
+                    resultModel.addRow(new Object[]{
+                            RequestManBundle.message("runner.aggregate"),
+                            aggregate.getName(),
+                            "",
+                            "-",
+                            aggregate.getActual() != null ? aggregate.getActual() : "-",
+                            aggregate.isPassed() ? RequestManBundle.message("runner.pass") : RequestManBundle.message("runner.fail"),
+                            aggregate.getExpression() + (aggregate.isPassed() ? "" : " (" + aggregate.getMessage() + ")")});
+                }
+                String summary = RequestManBundle.message("runner.summary", results.size(), passed, failed, cost);
+                if (skipped > 0) {
+                    summary += RequestManBundle.message("runner.summary.skipped", skipped);
+                }
+                if (!aggregates.isEmpty()) {
+                    summary += RequestManBundle.message("runner.summary.aggregate", aggregatePassed, aggregates.size());
+                }
+                summaryLabel.setText(summary);
+                runButton.setText(RequestManBundle.message("runner.run"));
+                runner = null;
+            });
+        });
+    }
+}
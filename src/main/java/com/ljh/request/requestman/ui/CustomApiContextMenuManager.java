@@ -32,6 +32,11 @@ public class CustomApiContextMenuManager {
         copyMenuItem.addActionListener(e -> copySelectedCustomApis(requestManPanel, project));
         contextMenu.add(copyMenuItem);
 
+        // 批量运行：多选时运行选中项，否则运行全部
+        JMenuItem runMenuItem = new JMenuItem(RequestManBundle.message("contextmenu.run"));
+        runMenuItem.addActionListener(e -> runCustomApis(requestManPanel, project));
+        contextMenu.add(runMenuItem);
+
         // 导入菜单项
         JMenuItem importMenuItem = new JMenuItem(RequestManBundle.message("contextmenu.import"));
         importMenuItem.addActionListener(e -> importCustomApis(requestManPanel, project));
@@ -87,6 +92,26 @@ public class CustomApiContextMenuManager {
         });
     }
 
+    /**
+     * 打开批量运行对话框：选中多个接口时运行选中项，否则按列表顺序运行全部
+     */
+    private static void runCustomApis(RequestManPanel requestManPanel, Project project) {
+        JList<CustomApiInfo> customApiList = requestManPanel.getCustomApiList();
+        DefaultListModel<CustomApiInfo> customApiListModel = requestManPanel.getCustomApiListModel();
+        List<CustomApiInfo> apis = new ArrayList<>();
+        if (customApiList.getSelectedIndices().length > 1) {
+            apis.addAll(customApiList.getSelectedValuesList());
+        } else {
+            for (int i = 0; i < customApiListModel.getSize(); i++) {
+                apis.add(customApiListModel.getElementAt(i));
+            }
+        }
+        if (apis.isEmpty()) {
+            return;
+        }
+        new CollectionRunnerDialog(project, apis).show();
+    }
+
     /**
      * 复制选中的自定义接口到列表末尾，名称拼接 " Copy"
      */
@@ -110,6 +135,13 @@ public class CustomApiContextMenuManager {
                     name = "";
                 }
                 dup.setName(name + " Copy");
+                if (src.bodyBlob() != null) {
+                    // 外置请求体未修改（或读取失败）时沿用原哈希，避免读取失败的空请求体被保存到副本
+                    dup.attachBodyBlob(src.bodyBlob());
+                }
+                // 副本作为新条目保存，由存储层分配标识
+                dup.setId(null);
+                dup.setVersion(0);
                 copies.add(dup);
             } catch (Exception ex) {
                 LogUtil.warn("复制自定义接口失败: " + ex.getMessage());
@@ -6,6 +6,7 @@ import com.intellij.openapi.ui.Messages;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.table.JBTable;
 import com.ljh.request.requestman.model.Environment;
+import com.ljh.request.requestman.util.EnvironmentAuthProvider;
 import com.ljh.request.requestman.util.ProjectSettingsManager;
 import com.ljh.request.requestman.util.RequestManBundle;
 
@@ -15,7 +16,9 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 /**
@@ -317,6 +320,14 @@ public class EnvironmentManagerPanel extends JPanel {
         private final Environment environment;
         private final JTextField nameField;
         private final JTextField preUrlField;
+        private final JSpinner connectTimeoutSpinner;
+        private final JSpinner readTimeoutSpinner;
+        private final JSpinner totalTimeoutSpinner;
+        private final JTextArea variablesArea;
+        private final JComboBox<String> authTypeCombo;
+        private final JTextField authConfigField;
+        private final JTextField authHeaderField;
+        private final JSpinner authTtlSpinner;
 
         public EnvironmentDialog(Project project, Environment environment) {
             super(project);
@@ -325,6 +336,17 @@ public class EnvironmentManagerPanel extends JPanel {
 
             this.nameField = new JTextField();
             this.preUrlField = new JTextField();
+            // 超时单位为毫秒，0表示使用全局设置
+            this.connectTimeoutSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 3600000, 1000));
+            this.readTimeoutSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 3600000, 1000));
+            this.totalTimeoutSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 3600000, 1000));
+            // 环境变量，每行一个 name=value
+            this.variablesArea = new JTextArea(5, 30);
+            // 全局认证提供者，参数格式随类型变化
+            this.authTypeCombo = new JComboBox<>(EnvironmentAuthProvider.TYPES);
+            this.authConfigField = new JTextField();
+            this.authHeaderField = new JTextField();
+            this.authTtlSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 31536000, 60));
 
             setTitle(environment == null ? RequestManBundle.message("env.dialog.add.title") : RequestManBundle.message("env.dialog.edit.title"));
             setOKButtonText(RequestManBundle.message("common.ok"));
@@ -367,20 +389,98 @@ public class EnvironmentManagerPanel extends JPanel {
             gbc.weightx = 1.0;
             panel.add(preUrlField, gbc);
 
+            // 超时设置
+            addRow(panel, gbc, 2, RequestManBundle.message("env.timeout.connect"), connectTimeoutSpinner);
+            addRow(panel, gbc, 3, RequestManBundle.message("env.timeout.read"), readTimeoutSpinner);
+            addRow(panel, gbc, 4, RequestManBundle.message("env.timeout.total"), totalTimeoutSpinner);
+            gbc.gridx = 1;
+            gbc.gridy = 5;
+            JLabel timeoutHint = new JLabel(RequestManBundle.message("env.timeout.hint"));
+            timeoutHint.setForeground(Color.GRAY);
+            panel.add(timeoutHint, gbc);
+
+            // 环境变量
+            gbc.gridx = 0;
+            gbc.gridy = 6;
+            gbc.fill = GridBagConstraints.NONE;
+            gbc.weightx = 0.0;
+            gbc.anchor = GridBagConstraints.NORTHWEST;
+            panel.add(new JLabel(RequestManBundle.message("env.variables") + ":"), gbc);
+            gbc.gridx = 1;
+            gbc.fill = GridBagConstraints.BOTH;
+            gbc.weightx = 1.0;
+            variablesArea.setToolTipText(RequestManBundle.message("env.variables.tip"));
+            panel.add(new JBScrollPane(variablesArea), gbc);
+            gbc.anchor = GridBagConstraints.WEST;
+
+            // 全局认证提供者
+            authTypeCombo.setRenderer(new DefaultListCellRenderer() {
+                @Override
+                public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                    String type = value == null || value.toString().isEmpty() ? "NONE" : value.toString();
+                    return super.getListCellRendererComponent(list, RequestManBundle.message("env.auth.type." + type), index, isSelected, cellHasFocus);
+                }
+            });
+            authTypeCombo.addActionListener(e -> updateAuthFields());
+            addRow(panel, gbc, 7, RequestManBundle.message("env.auth.type"), authTypeCombo);
+            addRow(panel, gbc, 8, RequestManBundle.message("env.auth.config"), authConfigField);
+            authHeaderField.setToolTipText(RequestManBundle.message("env.auth.header.tip"));
+            addRow(panel, gbc, 9, RequestManBundle.message("env.auth.header"), authHeaderField);
+            authTtlSpinner.setToolTipText(RequestManBundle.message("env.auth.ttl.tip"));
+            addRow(panel, gbc, 10, RequestManBundle.message("env.auth.ttl"), authTtlSpinner);
+
             // 设置文本框的首选大小
             nameField.setPreferredSize(new Dimension(300, 25));
             preUrlField.setPreferredSize(new Dimension(300, 25));
 
-            panel.setPreferredSize(new Dimension(450, 150));
+            panel.setPreferredSize(new Dimension(450, 500));
             panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
             return panel;
         }
 
+        private void addRow(JPanel panel, GridBagConstraints gbc, int row, String label, JComponent component) {
+            gbc.gridx = 0;
+            gbc.gridy = row;
+            gbc.fill = GridBagConstraints.NONE;
+            gbc.weightx = 0.0;
+            panel.add(new JLabel(label + ":"), gbc);
+            gbc.gridx = 1;
+            gbc.fill = GridBagConstraints.HORIZONTAL;
+            gbc.weightx = 1.0;
+            panel.add(component, gbc);
+        }
+
+        /**
+         * 按认证类型切换参数提示，未配置提供者时禁用参数输入
+         */
+        private void updateAuthFields() {
+            String type = (String) authTypeCombo.getSelectedItem();
+            boolean enabled = type != null && !type.isEmpty();
+            authConfigField.setEnabled(enabled);
+            authHeaderField.setEnabled(enabled);
+            authTtlSpinner.setEnabled(enabled);
+            authConfigField.setToolTipText(enabled ? RequestManBundle.message("env.auth.hint." + type) : null);
+        }
+
         private void initFields() {
             if (environment != null) {
                 nameField.setText(environment.getName());
                 preUrlField.setText(environment.getPreUrl());
+                connectTimeoutSpinner.setValue(environment.getConnectTimeout());
+                readTimeoutSpinner.setValue(environment.getReadTimeout());
+                totalTimeoutSpinner.setValue(environment.getTotalTimeout());
+                StringBuilder vars = new StringBuilder();
+                environment.getVariables().forEach((k, v) -> vars.append(k).append('=').append(v).append('\n'));
+                variablesArea.setText(vars.toString());
+                authTypeCombo.setSelectedItem(environment.getAuthType() != null ? environment.getAuthType() : EnvironmentAuthProvider.TYPE_NONE);
+                authConfigField.setText(environment.getAuthConfig());
+                authHeaderField.setText(environment.getAuthHeader());
+                authTtlSpinner.setValue(environment.getAuthTtl());
+            }
+            if (authHeaderField.getText().isEmpty()) {
+                authHeaderField.setText(EnvironmentAuthProvider.DEFAULT_HEADER);
             }
+            updateAuthFields();
         }
 
         @Override
@@ -402,6 +502,12 @@ public class EnvironmentManagerPanel extends JPanel {
                 return;
             }
 
+            String authError = EnvironmentAuthProvider.validate((String) authTypeCombo.getSelectedItem(), authConfigField.getText().trim());
+            if (authError != null) {
+                Messages.showErrorDialog(this.getContentPane(), authError, RequestManBundle.message("common.error"));
+                return;
+            }
+
             super.doOKAction();
         }
 
@@ -411,6 +517,7 @@ public class EnvironmentManagerPanel extends JPanel {
                 String name = nameField.getText().trim();
                 String preUrl = preUrlField.getText().trim();
                 Environment newEnv = new Environment(name, preUrl);
+                applyTimeouts(newEnv);
                 return newEnv;
             } else {
                 // 更新环境
@@ -418,8 +525,27 @@ public class EnvironmentManagerPanel extends JPanel {
                 String preUrl = preUrlField.getText().trim();
                 environment.setName(name);
                 environment.setPreUrl(preUrl);
+                applyTimeouts(environment);
                 return environment;
             }
         }
+
+        private void applyTimeouts(Environment env) {
+            env.setConnectTimeout((Integer) connectTimeoutSpinner.getValue());
+            env.setReadTimeout((Integer) readTimeoutSpinner.getValue());
+            env.setTotalTimeout((Integer) totalTimeoutSpinner.getValue());
+            Map<String, String> variables = new LinkedHashMap<>();
+            for (String line : variablesArea.getText().split("\\r?\\n")) {
+                int idx = line.indexOf('=');
+                if (idx > 0 && !line.substring(0, idx).trim().isEmpty()) {
+                    variables.put(line.substring(0, idx).trim(), line.substring(idx + 1));
+                }
+            }
+            env.setVariables(variables);
+            env.setAuthType((String) authTypeCombo.getSelectedItem());
+            env.setAuthConfig(authConfigField.getText().trim());
+            env.setAuthHeader(authHeaderField.getText().trim());
+            env.setAuthTtl((Integer) authTtlSpinner.getValue());
+        }
     }
 } 
\ No newline at end of file
@@ -1,12 +1,20 @@
 package com.ljh.request.requestman.ui;
 
+import cn.hutool.json.JSONUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
 import com.ljh.request.requestman.util.JsonPathExtractor;
-import com.ljh.request.requestman.util.JsonPathExtractor.JsonPathField;
+import com.ljh.request.requestman.util.JsonPathNode;
 import com.ljh.request.requestman.util.RequestManBundle;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeCellRenderer;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
@@ -17,17 +25,56 @@ import java.util.regex.Pattern;
 
 /**
  * @author leijianhui
- * @Description JSONPath提取器对话框，支持从JSON中提取字段路径。
+ * @Description JSONPath提取器对话框，支持从JSON中提取字段路径。字段以按需展开的树展示，
+ * 同构数组折叠为[*]结构节点，大数组分页，支持按路径增量搜索。
+ * 格式化、解析、搜索与提取都在后台线程执行，结果通过invokeLater回到EDT更新界面。
  * @date 2025/01/29 16:30
  */
 public class JsonPathExtractorDialog extends JDialog {
 
+    /**
+     * JSON文本变化后重新解析的延迟（毫秒）
+     */
+    private static final int PARSE_DELAY_MS = 300;
+
+    /**
+     * 路径搜索最多展示的结果数
+     */
+    private static final int SEARCH_LIMIT = 200;
+
+    private static final String CARD_TREE = "tree";
+    private static final String CARD_SEARCH = "search";
+
     private final JTextArea jsonTextArea;
     private final JTextField jsonPathField;
     private final JTextArea resultArea;
-    private final JTable fieldsTable;
-    private final DefaultTableModel tableModel;
+    private final JTree fieldsTree;
+    private final DefaultTreeModel treeModel;
+    private final JTextField searchField;
+    private final DefaultListModel<JsonPathNode> searchListModel;
+    private final JList<JsonPathNode> searchList;
+    private final JPanel fieldsCards;
+    private final Timer parseTimer;
+
+    /**
+     * 当前解析结果的根节点；解析失败时为null
+     */
+    private JsonPathNode rootNode;
+
+    /**
+     * 解析序号，丢弃过期的后台解析结果
+     */
+    private int parseGeneration;
 
+    /**
+     * 搜索序号，丢弃过期的后台搜索结果
+     */
+    private int searchGeneration;
+
+    /**
+     * 提取序号，丢弃过期的后台提取结果
+     */
+    private int extractGeneration;
 
     private String selectedJsonPath = "";
     private boolean confirmed = false;
@@ -40,25 +87,24 @@ public class JsonPathExtractorDialog extends JDialog {
         jsonPathField = new JTextField();
         resultArea = new JTextArea();
 
-        // 设置表格
-        String[] columnNames = {RequestManBundle.message("jsonpath.col.path"), RequestManBundle.message("jsonpath.col.type"), RequestManBundle.message("jsonpath.col.value")};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-        fieldsTable = new JTable(tableModel);
+        // 字段树（按需展开）与路径搜索结果
+        treeModel = new DefaultTreeModel(new DefaultMutableTreeNode());
+        fieldsTree = new JTree(treeModel);
+        searchField = new JTextField();
+        searchListModel = new DefaultListModel<>();
+        searchList = new JList<>(searchListModel);
+        fieldsCards = new JPanel(new CardLayout());
+        parseTimer = new Timer(PARSE_DELAY_MS, e -> parseJson());
+        parseTimer.setRepeats(false);
 
         // 初始化界面
         initComponents();
         initLayout();
         initEvents();
 
-        // 设置初始JSON
+        // 设置初始JSON（后台格式化并解析）
         if (initialJson != null && !initialJson.trim().isEmpty()) {
-            jsonTextArea.setText(initialJson);
-            parseJson();
+            loadInitialJson(initialJson);
         }
 
         // 设置对话框属性
@@ -85,11 +131,28 @@ public class JsonPathExtractorDialog extends JDialog {
         resultArea.setLineWrap(true);
         resultArea.setWrapStyleWord(true);
 
-        // 表格设置
-        fieldsTable.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
-        fieldsTable.setRowHeight(20);
-        fieldsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-
+        // 字段树设置
+        fieldsTree.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+        fieldsTree.setRootVisible(false);
+        fieldsTree.setShowsRootHandles(true);
+        fieldsTree.setToggleClickCount(0);
+        fieldsTree.setCellRenderer(new JsonPathNodeRenderer());
+        ToolTipManager.sharedInstance().registerComponent(fieldsTree);
+
+        // 搜索结果列表设置
+        searchList.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+        searchList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        searchList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                if (value instanceof JsonPathNode) {
+                    setText(describe((JsonPathNode) value, true));
+                }
+                return this;
+            }
+        });
+        searchField.setToolTipText(RequestManBundle.message("jsonpath.search.tip"));
 
     }
 
@@ -146,9 +209,15 @@ public class JsonPathExtractorDialog extends JDialog {
         JPanel fieldsPanel = new JPanel(new BorderLayout(5, 5));
         fieldsPanel.setBorder(BorderFactory.createTitledBorder(RequestManBundle.message("jsonpath.fields.title")));
 
-        JScrollPane tableScrollPane = new JScrollPane(fieldsTable);
-        tableScrollPane.setPreferredSize(new Dimension(0, 200));
-        fieldsPanel.add(tableScrollPane, BorderLayout.CENTER);
+        JPanel searchPanel = new JPanel(new BorderLayout(5, 0));
+        searchPanel.add(new JLabel(RequestManBundle.message("jsonpath.search")), BorderLayout.WEST);
+        searchPanel.add(searchField, BorderLayout.CENTER);
+        fieldsPanel.add(searchPanel, BorderLayout.NORTH);
+
+        fieldsCards.add(new JScrollPane(fieldsTree), CARD_TREE);
+        fieldsCards.add(new JScrollPane(searchList), CARD_SEARCH);
+        fieldsCards.setPreferredSize(new Dimension(0, 200));
+        fieldsPanel.add(fieldsCards, BorderLayout.CENTER);
 
         // 按钮面板
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
@@ -159,9 +228,11 @@ public class JsonPathExtractorDialog extends JDialog {
         buttonPanel.add(cancelButton);
 
         // 组装界面
+        JPanel southPanel = new JPanel(new BorderLayout(5, 5));
+        southPanel.add(fieldsPanel, BorderLayout.CENTER);
+        southPanel.add(buttonPanel, BorderLayout.SOUTH);
         add(mainPanel, BorderLayout.CENTER);
-        add(fieldsPanel, BorderLayout.SOUTH);
-        add(buttonPanel, BorderLayout.SOUTH);
+        add(southPanel, BorderLayout.SOUTH);
 
         // 设置边距
         ((JPanel) getContentPane()).setBorder(new EmptyBorder(10, 10, 10, 10));
@@ -171,21 +242,51 @@ public class JsonPathExtractorDialog extends JDialog {
      * 初始化事件
      */
     private void initEvents() {
-        // JSON文本变化时重新解析
+        // JSON文本变化时延迟重新解析，连续输入只解析一次
         jsonTextArea.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
             @Override
             public void insertUpdate(javax.swing.event.DocumentEvent e) {
-                parseJson();
+                parseTimer.restart();
             }
 
             @Override
             public void removeUpdate(javax.swing.event.DocumentEvent e) {
-                parseJson();
+                parseTimer.restart();
             }
 
             @Override
             public void changedUpdate(javax.swing.event.DocumentEvent e) {
-                parseJson();
+                parseTimer.restart();
+            }
+        });
+
+        // 路径增量搜索
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                updateSearch();
+            }
+
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                updateSearch();
+            }
+
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                updateSearch();
+            }
+        });
+
+        // 展开时才创建子节点
+        fieldsTree.addTreeWillExpandListener(new TreeWillExpandListener() {
+            @Override
+            public void treeWillExpand(TreeExpansionEvent event) {
+                loadChildren((DefaultMutableTreeNode) event.getPath().getLastPathComponent());
+            }
+
+            @Override
+            public void treeWillCollapse(TreeExpansionEvent event) {
             }
         });
 
@@ -207,17 +308,34 @@ public class JsonPathExtractorDialog extends JDialog {
             }
         });
 
-        // 表格双击事件
-        fieldsTable.addMouseListener(new MouseAdapter() {
+        // 字段树双击选择路径（分页节点双击展开）
+        fieldsTree.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                if (e.getClickCount() == 2) {
-                    int row = fieldsTable.getSelectedRow();
-                    if (row >= 0) {
-                        String path = (String) tableModel.getValueAt(row, 0);
-                        jsonPathField.setText(path);
-                        selectedJsonPath = path;
-                    }
+                if (e.getClickCount() != 2) {
+                    return;
+                }
+                TreePath treePath = fieldsTree.getPathForLocation(e.getX(), e.getY());
+                if (treePath == null) {
+                    return;
+                }
+                Object userObject = ((DefaultMutableTreeNode) treePath.getLastPathComponent()).getUserObject();
+                if (userObject instanceof JsonPathNode && !((JsonPathNode) userObject).isPage()) {
+                    selectPath(((JsonPathNode) userObject).getPath());
+                } else if (fieldsTree.isExpanded(treePath)) {
+                    fieldsTree.collapsePath(treePath);
+                } else {
+                    fieldsTree.expandPath(treePath);
+                }
+            }
+        });
+
+        // 搜索结果双击选择路径
+        searchList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2 && searchList.getSelectedValue() != null) {
+                    selectPath(searchList.getSelectedValue().getPath());
                 }
             }
         });
@@ -268,12 +386,18 @@ public class JsonPathExtractorDialog extends JDialog {
      * 查找按钮
      */
     private JButton findButton(String text) {
-        for (Component comp : getContentPane().getComponents()) {
+        return findButton(getContentPane(), text);
+    }
+
+    private static JButton findButton(Container container, String text) {
+        for (Component comp : container.getComponents()) {
+            if (comp instanceof JButton && text.equals(((JButton) comp).getText())) {
+                return (JButton) comp;
+            }
             if (comp instanceof JPanel) {
-                for (Component subComp : ((JPanel) comp).getComponents()) {
-                    if (subComp instanceof JButton && text.equals(((JButton) subComp).getText())) {
-                        return (JButton) subComp;
-                    }
+                JButton button = findButton((Container) comp, text);
+                if (button != null) {
+                    return button;
                 }
             }
         }
@@ -281,34 +405,178 @@ public class JsonPathExtractorDialog extends JDialog {
     }
 
     /**
-     * 解析JSON并更新字段列表
+     * 选中路径并填入表达式输入框
+     */
+    private void selectPath(String path) {
+        jsonPathField.setText(path);
+        selectedJsonPath = path;
+    }
+
+    /**
+     * 后台格式化并解析初始JSON，完成前文本区不可编辑
+     */
+    private void loadInitialJson(String initialJson) {
+        int generation = ++parseGeneration;
+        jsonTextArea.setEnabled(false);
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            String json;
+            try {
+                json = JSONUtil.toJsonPrettyStr(initialJson);
+            } catch (Exception e) {
+                // 不是合法JSON时按原文展示
+                json = initialJson;
+            }
+            String text = json;
+            JsonPathNode root = parseTree(text);
+            publish(() -> {
+                jsonTextArea.setEnabled(true);
+                if (generation != parseGeneration) {
+                    return;
+                }
+                jsonTextArea.setText(text);
+                jsonTextArea.setCaretPosition(0);
+                // 文本与解析结果一致，无需再次解析
+                parseTimer.stop();
+                showRoot(root);
+            });
+        });
+    }
+
+    /**
+     * 解析JSON并更新字段树。解析在后台线程执行，树只创建顶层节点，其余节点展开时才创建
      */
     private void parseJson() {
         String json = jsonTextArea.getText();
+        int generation = ++parseGeneration;
         if (json == null || json.trim().isEmpty()) {
-            tableModel.setRowCount(0);
+            showRoot(null);
             return;
         }
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            JsonPathNode root = parseTree(json);
+            publish(() -> {
+                if (generation == parseGeneration) {
+                    showRoot(root);
+                }
+            });
+        });
+    }
 
+    /**
+     * 解析字段树（后台线程调用），非法JSON返回null
+     */
+    private static JsonPathNode parseTree(String json) {
         try {
-            List<JsonPathField> fields = JsonPathExtractor.extractAllPaths(json);
-            updateFieldsTable(fields);
+            JsonPathNode root = JsonPathNode.parse(json);
+            // 预先创建顶层子节点，避免在EDT上处理
+            root.getChildren();
+            return root;
         } catch (Exception e) {
-            tableModel.setRowCount(0);
+            return null;
+        }
+    }
+
+    /**
+     * 在EDT上更新界面；对话框为模态窗口，任意模态状态下都执行
+     */
+    private static void publish(Runnable runnable) {
+        ApplicationManager.getApplication().invokeLater(runnable, ModalityState.any());
+    }
+
+    /**
+     * 用新的根节点重建字段树
+     */
+    private void showRoot(JsonPathNode root) {
+        rootNode = root;
+        DefaultMutableTreeNode treeRoot = new DefaultMutableTreeNode(root);
+        if (root != null) {
+            treeRoot.add(new DefaultMutableTreeNode(RequestManBundle.message("jsonpath.loading")));
+            loadChildren(treeRoot);
+        }
+        treeModel.setRoot(treeRoot);
+        updateSearch();
+    }
+
+    /**
+     * 首次展开时用真实子节点替换占位节点
+     */
+    private void loadChildren(DefaultMutableTreeNode treeNode) {
+        Object userObject = treeNode.getUserObject();
+        if (!(userObject instanceof JsonPathNode)) {
+            return;
+        }
+        if (treeNode.getChildCount() != 1 || ((DefaultMutableTreeNode) treeNode.getChildAt(0)).getUserObject() instanceof JsonPathNode) {
+            return;
         }
+        treeNode.removeAllChildren();
+        for (JsonPathNode child : ((JsonPathNode) userObject).getChildren()) {
+            DefaultMutableTreeNode childTreeNode = new DefaultMutableTreeNode(child);
+            if (!child.isLeaf()) {
+                childTreeNode.add(new DefaultMutableTreeNode(RequestManBundle.message("jsonpath.loading")));
+            }
+            treeNode.add(childTreeNode);
+        }
+        treeModel.nodeStructureChanged(treeNode);
     }
 
     /**
-     * 更新字段表格
+     * 按搜索框内容刷新结果；为空时显示字段树
      */
-    private void updateFieldsTable(List<JsonPathField> fields) {
-        tableModel.setRowCount(0);
-        for (JsonPathField field : fields) {
-            tableModel.addRow(new Object[]{
-                    field.getPath(),
-                    field.getType(),
-                    field.getDisplayValue()
+    private void updateSearch() {
+        String keyword = searchField.getText();
+        CardLayout layout = (CardLayout) fieldsCards.getLayout();
+        int generation = ++searchGeneration;
+        if (keyword == null || keyword.trim().isEmpty()) {
+            layout.show(fieldsCards, CARD_TREE);
+            return;
+        }
+        JsonPathNode root = rootNode;
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            List<JsonPathNode> nodes = JsonPathNode.search(root, keyword, SEARCH_LIMIT);
+            publish(() -> {
+                if (generation != searchGeneration) {
+                    return;
+                }
+                searchListModel.clear();
+                for (JsonPathNode node : nodes) {
+                    searchListModel.addElement(node);
+                }
+                layout.show(fieldsCards, CARD_SEARCH);
             });
+        });
+    }
+
+    /**
+     * 节点展示文本：名称（或完整路径）、类型与值，结构节点的值为示例值
+     */
+    private static String describe(JsonPathNode node, boolean fullPath) {
+        if (node.isPage()) {
+            return node.getName();
+        }
+        String value = node.getDisplayValue();
+        if (node.isSchema() && node.isLeaf()) {
+            value = RequestManBundle.message("jsonpath.sample") + value;
+        }
+        return (fullPath ? node.getPath() : node.getName()) + "  (" + node.getType() + ")  " + value;
+    }
+
+    /**
+     * 字段树渲染器，提示中显示完整路径
+     */
+    private static class JsonPathNodeRenderer extends DefaultTreeCellRenderer {
+        @Override
+        public Component getTreeCellRendererComponent(JTree tree, Object value, boolean selected, boolean expanded,
+                                                      boolean leaf, int row, boolean hasFocus) {
+            super.getTreeCellRendererComponent(tree, value, selected, expanded, leaf, row, hasFocus);
+            Object userObject = ((DefaultMutableTreeNode) value).getUserObject();
+            if (userObject instanceof JsonPathNode) {
+                JsonPathNode node = (JsonPathNode) userObject;
+                setText(describe(node, false));
+                setToolTipText(node.isPage() ? null : node.getPath());
+            } else {
+                setToolTipText(null);
+            }
+            return this;
         }
     }
 
@@ -318,22 +586,28 @@ public class JsonPathExtractorDialog extends JDialog {
     private void extractValue() {
         String json = jsonTextArea.getText();
         String jsonPath = jsonPathField.getText();
+        int generation = ++extractGeneration;
 
         if (json == null || json.trim().isEmpty() || jsonPath == null || jsonPath.trim().isEmpty()) {
             resultArea.setText(RequestManBundle.message("jsonpath.no.match"));
             return;
         }
 
-        try {
-            String result = JsonPathExtractor.extractValue(json, jsonPath);
-            if (result != null) {
-                resultArea.setText(result);
-            } else {
-                resultArea.setText(RequestManBundle.message("jsonpath.no.match"));
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            String text;
+            try {
+                String result = JsonPathExtractor.extractValue(json, jsonPath);
+                text = result != null ? result : RequestManBundle.message("jsonpath.no.match");
+            } catch (Exception e) {
+                text = RequestManBundle.message("jsonpath.extract.fail") + e.getMessage();
             }
-        } catch (Exception e) {
-            resultArea.setText(RequestManBundle.message("jsonpath.extract.fail") + e.getMessage());
-        }
+            String resultText = text;
+            publish(() -> {
+                if (generation == extractGeneration) {
+                    resultArea.setText(resultText);
+                }
+            });
+        });
     }
 
     /**
@@ -1,7 +1,8 @@
 package com.ljh.request.requestman.ui;
 
-import cn.hutool.json.JSONUtil;
+import com.intellij.ui.JBColor;
 import com.ljh.request.requestman.model.ApiInfo;
+import com.ljh.request.requestman.util.CompiledPostOp;
 import com.ljh.request.requestman.util.JsonExampleGenerator;
 import com.ljh.request.requestman.ui.JsonPathExtractorDialog;
 import org.apache.commons.lang3.StringUtils;
@@ -23,7 +24,7 @@ import java.util.List;
  */
 public class PostOpPanel extends JPanel {
     private static final Dimension PARAM_PANEL_SIZE = new Dimension(600, 120);
-    private static final String[] TYPE_OPTIONS = {"JSONPath", "TEXT"};
+    private static final String[] TYPE_OPTIONS = {"JSONPath", "TEXT", "ASSERT"};
     private final DefaultTableModel tableModel;
     private final JTable table;
     private javax.swing.event.TableModelListener addRowListener;
@@ -75,6 +76,22 @@ public class PostOpPanel extends JPanel {
                 }
                 return super.getCellRenderer(row, column);
             }
+
+            @Override
+            public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
+                Component component = super.prepareRenderer(renderer, row, column);
+                if (column == 2 && component instanceof JComponent) {
+                    // 编辑时校验表达式：无效时标红并以提示显示编译错误
+                    String error = CompiledPostOp.validate((String) getValueAt(row, 1), (String) getValueAt(row, 2));
+                    if (error != null) {
+                        component.setForeground(JBColor.RED);
+                    } else if (!isRowSelected(row)) {
+                        component.setForeground(getForeground());
+                    }
+                    ((JComponent) component).setToolTipText(error);
+                }
+                return component;
+            }
         };
         table.getTableHeader().setReorderingAllowed(false);
         // 添加"添加变量"行
@@ -252,7 +269,7 @@ public class PostOpPanel extends JPanel {
                 parentFrame = (Frame) parentWindow;
             }
 
-            JsonPathExtractorDialog dialog = new JsonPathExtractorDialog(parentFrame, StringUtils.isBlank(responseText) ? "" : JSONUtil.toJsonPrettyStr(responseText));
+            JsonPathExtractorDialog dialog = new JsonPathExtractorDialog(parentFrame, StringUtils.isBlank(responseText) ? "" : responseText);
             dialog.setVisible(true);
 
             // 只有当用户确认了选择且有选择路径时才设置值
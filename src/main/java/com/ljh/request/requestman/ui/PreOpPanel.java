@@ -1,30 +1,208 @@
 package com.ljh.request.requestman.ui;
 
+import com.intellij.ui.JBColor;
+import com.ljh.request.requestman.util.CompiledPreOp;
+
 import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableCellEditor;
+import javax.swing.table.TableCellRenderer;
 import java.awt.*;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import com.ljh.request.requestman.util.RequestManBundle;
 
 /**
  * @author leijianhui
- * @Description 前置操作参数面板，展示前置操作相关参数。
+ * @Description 前置操作参数面板，按顺序配置设置变量、签名、获取令牌、添加请求头等步骤。
  * @date 2025/06/17 16:32
  */
 public class PreOpPanel extends JPanel {
     private static final Dimension PARAM_PANEL_SIZE = new Dimension(600, 120);
+    private static final String[] TYPE_OPTIONS = {CompiledPreOp.TYPE_SET_VAR, CompiledPreOp.TYPE_SIGN,
+            CompiledPreOp.TYPE_TOKEN, CompiledPreOp.TYPE_HEADER};
+    private final DefaultTableModel tableModel;
+    private final JTable table;
+    private javax.swing.event.TableModelListener addRowListener;
 
     public PreOpPanel() {
         super(new BorderLayout());
-        String[] columnNames = {RequestManBundle.message("preop.col.name"), RequestManBundle.message("preop.col.param"), RequestManBundle.message("preop.col.desc"), ""};
-        Object[][] data = {};
-        JTable table = new JTable(data, columnNames) {
+        String[] columnNames = {RequestManBundle.message("preop.col.name"), RequestManBundle.message("postop.col.type"), RequestManBundle.message("preop.col.param")};
+        tableModel = new DefaultTableModel(columnNames, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
-                return false;
+                // 最后一行为"添加操作"行，只有名称与参数可编辑
+                if (row == getRowCount() - 1) {
+                    return column == 0 || column == 2;
+                }
+                return column < 3;
+            }
+        };
+        table = new JTable(tableModel) {
+            @Override
+            public TableCellEditor getCellEditor(int row, int column) {
+                if (column == 1) {
+                    return new DefaultCellEditor(new JComboBox<>(TYPE_OPTIONS));
+                }
+                return super.getCellEditor(row, column);
+            }
+
+            @Override
+            public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
+                Component component = super.prepareRenderer(renderer, row, column);
+                if (column == 2 && component instanceof JComponent) {
+                    // 编辑时校验参数：无效时标红并以提示显示编译错误，否则提示该类型的参数格式
+                    String type = (String) getValueAt(row, 1);
+                    String error = CompiledPreOp.validate(type, (String) getValueAt(row, 2));
+                    if (error != null) {
+                        component.setForeground(JBColor.RED);
+                    } else if (!isRowSelected(row)) {
+                        component.setForeground(getForeground());
+                    }
+                    ((JComponent) component).setToolTipText(error != null ? error
+                            : type != null ? RequestManBundle.message("preop.hint." + type) : null);
+                }
+                return component;
             }
         };
         table.getTableHeader().setReorderingAllowed(false);
+        addEmptyRow();
+        // 监听"添加操作"行输入
+        addRowListener = e -> {
+            int lastRow = tableModel.getRowCount() - 1;
+            if (lastRow < 0) {
+                return;
+            }
+            String name = (String) tableModel.getValueAt(lastRow, 0);
+            if (name != null && !name.trim().isEmpty()) {
+                addEmptyRow();
+            }
+        };
+        tableModel.addTableModelListener(addRowListener);
+
+        // 右键菜单：删除、上移、下移（步骤按表格顺序执行）
+        JPopupMenu popupMenu = new JPopupMenu();
+        JMenuItem deleteItem = new JMenuItem(RequestManBundle.message("common.delete"));
+        deleteItem.addActionListener(e -> {
+            int row = table.getSelectedRow();
+            if (row >= 0 && row < tableModel.getRowCount() - 1) {
+                tableModel.removeRow(row);
+            }
+        });
+        JMenuItem upItem = new JMenuItem(RequestManBundle.message("runner.moveUp"));
+        upItem.addActionListener(e -> moveSelected(-1));
+        JMenuItem downItem = new JMenuItem(RequestManBundle.message("runner.moveDown"));
+        downItem.addActionListener(e -> moveSelected(1));
+        popupMenu.add(deleteItem);
+        popupMenu.add(upItem);
+        popupMenu.add(downItem);
+        table.setComponentPopupMenu(popupMenu);
+        // 右键点击时自动选中当前行，保证菜单操作生效
+        table.addMouseListener(new java.awt.event.MouseAdapter() {
+            @Override
+            public void mousePressed(java.awt.event.MouseEvent e) {
+                selectRowAt(e);
+            }
+
+            @Override
+            public void mouseReleased(java.awt.event.MouseEvent e) {
+                selectRowAt(e);
+            }
+        });
         JScrollPane scrollPane = new JScrollPane(table);
         add(scrollPane, BorderLayout.CENTER);
         setPreferredSize(PARAM_PANEL_SIZE);
     }
-} 
\ No newline at end of file
+
+    private void selectRowAt(java.awt.event.MouseEvent e) {
+        if (e.isPopupTrigger() || SwingUtilities.isRightMouseButton(e)) {
+            int row = table.rowAtPoint(e.getPoint());
+            if (row >= 0 && row < table.getRowCount()) {
+                table.setRowSelectionInterval(row, row);
+            }
+        }
+    }
+
+    private void moveSelected(int delta) {
+        int row = table.getSelectedRow();
+        int target = row + delta;
+        // "添加操作"行固定在最后
+        if (row < 0 || row >= tableModel.getRowCount() - 1 || target < 0 || target >= tableModel.getRowCount() - 1) {
+            return;
+        }
+        tableModel.moveRow(row, row, target);
+        table.setRowSelectionInterval(target, target);
+    }
+
+    /**
+     * 添加空行（用于"添加操作"）
+     */
+    private void addEmptyRow() {
+        int lastRow = tableModel.getRowCount() - 1;
+        if (lastRow < 0 || tableModel.getValueAt(lastRow, 0) != null && !((String) tableModel.getValueAt(lastRow, 0)).isEmpty()) {
+            tableModel.addRow(new Object[]{"", TYPE_OPTIONS[0], ""});
+        }
+    }
+
+    /**
+     * 获取所有有效前置操作（不含最后一行空行），顺序即执行顺序
+     */
+    public List<PreOpItem> getPreOpData() {
+        List<PreOpItem> list = new ArrayList<>();
+        int rowCount = tableModel.getRowCount();
+        for (int i = 0; i < rowCount - 1; i++) {
+            String name = (String) tableModel.getValueAt(i, 0);
+            String type = (String) tableModel.getValueAt(i, 1);
+            String value = (String) tableModel.getValueAt(i, 2);
+            if (name != null && !name.trim().isEmpty()) {
+                list.add(new PreOpItem(name, type, value));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 设置前置操作（用于持久化恢复）
+     */
+    public void setPreOpData(List<PreOpItem> items) {
+        tableModel.removeTableModelListener(addRowListener);
+        tableModel.setRowCount(0);
+        if (items != null) {
+            for (PreOpItem item : items) {
+                tableModel.addRow(new Object[]{item.name, item.type, item.value});
+            }
+        }
+        addEmptyRow();
+        tableModel.addTableModelListener(addRowListener);
+    }
+
+    /**
+     * 前置操作数据结构：name为变量名（HEADER类型为请求头名），value为该类型的参数
+     */
+    public static class PreOpItem implements Serializable {
+
+        private static final long serialVersionUID = -3418125207310476512L;
+        public String name;
+        public String type;
+        public String value;
+
+        public PreOpItem(String name, String type, String value) {
+            this.name = name;
+            this.type = type;
+            this.value = value;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import com.ljh.request.requestman.model.ApiParam;
 import com.ljh.request.requestman.model.CustomApiInfo;
 import com.ljh.request.requestman.search.ApiSearchPopup;
 import com.ljh.request.requestman.ui.PostOpPanel.PostOpItem;
+import com.ljh.request.requestman.ui.PreOpPanel.PreOpItem;
 import com.ljh.request.requestman.util.*;
 import com.ljh.request.requestman.util.RequestManBundle;
 import com.ljh.request.requestman.ui.ImportExportDialog;
@@ -935,9 +936,15 @@ public class RequestManPanel extends JPanel {
         copy.setCookieItems(src.getCookieItems() == null ? new java.util.ArrayList<>() : new java.util.ArrayList<>(src.getCookieItems()));
         copy.setAuthMode(src.getAuthMode());
         copy.setAuthValue(src.getAuthValue());
+        copy.setPreOps(src.getPreOps() == null ? new java.util.ArrayList<>() : new java.util.ArrayList<>(src.getPreOps()));
         copy.setPostOps(src.getPostOps() == null ? new java.util.ArrayList<>() : new java.util.ArrayList<>(src.getPostOps()));
         copy.setBodyType(src.getBodyType());
-        copy.setBody(src.getBody());
+        if (src.bodyBlob() != null) {
+            // 外置请求体未修改（或读取失败）时沿用原哈希，不复制内容
+            copy.attachBodyBlob(src.bodyBlob());
+        } else {
+            copy.setBody(src.getBody());
+        }
         return copy;
     }
 
@@ -1108,6 +1115,7 @@ public class RequestManPanel extends JPanel {
         authPanel.setAuthValue(apiInfo.getAuthValue());
         // preOp 持久化支持
         preOpPanel = new PreOpPanel();
+        preOpPanel.setPreOpData(apiInfo.getPreOps());
         // PostOp 持久化支持
         postOpPanel = new PostOpPanel();
         postOpPanel.setPostOpData(apiInfo.getPostOps());
@@ -1536,6 +1544,11 @@ public class RequestManPanel extends JPanel {
                 customParamsPanel.setParams(api.getParams() != null ? api.getParams() : new ArrayList<>());
                 isInitializing = false;
             }
+            if (customPreOpPanel != null) {
+                isInitializing = true;
+                customPreOpPanel.setPreOpData(api.getPreOps());
+                isInitializing = false;
+            }
             if (customPostOpPanel != null && api.getPostOps() != null) {
                 isInitializing = true;
                 customPostOpPanel.setPostOpData(api.getPostOps());
@@ -1647,6 +1660,7 @@ public class RequestManPanel extends JPanel {
                     .filter(p -> p.getName() != null && !p.getName().trim().isEmpty())
                     .collect(java.util.stream.Collectors.toList());
 
+            List<PreOpItem> preOps = customPreOpPanel != null ? customPreOpPanel.getPreOpData() : new ArrayList<>();
             List<PostOpItem> postOps = customPostOpPanel != null ? customPostOpPanel.getPostOpData() : new ArrayList<>();
 
             // 更新接口信息
@@ -1654,6 +1668,7 @@ public class RequestManPanel extends JPanel {
             api.setUrl(url);
             api.setHttpMethod(method);
             api.setParams(params);
+            api.setPreOps(preOps);
             api.setPostOps(postOps);
             api.setBody(body);
             api.setBodyType(bodyType);
@@ -1705,6 +1720,9 @@ public class RequestManPanel extends JPanel {
                 api.setAuthMode(authPanel.getAuthMode());
                 api.setAuthValue(authPanel.getAuthValue());
             }
+            if (preOpPanel != null) {
+                api.setPreOps(preOpPanel.getPreOpData());
+            }
             if (postOpPanel != null) {
                 api.setPostOps(postOpPanel.getPostOpData());
             }
@@ -1951,6 +1969,13 @@ public class RequestManPanel extends JPanel {
                 autoSaveManager.addTextChangeListener(authValueField, "authValue");
             }
         }
+        // 为前置操作面板添加监听器
+        if (preOpPanel != null) {
+            JTable preOpPanelTable = SwingUtils.getTable(preOpPanel);
+            if (preOpPanelTable != null) {
+                autoSaveManager.addTableChangeListener(preOpPanelTable, "preOp");
+            }
+        }
         // 为后置操作面板添加监听器
         if (postOpPanel != null) {
             JTable postOpPanelTable = SwingUtils.getTable(postOpPanel);
@@ -2049,6 +2074,7 @@ public class RequestManPanel extends JPanel {
         params = params.stream()
                 .filter(p -> p.getName() != null && !p.getName().trim().isEmpty())
                 .collect(java.util.stream.Collectors.toList());
+        java.util.List<PreOpItem> preOps = customPreOpPanel != null ? customPreOpPanel.getPreOpData() : new java.util.ArrayList<>();
         java.util.List<PostOpItem> postOps = customPostOpPanel != null ? customPostOpPanel.getPostOpData() : new java.util.ArrayList<>();
         if (name.isEmpty() || url.isEmpty() || method == null || method.isEmpty()) {
             JOptionPane.showMessageDialog(this, RequestManBundle.message("custom.required"), RequestManBundle.message("main.tip"), JOptionPane.WARNING_MESSAGE);
@@ -2057,6 +2083,7 @@ public class RequestManPanel extends JPanel {
         if (editingApi == null) {
             // 新增
             CustomApiInfo api = new CustomApiInfo(name, url, method, params, body, null, postOps);
+            api.setPreOps(preOps);
             api.setBodyType(bodyType);
             api.setBodyParams(bodyParams);
             // 保存认证信息
@@ -2079,6 +2106,7 @@ public class RequestManPanel extends JPanel {
             editingApi.setUrl(url);
             editingApi.setHttpMethod(method);
             editingApi.setParams(params);
+            editingApi.setPreOps(preOps);
             editingApi.setPostOps(postOps);
             editingApi.setBody(body);
             editingApi.setBodyType(bodyType);
@@ -2118,9 +2146,10 @@ public class RequestManPanel extends JPanel {
      */
     private void loadCustomApiList() {
         customApiListModel.clear();
-        for (CustomApiInfo api : CustomApiStorage.loadCustomApis(project)) {
-            customApiListModel.addElement(api);
-        }
+        // 一次性添加，只触发一次列表事件；条目详情在选中时才加载
+        customApiListModel.addAll(CustomApiStorage.loadCustomApis(project));
+        // 文件被其他编辑者修改时增量合并到列表
+        CustomApiFileWatcher.register(project, customApiListModel, this::onCustomApisChangedExternally);
         if (!customApiListModel.isEmpty()) {
             customApiList.setSelectedIndex(0); // 自动触发回显
         } else {
@@ -2128,6 +2157,28 @@ public class RequestManPanel extends JPanel {
         }
     }
 
+    /**
+     * 自定义接口文件位置修改后重新加载列表
+     */
+    public void reloadCustomApis() {
+        if (customApiListModel != null) {
+            loadCustomApiList();
+        }
+    }
+
+    /**
+     * 外部修改合并后回调：当前编辑的接口被替换且没有未保存的更改时重新回显
+     */
+    private void onCustomApisChangedExternally(Set<CustomApiInfo> changed) {
+        if (editingApi == null || !changed.contains(editingApi)) {
+            return;
+        }
+        if (autoSaveManager != null && autoSaveManager.hasUnsavedChanges()) {
+            return;
+        }
+        showCustomApiDetail(editingApi);
+    }
+
     // 响应格式化相关方法已移至DefaultResponseHandler中
     // 此处不再需要重复实现
 
@@ -2349,9 +2400,18 @@ public class RequestManPanel extends JPanel {
         downloadItem.setFont(sendBtn.getFont());
         menu.add(downloadItem);
         // 事件绑定，传递按钮本身
-        sendBtn.addActionListener(e -> sendAction.accept(sendBtn));
+        // 请求进行中时主按钮为"取消"，点击取消当前请求而不是发起新请求
+        sendBtn.addActionListener(e -> {
+            if (!RequestSenderManager.cancelActiveRequest(sendBtn)) {
+                sendAction.accept(sendBtn);
+            }
+        });
         arrowBtn.addActionListener(e -> menu.show(arrowBtn, 0, arrowBtn.getHeight()));
-        downloadItem.addActionListener(e -> sendAndDownloadAction.accept(sendBtn));
+        downloadItem.addActionListener(e -> {
+            if (!RequestSenderManager.cancelActiveRequest(sendBtn)) {
+                sendAndDownloadAction.accept(sendBtn);
+            }
+        });
         // panel无间隙
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
         panel.setOpaque(false);
@@ -2374,7 +2434,7 @@ public class RequestManPanel extends JPanel {
         // 使用RequestSenderManager发送请求
         DefaultResponseHandler responseHandler = new DefaultResponseHandler(btn, responsePanel);
         RequestSenderManager.sendCustomRequest(project, editingApi, customUrlField, customMethodBox,
-                customParamsPanel, customBodyPanel, customPostOpPanel, customAuthPanel, responseHandler);
+                customParamsPanel, customBodyPanel, customPreOpPanel, customPostOpPanel, customAuthPanel, responseHandler);
     }
 
     private void doSendScanRequest(JButton btn, ApiInfo apiInfo) {
@@ -2388,7 +2448,7 @@ public class RequestManPanel extends JPanel {
         // 使用RequestSenderManager发送请求
         DefaultResponseHandler responseHandler = new DefaultResponseHandler(btn, responsePanel);
         RequestSenderManager.sendScanRequest(project, apiInfo, paramsPanel, bodyPanel,
-                headersPanel, cookiesPanel, authPanel, postOpPanel, responseHandler);
+                headersPanel, cookiesPanel, authPanel, preOpPanel, postOpPanel, responseHandler);
     }
 
     private void doSendAndDownloadCustom(JButton btn) {
@@ -2402,7 +2462,7 @@ public class RequestManPanel extends JPanel {
         // 使用RequestSenderManager发送请求并下载响应
         DefaultResponseHandler responseHandler = new DefaultResponseHandler(btn, responsePanel);
         RequestSenderManager.sendCustomRequestAndDownload(project, editingApi, customUrlField, customMethodBox,
-                customParamsPanel, customBodyPanel, customPostOpPanel, customAuthPanel, responseHandler);
+                customParamsPanel, customBodyPanel, customPreOpPanel, customPostOpPanel, customAuthPanel, responseHandler);
     }
 
     private void doSendAndDownloadScan(JButton btn, ApiInfo apiInfo) {
@@ -2416,7 +2476,7 @@ public class RequestManPanel extends JPanel {
         // 使用RequestSenderManager发送请求并下载响应
         DefaultResponseHandler responseHandler = new DefaultResponseHandler(btn, responsePanel);
         RequestSenderManager.sendScanRequestAndDownload(project, apiInfo, paramsPanel, bodyPanel,
-                headersPanel, cookiesPanel, authPanel, postOpPanel, responseHandler);
+                headersPanel, cookiesPanel, authPanel, preOpPanel, postOpPanel, responseHandler);
     }
 
     // 新增：表格主动结束编辑的工具方法
@@ -1,16 +1,26 @@
 package com.ljh.request.requestman.ui;
 
 import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.options.Configurable;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
 import com.ljh.request.requestman.search.FontManager;
+import com.ljh.request.requestman.util.ApiCacheStorage;
+import com.ljh.request.requestman.util.CacheGarbageCollector;
+import com.ljh.request.requestman.util.CustomApiStorage;
+import com.ljh.request.requestman.util.LogUtil;
+import com.ljh.request.requestman.util.ProjectHistoryCleaner;
 import com.ljh.request.requestman.util.ProjectSettingsManager;
 import com.ljh.request.requestman.util.ProjectUtils;
 import com.ljh.request.requestman.util.PerformanceMonitor;
+import com.ljh.request.requestman.util.RecordCodecBenchmark;
+import com.ljh.request.requestman.util.RequestExecutors;
 import com.ljh.request.requestman.search.ApiSearchPopup;
 import com.ljh.request.requestman.ui.EnvironmentManagerPanel;
 import com.ljh.request.requestman.util.LanguageManager;
 import com.ljh.request.requestman.util.RequestManBundle;
+import com.ljh.request.requestman.util.WeightedLruCache;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.Nullable;
@@ -35,6 +45,8 @@ public class RequestManSettingsConfigurable implements Configurable {
     private JTabbedPane tabbedPane;
     private VariablePanel variablePanel;
     private JTextField globalAuthField;
+    // 自定义接口文件路径（项目级）
+    private JTextField customApiFileField;
 
     /**
      * 环境管理面板
@@ -55,6 +67,15 @@ public class RequestManSettingsConfigurable implements Configurable {
     private JSpinner searchFontSizeSpinner;
     // 静默保存设置
     private JCheckBox autoSaveCheckBox;
+    // 每主机最大并发请求数
+    private JSpinner maxConcurrentPerHostSpinner;
+    private JSpinner apiCacheSizeSpinner;
+    private JSpinner retentionDaysSpinner;
+    private JSpinner orphanRetentionSpinner;
+    // 全局连接/读取/总超时（毫秒）
+    private JSpinner connectTimeoutSpinner;
+    private JSpinner readTimeoutSpinner;
+    private JSpinner totalTimeoutSpinner;
 
     // 语言设置
     private JComboBox<String> languageComboBox;
@@ -165,6 +186,26 @@ public class RequestManSettingsConfigurable implements Configurable {
         basicForm.add(globalAuthField, gbc);
         gbc.gridwidth = 1;
 
+        // 自定义接口文件
+        gbc.gridy++;
+        gbc.gridx = 0;
+        gbc.weightx = 0;
+        gbc.fill = GridBagConstraints.NONE;
+        JLabel customApiFileLabel = new JLabel(RequestManBundle.message("settings.customApiFile") + ":");
+        customApiFileLabel.setPreferredSize(new Dimension(100, 25));
+        basicForm.add(customApiFileLabel, gbc);
+
+        gbc.gridx = 1;
+        gbc.gridwidth = 2;
+        gbc.weightx = 1.0;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        customApiFileField = new JTextField();
+        customApiFileField.setPreferredSize(new Dimension(200, 25));
+        customApiFileField.setToolTipText(RequestManBundle.message("settings.customApiFile.tip"));
+        customApiFileField.setEnabled(currentProject != null);
+        basicForm.add(customApiFileField, gbc);
+        gbc.gridwidth = 1;
+
         mainPanel.add(basicForm, BorderLayout.NORTH);
         // 新增：全局变量Tab - 传递正确的项目对象
         variablePanel = new VariablePanel(currentProject);
@@ -311,6 +352,66 @@ public class RequestManSettingsConfigurable implements Configurable {
         autoSaveTipLabel.setFont(autoSaveTipLabel.getFont().deriveFont(Font.ITALIC, autoSaveTipLabel.getFont().getSize() - 1));
         autoSavePanel.add(autoSaveTipLabel);
         performanceContentPanel.add(autoSavePanel);
+
+        // 接口编辑内容内存缓存设置
+        JPanel apiCachePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        apiCachePanel.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createEtchedBorder(),
+            RequestManBundle.message("settings.apiCache.title")
+        ));
+        apiCachePanel.add(new JLabel(RequestManBundle.message("settings.apiCache.size")));
+        apiCacheSizeSpinner = new JSpinner(new SpinnerNumberModel(
+                getIntValue(ApiCacheStorage.CACHE_SIZE_KEY, ApiCacheStorage.DEFAULT_CACHE_SIZE_MB), 1, 1024, 8));
+        apiCachePanel.add(apiCacheSizeSpinner);
+        apiCachePanel.add(new JLabel(RequestManBundle.message("settings.apiCache.retention")));
+        retentionDaysSpinner = new JSpinner(new SpinnerNumberModel(ProjectHistoryCleaner.getRetentionDays(), 0, 3650, 30));
+        retentionDaysSpinner.setToolTipText(RequestManBundle.message("settings.apiCache.retention.tip"));
+        apiCachePanel.add(retentionDaysSpinner);
+        apiCachePanel.add(new JLabel(RequestManBundle.message("settings.apiCache.orphanRetention")));
+        orphanRetentionSpinner = new JSpinner(new SpinnerNumberModel(CacheGarbageCollector.getOrphanRetentionDays(), 0, 3650, 7));
+        orphanRetentionSpinner.setToolTipText(RequestManBundle.message("settings.apiCache.orphanRetention.tip"));
+        apiCachePanel.add(orphanRetentionSpinner);
+        WeightedLruCache.Stats cacheStats = ApiCacheStorage.getCacheStats();
+        JLabel apiCacheStatsLabel = new JLabel(RequestManBundle.message("settings.apiCache.stats", cacheStats.getSize(),
+                cacheStats.getWeight() / 1024, cacheStats.getHits(), cacheStats.getMisses(), cacheStats.getEvictions(),
+                String.format("%.1f", cacheStats.getHitRate() * 100)));
+        apiCacheStatsLabel.setForeground(Color.GRAY);
+        apiCacheStatsLabel.setFont(apiCacheStatsLabel.getFont().deriveFont(Font.ITALIC, apiCacheStatsLabel.getFont().getSize() - 1));
+        apiCachePanel.add(apiCacheStatsLabel);
+        JButton benchmarkButton = new JButton(RequestManBundle.message("settings.apiCache.benchmark"));
+        benchmarkButton.setToolTipText(RequestManBundle.message("settings.apiCache.benchmark.tip"));
+        benchmarkButton.addActionListener(e -> runStorageBenchmark(benchmarkButton));
+        apiCachePanel.add(benchmarkButton);
+        JButton analyzeButton = new JButton(RequestManBundle.message("settings.apiCache.analyze"));
+        analyzeButton.setToolTipText(RequestManBundle.message("settings.apiCache.analyze.tip"));
+        analyzeButton.addActionListener(e -> runCacheAnalysis(analyzeButton));
+        apiCachePanel.add(analyzeButton);
+        performanceContentPanel.add(apiCachePanel);
+        
+        // 请求执行设置
+        JPanel requestPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        requestPanel.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createEtchedBorder(), 
+            RequestManBundle.message("settings.request.title")
+        ));
+        requestPanel.add(new JLabel(RequestManBundle.message("settings.request.maxPerHost")));
+        maxConcurrentPerHostSpinner = new JSpinner(new SpinnerNumberModel(
+                getIntValue(RequestExecutors.MAX_CONCURRENT_PER_HOST_KEY, RequestExecutors.DEFAULT_MAX_CONCURRENT_PER_HOST), 1, 64, 1));
+        requestPanel.add(maxConcurrentPerHostSpinner);
+        performanceContentPanel.add(requestPanel);
+
+        // 全局超时设置，环境与单个接口未配置时生效
+        JPanel requestTimeoutPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        requestTimeoutPanel.add(new JLabel(RequestManBundle.message("settings.request.connectTimeout")));
+        connectTimeoutSpinner = new JSpinner(new SpinnerNumberModel(getIntValue(RequestExecutors.CONNECT_TIMEOUT_KEY, 0), 0, 3600000, 1000));
+        requestTimeoutPanel.add(connectTimeoutSpinner);
+        requestTimeoutPanel.add(new JLabel(RequestManBundle.message("settings.request.readTimeout")));
+        readTimeoutSpinner = new JSpinner(new SpinnerNumberModel(getIntValue(RequestExecutors.READ_TIMEOUT_KEY, 0), 0, 3600000, 1000));
+        requestTimeoutPanel.add(readTimeoutSpinner);
+        requestTimeoutPanel.add(new JLabel(RequestManBundle.message("settings.request.totalTimeout")));
+        totalTimeoutSpinner = new JSpinner(new SpinnerNumberModel(getIntValue(RequestExecutors.TOTAL_TIMEOUT_KEY, 0), 0, 3600000, 1000));
+        requestTimeoutPanel.add(totalTimeoutSpinner);
+        performanceContentPanel.add(requestTimeoutPanel);
         
         performancePanel.add(performanceContentPanel, BorderLayout.NORTH);
         
@@ -332,8 +433,10 @@ public class RequestManSettingsConfigurable implements Configurable {
     public boolean isModified() {
         // 检查项目级别的设置
         String savedGlobalAuth = "";
+        String savedCustomApiFile = "";
         if (currentProject != null) {
             savedGlobalAuth = ProjectSettingsManager.getProjectGlobalAuth(currentProject);
+            savedCustomApiFile = ProjectSettingsManager.getProjectCustomApiFile(currentProject);
         }
 
         String savedCacheDir = PropertiesComponent.getInstance().getValue("requestman.cacheDir", Paths.get(System.getProperty("user.home"), ".requestman_cache").toString() + File.separator);
@@ -343,6 +446,8 @@ public class RequestManSettingsConfigurable implements Configurable {
         int savedScanTimeout = getIntValue("requestman.scanTimeout", 60);
         int savedFontSize = getIntValue("requestman.searchFontSize", getDefaultFontSize());
         boolean savedAutoSave = PropertiesComponent.getInstance().getBoolean("requestman.autoSave", false);
+        int savedMaxConcurrentPerHost = getIntValue(RequestExecutors.MAX_CONCURRENT_PER_HOST_KEY, RequestExecutors.DEFAULT_MAX_CONCURRENT_PER_HOST);
+        int savedApiCacheSize = getIntValue(ApiCacheStorage.CACHE_SIZE_KEY, ApiCacheStorage.DEFAULT_CACHE_SIZE_MB);
         String savedLanguage = LanguageManager.getLanguageCode();
 
         String curMode = initSearchRadio != null && initSearchRadio.isSelected() ? "init" : "instant";
@@ -351,12 +456,22 @@ public class RequestManSettingsConfigurable implements Configurable {
         int curScanTimeout = scanTimeoutSpinner != null ? (Integer) scanTimeoutSpinner.getValue() : 30;
         int curFontSize = searchFontSizeSpinner != null ? (Integer) searchFontSizeSpinner.getValue() : getDefaultFontSize();
         boolean curAutoSave = autoSaveCheckBox != null && autoSaveCheckBox.isSelected();
+        int curMaxConcurrentPerHost = maxConcurrentPerHostSpinner != null ? (Integer) maxConcurrentPerHostSpinner.getValue() : savedMaxConcurrentPerHost;
+        int curApiCacheSize = apiCacheSizeSpinner != null ? (Integer) apiCacheSizeSpinner.getValue() : savedApiCacheSize;
+        int savedRetentionDays = ProjectHistoryCleaner.getRetentionDays();
+        int curRetentionDays = retentionDaysSpinner != null ? (Integer) retentionDaysSpinner.getValue() : savedRetentionDays;
+        int savedOrphanRetention = CacheGarbageCollector.getOrphanRetentionDays();
+        int curOrphanRetention = orphanRetentionSpinner != null ? (Integer) orphanRetentionSpinner.getValue() : savedOrphanRetention;
+        boolean timeoutChanged = isSpinnerModified(connectTimeoutSpinner, RequestExecutors.CONNECT_TIMEOUT_KEY)
+                || isSpinnerModified(readTimeoutSpinner, RequestExecutors.READ_TIMEOUT_KEY)
+                || isSpinnerModified(totalTimeoutSpinner, RequestExecutors.TOTAL_TIMEOUT_KEY);
         String curLanguage = getSelectedLanguageCode();
 
         // 检查全局变量是否有未保存的修改
         boolean variableChanged = variablePanel != null && variablePanel.hasUnsavedChanges();
 
         return !Objects.equals(savedGlobalAuth, globalAuthField.getText()) ||
+                !Objects.equals(savedCustomApiFile, customApiFileField.getText().trim()) ||
                 !Objects.equals(savedCacheDir, cacheDirField.getText()) ||
                 !Objects.equals(savedSearchMode, curMode) ||
                 savedIncludeLibs != curLibs ||
@@ -364,6 +479,11 @@ public class RequestManSettingsConfigurable implements Configurable {
                 savedScanTimeout != curScanTimeout ||
                 savedFontSize != curFontSize ||
                 savedAutoSave != curAutoSave ||
+                savedMaxConcurrentPerHost != curMaxConcurrentPerHost ||
+                savedApiCacheSize != curApiCacheSize ||
+                savedRetentionDays != curRetentionDays ||
+                savedOrphanRetention != curOrphanRetention ||
+                timeoutChanged ||
                 !Objects.equals(savedLanguage, curLanguage) ||
                 variableChanged;
     }
@@ -391,6 +511,15 @@ public class RequestManSettingsConfigurable implements Configurable {
         // 保存项目级别的设置
         if (currentProject != null) {
             ProjectSettingsManager.setProjectGlobalAuth(currentProject, globalAuthField.getText());
+            // 自定义接口文件位置变化后重新加载列表并监听新文件
+            String customApiFile = customApiFileField.getText().trim();
+            if (!Objects.equals(ProjectSettingsManager.getProjectCustomApiFile(currentProject), customApiFile)) {
+                CustomApiStorage.changeCustomApiFile(currentProject, customApiFile);
+                RequestManPanel requestManPanel = RequestManPanel.findRequestManPanel(currentProject);
+                if (requestManPanel != null) {
+                    requestManPanel.reloadCustomApis();
+                }
+            }
         }
 
         // 缓存目录仍然是全局设置，因为它是系统级别的
@@ -415,6 +544,23 @@ public class RequestManSettingsConfigurable implements Configurable {
         boolean autoSave = autoSaveCheckBox != null && autoSaveCheckBox.isSelected();
         PropertiesComponent.getInstance().setValue("requestman.autoSave", autoSave);
 
+        // 保存请求执行设置
+        if (maxConcurrentPerHostSpinner != null) {
+            PropertiesComponent.getInstance().setValue(RequestExecutors.MAX_CONCURRENT_PER_HOST_KEY,
+                    String.valueOf(maxConcurrentPerHostSpinner.getValue()));
+        }
+
+        saveSpinnerValue(connectTimeoutSpinner, RequestExecutors.CONNECT_TIMEOUT_KEY);
+        saveSpinnerValue(readTimeoutSpinner, RequestExecutors.READ_TIMEOUT_KEY);
+        saveSpinnerValue(totalTimeoutSpinner, RequestExecutors.TOTAL_TIMEOUT_KEY);
+
+        // 保存内存缓存大小并立即生效
+        saveSpinnerValue(apiCacheSizeSpinner, ApiCacheStorage.CACHE_SIZE_KEY);
+        ApiCacheStorage.updateCacheSize();
+        // 项目数据保留天数，下次启动时生效
+        saveSpinnerValue(retentionDaysSpinner, ProjectHistoryCleaner.RETENTION_DAYS_KEY);
+        saveSpinnerValue(orphanRetentionSpinner, CacheGarbageCollector.ORPHAN_RETENTION_DAYS_KEY);
+
         // 保存语言并触发刷新
         String languageCode = getSelectedLanguageCode();
         LanguageManager.setLanguage(languageCode);
@@ -463,8 +609,10 @@ public class RequestManSettingsConfigurable implements Configurable {
         // 加载项目级别的设置
         if (currentProject != null) {
             globalAuthField.setText(ProjectSettingsManager.getProjectGlobalAuth(currentProject));
+            customApiFileField.setText(ProjectSettingsManager.getProjectCustomApiFile(currentProject));
         } else {
             globalAuthField.setText("");
+            customApiFileField.setText("");
         }
 
         // 缓存目录仍然是全局设置
@@ -502,6 +650,26 @@ public class RequestManSettingsConfigurable implements Configurable {
             searchFontSizeSpinner.setValue(fontSize);
         }
 
+        // 加载请求执行设置
+        if (maxConcurrentPerHostSpinner != null) {
+            maxConcurrentPerHostSpinner.setValue(getIntValue(RequestExecutors.MAX_CONCURRENT_PER_HOST_KEY,
+                    RequestExecutors.DEFAULT_MAX_CONCURRENT_PER_HOST));
+        }
+        if (apiCacheSizeSpinner != null) {
+            apiCacheSizeSpinner.setValue(getIntValue(ApiCacheStorage.CACHE_SIZE_KEY, ApiCacheStorage.DEFAULT_CACHE_SIZE_MB));
+        }
+        if (retentionDaysSpinner != null) {
+            retentionDaysSpinner.setValue(ProjectHistoryCleaner.getRetentionDays());
+        }
+        if (orphanRetentionSpinner != null) {
+            orphanRetentionSpinner.setValue(CacheGarbageCollector.getOrphanRetentionDays());
+        }
+        if (connectTimeoutSpinner != null) {
+            connectTimeoutSpinner.setValue(getIntValue(RequestExecutors.CONNECT_TIMEOUT_KEY, 0));
+            readTimeoutSpinner.setValue(getIntValue(RequestExecutors.READ_TIMEOUT_KEY, 0));
+            totalTimeoutSpinner.setValue(getIntValue(RequestExecutors.TOTAL_TIMEOUT_KEY, 0));
+        }
+
         // 初始化环境配置（如果不存在）
         if (currentProject != null) {
             String savedEnvironment = PropertiesComponent.getInstance().getValue("requestman.environmentConfig", "");
@@ -527,6 +695,7 @@ public class RequestManSettingsConfigurable implements Configurable {
         variablePanel = null;
         environmentManagerPanel = null;
         globalAuthField = null;
+        customApiFileField = null;
         instantSearchRadio = null;
         initSearchRadio = null;
         popupInitSearchRadio = null;
@@ -596,9 +765,114 @@ public class RequestManSettingsConfigurable implements Configurable {
         }
     }
 
+    /**
+     * 判断数值输入框与已保存的配置是否不同
+     */
+    private boolean isSpinnerModified(JSpinner spinner, String key) {
+        return spinner != null && (Integer) spinner.getValue() != getIntValue(key, 0);
+    }
+
+    /**
+     * 保存数值输入框的值
+     */
+    private void saveSpinnerValue(JSpinner spinner, String key) {
+        if (spinner != null) {
+            PropertiesComponent.getInstance().setValue(key, String.valueOf(spinner.getValue()));
+        }
+    }
+
     /**
      * 显示性能报告对话框
      */
+    /**
+     * 在后台线程中对比JSON与二进制存储格式，完成后显示报告
+     */
+    private void runStorageBenchmark(JButton button) {
+        button.setEnabled(false);
+        Project project = currentProject != null ? currentProject : ProjectUtils.getCurrentProject();
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            String report = RecordCodecBenchmark.run(project != null ? ApiCacheStorage.sampleEdits(project, 1000) : null);
+            SwingUtilities.invokeLater(() -> {
+                button.setEnabled(true);
+                JTextArea textArea = new JTextArea(report);
+                textArea.setEditable(false);
+                textArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+                JOptionPane.showMessageDialog(button, new JScrollPane(textArea),
+                        RequestManBundle.message("settings.apiCache.benchmark"), JOptionPane.INFORMATION_MESSAGE);
+            });
+        });
+    }
+
+    /**
+     * 后台分析编辑缓存中的孤立条目，展示报告后由用户确认是否立即清理
+     */
+    private void runCacheAnalysis(JButton button) {
+        Project project = currentProject != null ? currentProject : ProjectUtils.getCurrentProject();
+        if (project == null) {
+            return;
+        }
+        button.setEnabled(false);
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            CacheGarbageCollector.Report report;
+            try {
+                report = CacheGarbageCollector.analyze(project);
+            } catch (Exception ex) {
+                LogUtil.warn("缓存分析失败: " + ex.getMessage());
+                SwingUtilities.invokeLater(() -> {
+                    button.setEnabled(true);
+                    Messages.showErrorDialog(button, ex.getMessage(), RequestManBundle.message("common.error"));
+                });
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                button.setEnabled(true);
+                if (!showCacheReport(button, report, report.getOrphanCount() > 0)) {
+                    return;
+                }
+                button.setEnabled(false);
+                ApplicationManager.getApplication().executeOnPooledThread(() -> {
+                    try {
+                        CacheGarbageCollector.Report result = CacheGarbageCollector.collect(project, report.getOrphanKeys());
+                        SwingUtilities.invokeLater(() -> {
+                            button.setEnabled(true);
+                            showCacheReport(button, result, false);
+                        });
+                    } catch (Exception ex) {
+                        LogUtil.warn("缓存清理失败: " + ex.getMessage());
+                        SwingUtilities.invokeLater(() -> {
+                            button.setEnabled(true);
+                            Messages.showErrorDialog(button, ex.getMessage(), RequestManBundle.message("common.error"));
+                        });
+                    }
+                });
+            });
+        });
+    }
+
+    /**
+     * 展示缓存报告
+     *
+     * @param confirm 为true时询问是否清理孤立条目
+     * @return 用户是否确认清理
+     */
+    private boolean showCacheReport(JButton button, CacheGarbageCollector.Report report, boolean confirm) {
+        JTextArea textArea = new JTextArea(report.format(50));
+        textArea.setEditable(false);
+        textArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        JScrollPane scrollPane = new JScrollPane(textArea);
+        scrollPane.setPreferredSize(new Dimension(640, 320));
+        String title = RequestManBundle.message("settings.apiCache.analyze");
+        if (!confirm) {
+            JOptionPane.showMessageDialog(button, scrollPane, title, JOptionPane.INFORMATION_MESSAGE);
+            return false;
+        }
+        JPanel panel = new JPanel(new BorderLayout(0, 8));
+        panel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(new JLabel(RequestManBundle.message("settings.apiCache.analyze.confirm", report.getOrphanCount())), BorderLayout.SOUTH);
+        return JOptionPane.showConfirmDialog(button, panel, title, JOptionPane.YES_NO_OPTION,
+                JOptionPane.QUESTION_MESSAGE) == JOptionPane.YES_OPTION;
+    }
+
     private void showPerformanceReport() {
         try {
             // 获取性能报告
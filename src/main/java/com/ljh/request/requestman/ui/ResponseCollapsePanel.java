@@ -1,6 +1,9 @@
 package com.ljh.request.requestman.ui;
 
 import com.intellij.ide.ui.LafManager;
+import com.intellij.ui.JBColor;
+import com.ljh.request.requestman.util.AssertionResult;
+import com.ljh.request.requestman.util.RequestManBundle;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
 import org.fife.ui.rsyntaxtextarea.Theme;
@@ -9,6 +12,7 @@ import org.fife.ui.rtextarea.RTextScrollPane;
 import javax.swing.*;
 import java.awt.*;
 import java.io.InputStream;
+import java.util.List;
 
 /**
  * @author leijianhui
@@ -21,6 +25,7 @@ public class ResponseCollapsePanel extends JPanel {
     private boolean expanded = false;
     private final String title;
     private JLabel statusLabel;
+    private final JLabel assertionLabel;
 
     public ResponseCollapsePanel(String title) {
         setLayout(new BorderLayout());
@@ -36,6 +41,10 @@ public class ResponseCollapsePanel extends JPanel {
         statusLabel.setForeground(new Color(220, 220, 170));
         titlePanel.add(toggleButton, BorderLayout.WEST);
         titlePanel.add(statusLabel, BorderLayout.EAST);
+        assertionLabel = new JLabel();
+        assertionLabel.setFont(toggleButton.getFont().deriveFont(Font.BOLD, 13f));
+        assertionLabel.setHorizontalAlignment(SwingConstants.RIGHT);
+        titlePanel.add(assertionLabel, BorderLayout.CENTER);
         add(titlePanel, BorderLayout.NORTH);
         contentPanel = new JPanel(new BorderLayout());
         contentPanel.setVisible(false); // 默认收起
@@ -128,6 +137,29 @@ public class ResponseCollapsePanel extends JPanel {
         statusLabel.setText(status != null ? status : "");
     }
 
+    /**
+     * 设置断言结果（显示在标题栏状态左侧，悬停查看明细），为空时清除
+     */
+    public void setAssertionResults(List<AssertionResult> results) {
+        if (results == null || results.isEmpty()) {
+            assertionLabel.setText("");
+            assertionLabel.setToolTipText(null);
+            return;
+        }
+        long passed = results.stream().filter(AssertionResult::isPassed).count();
+        assertionLabel.setText(RequestManBundle.message("assert.summary", passed, results.size()) + "  ");
+        assertionLabel.setForeground(passed == results.size() ? JBColor.GREEN : JBColor.RED);
+        StringBuilder tooltip = new StringBuilder("<html>");
+        for (AssertionResult result : results) {
+            tooltip.append(escapeHtml(result.toString())).append("<br>");
+        }
+        assertionLabel.setToolTipText(tooltip.append("</html>").toString());
+    }
+
+    private static String escapeHtml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
     /**
      * 获取响应文本内容
      *
@@ -8,6 +8,7 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -150,17 +151,17 @@ public class VariablePanel extends JPanel {
         // 保存前，主动结束表格编辑，确保编辑内容写入TableModel，避免数据丢失
         stopTableEditing();
 
-        // 清空变量池
-        VariableManager.clear(currentProject);
-        // 只保存表格中显示的变量
+        // 只保存表格中显示的变量，整体替换变量池
+        Map<String, String> tableVars = new LinkedHashMap<>();
         int rowCount = tableModel.getRowCount();
         for (int i = 0; i < rowCount; i++) {
             String name = String.valueOf(tableModel.getValueAt(i, 0)).trim();
             String value = String.valueOf(tableModel.getValueAt(i, 1));
             if (!name.isEmpty()) {
-                VariableManager.put(currentProject, name, value);
+                tableVars.put(name, value);
             }
         }
+        VariableManager.replaceAll(currentProject, tableVars);
     }
 
     /**
@@ -1,6 +1,6 @@
 package com.ljh.request.requestman.util;
 
-import cn.hutool.json.JSONUtil;
+import com.intellij.ide.util.PropertiesComponent;
 import com.intellij.notification.Notification;
 import com.intellij.notification.NotificationType;
 import com.intellij.openapi.project.Project;
@@ -13,18 +13,14 @@ import com.ljh.request.requestman.ui.CookiesPanel;
 import com.ljh.request.requestman.ui.HeadersPanel;
 import com.ljh.request.requestman.ui.ParamsTablePanel;
 import com.ljh.request.requestman.ui.PostOpPanel;
+import com.ljh.request.requestman.ui.PreOpPanel;
 import com.ljh.request.requestman.ui.RequestManPanel;
 
 import javax.swing.*;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -38,20 +34,21 @@ import java.util.stream.Collectors;
 public class ApiCacheStorage {
 
     /**
-     * 内存缓存，避免频繁读写磁盘，LRU策略最大200条，防止内存泄漏
+     * 内存缓存大小（MB）的设置key
      */
-    private static final Map<String, ApiInfo> localCache = new LinkedHashMap<>() {
-        private static final int MAX_ENTRIES = 200;
+    public static final String CACHE_SIZE_KEY = "requestman.apiCacheSizeMb";
 
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<String, ApiInfo> eldest) {
-            if (size() > MAX_ENTRIES) {
-                return true;
-            } else {
-                return false;
-            }
-        }
-    };
+    /**
+     * 默认内存缓存大小（MB）
+     */
+    public static final int DEFAULT_CACHE_SIZE_MB = 32;
+
+    /**
+     * 内存缓存，避免频繁读写磁盘。按近似字节数限制总大小并按LRU淘汰，
+     * 发送线程读取与EDT写入可并发进行
+     */
+    private static final WeightedLruCache<String, ApiInfo> localCache =
+            new WeightedLruCache<>(configuredCacheBytes(), ApiCacheStorage::estimateWeight);
 
     /**
      * 加载本地缓存（在 showApiDetail 或 buildParamTab、BodyPanel 等处调用）
@@ -63,14 +60,18 @@ public class ApiCacheStorage {
     public static ApiInfo loadCustomEdit(ApiInfo apiInfo, Project project) {
         try {
             String key = StorageUtil.safeFileName(StorageUtil.buildApiKey(apiInfo, project));
-            if (localCache.containsKey(key)) {
-                return localCache.getOrDefault(key, apiInfo);
+            ApiInfo cached = localCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            if (PersistenceQueue.isPending(persistKey(key))) {
+                // 已被内存缓存淘汰但仍在延迟保存中，先写入再读取
+                PersistenceQueue.flush();
             }
-            Path dir = Paths.get(StorageUtil.getCacheDir(project));
-            Path file = dir.resolve(key + StorageUtil.CACHE_SUFFIX);
-            if (Files.exists(file)) {
-                String json = Files.readString(file, StandardCharsets.UTF_8);
-                ApiInfo cache = JSONUtil.toBean(json, ApiInfo.class);
+            // 未编辑过的接口只查内存索引，不产生磁盘读取
+            byte[] data = ApiEditStore.forProject(project).get(key);
+            if (data != null) {
+                ApiInfo cache = decode(data);
                 localCache.put(key, cache);
                 return cache;
             }
@@ -79,6 +80,56 @@ public class ApiCacheStorage {
         return new ApiInfo(apiInfo);
     }
 
+    /**
+     * 解码存储的编辑内容，兼容旧版本写入的JSON记录（下次保存时转为二进制编码）
+     */
+    static ApiInfo decode(byte[] data) throws IOException {
+        if (RecordCodec.isEncoded(data)) {
+            return RecordCodec.decodeApiInfo(data);
+        }
+        return BodyBlobStore.fromJson(new String(data, StandardCharsets.UTF_8), ApiInfo.class);
+    }
+
+    /**
+     * 编码编辑内容用于存储：大请求体先写入blob（内容未变时直接沿用原哈希），记录中只保存哈希
+     */
+    static byte[] encode(ApiInfo apiInfo) throws IOException {
+        String blob = apiInfo.bodyBlob();
+        if (blob == null) {
+            String body = apiInfo.getBody();
+            if (body != null && body.length() >= BodyBlobStore.THRESHOLD) {
+                blob = BodyBlobStore.store(body);
+            }
+        }
+        return RecordCodec.encode(apiInfo, blob);
+    }
+
+    /**
+     * 读取项目已保存的编辑内容作为基准样本
+     *
+     * @param project 项目
+     * @param max     最多读取的条数
+     * @return 样本，读取失败的记录被跳过
+     */
+    public static List<ApiInfo> sampleEdits(Project project, int max) {
+        List<ApiInfo> samples = new ArrayList<>();
+        try {
+            ApiEditStore store = ApiEditStore.forProject(project);
+            for (String key : store.keys()) {
+                if (samples.size() >= max) {
+                    break;
+                }
+                byte[] data = store.get(key);
+                if (data != null) {
+                    samples.add(decode(data));
+                }
+            }
+        } catch (Exception e) {
+            LogUtil.warn("读取基准样本失败: " + e.getMessage());
+        }
+        return samples;
+    }
+
     /**
      * 保存自定义编辑内容到本地缓存
      *
@@ -89,6 +140,7 @@ public class ApiCacheStorage {
         try {
             BodyPanel bodyPanel = requestManPanel.getBodyPanel();
             ParamsTablePanel paramsPanel = requestManPanel.getParamsPanel();
+            PreOpPanel preOpPanel = requestManPanel.getPreOpPanel();
             PostOpPanel postOpPanel = requestManPanel.getPostOpPanel();
             AuthPanel authPanel = requestManPanel.getAuthPanel();
             HeadersPanel headersPanel = requestManPanel.getHeadersPanel();
@@ -117,6 +169,7 @@ public class ApiCacheStorage {
             params = params.stream()
                     .filter(p -> p.getName() != null && !p.getName().trim().isEmpty())
                     .collect(Collectors.toList());
+            List<PreOpPanel.PreOpItem> preOps = preOpPanel != null ? preOpPanel.getPreOpData() : new ArrayList<>();
             List<PostOpPanel.PostOpItem> postOps = postOpPanel != null ? postOpPanel.getPostOpData() : new ArrayList<>();
 
             if (apiInfo == null) {
@@ -127,6 +180,7 @@ public class ApiCacheStorage {
                 }
                 // 编辑
                 apiInfo.setParams(params);
+                apiInfo.setPreOps(preOps);
                 apiInfo.setPostOps(postOps);
                 apiInfo.setBody(body);
                 apiInfo.setBodyType(bodyType);
@@ -145,19 +199,20 @@ public class ApiCacheStorage {
                     apiInfo.setCookieItems(cookiesPanel.getCookiesData());
                 }
             }
-            String key = StorageUtil.buildApiKey(apiInfo, project);
-            key = StorageUtil.safeFileName(key); // 保证文件名合法，防止非法字符导致保存失败
-            Path dir = Paths.get(StorageUtil.getCacheDir(project));
-            if (!Files.exists(dir)) {
-                Files.createDirectories(dir);
-            }
-            Path file = dir.resolve(key + StorageUtil.CACHE_SUFFIX);
-            String json = JSONUtil.toJsonStr(apiInfo);
-            Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+            // 保证key合法，防止非法字符导致保存失败
+            String key = StorageUtil.safeFileName(StorageUtil.buildApiKey(apiInfo, project));
             localCache.put(key, apiInfo);
-            if (!autoSaveManager.isAutoSaveEnabled()) {
-                JOptionPane.showMessageDialog(requestManPanel, RequestManBundle.message("common.save.success"), RequestManBundle.message("main.tip"), JOptionPane.INFORMATION_MESSAGE);
+            if (autoSaveManager.isAutoSaveEnabled()) {
+                // 自动保存：在界面线程中取快照，序列化与写盘交给后台队列（界面线程可能继续修改apiInfo），
+                // 连续编辑只写最后一次，不在界面线程中访问磁盘
+                ApiInfo snapshot = apiInfo.snapshot();
+                PersistenceQueue.submit(persistKey(key), () -> ApiEditStore.forProject(project).put(key, encode(snapshot)));
+                return;
             }
+            // 手动保存需要立即反馈结果，同步写入并丢弃更早的延迟保存
+            PersistenceQueue.cancel(persistKey(key));
+            ApiEditStore.forProject(project).put(key, encode(apiInfo));
+            JOptionPane.showMessageDialog(requestManPanel, RequestManBundle.message("common.save.success"), RequestManBundle.message("main.tip"), JOptionPane.INFORMATION_MESSAGE);
         } catch (Exception ex) {
             if (!autoSaveManager.isAutoSaveEnabled()) {
                 JOptionPane.showMessageDialog(requestManPanel, RequestManBundle.message("common.save.fail") + ex.getMessage(), RequestManBundle.message("common.error"), JOptionPane.ERROR_MESSAGE);
@@ -174,6 +229,72 @@ public class ApiCacheStorage {
         }
     }
 
+    /**
+     * 按设置调整内存缓存大小（设置保存后调用）
+     */
+    public static void updateCacheSize() {
+        localCache.setMaxWeight(configuredCacheBytes());
+    }
+
+    /**
+     * 内存缓存统计（条目数、占用、命中/未命中/淘汰次数）
+     */
+    public static WeightedLruCache.Stats getCacheStats() {
+        return localCache.stats();
+    }
+
+    private static long configuredCacheBytes() {
+        int sizeMb = DEFAULT_CACHE_SIZE_MB;
+        try {
+            sizeMb = Integer.parseInt(PropertiesComponent.getInstance().getValue(CACHE_SIZE_KEY, String.valueOf(DEFAULT_CACHE_SIZE_MB)));
+        } catch (NumberFormatException ignored) {
+            // 非法配置时使用默认值
+        }
+        return Math.max(1, sizeMb) * 1024L * 1024L;
+    }
+
+    /**
+     * 估算接口编辑内容占用的字节数：字符串按UTF-16计，每个参数/请求头等条目按固定开销计；
+     * 尚未读取的外置请求体按已存储的文件大小计，不为估算而解压
+     */
+    static long estimateWeight(ApiInfo apiInfo) {
+        long weight = 512;
+        weight += apiInfo.bodyLoaded() ? 2L * length(apiInfo.getBody()) : BodyBlobStore.storedSize(apiInfo.bodyBlob());
+        weight += 2L * (length(apiInfo.getAuthValue()) + length(apiInfo.getDescription()));
+        weight += countParams(apiInfo.getParams()) + countParams(apiInfo.getBodyParams()) + countParams(apiInfo.getResponseParams());
+        weight += 256L * (size(apiInfo.getHeaders()) + size(apiInfo.getCookieItems()) + size(apiInfo.getPreOps()) + size(apiInfo.getPostOps()));
+        return weight;
+    }
+
+    private static long countParams(List<ApiParam> params) {
+        if (params == null) {
+            return 0;
+        }
+        long weight = 0;
+        for (ApiParam param : params) {
+            if (param != null) {
+                weight += 256 + 2L * (length(param.getValue()) + length(param.getDescription()));
+                weight += countParams(param.getChildren());
+            }
+        }
+        return weight;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static int size(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+
+    /**
+     * 持久化队列中的合并key
+     */
+    private static String persistKey(String key) {
+        return "api-edit:" + key;
+    }
+
     /**
      * 清除指定接口的本地缓存
      *
@@ -184,15 +305,12 @@ public class ApiCacheStorage {
         try {
             String key = StorageUtil.safeFileName(StorageUtil.buildApiKey(apiInfo, project));
 
-            // 从内存缓存中移除
+            // 从内存缓存中移除，并丢弃延迟中的保存
             localCache.remove(key);
+            PersistenceQueue.cancel(persistKey(key));
 
-            // 删除磁盘文件
-            Path dir = Paths.get(StorageUtil.getCacheDir(project));
-            Path file = dir.resolve(key + StorageUtil.CACHE_SUFFIX);
-            if (Files.exists(file)) {
-                Files.delete(file);
-            }
+            // 从存储中删除
+            ApiEditStore.forProject(project).remove(key);
         } catch (Exception ex) {
             LogUtil.error("清除接口缓存时发生错误: " + ex.getMessage(), ex);
         }
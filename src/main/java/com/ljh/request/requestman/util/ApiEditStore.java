@@ -0,0 +1,634 @@
+package com.ljh.request.requestman.util;
+
+import com.intellij.openapi.project.Project;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 接口自定义编辑内容的嵌入式键值存储：每个项目一个追加写日志文件，内存中只保存键到值位置的索引。
+ * <pre>
+ * 文件 = 帧*
+ * 帧   = 负载长度(int) CRC32(int) 负载
+ * 负载 = (操作(byte) 键长(int) 键 [值长(int) 值])*      操作：1写入 2删除
+ * </pre>
+ * 值为不透明字节，由调用方编码（见{@link RecordCodec}）。项目设置等其他键值数据可通过{@link #forFile(Path)}使用独立的日志文件。
+ * 一次批量写入为一帧并只刷盘一次；打开时逐帧校验CRC，只有文件末尾崩溃导致的残缺帧被截断丢弃，因此每帧要么全部生效要么全部不生效。
+ * 文件中间校验失败的帧被跳过，后续的帧照常读取；帧头损坏时无法定位后续帧，从该处停止读取。
+ * 存在损坏的数据时先把日志备份为.corrupt文件，再只重写读取到的存活数据。
+ * 失效数据超过一半时重写存活数据到临时文件并原子替换（压缩）。打开时迁移遗留的每接口一个JSON文件的缓存。
+ *
+ * @author leijianhui
+ * @Description 追加写日志+内存索引的接口编辑内容存储，支持批量写入、崩溃恢复与压缩。
+ * @date 2025/09/15 10:00
+ */
+public final class ApiEditStore implements Closeable {
+
+    /**
+     * 日志文件名（位于项目缓存目录下）
+     */
+    public static final String FILE_NAME = "api_edits.log";
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+
+    private static final int FRAME_HEADER_BYTES = 8;
+
+    /**
+     * 单帧负载上限，超过视为损坏
+     */
+    private static final int MAX_FRAME_BYTES = 256 * 1024 * 1024;
+
+    /**
+     * 文件小于该值时不压缩
+     */
+    private static final long COMPACT_MIN_BYTES = 1024 * 1024;
+
+    /**
+     * 压缩与迁移时每帧的目标大小
+     */
+    private static final int BATCH_FRAME_BYTES = 1024 * 1024;
+
+    private static final Map<String, ApiEditStore> STORES = new ConcurrentHashMap<>();
+
+    /**
+     * 值在文件中的位置
+     */
+    private static final class Location {
+        final long offset;
+        final int length;
+        /**
+         * 该条记录在日志中占用的字节数，用于统计失效数据
+         */
+        final int recordBytes;
+
+        Location(long offset, int length, int recordBytes) {
+            this.offset = offset;
+            this.length = length;
+            this.recordBytes = recordBytes;
+        }
+    }
+
+    private final Path file;
+    private final Map<String, Location> index = new HashMap<>();
+    /**
+     * 只读实例不写入、不截断残缺帧
+     */
+    private final boolean readOnly;
+    private FileChannel channel;
+    private long size;
+    private long liveBytes;
+
+    private ApiEditStore(Path file, boolean readOnly) throws IOException {
+        this.file = file;
+        this.readOnly = readOnly;
+        this.channel = readOnly ? FileChannel.open(file, StandardOpenOption.READ)
+                : FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (load() && !readOnly) {
+            backupCorrupted();
+            compact();
+        }
+    }
+
+    /**
+     * 获取项目的存储（打开时迁移旧缓存文件）
+     *
+     * @param project 项目对象
+     * @return 存储
+     * @throws IOException 打开失败
+     */
+    public static ApiEditStore forProject(Project project) throws IOException {
+        Path dir = Paths.get(StorageUtil.getCacheDir(project));
+        String projectName = project != null ? project.getName() : "default";
+        String legacyPrefix = StorageUtil.safeFileName(projectName + "#");
+        String keyPrefix = StorageUtil.safeFileName(ProjectIdentity.id(project) + "#");
+        return open(dir.resolve(FILE_NAME), store -> {
+            store.migrateLegacyFiles(dir, legacyPrefix);
+            store.migrateKeyPrefix(keyPrefix);
+        });
+    }
+
+    /**
+     * 获取指定日志文件的存储（同一文件共享同一实例）
+     *
+     * @param file 日志文件
+     * @return 存储
+     * @throws IOException 打开失败
+     */
+    public static ApiEditStore forFile(Path file) throws IOException {
+        return open(file, store -> {
+        });
+    }
+
+    /**
+     * @param init 首次打开时执行的迁移
+     */
+    private static ApiEditStore open(Path file, Consumer<ApiEditStore> init) throws IOException {
+        String storeKey = file.toAbsolutePath().toString();
+        ApiEditStore store = STORES.get(storeKey);
+        if (store != null) {
+            return store;
+        }
+        synchronized (STORES) {
+            store = STORES.get(storeKey);
+            if (store == null) {
+                Path dir = file.toAbsolutePath().getParent();
+                Files.createDirectories(dir);
+                store = new ApiEditStore(file, false);
+                init.accept(store);
+                STORES.put(storeKey, store);
+            }
+        }
+        return store;
+    }
+
+    /**
+     * 获取已打开的共享实例
+     *
+     * @param file 日志文件
+     * @return 共享实例，未打开时返回null
+     */
+    static ApiEditStore shared(Path file) {
+        return STORES.get(file.toAbsolutePath().toString());
+    }
+
+    /**
+     * 只读打开日志文件：不加入共享实例，不截断残缺帧，用于后台读取未打开项目的数据，使用后需关闭
+     *
+     * @param file 日志文件
+     * @return 只读存储
+     * @throws IOException 打开失败
+     */
+    static ApiEditStore openReadOnly(Path file) throws IOException {
+        return new ApiEditStore(file, true);
+    }
+
+    /**
+     * 关闭项目的存储（项目关闭时调用）
+     *
+     * @param project 项目对象
+     */
+    public static void closeProject(Project project) {
+        close(Paths.get(StorageUtil.getCacheDir(project)).resolve(FILE_NAME));
+    }
+
+    /**
+     * 关闭指定日志文件的存储
+     *
+     * @param file 日志文件
+     */
+    public static void close(Path file) {
+        ApiEditStore store = STORES.remove(file.toAbsolutePath().toString());
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                LogUtil.warn("关闭键值存储失败: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 读取值，键不存在时不产生任何磁盘读取
+     *
+     * @param key 键
+     * @return 值，不存在时返回null
+     * @throws IOException 读取失败
+     */
+    public synchronized byte[] get(String key) throws IOException {
+        Location location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(location.length);
+        long position = location.offset;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of " + file);
+            }
+        }
+        return buffer.array();
+    }
+
+    public synchronized boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * 值的字节数
+     *
+     * @param key 键
+     * @return 字节数，键不存在时返回-1
+     */
+    public synchronized int valueLength(String key) {
+        Location location = index.get(key);
+        return location != null ? location.length : -1;
+    }
+
+    /**
+     * 日志文件有效数据的字节数（含失效记录）
+     */
+    public synchronized long fileSize() {
+        return size;
+    }
+
+    /**
+     * 存活记录占用的字节数
+     */
+    public synchronized long liveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * 所有键的快照
+     */
+    public synchronized Set<String> keys() {
+        return Collections.unmodifiableSet(new HashSet<>(index.keySet()));
+    }
+
+    public synchronized void put(String key, byte[] value) throws IOException {
+        write(Collections.singletonMap(key, value), Collections.emptyList());
+    }
+
+    public synchronized void remove(String key) throws IOException {
+        if (index.containsKey(key)) {
+            write(Collections.emptyMap(), Collections.singletonList(key));
+        }
+    }
+
+    /**
+     * 批量写入：所有修改写为一帧并刷盘一次，崩溃时整体生效或整体丢弃
+     *
+     * @param puts    写入的键值
+     * @param deletes 删除的键
+     * @throws IOException 写入失败
+     */
+    public synchronized void write(Map<String, byte[]> puts, Collection<String> deletes) throws IOException {
+        if (puts.isEmpty() && deletes.isEmpty()) {
+            return;
+        }
+        if (readOnly) {
+            throw new IOException("Read-only store: " + file);
+        }
+        appendFrame(puts, deletes);
+        channel.force(false);
+        if (size > COMPACT_MIN_BYTES && liveBytes * 2 < size) {
+            compact();
+        }
+    }
+
+    /**
+     * 重写存活数据到临时文件并原子替换原日志
+     *
+     * @throws IOException 压缩失败（原日志保持不变）
+     */
+    public synchronized void compact() throws IOException {
+        if (readOnly) {
+            throw new IOException("Read-only store: " + file);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Map<String, byte[]> live = new LinkedHashMap<>();
+        for (String key : index.keySet()) {
+            live.put(key, get(key));
+        }
+        long before = size;
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            for (Map<String, byte[]> chunk : chunks(live)) {
+                writeFully(out, encodeFrame(chunk, Collections.emptyList()), out.size());
+            }
+            out.force(true);
+        }
+        channel.close();
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            load();
+        }
+        LogUtil.debug("接口编辑存储压缩: " + before + " -> " + size + " bytes, " + index.size() + " entries");
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            if (!readOnly) {
+                channel.force(true);
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * 扫描日志重建索引：末尾未写完的帧被截断；中间校验失败的帧被跳过；帧头损坏时无法定位后续帧，从该处停止
+     *
+     * @return 存在损坏（而不只是末尾未写完）的数据，需要备份后重写
+     */
+    private boolean load() throws IOException {
+        index.clear();
+        liveBytes = 0;
+        long fileSize = channel.size();
+        long position = 0;
+        long skipped = 0;
+        boolean headerDamaged = false;
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+        while (position + FRAME_HEADER_BYTES <= fileSize) {
+            header.clear();
+            readFully(header, position);
+            int length = header.getInt(0);
+            int crc = header.getInt(4);
+            if (length < 0 || length > MAX_FRAME_BYTES) {
+                headerDamaged = true;
+                break;
+            }
+            long end = position + FRAME_HEADER_BYTES + length;
+            if (end > fileSize) {
+                // 最后一帧未写完
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + FRAME_HEADER_BYTES);
+            CRC32 checksum = new CRC32();
+            checksum.update(payload.array(), 0, length);
+            if ((int) checksum.getValue() != crc || !applyFrame(payload, position + FRAME_HEADER_BYTES)) {
+                if (end == fileSize) {
+                    // 最后一帧内容不完整，视为未完成的写入
+                    break;
+                }
+                skipped += end - position;
+            }
+            position = end;
+        }
+        if (skipped > 0) {
+            LogUtil.warn("键值存储中有校验失败的帧，已跳过 " + skipped + " bytes: " + file);
+        }
+        size = position;
+        if (headerDamaged) {
+            LogUtil.warn("键值存储的帧头损坏，之后的 " + (fileSize - position) + " bytes无法读取: " + file);
+            return true;
+        }
+        if (position < fileSize && !readOnly) {
+            LogUtil.warn("键值存储存在未完成的写入，已丢弃 " + (fileSize - position) + " bytes: " + file);
+            channel.truncate(position);
+            channel.force(true);
+        }
+        return skipped > 0;
+    }
+
+    /**
+     * 重写掉损坏的数据前，把原始日志复制为同目录下的.corrupt文件
+     */
+    private void backupCorrupted() throws IOException {
+        Path backup = file.resolveSibling(file.getFileName() + "." + System.currentTimeMillis() + ".corrupt");
+        Files.copy(file, backup, StandardCopyOption.REPLACE_EXISTING);
+        LogUtil.warn("键值存储已损坏，原始日志已备份到: " + backup);
+    }
+
+    /**
+     * 应用一帧中的所有记录，结构异常时返回false（整帧不生效）
+     */
+    private boolean applyFrame(ByteBuffer payload, long payloadOffset) {
+        Map<String, Location> updates = new LinkedHashMap<>();
+        payload.rewind();
+        try {
+            while (payload.hasRemaining()) {
+                int recordStart = payload.position();
+                byte op = payload.get();
+                String key = readString(payload, payload.getInt());
+                if (op == OP_PUT) {
+                    int valueLength = payload.getInt();
+                    if (valueLength < 0 || valueLength > payload.remaining()) {
+                        return false;
+                    }
+                    long valueOffset = payloadOffset + payload.position();
+                    payload.position(payload.position() + valueLength);
+                    updates.put(key, new Location(valueOffset, valueLength, payload.position() - recordStart));
+                } else if (op == OP_DELETE) {
+                    updates.put(key, null);
+                } else {
+                    return false;
+                }
+            }
+        } catch (RuntimeException e) {
+            return false;
+        }
+        updates.forEach(this::applyLocation);
+        return true;
+    }
+
+    private void applyLocation(String key, Location location) {
+        Location previous = location == null ? index.remove(key) : index.put(key, location);
+        if (previous != null) {
+            liveBytes -= previous.recordBytes;
+        }
+        if (location != null) {
+            liveBytes += location.recordBytes;
+        }
+    }
+
+    private void appendFrame(Map<String, byte[]> puts, Collection<String> deletes) throws IOException {
+        ByteBuffer frame = encodeFrame(puts, deletes);
+        long frameStart = size;
+        try {
+            writeFully(channel, frame, frameStart);
+        } catch (IOException e) {
+            channel.truncate(frameStart);
+            throw e;
+        }
+        // 写入成功后再更新索引，写入失败时截断残缺数据
+        frame.rewind();
+        ByteBuffer payload = frame.slice();
+        payload.position(FRAME_HEADER_BYTES);
+        if (!applyFrame(payload.slice(), frameStart + FRAME_HEADER_BYTES)) {
+            channel.truncate(frameStart);
+            throw new IOException("Corrupted frame encoding");
+        }
+        size = frameStart + frame.limit();
+    }
+
+    private static ByteBuffer encodeFrame(Map<String, byte[]> puts, Collection<String> deletes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        for (String key : deletes) {
+            out.writeByte(OP_DELETE);
+            writeBytes(out, key.getBytes(StandardCharsets.UTF_8));
+        }
+        for (Map.Entry<String, byte[]> entry : puts.entrySet()) {
+            out.writeByte(OP_PUT);
+            writeBytes(out, entry.getKey().getBytes(StandardCharsets.UTF_8));
+            writeBytes(out, entry.getValue());
+        }
+        out.flush();
+        ByteBuffer frame = ByteBuffer.wrap(bytes.toByteArray());
+        int length = frame.limit() - FRAME_HEADER_BYTES;
+        CRC32 checksum = new CRC32();
+        checksum.update(frame.array(), FRAME_HEADER_BYTES, length);
+        frame.putInt(0, length);
+        frame.putInt(4, (int) checksum.getValue());
+        return frame;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] data) throws IOException {
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("Invalid length " + length);
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + file);
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel target, ByteBuffer buffer, long position) throws IOException {
+        buffer.rewind();
+        while (buffer.hasRemaining()) {
+            target.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * 按帧大小切分批量数据，避免单帧过大
+     */
+    private static List<Map<String, byte[]>> chunks(Map<String, byte[]> entries) {
+        List<Map<String, byte[]>> chunks = new ArrayList<>();
+        Map<String, byte[]> current = new LinkedHashMap<>();
+        long bytes = 0;
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            current.put(entry.getKey(), entry.getValue());
+            bytes += entry.getKey().length() * 3L + entry.getValue().length;
+            if (bytes >= BATCH_FRAME_BYTES) {
+                chunks.add(current);
+                current = new LinkedHashMap<>();
+                bytes = 0;
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    /**
+     * 迁移旧的每接口一个JSON文件的缓存：导入成功后删除旧文件；存储中已有的键以存储为准。
+     * 迁移失败时保留旧文件，下次打开时重试。
+     *
+     * @param dir    项目缓存目录
+     * @param prefix 旧缓存文件名前缀（项目名#）
+     */
+    private synchronized void migrateLegacyFiles(Path dir, String prefix) {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*" + StorageUtil.CACHE_SUFFIX)) {
+            for (Path legacy : stream) {
+                String name = legacy.getFileName().toString();
+                String key = name.substring(0, name.length() - StorageUtil.CACHE_SUFFIX.length());
+                if (!index.containsKey(key)) {
+                    entries.put(key, Files.readAllBytes(legacy));
+                }
+                files.add(legacy);
+            }
+            for (Map<String, byte[]> chunk : chunks(entries)) {
+                appendFrame(chunk, Collections.emptyList());
+            }
+            channel.force(true);
+        } catch (Exception e) {
+            LogUtil.warn("迁移接口缓存文件失败，将在下次打开时重试: " + e.getMessage());
+            return;
+        }
+        for (Path legacy : files) {
+            try {
+                Files.deleteIfExists(legacy);
+            } catch (IOException e) {
+                LogUtil.debug("删除旧缓存文件失败: " + legacy + ", " + e.getMessage());
+            }
+        }
+        if (!files.isEmpty()) {
+            LogUtil.info("已迁移 " + files.size() + " 个接口缓存文件到 " + file);
+        }
+    }
+    /**
+     * 迁移键的项目前缀：不以指定前缀开头的键，将其第一个'#'及之前的部分（旧的项目名称）替换为该前缀。
+     * 项目改名后旧键也会在下次打开时迁移；新键已存在时以新键为准，旧键直接删除。
+     *
+     * @param prefix 项目前缀（项目标识#）
+     */
+    synchronized void migrateKeyPrefix(String prefix) {
+        Map<String, byte[]> puts = new LinkedHashMap<>();
+        List<String> deletes = new ArrayList<>();
+        int migrated = 0;
+        long bytes = 0;
+        try {
+            for (String key : new ArrayList<>(index.keySet())) {
+                int separator = key.indexOf('#');
+                if (key.startsWith(prefix) || separator < 0) {
+                    continue;
+                }
+                String target = prefix + key.substring(separator + 1);
+                if (!index.containsKey(target) && !puts.containsKey(target)) {
+                    byte[] value = get(key);
+                    puts.put(target, value);
+                    bytes += value.length;
+                }
+                deletes.add(key);
+                migrated++;
+                if (bytes >= BATCH_FRAME_BYTES) {
+                    // 新键写入与旧键删除在同一帧，中断时不会丢失数据
+                    appendFrame(puts, deletes);
+                    puts.clear();
+                    deletes.clear();
+                    bytes = 0;
+                }
+            }
+            if (migrated == 0) {
+                return;
+            }
+            if (!deletes.isEmpty()) {
+                appendFrame(puts, deletes);
+            }
+            channel.force(true);
+            LogUtil.info("已迁移 " + migrated + " 个接口编辑键到项目标识 " + prefix);
+        } catch (IOException e) {
+            LogUtil.warn("迁移接口编辑键失败，将在下次打开时重试: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ljh.request.requestman.util;
+
+/**
+ * 单条断言的执行结果。
+ *
+ * @author leijianhui
+ * @Description 响应断言结果：名称、表达式、是否通过、实际值与说明。
+ * @date 2025/09/12 15:00
+ */
+public class AssertionResult {
+
+    private final String name;
+    private final String expression;
+    private final boolean passed;
+    private final String actual;
+    private final String message;
+
+    public AssertionResult(String name, String expression, boolean passed, String actual, String message) {
+        this.name = name;
+        this.expression = expression;
+        this.passed = passed;
+        this.actual = actual;
+        this.message = message;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public boolean isPassed() {
+        return passed;
+    }
+
+    /**
+     * 实际值，无法取得时为null
+     */
+    public String getActual() {
+        return actual;
+    }
+
+    /**
+     * 失败或跳过的说明，正常通过时为空串
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return (passed ? "✔ " : "✘ ") + name + ": " + expression + (message == null || message.isEmpty() ? "" : " (" + message + ")");
+    }
+}
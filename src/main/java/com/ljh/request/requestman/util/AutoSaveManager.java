@@ -17,6 +17,7 @@ import com.ljh.request.requestman.ui.BodyPanel;
 import com.ljh.request.requestman.ui.CookiesPanel;
 import com.ljh.request.requestman.ui.HeadersPanel;
 import com.ljh.request.requestman.ui.PostOpPanel;
+import com.ljh.request.requestman.ui.PreOpPanel;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.swing.*;
@@ -261,6 +262,7 @@ public class AutoSaveManager {
         content.put("authMode", String.valueOf(apiInfo.getAuthMode()));
         content.put("authValue", nullToEmpty(apiInfo.getAuthValue()));
         // 扫描模式下postOp
+        content.put("preOp", getJsonPreOp(apiInfo.getPreOps()));
         content.put("postOp", getJsonPostOp(apiInfo.getPostOps()));
         content.put("cookie", getJsonCookie(apiInfo.getCookieItems()));
         this.localCacheSupplier = (() -> content);
@@ -306,6 +308,7 @@ public class AutoSaveManager {
             originalContent.put("authMode", String.valueOf(currentEditingApi.getAuthMode()));
             originalContent.put("authValue", nullToEmpty(currentEditingApi.getAuthValue()));
             originalContent.put("bodyType", nullToEmpty(currentEditingApi.getBodyType()));
+            originalContent.put("preOp", getJsonPreOp(currentEditingApi.getPreOps()));
             originalContent.put("postOp", getJsonPostOp(currentEditingApi.getPostOps()));
             originalContent.put("cookie", getJsonCookie(currentEditingApi.getCookieItems()));
 
@@ -345,6 +348,7 @@ public class AutoSaveManager {
             originalContent.put("authMode", String.valueOf(currentScanningApi.getAuthMode()));
             originalContent.put("authValue", nullToEmpty(currentScanningApi.getAuthValue()));
             // 扫描模式下postOp
+            originalContent.put("preOp", getJsonPreOp(currentScanningApi.getPreOps()));
             originalContent.put("postOp", getJsonPostOp(currentScanningApi.getPostOps()));
             originalContent.put("cookie", getJsonCookie(currentScanningApi.getCookieItems()));
 
@@ -356,6 +360,27 @@ public class AutoSaveManager {
         hasUnsavedChanges = false;
     }
 
+    /**
+     * 获取PreOp json
+     *
+     * @param preOps
+     * @return
+     */
+    private String getJsonPreOp(List<PreOpPanel.PreOpItem> preOps) {
+        if (preOps == null || preOps.isEmpty()) {
+            return "";
+        }
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (PreOpPanel.PreOpItem preOpItem : preOps) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("name", preOpItem.getName());
+            map.put("value", nullToEmpty(preOpItem.getValue()));
+            map.put("type", preOpItem.getType());
+            list.add(map);
+        }
+        return JSONUtil.toJsonStr(list);
+    }
+
     /**
      * 获取PostOp json
      *
@@ -707,7 +732,7 @@ public class AutoSaveManager {
                         continue;
                     }
                     Map<String, Object> map = new LinkedHashMap<>();
-                    if ("postOp".equals(fieldName)) {
+                    if ("postOp".equals(fieldName) || "preOp".equals(fieldName)) {
                         map.put("name", name);
 
                         String type = String.valueOf(table.getValueAt(row, 1));
@@ -0,0 +1,289 @@
+package com.ljh.request.requestman.util;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 大请求体的内容寻址存储：超过阈值的请求体以SHA-256命名、gzip压缩后保存在缓存根目录的blobs下，
+ * 记录中只保存哈希（bodyBlob字段）。相同内容只存一份，内容未变时保存不再重写请求体。
+ * 读取时由模型在首次访问请求体时按哈希加载。导入导出与复制使用普通JSON序列化，请求体始终内联；
+ * 共享的自定义接口文件同样内联（见{@link #toInlineJson}）。
+ * 不再被任何记录引用的blob由{@link CacheGarbageCollector}清理。
+ *
+ * @author leijianhui
+ * @Description 请求体内容寻址存储（按哈希去重、gzip压缩、延迟读取）。
+ * @date 2025/09/17 10:00
+ */
+public final class BodyBlobStore {
+
+    /**
+     * 外置存储的请求体长度阈值（字符数）
+     */
+    public static final int THRESHOLD = 16 * 1024;
+
+    /**
+     * 记录中保存哈希的字段名
+     */
+    static final String BLOB_FIELD = "bodyBlob";
+
+    private static final String BODY_FIELD = "body";
+
+    private static final String DIR_NAME = "blobs";
+
+    private static final String SUFFIX = ".gz";
+
+    /**
+     * 同一内容可能被多个线程同时写入，写临时文件需串行
+     */
+    private static final Object WRITE_LOCK = new Object();
+
+    private BodyBlobStore() {
+    }
+
+    /**
+     * 支持外置请求体的模型
+     */
+    public interface Holder {
+        /**
+         * @return 请求体未修改时对应的哈希，否则返回null
+         */
+        String bodyBlob();
+
+        /**
+         * 关联已存储的请求体，内容在首次访问时读取
+         *
+         * @param hash 请求体哈希
+         */
+        void attachBodyBlob(String hash);
+    }
+
+    /**
+     * 序列化为存储用JSON：大请求体写入blob（内容已存在时不重复写），记录中以哈希代替
+     *
+     * @param bean 模型
+     * @return JSON文本
+     * @throws IOException 写入blob失败
+     */
+    public static String toJson(Holder bean) throws IOException {
+        String hash = bean.bodyBlob();
+        JSONObject obj = JSONUtil.parseObj(bean);
+        if (hash == null) {
+            String body = obj.getStr(BODY_FIELD);
+            if (body == null || body.length() < THRESHOLD) {
+                return obj.toString();
+            }
+            hash = store(body);
+        }
+        obj.remove(BODY_FIELD);
+        obj.set(BLOB_FIELD, hash);
+        return obj.toString();
+    }
+
+    /**
+     * 序列化为内联请求体的JSON（用于多人共享的文件，各编辑者的blob目录互不可见）；
+     * 已外置的请求体读取后内联，读取失败（blob缺失或损坏）时保留哈希，不以空请求体覆盖
+     *
+     * @param bean 模型
+     * @return JSON文本
+     */
+    public static String toInlineJson(Holder bean) {
+        String hash = bean.bodyBlob();
+        JSONObject obj = JSONUtil.parseObj(bean);
+        if (hash != null) {
+            try {
+                obj.set(BODY_FIELD, read(hash));
+            } catch (IOException | IllegalArgumentException e) {
+                obj.remove(BODY_FIELD);
+                obj.set(BLOB_FIELD, hash);
+            }
+        }
+        return obj.toString();
+    }
+
+    /**
+     * 请求体是否已存储在本机
+     *
+     * @param hash 请求体哈希
+     * @return blob存在时返回true
+     */
+    public static boolean exists(String hash) {
+        try {
+            return Files.isRegularFile(blobPath(hash));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 从存储用JSON还原模型，外置的请求体延迟读取
+     *
+     * @param json JSON文本
+     * @param type 模型类型
+     * @return 模型
+     */
+    public static <T extends Holder> T fromJson(String json, Class<T> type) {
+        return fromJson(JSONUtil.parseObj(json), type);
+    }
+
+    /**
+     * 从存储用JSON数组还原模型列表
+     *
+     * @param json JSON数组文本
+     * @param type 模型类型
+     * @return 模型列表
+     */
+    public static <T extends Holder> List<T> listFromJson(String json, Class<T> type) {
+        JSONArray array = JSONUtil.parseArray(json);
+        List<T> list = new ArrayList<>(array.size());
+        for (int i = 0; i < array.size(); i++) {
+            list.add(fromJson(array.getJSONObject(i), type));
+        }
+        return list;
+    }
+
+    private static <T extends Holder> T fromJson(JSONObject obj, Class<T> type) {
+        Object hash = obj.remove(BLOB_FIELD);
+        T bean = obj.toBean(type);
+        if (hash != null) {
+            bean.attachBodyBlob(hash.toString());
+        }
+        return bean;
+    }
+
+    /**
+     * 读取请求体
+     *
+     * @param hash 请求体哈希
+     * @return 请求体内容
+     * @throws IOException blob不存在或已损坏
+     */
+    public static String read(String hash) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(blobPath(hash)))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 已存储请求体的文件大小（压缩后字节数），不读取内容
+     *
+     * @param hash 请求体哈希
+     * @return 字节数，blob不存在时返回0
+     */
+    public static long storedSize(String hash) {
+        try {
+            return Files.size(blobPath(hash));
+        } catch (IOException | IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 保存请求体，按内容哈希命名，已存在时不重复写入
+     *
+     * @param body 请求体
+     * @return 哈希
+     * @throws IOException 写入失败
+     */
+    static String store(String body) throws IOException {
+        byte[] data = body.getBytes(StandardCharsets.UTF_8);
+        String hash = sha256(data);
+        Path file = blobPath(hash);
+        synchronized (WRITE_LOCK) {
+            if (!Files.exists(file)) {
+                PersistenceQueue.writeAtomically(file, out -> {
+                    GZIPOutputStream gzip = new GZIPOutputStream(out);
+                    gzip.write(data);
+                    gzip.finish();
+                });
+            } else {
+                // 刷新修改时间，清理时视为最近被引用
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * 删除未被引用的blob。修改时间在宽限期内的不删除，避免删除刚写入、记录尚未保存的请求体
+     *
+     * @param referenced  所有记录引用的哈希
+     * @param graceMillis 宽限期（毫秒）
+     * @return 已删除的哈希及其文件字节数
+     */
+    static Map<String, Long> sweep(Set<String> referenced, long graceMillis) {
+        Map<String, Long> removed = new LinkedHashMap<>();
+        Path dir = blobDir();
+        if (!Files.isDirectory(dir)) {
+            return removed;
+        }
+        long cutoff = System.currentTimeMillis() - graceMillis;
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(dir, Files::isDirectory)) {
+            for (Path shard : shards) {
+                try (DirectoryStream<Path> blobs = Files.newDirectoryStream(shard, "*" + SUFFIX)) {
+                    for (Path blob : blobs) {
+                        String name = blob.getFileName().toString();
+                        String hash = name.substring(0, name.length() - SUFFIX.length());
+                        if (referenced.contains(hash)) {
+                            continue;
+                        }
+                        synchronized (WRITE_LOCK) {
+                            if (Files.getLastModifiedTime(blob).toMillis() < cutoff) {
+                                long bytes = Files.size(blob);
+                                Files.delete(blob);
+                                removed.put(hash, bytes);
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LogUtil.warn("清理请求体存储失败: " + e.getMessage());
+        }
+        return removed;
+    }
+
+    /**
+     * blob存放目录（跨项目共享，相同请求体只存一份）
+     */
+    static Path blobDir() {
+        return Paths.get(StorageUtil.getCacheRoot(), DIR_NAME);
+    }
+
+    /**
+     * 按哈希前两位分子目录，避免单个目录文件过多
+     */
+    private static Path blobPath(String hash) {
+        if (!hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("invalid blob hash: " + hash);
+        }
+        return blobDir().resolve(hash.substring(0, 2)).resolve(hash + SUFFIX);
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.ljh.request.requestman.util;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.ljh.request.requestman.model.ApiInfo;
+import com.ljh.request.requestman.search.ProjectApiScanner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 缓存垃圾回收：把接口编辑存储中的键与实时扫描的接口列表比对，找出已删除或改名接口留下的孤立条目。
+ * 孤立条目首次发现时只记录时间（保存在项目数据目录的cache_gc.json中），持续孤立超过保留天数后才删除，
+ * 避免扫描超时或索引未就绪导致的接口缺失误删用户编辑；删除后压缩存储。
+ * 同时清理不再被任何项目记录引用的请求体blob。
+ * 项目打开后延迟在低优先级后台线程执行一次，也可在设置页手动分析。
+ *
+ * @author leijianhui
+ * @Description 接口编辑缓存的孤立条目检测、按保留策略清理与压缩。
+ * @date 2025/09/19 10:00
+ */
+public final class CacheGarbageCollector {
+
+    /**
+     * 孤立条目保留天数配置key，0表示不自动清理
+     */
+    public static final String ORPHAN_RETENTION_DAYS_KEY = "requestman.orphanRetentionDays";
+
+    /**
+     * 默认孤立条目保留天数
+     */
+    public static final int DEFAULT_ORPHAN_RETENTION_DAYS = 30;
+
+    /**
+     * 孤立条目首次发现时间的记录文件（位于项目数据目录下）
+     */
+    static final String STATE_FILE = "cache_gc.json";
+
+    /**
+     * 项目打开后的延迟执行时间（分钟），避开启动期的索引与扫描
+     */
+    private static final long START_DELAY_MINUTES = 10;
+
+    /**
+     * blob清理宽限期，保护刚写入、记录尚未保存的请求体
+     */
+    private static final long BLOB_GRACE_MS = TimeUnit.DAYS.toMillis(1);
+
+    private static final Pattern BLOB_REFERENCE = Pattern.compile("\"" + BodyBlobStore.BLOB_FIELD + "\"\\s*:\\s*\"([0-9a-f]{64})\"");
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "RequestMan-CacheGC");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    /**
+     * blob清理需要读取所有项目的数据，每次IDE运行自动执行一次
+     */
+    private static final AtomicBoolean BLOBS_COLLECTED = new AtomicBoolean(false);
+
+    private CacheGarbageCollector() {
+    }
+
+    /**
+     * 安排项目打开后的后台清理
+     *
+     * @param project 项目对象
+     */
+    public static void schedule(Project project) {
+        SCHEDULER.schedule(() -> {
+            if (project.isDisposed()) {
+                return;
+            }
+            try {
+                Report report = collect(project, Collections.emptySet());
+                if (report.evicted > 0 || report.blobsRemoved > 0) {
+                    LogUtil.info("[RequestMan] 缓存清理: " + report.summary());
+                } else {
+                    LogUtil.debug("缓存清理: " + report.summary());
+                }
+            } catch (Exception e) {
+                LogUtil.warn("缓存清理失败: " + e.getMessage());
+            }
+        }, START_DELAY_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 获取孤立条目保留天数
+     *
+     * @return 天数，0表示不自动清理
+     */
+    public static int getOrphanRetentionDays() {
+        try {
+            return Math.max(0, Integer.parseInt(PropertiesComponent.getInstance()
+                    .getValue(ORPHAN_RETENTION_DAYS_KEY, String.valueOf(DEFAULT_ORPHAN_RETENTION_DAYS))));
+        } catch (NumberFormatException e) {
+            return DEFAULT_ORPHAN_RETENTION_DAYS;
+        }
+    }
+
+    /**
+     * 只分析不修改：统计孤立条目及其占用空间（耗时操作，需在后台线程调用）
+     *
+     * @param project 项目对象
+     * @return 分析结果
+     * @throws IOException 读取存储失败
+     */
+    public static Report analyze(Project project) throws IOException {
+        return inspect(project, ApiEditStore.forProject(project));
+    }
+
+    /**
+     * 分析并清理：删除持续孤立超过保留天数的条目并压缩存储，然后清理未引用的blob（耗时操作，需在后台线程调用）
+     *
+     * @param project  项目对象
+     * @param evictNow 需立即删除的键（手动清理时为用户确认过的孤立条目），只在本次分析中仍为孤立时删除
+     * @return 清理结果
+     * @throws IOException 读写存储失败
+     */
+    public static Report collect(Project project, Set<String> evictNow) throws IOException {
+        ApiEditStore store = ApiEditStore.forProject(project);
+        Report report = inspect(project, store);
+        if (report.skipped) {
+            return report;
+        }
+        Path stateFile = ProjectIdentity.dataDir(project).resolve(STATE_FILE);
+        Map<String, Long> firstSeen = loadState(stateFile);
+        long now = System.currentTimeMillis();
+        // 已恢复的键不再记录
+        firstSeen.keySet().retainAll(report.orphans.keySet());
+        for (String key : report.orphans.keySet()) {
+            firstSeen.putIfAbsent(key, now);
+        }
+        int retentionDays = getOrphanRetentionDays();
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : firstSeen.entrySet()) {
+            boolean due = retentionDays > 0 && now - entry.getValue() >= TimeUnit.DAYS.toMillis(retentionDays);
+            if (due || evictNow.contains(entry.getKey())) {
+                expired.add(entry.getKey());
+            }
+        }
+        if (!expired.isEmpty()) {
+            for (String key : expired) {
+                report.evictedBytes += Math.max(0, report.orphans.get(key));
+                firstSeen.remove(key);
+            }
+            store.write(Collections.emptyMap(), expired);
+            report.evicted = expired.size();
+            if (store.fileSize() > store.liveBytes()) {
+                store.compact();
+            }
+            report.sizeAfter = store.fileSize();
+        }
+        saveState(stateFile, firstSeen);
+        if (!evictNow.isEmpty() || BLOBS_COLLECTED.compareAndSet(false, true)) {
+            collectBlobs(report);
+        }
+        return report;
+    }
+
+    /**
+     * 比对存储中的键与实时接口列表
+     */
+    private static Report inspect(Project project, ApiEditStore store) {
+        Report report = new Report();
+        report.entries = store.keys().size();
+        report.sizeBefore = store.fileSize();
+        report.sizeAfter = report.sizeBefore;
+        Set<String> live = liveKeys(project);
+        if (live == null) {
+            // 扫描超时或未完成，结果只是部分接口，缺失的接口不能认定为已删除
+            report.skipped = true;
+            report.incompleteScan = true;
+            return report;
+        }
+        report.liveEndpoints = live.size();
+        if (live.isEmpty()) {
+            // 未扫描到任何接口时无法区分"接口已删除"与"扫描失败"，不做判断
+            report.skipped = true;
+            return report;
+        }
+        String prefix = StorageUtil.safeFileName(ProjectIdentity.id(project) + "#");
+        List<Map.Entry<String, Long>> orphans = new ArrayList<>();
+        for (String key : store.keys()) {
+            if (key.startsWith(prefix) && !live.contains(key)) {
+                orphans.add(Map.entry(key, (long) store.valueLength(key)));
+            }
+        }
+        orphans.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        for (Map.Entry<String, Long> orphan : orphans) {
+            report.orphans.put(orphan.getKey(), orphan.getValue());
+            report.orphanBytes += Math.max(0, orphan.getValue());
+        }
+        return report;
+    }
+
+    /**
+     * 扫描项目中的所有接口，生成与编辑存储相同格式的键
+     *
+     * @return 键集合，扫描超时或未完成时返回null
+     */
+    private static Set<String> liveKeys(Project project) {
+        DumbService.getInstance(project).waitForSmartMode();
+        boolean includeLibs = PropertiesComponent.getInstance().getBoolean("requestman.includeLibs", false);
+        GlobalSearchScope scope = includeLibs ? GlobalSearchScope.allScope(project) : GlobalSearchScope.projectScope(project);
+        List<ApiInfo> apis = ProjectApiScanner.scanApisCompletely(project, scope);
+        if (apis == null) {
+            return null;
+        }
+        Set<String> keys = new HashSet<>(apis.size() * 2);
+        for (ApiInfo api : apis) {
+            keys.add(StorageUtil.safeFileName(StorageUtil.buildApiKey(api, project)));
+        }
+        return keys;
+    }
+
+    /**
+     * 收集所有项目数据目录中引用的blob，删除其余的。任一存储读取失败时放弃本次清理
+     */
+    private static void collectBlobs(Report report) {
+        Set<String> referenced = new HashSet<>();
+        for (Path dir : dataDirs()) {
+            try {
+                collectEditReferences(dir.resolve(ApiEditStore.FILE_NAME), referenced);
+                collectJsonReferences(dir.resolve("custom_apis.json"), referenced);
+            } catch (Exception e) {
+                LogUtil.warn("读取blob引用失败，跳过本次blob清理: " + dir + " - " + e.getMessage());
+                return;
+            }
+        }
+        Map<String, Long> removed = BodyBlobStore.sweep(referenced, BLOB_GRACE_MS);
+        report.blobsRemoved = removed.size();
+        for (long bytes : removed.values()) {
+            report.blobBytes += bytes;
+        }
+    }
+
+    /**
+     * 所有可能引用blob的目录：各项目数据目录，以及尚未迁移的旧版本按项目名称命名的目录
+     */
+    private static List<Path> dataDirs() {
+        List<Path> dirs = new ArrayList<>();
+        Path root = Paths.get(StorageUtil.getCacheRoot());
+        Path blobDir = BodyBlobStore.blobDir();
+        Path projectsDir = root.resolve(ProjectIdentity.PROJECTS_DIR);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path dir : stream) {
+                if (!dir.equals(blobDir) && !dir.equals(projectsDir)) {
+                    dirs.add(dir);
+                }
+            }
+        } catch (IOException e) {
+            LogUtil.debug("列出缓存目录失败: " + e.getMessage());
+        }
+        if (Files.isDirectory(projectsDir)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(projectsDir, Files::isDirectory)) {
+                for (Path dir : stream) {
+                    dirs.add(dir);
+                }
+            } catch (IOException e) {
+                LogUtil.debug("列出项目数据目录失败: " + e.getMessage());
+            }
+        }
+        return dirs;
+    }
+
+    /**
+     * 读取编辑存储中每条记录引用的blob；已打开的项目使用共享实例，否则只读打开
+     */
+    private static void collectEditReferences(Path file, Set<String> referenced) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        ApiEditStore shared = ApiEditStore.shared(file);
+        ApiEditStore store = shared != null ? shared : ApiEditStore.openReadOnly(file);
+        try {
+            for (String key : store.keys()) {
+                byte[] value = store.get(key);
+                if (value == null) {
+                    continue;
+                }
+                String hash = ApiCacheStorage.decode(value).bodyBlob();
+                if (hash != null) {
+                    referenced.add(hash);
+                }
+            }
+        } finally {
+            if (shared == null) {
+                store.close();
+            }
+        }
+    }
+
+    private static void collectJsonReferences(Path file, Set<String> referenced) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        Matcher matcher = BLOB_REFERENCE.matcher(Files.readString(file, StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            referenced.add(matcher.group(1));
+        }
+    }
+
+    private static Map<String, Long> loadState(Path file) {
+        Map<String, Long> state = new HashMap<>();
+        if (!Files.exists(file)) {
+            return state;
+        }
+        try {
+            JSONObject json = JSONUtil.parseObj(Files.readString(file, StandardCharsets.UTF_8));
+            for (String key : json.keySet()) {
+                Long time = json.getLong(key);
+                if (time != null) {
+                    state.put(key, time);
+                }
+            }
+        } catch (Exception e) {
+            LogUtil.debug("读取缓存清理记录失败，重新记录: " + e.getMessage());
+        }
+        return state;
+    }
+
+    private static void saveState(Path file, Map<String, Long> state) {
+        try {
+            if (state.isEmpty()) {
+                Files.deleteIfExists(file);
+            } else {
+                PersistenceQueue.writeAtomically(file, JSONUtil.toJsonStr(state).getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            LogUtil.warn("保存缓存清理记录失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 分析与清理结果
+     */
+    public static final class Report {
+        private int entries;
+        private int liveEndpoints;
+        private boolean skipped;
+        /**
+         * 因扫描超时或未完成而跳过
+         */
+        private boolean incompleteScan;
+        /**
+         * 孤立条目及其字节数，按字节数降序
+         */
+        private final Map<String, Long> orphans = new LinkedHashMap<>();
+        private long orphanBytes;
+        private int evicted;
+        private long evictedBytes;
+        private long sizeBefore;
+        private long sizeAfter;
+        private int blobsRemoved;
+        private long blobBytes;
+
+        public int getOrphanCount() {
+            return orphans.size();
+        }
+
+        /**
+         * 孤立条目的键
+         */
+        public Set<String> getOrphanKeys() {
+            return Collections.unmodifiableSet(orphans.keySet());
+        }
+
+        public boolean isSkipped() {
+            return skipped;
+        }
+
+        /**
+         * 单行摘要
+         */
+        public String summary() {
+            if (skipped) {
+                return (incompleteScan ? "endpoint scan incomplete" : "no endpoints found") + ", skipped (" + entries + " entries)";
+            }
+            return entries + " entries, " + liveEndpoints + " live endpoints, " + orphans.size() + " orphaned ("
+                    + kb(orphanBytes) + " KB), evicted " + evicted + " (" + kb(evictedBytes) + " KB), log "
+                    + kb(sizeBefore) + " -> " + kb(sizeAfter) + " KB, blobs removed " + blobsRemoved + " ("
+                    + kb(blobBytes) + " KB)";
+        }
+
+        /**
+         * 详细报告，最多列出前limit个孤立条目
+         *
+         * @param limit 列出的条目数上限
+         * @return 报告文本
+         */
+        public String format(int limit) {
+            StringBuilder text = new StringBuilder();
+            text.append("=== RequestMan Cache Report ===\n");
+            text.append(String.format("Stored entries:   %d (%.1f KB on disk)%n", entries, sizeBefore / 1024.0));
+            if (skipped) {
+                text.append(incompleteScan
+                        ? "The endpoint scan timed out or did not finish; orphan detection skipped.\n"
+                        : "No endpoints were found in the project; orphan detection skipped.\n");
+                return text.toString();
+            }
+            text.append(String.format("Live endpoints:   %d%n", liveEndpoints));
+            text.append(String.format("Orphaned entries: %d (%.1f KB)%n", orphans.size(), orphanBytes / 1024.0));
+            if (evicted > 0 || blobsRemoved > 0) {
+                text.append(String.format("Evicted:          %d (%.1f KB), log %.1f -> %.1f KB%n", evicted, evictedBytes / 1024.0,
+                        sizeBefore / 1024.0, sizeAfter / 1024.0));
+                text.append(String.format("Blobs removed:    %d (%.1f KB)%n", blobsRemoved, blobBytes / 1024.0));
+            }
+            int listed = 0;
+            for (Map.Entry<String, Long> orphan : orphans.entrySet()) {
+                if (listed++ == limit) {
+                    text.append("  ... ").append(orphans.size() - limit).append(" more\n");
+                    break;
+                }
+                int separator = orphan.getKey().indexOf('#');
+                text.append(String.format("  %8.1f KB  %s%n", orphan.getValue() / 1024.0, orphan.getKey().substring(separator + 1)));
+            }
+            return text.toString();
+        }
+
+        private static long kb(long bytes) {
+            return bytes / 1024;
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package com.ljh.request.requestman.util;
+
+import cn.hutool.http.HttpResponse;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.intellij.openapi.project.Project;
+import com.ljh.request.requestman.model.CustomApiInfo;
+import com.ljh.request.requestman.ui.PostOpPanel.PostOpItem;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 自定义接口批量运行器。
+ * 按给定顺序执行一组自定义接口，支持并行度、CSV/JSON数据驱动的多轮迭代，
+ * 以及步骤间通过后置操作提取的变量串联（顺序执行时同一轮内后续步骤可引用前序结果）。
+ * 变量按"请求 -> 迭代 -> 集合 -> 环境 -> 全局"分层，每个步骤有独立的请求层，
+ * 提取结果不会写入全局变量池，除非运行结束后显式提升。
+ * 步骤的断言随请求求值，耗时聚合断言（p95等）在运行结束后按接口汇总求值。
+ *
+ * @author leijianhui
+ * @Description 自定义接口批量运行器，支持并行、数据驱动迭代与变量串联。
+ * @date 2025/09/08 10:15
+ */
+public class CollectionRunner {
+
+    /**
+     * 批量运行共用执行器（虚拟线程优先）
+     */
+    private static final ExecutorService EXECUTOR = RequestExecutors.newRequestExecutor("RequestMan-CollectionRunner");
+
+    private final Project project;
+
+    /**
+     * 按执行顺序排列的接口
+     */
+    private final List<CustomApiInfo> apis;
+
+    /**
+     * 并行度，1表示顺序执行
+     */
+    private final int parallelism;
+
+    /**
+     * 迭代数据，每个元素为一轮的变量
+     */
+    private final List<Map<String, String>> iterations;
+
+    /**
+     * 失败时是否停止后续步骤
+     */
+    private final boolean stopOnFailure;
+
+    /**
+     * 集合层变量：保存各步骤提取的最新结果，运行结束后可提升到全局
+     */
+    private VariableContext collectionContext;
+
+    /**
+     * 进行中的请求句柄，用于取消
+     */
+    private final Set<RequestHandle> activeHandles = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean cancelled;
+
+    /**
+     * 单个步骤完成回调（在工作线程上调用）
+     */
+    public interface Listener {
+        /**
+         * 步骤完成
+         *
+         * @param result    步骤结果
+         * @param completed 已完成步骤数
+         * @param total     总步骤数
+         */
+        void onStepFinished(StepResult result, int completed, int total);
+    }
+
+    /**
+     * 单个步骤的执行结果
+     */
+    public static class StepResult {
+        private final int iteration;
+        private final CustomApiInfo api;
+        private final int status;
+        private final long durationMs;
+        private final boolean passed;
+        private final String message;
+        private final List<AssertionResult> assertions;
+        private boolean skipped;
+
+        public StepResult(int iteration, CustomApiInfo api, int status, long durationMs, boolean passed, String message) {
+            this(iteration, api, status, durationMs, passed, message, Collections.emptyList());
+        }
+
+        public StepResult(int iteration, CustomApiInfo api, int status, long durationMs, boolean passed, String message,
+                          List<AssertionResult> assertions) {
+            this.iteration = iteration;
+            this.api = api;
+            this.status = status;
+            this.durationMs = durationMs;
+            this.passed = passed;
+            this.message = message;
+            this.assertions = assertions;
+        }
+
+        public int getIteration() {
+            return iteration;
+        }
+
+        public CustomApiInfo getApi() {
+            return api;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public boolean isPassed() {
+            return passed;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * 本步骤的断言结果（不含耗时聚合断言）
+         */
+        public List<AssertionResult> getAssertions() {
+            return assertions;
+        }
+
+        /**
+         * 是否因运行被取消（或失败停止）而未执行
+         */
+        public boolean isSkipped() {
+            return skipped;
+        }
+
+        /**
+         * 未执行步骤的结果
+         */
+        static StepResult skipped(int iteration, CustomApiInfo api) {
+            StepResult result = new StepResult(iteration, api, 0, 0, false, RequestManBundle.message("runner.skipped.message"));
+            result.skipped = true;
+            return result;
+        }
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param project       项目对象
+     * @param apis          按执行顺序排列的接口
+     * @param parallelism   并行度，1表示顺序执行
+     * @param iterations    迭代数据，为空时执行一轮
+     * @param stopOnFailure 失败时是否停止
+     */
+    public CollectionRunner(Project project, List<CustomApiInfo> apis, int parallelism,
+                            List<Map<String, String>> iterations, boolean stopOnFailure) {
+        this.project = project;
+        this.apis = new ArrayList<>(apis);
+        this.parallelism = Math.max(1, parallelism);
+        this.iterations = iterations == null || iterations.isEmpty() ? List.of(Map.of()) : iterations;
+        this.stopOnFailure = stopOnFailure;
+    }
+
+    /**
+     * 总步骤数
+     */
+    public int getTotalSteps() {
+        return apis.size() * iterations.size();
+    }
+
+    /**
+     * 执行全部步骤，阻塞直到完成或被取消（需在后台线程调用）
+     *
+     * @param listener 步骤完成回调
+     * @return 所有已执行步骤的结果
+     */
+    public List<StepResult> run(Listener listener) {
+        List<StepResult> results = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger completed = new AtomicInteger();
+        int total = getTotalSteps();
+        VariableContext collection = VariableContext.root(project).child(VariableContext.Scope.COLLECTION);
+        collectionContext = collection;
+        if (parallelism == 1) {
+            // 取消后剩余步骤仍逐个报告为未执行，汇总中的步骤数与总数一致
+            for (int i = 0; i < iterations.size(); i++) {
+                // 同一轮的步骤共享迭代层，后置操作的提取结果对后续步骤可见
+                VariableContext iteration = collection.child(VariableContext.Scope.ITERATION, iterations.get(i));
+                for (CustomApiInfo api : apis) {
+                    StepResult result = cancelled ? StepResult.skipped(i + 1, api) : runStep(i + 1, api, iteration, true);
+                    results.add(result);
+                    listener.onStepFinished(result, completed.incrementAndGet(), total);
+                    if (!result.isPassed() && stopOnFailure) {
+                        cancelled = true;
+                    }
+                }
+            }
+            return results;
+        }
+        // 并行模式：所有步骤同时提交，由信号量限制并行度；各步骤请求层相互隔离，仅共享本轮数据行
+        Semaphore permits = new Semaphore(parallelism);
+        CountDownLatch latch = new CountDownLatch(total);
+        for (int i = 0; i < iterations.size(); i++) {
+            VariableContext scope = collection.child(VariableContext.Scope.ITERATION, iterations.get(i));
+            int iteration = i + 1;
+            for (CustomApiInfo api : apis) {
+                EXECUTOR.submit(() -> {
+                    StepResult result = null;
+                    try {
+                        permits.acquire();
+                        try {
+                            if (!cancelled) {
+                                result = runStep(iteration, api, scope, false);
+                                if (!result.isPassed() && stopOnFailure) {
+                                    cancel();
+                                }
+                            }
+                        } finally {
+                            permits.release();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        // 开始前已取消的步骤报告为未执行
+                        if (result == null) {
+                            result = StepResult.skipped(iteration, api);
+                        }
+                        results.add(result);
+                        listener.onStepFinished(result, completed.incrementAndGet(), total);
+                        latch.countDown();
+                    }
+                });
+            }
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            cancel();
+            Thread.currentThread().interrupt();
+        }
+        return results;
+    }
+
+    /**
+     * 取消尚未执行的步骤并中断进行中的请求
+     */
+    public void cancel() {
+        cancelled = true;
+        for (RequestHandle handle : activeHandles) {
+            handle.cancel();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 将本次运行提取到的变量（每个变量取最后一次结果）显式提升到全局变量池
+     */
+    public void promoteToGlobal() {
+        if (collectionContext != null) {
+            collectionContext.promoteAll();
+        }
+    }
+
+    /**
+     * 按接口汇总求值耗时聚合断言（如"p95 &lt; 300"），样本为该接口所有已完成步骤的耗时
+     *
+     * @param results 运行结果
+     * @return 聚合断言结果，名称为"接口名 / 断言名"
+     */
+    public static List<AssertionResult> evaluateAggregates(List<StepResult> results) {
+        Map<CustomApiInfo, List<Long>> durations = new LinkedHashMap<>();
+        synchronized (results) {
+            for (StepResult result : results) {
+                if (result.getStatus() > 0) {
+                    durations.computeIfAbsent(result.getApi(), k -> new ArrayList<>()).add(result.getDurationMs());
+                }
+            }
+        }
+        List<AssertionResult> aggregates = new ArrayList<>();
+        for (Map.Entry<CustomApiInfo, List<Long>> entry : durations.entrySet()) {
+            CustomApiInfo api = entry.getKey();
+            if (api.getPostOps() == null) {
+                continue;
+            }
+            for (PostOpItem item : api.getPostOps()) {
+                if (item == null || !CompiledPostOp.TYPE_ASSERT.equals(item.type) || item.value == null) {
+                    continue;
+                }
+                ResponseAssertion assertion = CompiledPostOp.compile(item.type, item.value).getAssertion();
+                if (assertion != null && assertion.isAggregate()) {
+                    aggregates.add(assertion.evaluateAggregate(api.getName() + " / " + item.name, entry.getValue()));
+                }
+            }
+        }
+        return aggregates;
+    }
+
+    /**
+     * 执行单个步骤
+     *
+     * @param iteration      轮次
+     * @param api            接口
+     * @param iterationScope 迭代层上下文
+     * @param chain          是否把提取结果合并到迭代层供后续步骤使用
+     */
+    private StepResult runStep(int iteration, CustomApiInfo api, VariableContext iterationScope, boolean chain) {
+        RequestParams params = RequestSenderManager.buildRequestParams(project, api);
+        VariableContext requestScope = iterationScope.child(VariableContext.Scope.REQUEST);
+        params.setVariableContext(requestScope);
+        RequestHandle handle = new RequestHandle();
+        params.setRequestHandle(handle);
+        activeHandles.add(handle);
+        RequestExecutors.scheduleTotalTimeout(handle, params.getTotalTimeout());
+        long start = System.currentTimeMillis();
+        try (HttpResponse response = RequestSender.sendRequestRaw(project, params)) {
+            int status = response.getStatus();
+            long cost = System.currentTimeMillis() - start;
+            // 耗时聚合断言在运行结束后按接口汇总，单个步骤只看其余断言
+            List<AssertionResult> assertions = new ArrayList<>();
+            List<String> failures = new ArrayList<>();
+            if (status < 200 || status >= 400) {
+                failures.add("HTTP " + status);
+            }
+            if (params.getAssertionResults() != null) {
+                for (AssertionResult assertion : params.getAssertionResults()) {
+                    CompiledPostOp op = CompiledPostOp.compile(CompiledPostOp.TYPE_ASSERT, assertion.getExpression());
+                    if (op.getAssertion() != null && op.getAssertion().isAggregate()) {
+                        continue;
+                    }
+                    assertions.add(assertion);
+                    if (!assertion.isPassed()) {
+                        failures.add(assertion.getName() + ": " + assertion.getMessage());
+                    }
+                }
+            }
+            return new StepResult(iteration, api, status, cost, failures.isEmpty(), String.join("; ", failures), assertions);
+        } catch (Exception e) {
+            long cost = System.currentTimeMillis() - start;
+            String message = handle.isTimedOut() ? RequestManBundle.message("main.request.timeout")
+                    : handle.isCancelled() ? RequestManBundle.message("main.request.cancelled") : e.getMessage();
+            return new StepResult(iteration, api, 0, cost, false, message);
+        } finally {
+            handle.markDone();
+            activeHandles.remove(handle);
+            Map<String, String> extracted = requestScope.getLocalValues();
+            if (chain) {
+                iterationScope.putAll(extracted);
+            }
+            collectionContext.putAll(extracted);
+        }
+    }
+
+    /**
+     * 加载迭代数据文件：CSV（首行为变量名）或JSON（对象数组）
+     *
+     * @param file 数据文件
+     * @return 每轮的变量
+     * @throws Exception 读取或解析失败
+     */
+    public static List<Map<String, String>> loadIterationData(File file) throws Exception {
+        String content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        List<Map<String, String>> rows = new ArrayList<>();
+        if (file.getName().toLowerCase().endsWith(".json")) {
+            JSONArray array = JSONUtil.parseArray(content);
+            for (Object item : array) {
+                if (item instanceof JSONObject) {
+                    Map<String, String> row = new LinkedHashMap<>();
+                    ((JSONObject) item).forEach((k, v) -> row.put(k, v != null ? v.toString() : ""));
+                    rows.add(row);
+                }
+            }
+            return rows;
+        }
+        List<List<String>> records = parseCsv(content);
+        if (records.isEmpty()) {
+            return rows;
+        }
+        List<String> header = records.get(0);
+        for (int i = 1; i < records.size(); i++) {
+            List<String> record = records.get(i);
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int c = 0; c < header.size(); c++) {
+                row.put(header.get(c).trim(), c < record.size() ? record.get(c) : "");
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * 解析CSV，支持双引号包裹与转义（""），跳过空行
+     */
+    private static List<List<String>> parseCsv(String content) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> record = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (inQuotes) {
+                if (c == '"') {
+                    if (i + 1 < content.length() && content.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < content.length() && content.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                record.add(field.toString());
+                field.setLength(0);
+                if (!(record.size() == 1 && record.get(0).isEmpty())) {
+                    records.add(record);
+                }
+                record = new ArrayList<>();
+            } else if (c != '\uFEFF' || i != 0) {
+                field.append(c);
+            }
+        }
+        if (field.length() > 0 || !record.isEmpty()) {
+            record.add(field.toString());
+            records.add(record);
+        }
+        return records;
+    }
+}
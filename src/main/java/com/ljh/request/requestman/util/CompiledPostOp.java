@@ -0,0 +1,247 @@
+package com.ljh.request.requestman.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 预编译的后置操作表达式，按"类型+表达式"缓存复用。
+ * JSONPath表达式拆分为"前缀 + 路径 + 后缀"，路径预编译为StreamingJsonPath；TEXT表达式预编译为正则；
+ * ASSERT表达式预编译为ResponseAssertion。
+ * 编译错误保存在对象中，供编辑时校验与执行时跳过。
+ *
+ * @author leijianhui
+ * @Description 预编译并缓存的后置操作（JSONPath/正则/断言）。
+ * @date 2025/09/11 10:00
+ */
+public final class CompiledPostOp {
+
+    public static final String TYPE_JSON_PATH = "JSONPath";
+    public static final String TYPE_TEXT = "TEXT";
+    public static final String TYPE_ASSERT = "ASSERT";
+
+    /**
+     * 缓存上限，超过后整体清空（表达式数量通常很少）
+     */
+    private static final int CACHE_LIMIT = 1024;
+
+    private static final Map<String, CompiledPostOp> CACHE = new ConcurrentHashMap<>();
+
+    private final String type;
+    private final String expression;
+    private final String prefix;
+    private final String path;
+    private final String suffix;
+    private final StreamingJsonPath jsonPath;
+    private final Pattern pattern;
+    private final String error;
+    private final ResponseAssertion assertion;
+
+    private CompiledPostOp(String type, String expression, String prefix, String path, String suffix,
+                           StreamingJsonPath jsonPath, Pattern pattern, String error) {
+        this(type, expression, prefix, path, suffix, jsonPath, pattern, error, null);
+    }
+
+    private CompiledPostOp(String type, String expression, String prefix, String path, String suffix,
+                           StreamingJsonPath jsonPath, Pattern pattern, String error, ResponseAssertion assertion) {
+        this.type = type;
+        this.expression = expression;
+        this.prefix = prefix;
+        this.path = path;
+        this.suffix = suffix;
+        this.jsonPath = jsonPath;
+        this.pattern = pattern;
+        this.error = error;
+        this.assertion = assertion;
+    }
+
+    /**
+     * 获取编译结果（带缓存）
+     *
+     * @param type       后置操作类型
+     * @param expression 表达式
+     * @return 编译结果
+     */
+    public static CompiledPostOp compile(String type, String expression) {
+        String key = type + '\u0000' + expression;
+        CompiledPostOp compiled = CACHE.get(key);
+        if (compiled == null) {
+            if (CACHE.size() >= CACHE_LIMIT) {
+                CACHE.clear();
+            }
+            compiled = doCompile(type, expression);
+            CACHE.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * 校验表达式，供编辑时提示
+     *
+     * @param type       后置操作类型
+     * @param expression 表达式
+     * @return 错误信息，合法时返回null
+     */
+    public static String validate(String type, String expression) {
+        if (type == null || expression == null || expression.trim().isEmpty()) {
+            return null;
+        }
+        return compile(type, expression).error;
+    }
+
+    private static CompiledPostOp doCompile(String type, String expression) {
+        if (TYPE_TEXT.equals(type)) {
+            try {
+                Pattern pattern = Pattern.compile(expression);
+                if (pattern.matcher("").groupCount() < 1) {
+                    return new CompiledPostOp(type, expression, null, null, null, null, null,
+                            RequestManBundle.message("postop.invalid.regex.group"));
+                }
+                return new CompiledPostOp(type, expression, null, null, null, null, pattern, null);
+            } catch (PatternSyntaxException e) {
+                return new CompiledPostOp(type, expression, null, null, null, null, null,
+                        RequestManBundle.message("postop.invalid.regex") + e.getDescription());
+            }
+        }
+        if (TYPE_JSON_PATH.equals(type)) {
+            int start = expression.indexOf('$');
+            if (start < 0) {
+                // 没有JSONPath，结果即为原表达式
+                return new CompiledPostOp(type, expression, expression, null, "", null, null, null);
+            }
+            int end = findJsonPathEnd(expression, start);
+            String path = expression.substring(start, end);
+            StreamingJsonPath jsonPath = null;
+            String error = null;
+            try {
+                jsonPath = StreamingJsonPath.compile(path);
+            } catch (IllegalArgumentException e) {
+                error = RequestManBundle.message("postop.invalid.jsonpath") + e.getMessage();
+            }
+            return new CompiledPostOp(type, expression, expression.substring(0, start), path,
+                    expression.substring(end), jsonPath, null, error);
+        }
+        if (TYPE_ASSERT.equals(type)) {
+            try {
+                return new CompiledPostOp(type, expression, null, null, null, null, null, null,
+                        ResponseAssertion.compile(expression));
+            } catch (IllegalArgumentException e) {
+                return new CompiledPostOp(type, expression, null, null, null, null, null,
+                        RequestManBundle.message("postop.invalid.assert") + e.getMessage());
+            }
+        }
+        return new CompiledPostOp(type, expression, null, null, null, null, null, null);
+    }
+
+    /**
+     * 查找JSONPath的结束位置：方括号外只包含字母、数字、$、点、下划线、*；
+     * 方括号内（下标、通配、过滤、引号键名）按嵌套深度与引号配对，深度回到0时才可能结束。
+     * 方括号未闭合时返回表达式末尾，由路径编译报告语法错误
+     */
+    private static int findJsonPathEnd(String expression, int start) {
+        int depth = 0;
+        char quote = 0;
+        int end = start;
+        while (end < expression.length()) {
+            char c = expression.charAt(end);
+            if (quote != 0) {
+                if (c == '\\') {
+                    end++;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (depth > 0) {
+                if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '[') {
+                    depth++;
+                } else if (c == ']') {
+                    depth--;
+                }
+            } else if (c == '[') {
+                depth++;
+            } else if (!(Character.isLetterOrDigit(c) || c == '$' || c == '.' || c == '_' || c == '*')) {
+                break;
+            }
+            end++;
+        }
+        return Math.min(end, expression.length());
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * JSONPath部分（不含前后缀），无路径时为null
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    /**
+     * 是否需要解析JSON响应
+     */
+    public boolean needsJson() {
+        return TYPE_JSON_PATH.equals(type) && path != null && error == null;
+    }
+
+    /**
+     * 已编译的JSONPath，无路径或编译失败时为null
+     */
+    public StreamingJsonPath getJsonPath() {
+        return jsonPath;
+    }
+
+    /**
+     * 已编译的断言，非ASSERT类型或编译失败时为null
+     */
+    public ResponseAssertion getAssertion() {
+        return assertion;
+    }
+
+    /**
+     * 根据一次扫描得到的路径结果拼接前后缀
+     *
+     * @param results JSONPath表达式 -> 提取值
+     * @return 提取结果，失败返回null
+     */
+    public String evaluateJson(Map<String, String> results) {
+        if (path == null) {
+            return prefix;
+        }
+        if (jsonPath == null || results == null) {
+            return null;
+        }
+        String value = results.get(jsonPath.getExpression());
+        return value != null ? prefix + value + suffix : null;
+    }
+
+    /**
+     * 按正则提取（取第一个分组）
+     *
+     * @param text 响应内容
+     * @return 提取结果，失败返回null
+     */
+    public String evaluateText(String text) {
+        if (pattern == null) {
+            return null;
+        }
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
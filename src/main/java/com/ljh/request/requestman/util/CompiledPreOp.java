@@ -0,0 +1,231 @@
+package com.ljh.request.requestman.util;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 预编译的前置操作，按"类型+表达式"缓存复用。表达式中的{{变量}}在执行时渲染，这里只解析结构：
+ * <pre>
+ * SET_VAR  值模板                                   例：{{timestamp}}-{{nonce}}
+ * SIGN     算法[:密钥]，对请求体计算摘要/HMAC（十六进制） 例：HmacSHA256:{{secret}}
+ * TOKEN    [方法 ]URL | JSONPath[ | 有效期秒][ | 请求体]  例：POST {{host}}/login | $.data.token | 3600 | {"user":"a"}
+ * HEADER   值模板                                   例：Bearer {{token}}
+ * </pre>
+ * 编译错误保存在对象中，供编辑时校验与执行时跳过。
+ *
+ * @author leijianhui
+ * @Description 预编译并缓存的前置操作（设置变量/签名/获取令牌/添加请求头）。
+ * @date 2025/09/13 10:00
+ */
+public final class CompiledPreOp {
+
+    public static final String TYPE_SET_VAR = "SET_VAR";
+    public static final String TYPE_SIGN = "SIGN";
+    public static final String TYPE_TOKEN = "TOKEN";
+    public static final String TYPE_HEADER = "HEADER";
+
+    /**
+     * 支持的摘要/HMAC算法
+     */
+    private static final List<String> ALGORITHMS = List.of("MD5", "SHA1", "SHA256", "SHA512",
+            "HmacMD5", "HmacSHA1", "HmacSHA256", "HmacSHA512");
+
+    private static final List<String> METHODS = List.of("GET", "POST", "PUT", "PATCH", "DELETE");
+
+    /**
+     * 令牌未指定有效期且响应中没有expires_in时的默认有效期（秒）
+     */
+    public static final long DEFAULT_TOKEN_TTL_SECONDS = 1800;
+
+    /**
+     * 缓存上限，超过后整体清空（表达式数量通常很少）
+     */
+    private static final int CACHE_LIMIT = 1024;
+
+    private static final Map<String, CompiledPreOp> CACHE = new ConcurrentHashMap<>();
+
+    private final String type;
+    private final String expression;
+    private final String algorithm;
+    private final String secret;
+    private final String method;
+    private final String url;
+    private final StreamingJsonPath tokenPath;
+    private final long ttlSeconds;
+    private final String body;
+    private final String error;
+
+    private CompiledPreOp(String type, String expression, String algorithm, String secret, String method, String url,
+                          StreamingJsonPath tokenPath, long ttlSeconds, String body, String error) {
+        this.type = type;
+        this.expression = expression;
+        this.algorithm = algorithm;
+        this.secret = secret;
+        this.method = method;
+        this.url = url;
+        this.tokenPath = tokenPath;
+        this.ttlSeconds = ttlSeconds;
+        this.body = body;
+        this.error = error;
+    }
+
+    private static CompiledPreOp invalid(String type, String expression, String error) {
+        return new CompiledPreOp(type, expression, null, null, null, null, null, 0, null, error);
+    }
+
+    /**
+     * 获取编译结果（带缓存）
+     *
+     * @param type       前置操作类型
+     * @param expression 表达式
+     * @return 编译结果
+     */
+    public static CompiledPreOp compile(String type, String expression) {
+        String key = type + '\u0000' + expression;
+        CompiledPreOp compiled = CACHE.get(key);
+        if (compiled == null) {
+            if (CACHE.size() >= CACHE_LIMIT) {
+                CACHE.clear();
+            }
+            compiled = doCompile(type, expression == null ? "" : expression);
+            CACHE.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * 校验表达式，供编辑时提示
+     *
+     * @param type       前置操作类型
+     * @param expression 表达式
+     * @return 错误信息，合法时返回null
+     */
+    public static String validate(String type, String expression) {
+        if (type == null || expression == null || expression.trim().isEmpty()) {
+            return null;
+        }
+        return compile(type, expression).error;
+    }
+
+    private static CompiledPreOp doCompile(String type, String expression) {
+        if (TYPE_SIGN.equals(type)) {
+            String expr = expression.trim();
+            int colon = expr.indexOf(':');
+            String name = colon >= 0 ? expr.substring(0, colon).trim() : expr;
+            String key = colon >= 0 ? expr.substring(colon + 1) : null;
+            String algorithm = null;
+            for (String candidate : ALGORITHMS) {
+                if (candidate.equalsIgnoreCase(name) || candidate.replace("SHA", "SHA-").equalsIgnoreCase(name)) {
+                    algorithm = candidate;
+                }
+            }
+            if (algorithm == null) {
+                return invalid(type, expression, RequestManBundle.message("preop.invalid.algorithm", String.join(", ", ALGORITHMS)));
+            }
+            if (algorithm.startsWith("Hmac") && (key == null || key.isEmpty())) {
+                return invalid(type, expression, RequestManBundle.message("preop.invalid.secret"));
+            }
+            return new CompiledPreOp(type, expression, algorithm, key, null, null, null, 0, null, null);
+        }
+        if (TYPE_TOKEN.equals(type)) {
+            String[] parts = expression.trim().split("\\s*\\|\\s*", 4);
+            if (parts.length < 2 || parts[0].isEmpty()) {
+                return invalid(type, expression, RequestManBundle.message("preop.invalid.token"));
+            }
+            String target = parts[0];
+            String method = "GET";
+            int space = target.indexOf(' ');
+            if (space > 0 && METHODS.contains(target.substring(0, space).toUpperCase(Locale.ROOT))) {
+                method = target.substring(0, space).toUpperCase(Locale.ROOT);
+                target = target.substring(space + 1).trim();
+            }
+            StreamingJsonPath tokenPath;
+            try {
+                tokenPath = StreamingJsonPath.compile(parts[1]);
+            } catch (IllegalArgumentException e) {
+                return invalid(type, expression, RequestManBundle.message("postop.invalid.jsonpath") + e.getMessage());
+            }
+            long ttl = 0;
+            if (parts.length > 2 && !parts[2].isEmpty()) {
+                try {
+                    ttl = Long.parseLong(parts[2]);
+                } catch (NumberFormatException e) {
+                    return invalid(type, expression, RequestManBundle.message("preop.invalid.token"));
+                }
+            }
+            String body = parts.length > 3 ? parts[3] : "";
+            return new CompiledPreOp(type, expression, null, null, method, target, tokenPath, ttl, body, null);
+        }
+        if (TYPE_SET_VAR.equals(type) || TYPE_HEADER.equals(type)) {
+            return new CompiledPreOp(type, expression, null, null, null, null, null, 0, null, null);
+        }
+        return invalid(type, expression, RequestManBundle.message("preop.invalid.type", type));
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    /**
+     * 签名算法（SIGN）
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * 签名密钥模板（SIGN，摘要算法为null）
+     */
+    public String getSecret() {
+        return secret;
+    }
+
+    /**
+     * 令牌请求方法（TOKEN）
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * 令牌请求URL模板（TOKEN）
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * 令牌在响应中的路径（TOKEN）
+     */
+    public StreamingJsonPath getTokenPath() {
+        return tokenPath;
+    }
+
+    /**
+     * 令牌有效期（秒），0表示取响应中的expires_in或默认值
+     */
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * 令牌请求体模板（TOKEN）
+     */
+    public String getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,140 @@
+package com.ljh.request.requestman.util;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.util.messages.MessageBusConnection;
+import com.ljh.request.requestman.model.CustomApiInfo;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 监听custom_apis.json的外部修改（其他编辑者、同步盘或版本控制写入），文件变化时把外部修改增量合并到列表模型中。
+ * 文件所在目录注册为VFS监听根，由IDE的文件监视器在文件变化后刷新并发出事件；
+ * 本插件自己写入引起的事件在合并时按文件标记识别并忽略。
+ *
+ * @author leijianhui
+ * @Description 共享自定义接口文件的监听与热加载。
+ * @date 2025/09/19 10:00
+ */
+public final class CustomApiFileWatcher {
+
+    /**
+     * 外部修改合并到列表模型后的回调（在EDT中调用）
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * @param changed 内容被外部修改替换的条目（按对象标识比较）
+         */
+        void onExternalChange(Set<CustomApiInfo> changed);
+    }
+
+    private static final Map<Project, Registration> REGISTRATIONS = new ConcurrentHashMap<>();
+
+    private static final class Registration {
+        final Listener listener;
+        final MessageBusConnection connection;
+        volatile LocalFileSystem.WatchRequest watchRequest;
+
+        Registration(Listener listener, MessageBusConnection connection) {
+            this.listener = listener;
+            this.connection = connection;
+        }
+    }
+
+    private CustomApiFileWatcher() {
+    }
+
+    /**
+     * 开始监听项目的自定义接口文件，已有监听时替换（列表模型重建后重新注册）
+     *
+     * @param project  项目对象
+     * @param model    自定义接口列表模型
+     * @param listener 合并后的回调，可为null
+     */
+    public static void register(Project project, DefaultListModel<CustomApiInfo> model, Listener listener) {
+        unregister(project);
+        Path file = Paths.get(CustomApiStorage.getCustomApiFilePath(project));
+        String path = FileUtil.toSystemIndependentName(file.toString());
+        MessageBusConnection connection = project.getMessageBus().connect();
+        Registration registration = new Registration(listener, connection);
+        REGISTRATIONS.put(project, registration);
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    if (path.equals(event.getPath())) {
+                        CustomApiStorage.reloadCustomApiList(project, model);
+                        return;
+                    }
+                }
+            }
+        });
+        // 注册监听根并让VFS载入目录内容，之后的外部修改才会产生事件；刷新会访问磁盘，放到后台线程
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                Files.createDirectories(file.getParent());
+            } catch (IOException e) {
+                LogUtil.warn("创建自定义接口目录失败: " + e.getMessage());
+                return;
+            }
+            LocalFileSystem fileSystem = LocalFileSystem.getInstance();
+            registration.watchRequest = fileSystem.addRootToWatch(FileUtil.toSystemIndependentName(file.getParent().toString()), false);
+            VirtualFile dir = fileSystem.refreshAndFindFileByNioFile(file.getParent());
+            if (dir != null) {
+                dir.getChildren();
+                fileSystem.refreshAndFindFileByNioFile(file);
+            }
+            if (REGISTRATIONS.get(project) != registration) {
+                // 注册期间已被注销
+                removeWatch(registration);
+            }
+        });
+    }
+
+    /**
+     * 停止监听（项目关闭时调用）
+     *
+     * @param project 项目对象
+     */
+    public static void unregister(Project project) {
+        Registration registration = REGISTRATIONS.remove(project);
+        if (registration != null) {
+            registration.connection.disconnect();
+            removeWatch(registration);
+        }
+    }
+
+    /**
+     * 外部修改已应用到列表模型，通知界面
+     */
+    static void fireExternalChange(Project project, Set<CustomApiInfo> changed) {
+        Registration registration = REGISTRATIONS.get(project);
+        if (registration != null && registration.listener != null) {
+            registration.listener.onExternalChange(changed);
+        }
+    }
+
+    private static void removeWatch(Registration registration) {
+        LocalFileSystem.WatchRequest request = registration.watchRequest;
+        if (request != null) {
+            registration.watchRequest = null;
+            LocalFileSystem.getInstance().removeWatchedRoot(request);
+        }
+    }
+}
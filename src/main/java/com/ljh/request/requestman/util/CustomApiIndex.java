@@ -0,0 +1,341 @@
+package com.ljh.request.requestman.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * custom_apis.json的流式索引：单次顺序扫描顶层数组，只解码每个条目的name/url/httpMethod与id/version，
+ * 并记录条目在文件中的字节范围与内容哈希，其余字段直接跳过不分配对象。完整条目按字节范围延迟解析，
+ * 内容哈希用于在不解析条目的情况下判断文件被外部修改后哪些条目发生了变化。
+ *
+ * @author leijianhui
+ * @Description 自定义接口文件的流式元数据索引。
+ * @date 2025/09/16 15:00
+ */
+final class CustomApiIndex {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int limit;
+    private int index;
+    /**
+     * buffer[0]在文件中的偏移
+     */
+    private long bufferStart;
+    /**
+     * 当前条目已读取字节的哈希
+     */
+    private long entryHash;
+
+    private CustomApiIndex(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * 条目元数据与字节范围
+     */
+    static final class Entry {
+        final long offset;
+        final int length;
+        final String name;
+        final String url;
+        final String httpMethod;
+        /**
+         * 条目标识，旧文件中没有时为null
+         */
+        final String id;
+        final long version;
+        /**
+         * 条目原始字节的哈希
+         */
+        final long hash;
+
+        Entry(long offset, int length, String name, String url, String httpMethod, String id, long version, long hash) {
+            this.offset = offset;
+            this.length = length;
+            this.name = name;
+            this.url = url;
+            this.httpMethod = httpMethod;
+            this.id = id;
+            this.version = version;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * 计算内容哈希（FNV-1a 64位），与扫描时的条目哈希一致
+     *
+     * @param data 内容
+     * @return 哈希
+     */
+    static long hash(byte[] data) {
+        long h = FNV_OFFSET;
+        for (byte b : data) {
+            h = (h ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * 扫描文件
+     *
+     * @param file custom_apis.json
+     * @return 按文件顺序排列的条目
+     * @throws IOException 读取失败或不是对象数组
+     */
+    static List<Entry> scan(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return new CustomApiIndex(in).readArray();
+        }
+    }
+
+    private List<Entry> readArray() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        // UTF-8 BOM
+        if (peek() == 0xEF) {
+            expect(0xEF);
+            expect(0xBB);
+            expect(0xBF);
+        }
+        skipWhitespace();
+        expect('[');
+        skipWhitespace();
+        if (peek() == ']') {
+            return entries;
+        }
+        while (true) {
+            skipWhitespace();
+            entries.add(readEntry());
+            skipWhitespace();
+            int c = read();
+            if (c == ']') {
+                return entries;
+            }
+            if (c != ',') {
+                throw error("',' or ']'");
+            }
+        }
+    }
+
+    private Entry readEntry() throws IOException {
+        long start = position();
+        entryHash = FNV_OFFSET;
+        expect('{');
+        String name = null;
+        String url = null;
+        String httpMethod = null;
+        String id = null;
+        long version = 0;
+        skipWhitespace();
+        if (peek() == '}') {
+            read();
+        } else {
+            while (true) {
+                skipWhitespace();
+                expect('"');
+                String key = readString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                boolean wanted = "name".equals(key) || "url".equals(key) || "httpMethod".equals(key) || "id".equals(key);
+                if (wanted && peek() == '"') {
+                    read();
+                    String value = readString();
+                    if ("name".equals(key)) {
+                        name = value;
+                    } else if ("url".equals(key)) {
+                        url = value;
+                    } else if ("id".equals(key)) {
+                        id = value;
+                    } else {
+                        httpMethod = value;
+                    }
+                } else if ("version".equals(key) && (Character.isDigit(peek()) || peek() == '-')) {
+                    version = readLong();
+                } else {
+                    skipValue();
+                }
+                skipWhitespace();
+                int c = read();
+                if (c == '}') {
+                    break;
+                }
+                if (c != ',') {
+                    throw error("',' or '}'");
+                }
+            }
+        }
+        long length = position() - start;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("entry too large at " + start);
+        }
+        return new Entry(start, (int) length, name, url, httpMethod, id, version, entryHash);
+    }
+
+    /**
+     * 读取整数，超出范围或带小数时视为0
+     */
+    private long readLong() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = peek()) != ',' && c != '}' && c != ']' && !isWhitespace(c)) {
+            sb.append((char) read());
+        }
+        try {
+            return Long.parseLong(sb.toString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 读取字符串内容（起始引号已读取），处理转义
+     */
+    private String readString() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                break;
+            }
+            if (c != '\\') {
+                raw.write(c);
+                continue;
+            }
+            if (raw.size() > 0) {
+                sb.append(raw.toString(StandardCharsets.UTF_8));
+                raw.reset();
+            }
+            int e = read();
+            switch (e) {
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(read(), 16);
+                        if (digit < 0) {
+                            throw error("hex digit");
+                        }
+                        code = code * 16 + digit;
+                    }
+                    sb.append((char) code);
+                    break;
+                default:
+                    // \" \\ \/
+                    sb.append((char) e);
+            }
+        }
+        if (raw.size() > 0) {
+            sb.append(raw.toString(StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                read();
+            }
+        }
+    }
+
+    private void skipValue() throws IOException {
+        int c = peek();
+        if (c == '"') {
+            read();
+            skipString();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = read();
+                if (c == '"') {
+                    skipString();
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        } else {
+            // 数字、true、false、null
+            while ((c = peek()) != ',' && c != '}' && c != ']' && !isWhitespace(c)) {
+                read();
+            }
+        }
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (isWhitespace(peek())) {
+            read();
+        }
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private void expect(int expected) throws IOException {
+        if (read() != expected) {
+            throw error("'" + (char) expected + "'");
+        }
+    }
+
+    private long position() {
+        return bufferStart + index;
+    }
+
+    private int peek() throws IOException {
+        if (index == limit && !fill()) {
+            throw new IOException("unexpected end of file at " + position());
+        }
+        return buffer[index] & 0xFF;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        index++;
+        entryHash = (entryHash ^ c) * FNV_PRIME;
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        bufferStart += limit;
+        index = 0;
+        limit = Math.max(0, in.read(buffer));
+        return limit > 0;
+    }
+
+    private IOException error(String expected) {
+        return new IOException("expected " + expected + " at " + position());
+    }
+}
@@ -1,99 +1,1016 @@
 package com.ljh.request.requestman.util;
 
 import cn.hutool.json.JSONUtil;
-import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.ljh.request.requestman.model.CustomApiInfo;
 import com.ljh.request.requestman.ui.ParamsTablePanel;
 
 import javax.swing.*;
-import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
 
 /**
  * @author leijianhui
  * @Description 自定义接口持久化工具类，负责加载和保存custom_apis.json，支持按项目隔离。
+ * 列表按需加载详情，保存时未改动的条目按原字节复制。
+ * 文件可以由多个编辑者共享：条目带标识与版本，文件被外部修改时与上次同步的基线三方合并，只替换发生变化的条目；
+ * 同一条目两边都修改时保留本地版本，外部版本另存为副本。
+ * 文件默认保存在项目的.idea/requestman目录下（可在设置中改为其他相对或绝对路径），请求体始终内联，
+ * 不依赖各编辑者本机的blob目录；外部条目引用本机不存在的blob时拒绝合并。
  * @date 2025/06/18 15:07
  */
 public class CustomApiStorage {
     /**
-     * 获取自定义接口存储文件路径
+     * 默认的共享文件位置（相对项目根目录）
+     */
+    static final String DEFAULT_SHARED_FILE = ".idea/requestman/custom_apis.json";
+
+    /**
+     * 旧版本在本机缓存目录中的文件名
+     */
+    private static final String LEGACY_FILE_NAME = "custom_apis.json";
+
+    /**
+     * 获取自定义接口存储文件路径：优先使用项目设置中的路径（相对路径基于项目根目录），
+     * 未设置时使用项目.idea目录下的默认位置；项目没有.idea目录时退回本机缓存目录
      *
      * @param project 项目对象
      * @return 文件路径
      */
-    private static String getCustomApiFilePath(Project project) {
-        String cacheDir = PropertiesComponent.getInstance().getValue("requestman.cacheDir");
-        if (cacheDir == null || cacheDir.isEmpty()) {
-            cacheDir = Paths.get(System.getProperty("user.home"), ".requestman_cache").toString() + File.separator;
+    static String getCustomApiFilePath(Project project) {
+        Path file = resolveSharedFile(project, ProjectSettingsManager.getProjectCustomApiFile(project));
+        return file != null ? file.toString() : legacyFilePath(project);
+    }
+
+    private static Path resolveSharedFile(Project project, String setting) {
+        String base = project.getBasePath();
+        if (setting != null && !setting.isBlank()) {
+            try {
+                Path path = Paths.get(setting.trim());
+                if (path.isAbsolute()) {
+                    return path.normalize();
+                }
+                if (base != null) {
+                    return Paths.get(base).resolve(path).normalize();
+                }
+            } catch (InvalidPathException e) {
+                LogUtil.warn("自定义接口文件路径无效，使用默认位置: " + setting);
+            }
+        }
+        if (base == null || !Files.isDirectory(Paths.get(base, Project.DIRECTORY_STORE_FOLDER))) {
+            return null;
+        }
+        return Paths.get(base).resolve(DEFAULT_SHARED_FILE).normalize();
+    }
+
+    private static String legacyFilePath(Project project) {
+        return StorageUtil.getCacheDir(project) + LEGACY_FILE_NAME;
+    }
+
+    /**
+     * 修改自定义接口文件位置：先写入延迟中的保存，新位置还没有文件时把当前内容复制过去（请求体内联）
+     *
+     * @param project 项目对象
+     * @param setting 路径设置，为空时使用默认位置
+     */
+    public static void changeCustomApiFile(Project project, String setting) {
+        PersistenceQueue.flush();
+        Path from = Paths.get(getCustomApiFilePath(project));
+        ProjectSettingsManager.setProjectSetting(project, ProjectSettingsManager.CUSTOM_API_FILE_KEY, setting.trim());
+        Path to = Paths.get(getCustomApiFilePath(project));
+        synchronized (FILE_LOCK) {
+            if (from.equals(to) || Files.exists(to) || !Files.exists(from)) {
+                return;
+            }
+            try {
+                copyInline(from, to);
+            } catch (Exception e) {
+                LogUtil.warn("复制自定义接口文件失败: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 旧版本把文件保存在本机缓存目录、大请求体外置为blob；共享文件不存在时迁移过来。
+     * 所有请求体都读取成功时删除旧文件，否则保留旧文件（其中引用的blob不会被清理）
+     */
+    private static void migrateLegacy(Project project, Path file) {
+        Path legacy = Paths.get(legacyFilePath(project));
+        if (legacy.equals(file) || !Files.exists(legacy)) {
+            return;
+        }
+        try {
+            if (copyInline(legacy, file)) {
+                Files.delete(legacy);
+            } else {
+                LogUtil.warn("部分请求体读取失败，保留旧的自定义接口文件: " + legacy);
+            }
+            LogUtil.info("自定义接口已迁移到: " + file);
+        } catch (Exception e) {
+            LogUtil.warn("迁移自定义接口文件失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 把文件内容以内联请求体的形式写到新位置
+     *
+     * @return 所有外置请求体都读取成功时返回true
+     */
+    private static boolean copyInline(Path from, Path to) throws IOException {
+        boolean resolved = true;
+        StringBuilder json = new StringBuilder("[");
+        for (CustomApiInfo api : parseAll(from)) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(BodyBlobStore.toInlineJson(api));
+            resolved &= api.bodyBlob() == null || BodyBlobStore.exists(api.bodyBlob());
+        }
+        json.append(']');
+        PersistenceQueue.writeAtomically(to, json.toString().getBytes(StandardCharsets.UTF_8));
+        return resolved;
+    }
+
+    /**
+     * 读取条目字节范围与重写文件互斥，保证延迟加载读到的是一致的文件内容
+     */
+    private static final Object FILE_LOCK = new Object();
+
+    /**
+     * 各文件上次与磁盘同步（加载、保存或合并）时的状态，只在FILE_LOCK内替换
+     */
+    private static final Map<Path, SyncState> SYNC_STATES = new ConcurrentHashMap<>();
+
+    /**
+     * 冲突通知中最多列出的条目名称数
+     */
+    private static final int CONFLICT_NAMES_LIMIT = 5;
+
+    /**
+     * 条目上次同步时的版本与内容
+     */
+    private static final class Base {
+        final long version;
+        /**
+         * 文件中原始字节的哈希，用于判断外部是否修改
+         */
+        final long hash;
+        /**
+         * 按当前序列化方式得到的内容哈希，用于判断本地是否修改；详情未加载过时为null
+         */
+        final Long digest;
+
+        Base(long version, long hash, Long digest) {
+            this.version = version;
+            this.hash = hash;
+            this.digest = digest;
         }
-        if (!cacheDir.endsWith(File.separator)) {
-            cacheDir = cacheDir + File.separator;
+    }
+
+    private static final class SyncState {
+        /**
+         * 同步后的文件标记，与磁盘一致说明文件没有被外部修改（包括本插件自己写入引起的文件事件）
+         */
+        final Stamp stamp;
+        final Map<String, Base> bases;
+
+        SyncState(Stamp stamp, Map<String, Base> bases) {
+            this.stamp = stamp;
+            this.bases = bases;
         }
-        // 按项目名称创建子目录，实现项目隔离
-        String projectName = project != null ? project.getName() : "default";
-        return cacheDir + projectName + File.separator + "custom_apis.json";
     }
 
     /**
-     * 加载所有自定义接口
+     * 加载所有自定义接口：流式扫描只解析名称/方法/URL，其余字段在首次访问时按字节范围解析
      *
      * @param project 项目对象
      * @return 自定义接口列表（包含headers字段）
      */
     public static List<CustomApiInfo> loadCustomApis(Project project) {
         try {
-            Path file = Paths.get(getCustomApiFilePath(project));
-            if (!Files.exists(file)) {
-                return new ArrayList<>();
+            String path = getCustomApiFilePath(project);
+            if (PersistenceQueue.isPending(path)) {
+                // 先写入延迟中的保存，避免读到旧内容
+                PersistenceQueue.flush();
+            }
+            Path file = Paths.get(path);
+            synchronized (FILE_LOCK) {
+                if (!Files.exists(file)) {
+                    migrateLegacy(project, file);
+                }
+                return load(file);
             }
-            String json = Files.readString(file, StandardCharsets.UTF_8);
-            // headers字段已自动支持序列化/反序列化
-            List<CustomApiInfo> list = JSONUtil.toList(json, CustomApiInfo.class);
-            return list != null ? list : new ArrayList<>();
         } catch (Exception e) {
             return new ArrayList<>();
         }
     }
 
     /**
-     * 保存所有自定义接口
+     * 加载指定文件中的自定义接口并记录同步状态
+     *
+     * @param file 自定义接口文件
+     * @return 自定义接口列表，文件不存在时为空列表
+     * @throws IOException 读取失败
+     */
+    static List<CustomApiInfo> load(Path file) throws IOException {
+        synchronized (FILE_LOCK) {
+            if (!Files.exists(file)) {
+                SYNC_STATES.put(file, new SyncState(Stamp.MISSING, new ConcurrentHashMap<>()));
+                return new ArrayList<>();
+            }
+            Stamp stamp = Stamp.of(file);
+            Map<String, Base> bases = new ConcurrentHashMap<>();
+            try {
+                List<CustomApiInfo> list = new ArrayList<>();
+                Map<String, Integer> seen = new HashMap<>();
+                for (CustomApiIndex.Entry entry : CustomApiIndex.scan(file)) {
+                    String id = idOf(entry.id, entry.name, entry.httpMethod, entry.url, seen);
+                    bases.put(id, new Base(entry.version, entry.hash, null));
+                    list.add(new Slice(file, entry, id, stamp).toLazyEntry());
+                }
+                SYNC_STATES.put(file, new SyncState(stamp, bases));
+                return list;
+            } catch (IOException e) {
+                LogUtil.warn("流式加载自定义接口失败，改为完整解析: " + e.getMessage());
+                List<CustomApiInfo> list = parseAll(file);
+                Map<String, Integer> seen = new HashMap<>();
+                for (CustomApiInfo api : list) {
+                    api.setId(idOf(api.getId(), api.getName(), api.getHttpMethod(), api.getUrl(), seen));
+                    // 没有原始字节哈希，下次同步时视为外部已修改并按文件内容刷新
+                    bases.put(api.getId(), new Base(api.getVersion(), 0, digest(BodyBlobStore.toInlineJson(api))));
+                }
+                SYNC_STATES.put(file, new SyncState(stamp, bases));
+                return list;
+            }
+        }
+    }
+
+    private static List<CustomApiInfo> parseAll(Path file) throws IOException {
+        // headers字段已自动支持序列化/反序列化
+        List<CustomApiInfo> list = BodyBlobStore.listFromJson(Files.readString(file, StandardCharsets.UTF_8), CustomApiInfo.class);
+        return list != null ? list : new ArrayList<>();
+    }
+
+    /**
+     * 文件版本标记，用于判断文件自上次同步后是否被外部修改、记录的字节范围是否仍然有效。
+     * 大小、修改时间与文件标识分别比较；同样大小的修改可能落在修改时间的精度内（部分文件系统与同步盘为1秒），
+     * 元数据一致时再比较内容校验和确认
+     */
+    private static final class Stamp {
+        /**
+         * 文件不存在
+         */
+        static final Stamp MISSING = new Stamp(-1, 0, null, 0);
+
+        private static final int BUFFER_BYTES = 64 * 1024;
+
+        final long size;
+        final long modified;
+        final Object fileKey;
+        final long checksum;
+
+        private Stamp(long size, long modified, Object fileKey, long checksum) {
+            this.size = size;
+            this.modified = modified;
+            this.fileKey = fileKey;
+            this.checksum = checksum;
+        }
+
+        static Stamp of(Path file) throws IOException {
+            if (!Files.exists(file)) {
+                return MISSING;
+            }
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return new Stamp(attrs.size(), attrs.lastModifiedTime().toMillis(), attrs.fileKey(), checksum(file));
+        }
+
+        /**
+         * 本插件写入后的标记，校验和取自写入的字节，不再读取文件
+         */
+        static Stamp written(Path file, long checksum) throws IOException {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return new Stamp(attrs.size(), attrs.lastModifiedTime().toMillis(), attrs.fileKey(), checksum);
+        }
+
+        /**
+         * 文件当前是否仍是该标记对应的内容：元数据不同时不读取文件
+         */
+        boolean matches(Path file) throws IOException {
+            if (!Files.exists(file)) {
+                return this == MISSING;
+            }
+            if (this == MISSING) {
+                return false;
+            }
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return size == attrs.size() && modified == attrs.lastModifiedTime().toMillis()
+                    && Objects.equals(fileKey, attrs.fileKey()) && checksum == checksum(file);
+        }
+
+        private static long checksum(Path file) throws IOException {
+            CRC32C crc = new CRC32C();
+            byte[] buffer = new byte[BUFFER_BYTES];
+            try (InputStream in = Files.newInputStream(file)) {
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    crc.update(buffer, 0, read);
+                }
+            }
+            return crc.getValue();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Stamp)) {
+                return false;
+            }
+            Stamp that = (Stamp) o;
+            return size == that.size && modified == that.modified && checksum == that.checksum
+                    && Objects.equals(fileKey, that.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, modified, checksum);
+        }
+    }
+
+    /**
+     * 条目标识：文件中没有标识的旧条目按名称/方法/URL生成（各编辑者得到相同的标识），重复的标识追加序号
+     *
+     * @param seen 本次扫描中已出现的标识及次数
+     */
+    private static String idOf(String id, String name, String httpMethod, String url, Map<String, Integer> seen) {
+        String base = id;
+        if (base == null || base.isEmpty()) {
+            byte[] key = (name + "\n" + httpMethod + "\n" + url).getBytes(StandardCharsets.UTF_8);
+            base = "~" + Long.toHexString(CustomApiIndex.hash(key));
+        }
+        int count = seen.merge(base, 1, Integer::sum);
+        return count == 1 ? base : base + "-" + (count - 1);
+    }
+
+    private static long digest(String json) {
+        return CustomApiIndex.hash(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 保存所有自定义接口：未加载详情的条目直接复制原文件中的字节，只有加载或修改过的条目重新序列化；
+     * 文件已被外部修改时先合并外部修改
      *
      * @param project 项目对象
      * @param apis    自定义接口列表（包含headers字段）
      */
     public static void saveCustomApis(Project project, List<CustomApiInfo> apis) {
+        sync(project, apis, true);
+    }
+
+    /**
+     * 与磁盘同步：文件自上次同步后被外部修改时，按条目标识与版本和基线三方合并
+     *
+     * @param project 项目对象
+     * @param apis    列表快照
+     * @param save    true为保存（始终写盘，以本地顺序为准）；false为响应外部修改（本地有未写入的修改时才写盘，以文件顺序为准）
+     * @return 合并结果，文件未被外部修改或同步失败时返回null
+     */
+    private static MergeResult sync(Project project, List<CustomApiInfo> apis, boolean save) {
+        try {
+            MergeResult result = sync(Paths.get(getCustomApiFilePath(project)), apis, save);
+            if (result != null && !result.conflicts.isEmpty()) {
+                notifyConflicts(project, result.conflicts);
+            }
+            if (result != null && !result.refused.isEmpty()) {
+                notifyRefused(project, result.refused);
+            }
+            return result;
+        } catch (Exception e) {
+            LogUtil.warn((save ? "保存自定义接口失败: " : "合并自定义接口外部修改失败: ") + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 与指定文件同步，冲突与拒绝合并的条目由调用方提示
+     *
+     * @param file 自定义接口文件
+     * @param apis 列表快照
+     * @param save 同{@link #sync(Project, List, boolean)}
+     * @return 合并结果，文件未被外部修改时返回null
+     * @throws IOException 读写失败
+     */
+    static MergeResult sync(Path file, List<CustomApiInfo> apis, boolean save) throws IOException {
+        SyncState state = SYNC_STATES.get(file);
+        if (!save && state != null && state.stamp.matches(file)) {
+            // 本插件自己写入引起的文件事件
+            return null;
+        }
+        Map<String, Base> bases = state != null ? state.bases : Map.of();
+        assignIds(apis);
+        // 先在锁外序列化已加载的条目：加载详情会获取条目自身的锁，不能在FILE_LOCK内进行
+        List<Item> local = new ArrayList<>(apis.size());
+        for (CustomApiInfo api : apis) {
+            local.add(Item.prepare(api, bases.get(api.getId())));
+        }
+        MergeResult result;
+        synchronized (FILE_LOCK) {
+            state = SYNC_STATES.get(file);
+            Stamp stamp = Stamp.of(file);
+            if (state != null && state.stamp.equals(stamp)) {
+                if (save) {
+                    writeLocked(file, stamp, local, state.bases);
+                }
+                return null;
+            }
+            List<CustomApiIndex.Entry> disk;
+            try {
+                disk = stamp != Stamp.MISSING ? CustomApiIndex.scan(file) : List.of();
+            } catch (IOException e) {
+                LogUtil.warn("自定义接口文件无法增量合并: " + e.getMessage());
+                if (save) {
+                    writeLocked(file, stamp, local, Map.of());
+                }
+                return null;
+            }
+            result = merge(file, stamp, local, disk, state != null ? state.bases : Map.of(), save);
+            if (result.needsWrite) {
+                writeLocked(file, stamp, result.items, state != null ? state.bases : Map.of());
+            } else {
+                adoptDisk(file, stamp, disk, state != null ? state.bases : Map.of());
+            }
+        }
+        // 外部修改的条目在锁外替换内容：替换会获取条目自身的锁
+        for (Item item : result.updated) {
+            Slice slice = (Slice) item.part;
+            item.api.reset(slice.name, slice.url, slice.httpMethod, slice.version, slice);
+        }
+        return result;
+    }
+
+    /**
+     * 补全标识：新建的条目没有标识，复制或导入的条目可能与已有条目重复，均分配新标识
+     */
+    private static void assignIds(List<CustomApiInfo> apis) {
+        Set<String> seen = new HashSet<>();
+        for (CustomApiInfo api : apis) {
+            String id = api.getId();
+            if (id == null || id.isEmpty() || !seen.add(id)) {
+                id = UUID.randomUUID().toString();
+                api.setId(id);
+                seen.add(id);
+            }
+        }
+    }
+
+    /**
+     * 列表中的一个条目及其写盘内容
+     */
+    private static final class Item {
+        final CustomApiInfo api;
+        final String id;
+        /**
+         * 文件中的字节范围（{@link Slice}）或序列化后的字节
+         */
+        Object part;
+        long version;
+        /**
+         * 本地新建或修改过
+         */
+        final boolean modified;
+
+        Item(CustomApiInfo api, String id, Object part, long version, boolean modified) {
+            this.api = api;
+            this.id = id;
+            this.part = part;
+            this.version = version;
+            this.modified = modified;
+        }
+
+        /**
+         * 未加载详情的条目直接引用原字节；已加载的条目与基线比较内容，有修改时递增版本
+         */
+        static Item prepare(CustomApiInfo api, Base base) throws IOException {
+            CustomApiInfo.LazyDetails pending = api.pendingDetails();
+            if (pending instanceof Slice) {
+                return new Item(api, api.getId(), pending, ((Slice) pending).version, false);
+            }
+            String json = BodyBlobStore.toInlineJson(api);
+            if (base != null && base.digest != null && base.digest == digest(json)) {
+                return new Item(api, api.getId(), json.getBytes(StandardCharsets.UTF_8), api.getVersion(), false);
+            }
+            api.setVersion(Math.max(api.getVersion(), base != null ? base.version : 0) + 1);
+            return new Item(api, api.getId(), BodyBlobStore.toInlineJson(api).getBytes(StandardCharsets.UTF_8), api.getVersion(), true);
+        }
+    }
+
+    /**
+     * 合并结果
+     */
+    static final class MergeResult {
+        /**
+         * 合并后的条目（按最终顺序）
+         */
+        final List<Item> items = new ArrayList<>();
+        /**
+         * 由外部修改替换内容的条目
+         */
+        final List<Item> updated = new ArrayList<>();
+        final List<String> conflicts = new ArrayList<>();
+        /**
+         * 因引用本机不存在的blob而拒绝合并的外部条目
+         */
+        final List<String> refused = new ArrayList<>();
+        boolean needsWrite;
+
+        List<CustomApiInfo> apis() {
+            List<CustomApiInfo> apis = new ArrayList<>(items.size());
+            for (Item item : items) {
+                apis.add(item.api);
+            }
+            return apis;
+        }
+
+        Set<CustomApiInfo> changed() {
+            Set<CustomApiInfo> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Item item : updated) {
+                changed.add(item.api);
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * 三方合并：只有一边修改的条目取修改的一边；两边都修改时保留本地版本并把外部版本另存为副本；
+     * 一边删除、另一边修改时保留修改的一边
+     */
+    private static MergeResult merge(Path file, Stamp stamp, List<Item> local, List<CustomApiIndex.Entry> disk,
+                                     Map<String, Base> bases, boolean save) throws IOException {
+        MergeResult result = new MergeResult();
+        Map<String, CustomApiIndex.Entry> diskById = new LinkedHashMap<>();
+        Map<String, Integer> seen = new HashMap<>();
+        for (CustomApiIndex.Entry entry : disk) {
+            diskById.put(idOf(entry.id, entry.name, entry.httpMethod, entry.url, seen), entry);
+        }
+        Map<String, Item> byId = new HashMap<>();
+        List<Item> localOrder = new ArrayList<>();
+        for (Item item : local) {
+            Base base = bases.get(item.id);
+            CustomApiIndex.Entry entry = diskById.get(item.id);
+            if (entry == null) {
+                if (base == null || item.modified) {
+                    // 本地新建，或外部删除但本地修改过
+                    localOrder.add(item);
+                    result.needsWrite = true;
+                    if (base != null) {
+                        result.conflicts.add(item.api.getName());
+                    }
+                }
+                continue;
+            }
+            byId.put(item.id, item);
+            localOrder.add(item);
+            boolean externalChanged = base == null || entry.version != base.version || entry.hash != base.hash;
+            if (!externalChanged) {
+                if (item.part instanceof Slice) {
+                    ((Slice) item.part).moveTo(file, entry.offset, entry.length, stamp);
+                }
+                result.needsWrite |= item.modified;
+            } else if (missingBlob(file, entry)) {
+                // 外部版本引用的请求体在本机不存在，拒绝合并：已加载的本地版本以更高的版本号写回；
+                // 详情未加载的条目本地内容已随文件被覆盖，只保留列表中的条目不替换
+                result.refused.add(entry.name);
+                if (!(item.part instanceof Slice)) {
+                    item.api.setVersion(Math.max(item.api.getVersion(), entry.version) + 1);
+                    item.version = item.api.getVersion();
+                    item.part = BodyBlobStore.toInlineJson(item.api).getBytes(StandardCharsets.UTF_8);
+                    result.needsWrite = true;
+                }
+            } else if (!item.modified) {
+                item.part = new Slice(file, entry, item.id, stamp);
+                item.version = entry.version;
+                result.updated.add(item);
+            } else if (CustomApiIndex.hash((byte[]) item.part) != entry.hash) {
+                // 两边都修改：保留本地版本（版本号高于外部版本），外部版本另存为副本
+                item.api.setVersion(Math.max(item.api.getVersion(), entry.version) + 1);
+                item.version = item.api.getVersion();
+                item.part = BodyBlobStore.toInlineJson(item.api).getBytes(StandardCharsets.UTF_8);
+                CustomApiInfo copy = new Slice(file, entry, item.id, stamp).load();
+                if (copy != null) {
+                    copy.setId(UUID.randomUUID().toString());
+                    copy.setVersion(1);
+                    copy.setName(RequestManBundle.message("custom.sync.conflictCopy", entry.name));
+                    localOrder.add(new Item(copy, copy.getId(), BodyBlobStore.toInlineJson(copy).getBytes(StandardCharsets.UTF_8), 1, true));
+                }
+                result.conflicts.add(item.api.getName());
+                result.needsWrite = true;
+            } else {
+                result.needsWrite = true;
+            }
+        }
+        List<Item> diskOrder = new ArrayList<>();
+        for (Map.Entry<String, CustomApiIndex.Entry> e : diskById.entrySet()) {
+            Item item = byId.get(e.getKey());
+            if (item == null) {
+                CustomApiIndex.Entry entry = e.getValue();
+                Base base = bases.get(e.getKey());
+                if (base != null && entry.version == base.version && entry.hash == base.hash) {
+                    // 本地已删除
+                    result.needsWrite = true;
+                    continue;
+                }
+                if (missingBlob(file, entry)) {
+                    // 外部新增或恢复的条目引用的请求体在本机不存在，不加入列表
+                    result.refused.add(entry.name);
+                    continue;
+                }
+                if (base != null) {
+                    // 本地删除但外部修改过，恢复外部版本
+                    result.conflicts.add(entry.name);
+                }
+                Slice slice = new Slice(file, entry, e.getKey(), stamp);
+                item = new Item(slice.toLazyEntry(), e.getKey(), slice, entry.version, false);
+            }
+            diskOrder.add(item);
+        }
+        result.items.addAll(save ? interleave(localOrder, diskOrder) : interleave(diskOrder, localOrder));
+        return result;
+    }
+
+    /**
+     * 以primary的顺序为准，把只出现在secondary中的元素插到它在secondary中前一个元素之后
+     */
+    private static <T> List<T> interleave(List<T> primary, List<T> secondary) {
+        List<T> result = new ArrayList<>(primary);
+        Set<T> placed = Collections.newSetFromMap(new IdentityHashMap<>());
+        placed.addAll(primary);
+        T previous = null;
+        for (T item : secondary) {
+            if (placed.add(item)) {
+                int at = previous == null ? 0 : indexOf(result, previous) + 1;
+                result.add(at, item);
+            }
+            previous = item;
+        }
+        return result;
+    }
+
+    private static <T> int indexOf(List<T> list, T item) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == item) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 外部条目是否引用了本机不存在的blob（其他编辑者的旧版本写入的外置请求体）
+     */
+    private static boolean missingBlob(Path file, CustomApiIndex.Entry entry) throws IOException {
+        byte[] bytes = new byte[entry.length];
+        try (RandomAccessFile source = new RandomAccessFile(file.toFile(), "r")) {
+            source.seek(entry.offset);
+            source.readFully(bytes);
+        }
+        String json = new String(bytes, StandardCharsets.UTF_8);
+        if (!json.contains("\"" + BodyBlobStore.BLOB_FIELD + "\"")) {
+            return false;
+        }
+        String hash = JSONUtil.parseObj(json).getStr(BodyBlobStore.BLOB_FIELD);
+        return hash != null && !BodyBlobStore.exists(hash);
+    }
+
+    /**
+     * 不需要写盘时以文件内容作为新的基线，详情已加载且内容未变的条目保留本地内容哈希
+     */
+    private static void adoptDisk(Path file, Stamp stamp, List<CustomApiIndex.Entry> disk, Map<String, Base> previous) {
+        Map<String, Base> bases = new ConcurrentHashMap<>();
+        Map<String, Integer> seen = new HashMap<>();
+        for (CustomApiIndex.Entry entry : disk) {
+            String id = idOf(entry.id, entry.name, entry.httpMethod, entry.url, seen);
+            Base old = previous.get(id);
+            bases.put(id, new Base(entry.version, entry.hash, old != null && old.hash == entry.hash ? old.digest : null));
+        }
+        SYNC_STATES.put(file, new SyncState(stamp, bases));
+    }
+
+    /**
+     * @param stamp 文件当前的标记，字节范围与之一致的条目直接复制原字节
+     */
+    private static void writeLocked(Path file, Stamp stamp, List<Item> items, Map<String, Base> previous) throws IOException {
+        long[] offsets = new long[items.size()];
+        int[] lengths = new int[items.size()];
+        long[] hashes = new long[items.size()];
+        CRC32C checksum = new CRC32C();
+        RandomAccessFile source = stamp != Stamp.MISSING ? new RandomAccessFile(file.toFile(), "r") : null;
         try {
-            Path file = Paths.get(getCustomApiFilePath(project));
-            if (!Files.exists(file.getParent())) {
-                Files.createDirectories(file.getParent());
+            PersistenceQueue.writeAtomically(file, out -> {
+                long position = 1;
+                out.write('[');
+                checksum.update('[');
+                for (int i = 0; i < items.size(); i++) {
+                    if (i > 0) {
+                        out.write(',');
+                        checksum.update(',');
+                        position++;
+                    }
+                    Object part = items.get(i).part;
+                    byte[] bytes;
+                    if (part instanceof Slice) {
+                        Slice slice = (Slice) part;
+                        bytes = slice.isValid(file, stamp) ? slice.read(source) : slice.reload();
+                    } else {
+                        bytes = (byte[]) part;
+                    }
+                    out.write(bytes);
+                    checksum.update(bytes, 0, bytes.length);
+                    offsets[i] = position;
+                    lengths[i] = bytes.length;
+                    hashes[i] = CustomApiIndex.hash(bytes);
+                    position += bytes.length;
+                }
+                out.write(']');
+                checksum.update(']');
+            });
+        } finally {
+            if (source != null) {
+                source.close();
+            }
+        }
+        // 未加载的条目指向新文件中的位置，写入的内容成为新的基线
+        Stamp newStamp = Stamp.written(file, checksum.getValue());
+        Map<String, Base> bases = new ConcurrentHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            Long digest = hashes[i];
+            if (item.part instanceof Slice) {
+                ((Slice) item.part).moveTo(file, offsets[i], lengths[i], newStamp);
+                Base old = previous.get(item.id);
+                digest = old != null && old.hash == hashes[i] ? old.digest : null;
+            }
+            bases.put(item.id, new Base(item.version, hashes[i], digest));
+        }
+        SYNC_STATES.put(file, new SyncState(newStamp, bases));
+    }
+
+    /**
+     * 条目在custom_apis.json中的字节范围，首次访问详情时只解析这一段；
+     * 文件被外部修改（版本标记不一致）时回退为完整解析并按标识查找
+     */
+    private static final class Slice implements CustomApiInfo.LazyDetails {
+        private final String name;
+        private final String url;
+        private final String httpMethod;
+        private final String id;
+        private final long version;
+        /**
+         * 条目原始字节的哈希
+         */
+        private final long hash;
+        private Path file;
+        private long offset;
+        private int length;
+        private Stamp stamp;
+
+        Slice(Path file, CustomApiIndex.Entry entry, String id, Stamp stamp) {
+            this.file = file;
+            this.offset = entry.offset;
+            this.length = entry.length;
+            this.stamp = stamp;
+            this.name = entry.name;
+            this.url = entry.url;
+            this.httpMethod = entry.httpMethod;
+            this.id = id;
+            this.version = entry.version;
+            this.hash = entry.hash;
+        }
+
+        /**
+         * 创建只含列表元数据的条目
+         */
+        CustomApiInfo toLazyEntry() {
+            CustomApiInfo api = CustomApiInfo.lazy(name, url, httpMethod, this);
+            api.setId(id);
+            api.setVersion(version);
+            return api;
+        }
+
+        boolean isValid(Path current, Stamp currentStamp) {
+            return file.equals(current) && stamp.equals(currentStamp);
+        }
+
+        byte[] read(RandomAccessFile source) throws IOException {
+            byte[] bytes = new byte[length];
+            source.seek(offset);
+            source.readFully(bytes);
+            return bytes;
+        }
+
+        void moveTo(Path file, long offset, int length, Stamp stamp) {
+            this.file = file;
+            this.offset = offset;
+            this.length = length;
+            this.stamp = stamp;
+        }
+
+        /**
+         * 字节范围已失效时重新解析条目并序列化；无法加载时放弃本次写盘，不以只含列表元数据的条目覆盖原内容
+         */
+        byte[] reload() throws IOException {
+            CustomApiInfo api = load();
+            if (api == null) {
+                throw new IOException("自定义接口详情无法加载，放弃写入: " + name);
+            }
+            return BodyBlobStore.toInlineJson(api).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public CustomApiInfo load() {
+            synchronized (FILE_LOCK) {
+                try {
+                    if (stamp.matches(file)) {
+                        CustomApiInfo api;
+                        try (RandomAccessFile source = new RandomAccessFile(file.toFile(), "r")) {
+                            api = BodyBlobStore.fromJson(new String(read(source), StandardCharsets.UTF_8), CustomApiInfo.class);
+                        }
+                        api.setId(id);
+                        api.setVersion(version);
+                        recordDigest(api);
+                        return api;
+                    }
+                    LogUtil.warn("自定义接口文件已被修改，重新解析: " + file);
+                    if (Files.exists(file)) {
+                        Map<String, Integer> seen = new HashMap<>();
+                        for (CustomApiInfo api : parseAll(file)) {
+                            if (id.equals(idOf(api.getId(), api.getName(), api.getHttpMethod(), api.getUrl(), seen))) {
+                                // 列表中的条目保留原来的名称/方法/URL与版本（外部修改合并后才替换），按同样的内容记录哈希，
+                                // 合并前打开条目不会被当作本地修改
+                                api.setId(id);
+                                api.setName(name);
+                                api.setUrl(url);
+                                api.setHttpMethod(httpMethod);
+                                api.setVersion(version);
+                                recordDigest(api);
+                                return api;
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    LogUtil.warn("加载自定义接口详情失败[" + name + "]: " + e.getMessage());
+                }
+                return null;
+            }
+        }
+
+        /**
+         * 详情加载后记录内容哈希，保存时据此判断条目是否被本地修改
+         */
+        private void recordDigest(CustomApiInfo api) throws IOException {
+            SyncState state = SYNC_STATES.get(file);
+            Base base = state != null ? state.bases.get(id) : null;
+            if (base != null && base.hash == hash && base.digest == null) {
+                state.bases.put(id, new Base(base.version, base.hash, digest(BodyBlobStore.toInlineJson(api))));
             }
-            // headers字段已自动支持序列化/反序列化
-            String json = JSONUtil.toJsonStr(apis);
-            Files.write(file, json.getBytes(StandardCharsets.UTF_8));
-        } catch (Exception ignored) {
         }
     }
 
     /**
-     * 持久化自定义接口列表
+     * 持久化自定义接口列表：在调用线程中复制列表，序列化与写盘交给后台队列，连续编辑只写最后一次；
+     * 写盘前合并的外部修改随后同步到列表模型
      *
      * @param project
      * @param customApiListModel
      */
     public static void persistCustomApiList(Project project, DefaultListModel<CustomApiInfo> customApiListModel) {
-        ArrayList<CustomApiInfo> list = new ArrayList<>();
-        for (int i = 0; i < customApiListModel.size(); i++) {
-            list.add(customApiListModel.get(i));
+        List<CustomApiInfo> list = snapshot(customApiListModel);
+        PersistenceQueue.submit(getCustomApiFilePath(project),
+                () -> applyLater(project, customApiListModel, list, sync(project, list, true)));
+    }
+
+    /**
+     * 自定义接口文件被外部修改后调用（需在EDT中调用）：在后台与本地列表合并，只替换发生变化的条目
+     *
+     * @param project            项目对象
+     * @param customApiListModel 列表模型
+     */
+    static void reloadCustomApiList(Project project, DefaultListModel<CustomApiInfo> customApiListModel) {
+        List<CustomApiInfo> list = snapshot(customApiListModel);
+        PersistenceQueue.submit(getCustomApiFilePath(project) + "#reload",
+                () -> applyLater(project, customApiListModel, list, sync(project, list, false)));
+    }
+
+    private static List<CustomApiInfo> snapshot(DefaultListModel<CustomApiInfo> model) {
+        ArrayList<CustomApiInfo> list = new ArrayList<>(model.size());
+        for (int i = 0; i < model.size(); i++) {
+            list.add(model.get(i));
         }
-        saveCustomApis(project, list);
+        return list;
+    }
+
+    private static void applyLater(Project project, DefaultListModel<CustomApiInfo> model, List<CustomApiInfo> snapshot, MergeResult result) {
+        if (result == null) {
+            return;
+        }
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (project.isDisposed()) {
+                return;
+            }
+            applyToModel(model, snapshot, result.apis(), result.changed());
+            CustomApiFileWatcher.fireExternalChange(project, result.changed());
+        });
+    }
+
+    /**
+     * 把合并结果增量应用到列表模型：只删除、插入或移动变化的条目，替换内容的条目只刷新显示。
+     * 合并期间用户新加入的条目保留在原来的相对位置，已删除的条目不再加回
+     */
+    private static void applyToModel(DefaultListModel<CustomApiInfo> model, List<CustomApiInfo> snapshot,
+                             List<CustomApiInfo> merged, Set<CustomApiInfo> changed) {
+        Set<CustomApiInfo> before = Collections.newSetFromMap(new IdentityHashMap<>());
+        before.addAll(snapshot);
+        Set<CustomApiInfo> after = Collections.newSetFromMap(new IdentityHashMap<>());
+        after.addAll(merged);
+        for (int i = model.size() - 1; i >= 0; i--) {
+            CustomApiInfo api = model.get(i);
+            if (before.contains(api) && !after.contains(api)) {
+                model.remove(i);
+            }
+        }
+        List<CustomApiInfo> current = snapshot(model);
+        Set<CustomApiInfo> present = Collections.newSetFromMap(new IdentityHashMap<>());
+        present.addAll(current);
+        List<CustomApiInfo> wanted = new ArrayList<>(merged.size());
+        for (CustomApiInfo api : merged) {
+            if (!before.contains(api) || present.contains(api)) {
+                wanted.add(api);
+            }
+        }
+        List<CustomApiInfo> desired = interleave(wanted, current);
+        for (int i = 0; i < desired.size(); i++) {
+            CustomApiInfo api = desired.get(i);
+            if (i < model.size() && model.get(i) == api) {
+                if (changed.contains(api)) {
+                    // 同一对象，只触发刷新
+                    model.set(i, api);
+                }
+                continue;
+            }
+            for (int j = i + 1; j < model.size(); j++) {
+                if (model.get(j) == api) {
+                    model.remove(j);
+                    break;
+                }
+            }
+            model.add(i, api);
+        }
+    }
+
+    private static void notifyConflicts(Project project, List<String> names) {
+        LogUtil.warn("自定义接口存在并发修改冲突: " + names);
+        notifyEntries(project, names, "custom.sync.conflict");
+    }
+
+    private static void notifyRefused(Project project, List<String> names) {
+        LogUtil.warn("外部修改引用的请求体在本机不存在，未合并: " + names);
+        notifyEntries(project, names, "custom.sync.missingBlob");
+    }
+
+    private static void notifyEntries(Project project, List<String> names, String key) {
+        String list = String.join(", ", names.subList(0, Math.min(names.size(), CONFLICT_NAMES_LIMIT)));
+        if (names.size() > CONFLICT_NAMES_LIMIT) {
+            list += " ...";
+        }
+        new Notification(
+                "RequestMan",
+                RequestManBundle.message(key + ".title"),
+                RequestManBundle.message(key, list),
+                NotificationType.WARNING
+        ).notify(project);
     }
 
     /**
@@ -104,6 +1021,9 @@ public class CustomApiStorage {
             String key = "custom_params_cache";
             Path dir = Paths.get(StorageUtil.getCacheDir(project));
             Path file = dir.resolve(key + StorageUtil.CACHE_SUFFIX);
+            if (PersistenceQueue.isPending(file.toString())) {
+                PersistenceQueue.flush();
+            }
             if (Files.exists(file)) {
                 String json = Files.readString(file, StandardCharsets.UTF_8);
                 @SuppressWarnings("unchecked")
@@ -120,21 +1040,15 @@ public class CustomApiStorage {
      * 保存自定义参数到缓存
      */
     public static void saveCustomParamsToCache(ParamsTablePanel customParamsPanel, Project project) {
-        try {
-            Map<String, Object> data = new HashMap<>();
-            if (customParamsPanel != null) {
-                data.put("customParams", customParamsPanel.getParams());
-            }
-            String key = "custom_params_cache";
-            Path dir = Paths.get(StorageUtil.getCacheDir(project));
-            if (!Files.exists(dir)) {
-                Files.createDirectories(dir);
-            }
-            Path file = dir.resolve(key + StorageUtil.CACHE_SUFFIX);
-            String json = JSONUtil.toJsonStr(data);
-            Files.write(file, json.getBytes(StandardCharsets.UTF_8));
-        } catch (Exception ex) {
-            LogUtil.warn("保存自定义参数缓存失败: " + ex.getMessage());
+        Map<String, Object> data = new HashMap<>();
+        if (customParamsPanel != null) {
+            data.put("customParams", customParamsPanel.getParams());
         }
+        String key = "custom_params_cache";
+        Path file = Paths.get(StorageUtil.getCacheDir(project)).resolve(key + StorageUtil.CACHE_SUFFIX);
+        PersistenceQueue.submit(file.toString(), () -> {
+            String json = JSONUtil.toJsonStr(data);
+            PersistenceQueue.writeAtomically(file, json.getBytes(StandardCharsets.UTF_8));
+        });
     }
 } 
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.ljh.request.requestman.ui.ResponseCollapsePanel;
 import javax.swing.JButton;
 import javax.swing.JComponent;
 import javax.swing.JOptionPane;
+import java.util.List;
 
 /**
  * 默认响应处理器，实现ResponseHandler接口。
@@ -56,6 +57,7 @@ public class DefaultResponseHandler implements ResponseHandler {
     public void onError(Exception exception) {
         // 设置错误信息
         responsePanel.setStatusText("");
+        responsePanel.setAssertionResults(null);
         responsePanel.setResponseText(RequestManBundle.message("common.request.error") + exception.getMessage());
         responsePanel.expand();
         
@@ -64,6 +66,31 @@ public class DefaultResponseHandler implements ResponseHandler {
             RequestManBundle.message("common.request.error") + exception.getMessage(), RequestManBundle.message("common.error"), JOptionPane.ERROR_MESSAGE);
     }
 
+    @Override
+    public void onCancelled(boolean timedOut) {
+        // 用户主动取消不弹窗，只在响应面板提示
+        String msg = timedOut ? RequestManBundle.message("main.request.timeout") : RequestManBundle.message("main.request.cancelled");
+        responsePanel.setStatusText(msg);
+        responsePanel.setAssertionResults(null);
+        responsePanel.setResponseText(msg);
+        responsePanel.expand();
+    }
+
+    @Override
+    public void onAssertions(List<AssertionResult> results) {
+        responsePanel.setAssertionResults(results);
+    }
+
+    @Override
+    public void onProgress(long transferred, long total, double bytesPerSecond) {
+        String speed = StreamingDownloader.formatBytes((long) bytesPerSecond) + "/s";
+        String statusMsg = total > 0
+                ? RequestManBundle.message("main.transfer.progress", StreamingDownloader.formatBytes(transferred),
+                StreamingDownloader.formatBytes(total), speed)
+                : RequestManBundle.message("main.transfer.progress.unknown", StreamingDownloader.formatBytes(transferred), speed);
+        responsePanel.setStatusText(statusMsg);
+    }
+
     @Override
     public JButton getButton() {
         return button;
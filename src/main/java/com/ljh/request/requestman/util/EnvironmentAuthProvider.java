@@ -0,0 +1,340 @@
+package com.ljh.request.requestman.util;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import com.ljh.request.requestman.model.Environment;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 环境级全局认证提供者：按环境配置动态获取令牌，替代手工粘贴的静态全局认证。参数格式：
+ * <pre>
+ * OAUTH2  令牌URL | client_id | client_secret[ | scope]    客户端凭证模式，凭证以HTTP Basic发送
+ * LOGIN   [方法 ]URL | JSONPath[ | 有效期秒][ | 请求体]     同前置操作TOKEN，例：POST {{host}}/login | $.data.token
+ * SCRIPT  命令行                                        标准输出为令牌，或含access_token/expires_in的JSON
+ * </pre>
+ * 脚本不经过shell执行：命令行先按空白与引号拆分为参数，再逐个渲染变量，变量值中的特殊字符不会被解析为命令；
+ * 变量同时以REQUESTMAN_变量名的环境变量传给脚本，需要管道等shell特性时可显式写sh -c '…'并引用环境变量。
+ * 令牌通过{@link TokenCache}缓存，到期前所有请求复用，并发请求只触发一次刷新；服务端返回401时失效后重新获取。
+ *
+ * @author leijianhui
+ * @Description 环境全局认证提供者（OAuth2客户端凭证/登录接口/自定义脚本）。
+ * @date 2025/09/14 10:00
+ */
+public final class EnvironmentAuthProvider {
+
+    public static final String TYPE_NONE = "";
+    public static final String TYPE_OAUTH2 = "OAUTH2";
+    public static final String TYPE_LOGIN = "LOGIN";
+    public static final String TYPE_SCRIPT = "SCRIPT";
+
+    public static final String[] TYPES = {TYPE_NONE, TYPE_OAUTH2, TYPE_LOGIN, TYPE_SCRIPT};
+
+    /**
+     * 默认的Authorization请求头模板
+     */
+    public static final String DEFAULT_HEADER = "Bearer {{token}}";
+
+    private static final int OAUTH2_TIMEOUT_MS = 15_000;
+
+    private static final long SCRIPT_TIMEOUT_SECONDS = 30;
+
+    private static final StreamingJsonPath ACCESS_TOKEN = StreamingJsonPath.compile("$.access_token");
+    private static final StreamingJsonPath EXPIRES_IN = StreamingJsonPath.compile("$.expires_in");
+
+    /**
+     * 传给脚本的变量环境变量前缀，避免覆盖PATH等系统变量
+     */
+    private static final String SCRIPT_ENV_PREFIX = "REQUESTMAN_";
+
+    private static final Pattern ENV_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private EnvironmentAuthProvider() {
+    }
+
+    /**
+     * 一次解析得到的认证信息，服务端拒绝时据此只失效本次使用的令牌
+     */
+    public static final class Credential {
+        private final String cacheKey;
+        private final String token;
+        private final String header;
+
+        private Credential(String cacheKey, String token, String header) {
+            this.cacheKey = cacheKey;
+            this.token = token;
+            this.header = header;
+        }
+
+        /**
+         * Authorization请求头的值
+         */
+        public String getHeader() {
+            return header;
+        }
+    }
+
+    /**
+     * 环境是否配置了动态认证提供者
+     *
+     * @param env 环境，可为null
+     * @return 已配置时返回true
+     */
+    public static boolean isEnabled(Environment env) {
+        return env != null && StrUtil.isNotBlank(env.getAuthType()) && StrUtil.isNotBlank(env.getAuthConfig());
+    }
+
+    /**
+     * 校验参数，供编辑时提示
+     *
+     * @param type   提供者类型
+     * @param config 参数
+     * @return 错误信息，合法或未配置时返回null
+     */
+    public static String validate(String type, String config) {
+        if (StrUtil.isBlank(type) || StrUtil.isBlank(config)) {
+            return null;
+        }
+        switch (type) {
+            case TYPE_OAUTH2:
+                return splitOAuth2(config).length < 3 ? RequestManBundle.message("env.auth.invalid.oauth2") : null;
+            case TYPE_LOGIN:
+                return CompiledPreOp.validate(CompiledPreOp.TYPE_TOKEN, config);
+            case TYPE_SCRIPT:
+                try {
+                    return splitCommandLine(config).isEmpty() ? RequestManBundle.message("env.auth.invalid.script") : null;
+                } catch (IllegalArgumentException e) {
+                    return RequestManBundle.message("env.auth.invalid.script");
+                }
+            default:
+                return RequestManBundle.message("preop.invalid.type", type);
+        }
+    }
+
+    /**
+     * 解析Authorization请求头：缓存中有未过期的令牌时直接使用，否则刷新（并发请求等待同一次刷新）
+     *
+     * @param env       已配置认证提供者的环境
+     * @param variables 本次请求的变量快照，用于渲染参数与请求头模板
+     * @return 认证信息（含Authorization请求头的值）
+     * @throws IllegalStateException 获取令牌失败
+     */
+    public static Credential resolve(Environment env, Map<String, String> variables) {
+        String config = VariableReplacer.render(env.getAuthConfig(), variables);
+        String key = cacheKey(env, config);
+        String token;
+        try {
+            token = TokenCache.get(key, () -> fetch(env, config, variables));
+        } catch (Exception e) {
+            throw new IllegalStateException(RequestManBundle.message("env.auth.fail", env.getName(), e.getMessage()), e);
+        }
+        String template = StrUtil.isNotBlank(env.getAuthHeader()) ? env.getAuthHeader() : DEFAULT_HEADER;
+        return new Credential(key, token, VariableReplacer.render(template.replace("{{token}}", token), variables));
+    }
+
+    /**
+     * 使被服务端拒绝的令牌失效，下次请求重新获取；其它请求已刷新的令牌保留
+     *
+     * @param rejected 被拒绝请求使用的认证信息，可为null
+     */
+    public static void invalidate(Credential rejected) {
+        if (rejected != null) {
+            TokenCache.invalidate(rejected.cacheKey, rejected.token);
+        }
+    }
+
+    /**
+     * 缓存键包含渲染后的参数，修改配置或参数引用的变量（如切换账号）后自动使用新令牌
+     */
+    private static String cacheKey(Environment env, String renderedConfig) {
+        return "env-auth\n" + env.getId() + '\n' + env.getAuthType() + '\n' + renderedConfig + '\n' + env.getAuthTtl();
+    }
+
+    private static TokenCache.Token fetch(Environment env, String config, Map<String, String> variables) throws Exception {
+        String error = validate(env.getAuthType(), config);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        switch (env.getAuthType()) {
+            case TYPE_OAUTH2:
+                return fetchOAuth2(splitOAuth2(config), env.getAuthTtl());
+            case TYPE_LOGIN:
+                CompiledPreOp op = CompiledPreOp.compile(CompiledPreOp.TYPE_TOKEN, config);
+                return PreOpExecutor.requestToken(op, op.getUrl(), op.getBody(),
+                        env.getAuthTtl() > 0 ? env.getAuthTtl() : op.getTtlSeconds());
+            case TYPE_SCRIPT:
+                // 脚本按未渲染的命令行拆分参数后逐个渲染，变量值不会被拆分或解析
+                return runScript(env.getAuthConfig(), variables, env.getAuthTtl());
+            default:
+                throw new IllegalArgumentException(RequestManBundle.message("preop.invalid.type", env.getAuthType()));
+        }
+    }
+
+    private static String[] splitOAuth2(String config) {
+        return config.trim().split("\\s*\\|\\s*", 4);
+    }
+
+    /**
+     * OAuth2客户端凭证模式（RFC 6749 4.4）
+     */
+    private static TokenCache.Token fetchOAuth2(String[] parts, int ttlSeconds) {
+        Map<String, Object> form = new HashMap<>();
+        form.put("grant_type", "client_credentials");
+        if (parts.length > 3 && !parts[3].isEmpty()) {
+            form.put("scope", parts[3]);
+        }
+        HttpRequest request = HttpRequest.post(parts[0]).basicAuth(parts[1], parts[2]).form(form).timeout(OAUTH2_TIMEOUT_MS);
+        try (HttpResponse response = request.execute()) {
+            if (response.getStatus() < 200 || response.getStatus() >= 300) {
+                throw new IllegalStateException("HTTP " + response.getStatus());
+            }
+            return parseTokenJson(response.body(), ttlSeconds);
+        }
+    }
+
+    /**
+     * 执行自定义脚本（不经过shell），标准输出重定向到临时文件，避免输出较大时管道阻塞
+     */
+    private static TokenCache.Token runScript(String command, Map<String, String> variables, int ttlSeconds) throws Exception {
+        List<String> commandLine = new ArrayList<>();
+        for (String arg : splitCommandLine(command)) {
+            commandLine.add(VariableReplacer.render(arg, variables));
+        }
+        File output = File.createTempFile("requestman-auth", ".out");
+        try {
+            ProcessBuilder builder = new ProcessBuilder(commandLine)
+                    .redirectOutput(output)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD);
+            Map<String, String> environment = builder.environment();
+            for (Map.Entry<String, String> entry : variables.entrySet()) {
+                if (entry.getValue() != null && ENV_NAME.matcher(entry.getKey()).matches()) {
+                    environment.put(SCRIPT_ENV_PREFIX + entry.getKey(), entry.getValue());
+                }
+            }
+            Process process = builder.start();
+            if (!process.waitFor(SCRIPT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IllegalStateException(RequestManBundle.message("env.auth.script.timeout", SCRIPT_TIMEOUT_SECONDS));
+            }
+            if (process.exitValue() != 0) {
+                throw new IllegalStateException(RequestManBundle.message("env.auth.script.exit", process.exitValue()));
+            }
+            String text = new String(Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8).trim();
+            if (text.startsWith("{")) {
+                return parseTokenJson(text, ttlSeconds);
+            }
+            if (text.isEmpty()) {
+                throw new IllegalStateException(RequestManBundle.message("env.auth.script.empty"));
+            }
+            long ttl = ttlSeconds > 0 ? ttlSeconds : CompiledPreOp.DEFAULT_TOKEN_TTL_SECONDS;
+            return new TokenCache.Token(text.lines().findFirst().orElse(text).trim(), ttl * 1000);
+        } finally {
+            if (!output.delete()) {
+                output.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * 把命令行拆分为参数：空白分隔，单引号内原样保留，双引号内支持\"与\\转义，{{…}}占位符整体保留
+     *
+     * @throws IllegalArgumentException 引号或占位符未闭合
+     */
+    static List<String> splitCommandLine(String command) {
+        List<String> args = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inArg = false;
+        int length = command.length();
+        int i = 0;
+        while (i < length) {
+            char c = command.charAt(i);
+            if (command.startsWith("{{", i)) {
+                int end = placeholderEnd(command, i);
+                current.append(command, i, end);
+                inArg = true;
+                i = end;
+            } else if (Character.isWhitespace(c)) {
+                if (inArg) {
+                    args.add(current.toString());
+                    current.setLength(0);
+                    inArg = false;
+                }
+                i++;
+            } else if (c == '\'') {
+                int close = command.indexOf('\'', i + 1);
+                if (close < 0) {
+                    throw new IllegalArgumentException("unclosed ' at " + i);
+                }
+                current.append(command, i + 1, close);
+                inArg = true;
+                i = close + 1;
+            } else if (c == '"') {
+                int j = i + 1;
+                while (j < length && command.charAt(j) != '"') {
+                    char d = command.charAt(j);
+                    if (d == '\\' && j + 1 < length && (command.charAt(j + 1) == '"' || command.charAt(j + 1) == '\\')) {
+                        d = command.charAt(++j);
+                    }
+                    current.append(d);
+                    j++;
+                }
+                if (j >= length) {
+                    throw new IllegalArgumentException("unclosed \" at " + i);
+                }
+                inArg = true;
+                i = j + 1;
+            } else {
+                current.append(c);
+                inArg = true;
+                i++;
+            }
+        }
+        if (inArg) {
+            args.add(current.toString());
+        }
+        return args;
+    }
+
+    /**
+     * 与start处"{{"配对的"}}"之后的位置（按嵌套深度）
+     */
+    private static int placeholderEnd(String command, int start) {
+        int depth = 0;
+        int i = start;
+        while (i < command.length()) {
+            if (command.startsWith("{{", i)) {
+                depth++;
+                i += 2;
+            } else if (command.startsWith("}}", i)) {
+                i += 2;
+                if (--depth == 0) {
+                    return i;
+                }
+            } else {
+                i++;
+            }
+        }
+        throw new IllegalArgumentException("unclosed {{ at " + start);
+    }
+
+    private static TokenCache.Token parseTokenJson(String json, int ttlSeconds) {
+        Map<String, String> values = StreamingJsonPath.evaluate(new StringReader(json), Arrays.asList(ACCESS_TOKEN, EXPIRES_IN));
+        String token = values.get(ACCESS_TOKEN.getExpression());
+        if (token == null) {
+            throw new IllegalStateException(ACCESS_TOKEN.getExpression() + " not found");
+        }
+        long ttl = ttlSeconds > 0 ? ttlSeconds : PreOpExecutor.parseSeconds(values.get(EXPIRES_IN.getExpression()));
+        return new TokenCache.Token(token, ttl * 1000);
+    }
+}
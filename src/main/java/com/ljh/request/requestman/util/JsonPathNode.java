@@ -0,0 +1,315 @@
+package com.ljh.request.requestman.util;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONConfig;
+import cn.hutool.json.JSONNull;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * JSONPath字段树节点，子节点在首次访问时才创建。
+ * 元素类型一致的数组折叠为一个[*]结构节点（字段取前若干个元素的并集，并附带示例值），
+ * 类型不一致的大数组按页分组展开，避免为每个元素、每个下标一次性创建条目。
+ *
+ * @author leijianhui
+ * @Description 按需展开的JSONPath字段树节点，支持数组折叠、分页与路径增量搜索。
+ * @date 2025/09/12 10:00
+ */
+public class JsonPathNode {
+
+    /**
+     * 判断数组是否同构时采样的元素个数
+     */
+    private static final int SAMPLE_SIZE = 50;
+
+    /**
+     * 非同构数组每页展示的元素个数
+     */
+    private static final int PAGE_SIZE = 100;
+
+    /**
+     * 单次搜索最多访问的节点数
+     */
+    private static final int SEARCH_VISIT_LIMIT = 20000;
+
+    /**
+     * 保留null字段，否则值为null的字段不会出现在树中
+     */
+    private static final JSONConfig JSON_CONFIG = JSONConfig.create().setIgnoreNullValue(false);
+
+    private final String name;
+    private final String path;
+    private final Object value;
+    private final boolean schema;
+    private final int pageStart;
+    private final int pageEnd;
+    private List<JsonPathNode> children;
+
+    private JsonPathNode(String name, String path, Object value, boolean schema, int pageStart, int pageEnd) {
+        this.name = name;
+        this.path = path;
+        this.value = value;
+        this.schema = schema;
+        this.pageStart = pageStart;
+        this.pageEnd = pageEnd;
+    }
+
+    private JsonPathNode(String name, String path, Object value, boolean schema) {
+        this(name, path, value, schema, -1, -1);
+    }
+
+    /**
+     * 解析JSON文本并创建根节点
+     *
+     * @param json JSON文本（对象或数组）
+     * @return 根节点
+     * @throws RuntimeException JSON非法时抛出
+     */
+    public static JsonPathNode parse(String json) {
+        return new JsonPathNode("$", "$", JSONUtil.parse(json, JSON_CONFIG), false);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * 是否为折叠数组的结构节点（或其下的字段），值为示例值
+     */
+    public boolean isSchema() {
+        return schema;
+    }
+
+    /**
+     * 是否为分页分组节点
+     */
+    public boolean isPage() {
+        return pageStart >= 0;
+    }
+
+    public boolean isLeaf() {
+        if (isPage()) {
+            return false;
+        }
+        if (value instanceof JSONObject) {
+            return ((JSONObject) value).isEmpty();
+        }
+        if (value instanceof JSONArray) {
+            return ((JSONArray) value).isEmpty();
+        }
+        return true;
+    }
+
+    /**
+     * 获取子节点，首次调用时创建（后台搜索与界面展开可能同时访问，需同步）
+     *
+     * @return 子节点列表
+     */
+    public synchronized List<JsonPathNode> getChildren() {
+        if (children == null) {
+            children = isLeaf() ? Collections.emptyList() : buildChildren();
+        }
+        return children;
+    }
+
+    private List<JsonPathNode> buildChildren() {
+        if (isPage()) {
+            JSONArray array = (JSONArray) value;
+            List<JsonPathNode> list = new ArrayList<>(pageEnd - pageStart);
+            for (int i = pageStart; i < pageEnd; i++) {
+                list.add(new JsonPathNode("[" + i + "]", path + "[" + i + "]", array.get(i), false));
+            }
+            return list;
+        }
+        if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            List<JsonPathNode> list = new ArrayList<>(object.size());
+            for (Map.Entry<String, Object> entry : object.entrySet()) {
+                list.add(new JsonPathNode(entry.getKey(), childPath(path, entry.getKey()), entry.getValue(), schema));
+            }
+            return list;
+        }
+        JSONArray array = (JSONArray) value;
+        List<JsonPathNode> list = new ArrayList<>();
+        if (schema) {
+            // 结构节点下的数组只展示合并后的元素结构
+            list.add(elementSchema(array));
+            return list;
+        }
+        if (array.size() > 1 && isHomogeneous(array)) {
+            // 同构数组折叠为[*]结构节点，另保留首个元素便于按下标提取
+            list.add(elementSchema(array));
+            list.add(new JsonPathNode("[0]", path + "[0]", array.get(0), false));
+            return list;
+        }
+        if (array.size() <= PAGE_SIZE) {
+            for (int i = 0; i < array.size(); i++) {
+                list.add(new JsonPathNode("[" + i + "]", path + "[" + i + "]", array.get(i), false));
+            }
+            return list;
+        }
+        for (int start = 0; start < array.size(); start += PAGE_SIZE) {
+            int end = Math.min(start + PAGE_SIZE, array.size());
+            list.add(new JsonPathNode("[" + start + ".." + (end - 1) + "]", path, array, false, start, end));
+        }
+        return list;
+    }
+
+    /**
+     * 生成数组元素的结构节点：对象元素合并前若干个元素的字段，每个字段取第一个非null值作为示例
+     */
+    private JsonPathNode elementSchema(JSONArray array) {
+        String schemaPath = path + "[*]";
+        if (array.isEmpty() || !(array.get(0) instanceof JSONObject)) {
+            return new JsonPathNode("[*]", schemaPath, firstNonNull(array), true);
+        }
+        JSONObject merged = new JSONObject(JSON_CONFIG);
+        int limit = Math.min(array.size(), SAMPLE_SIZE);
+        for (int i = 0; i < limit; i++) {
+            Object element = array.get(i);
+            if (!(element instanceof JSONObject)) {
+                continue;
+            }
+            for (Map.Entry<String, Object> entry : ((JSONObject) element).entrySet()) {
+                Object existing = merged.get(entry.getKey());
+                if (existing == null || existing instanceof JSONNull) {
+                    merged.set(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return new JsonPathNode("[*]", schemaPath, merged, true);
+    }
+
+    private static Object firstNonNull(JSONArray array) {
+        int limit = Math.min(array.size(), SAMPLE_SIZE);
+        for (int i = 0; i < limit; i++) {
+            Object element = array.get(i);
+            if (element != null && !(element instanceof JSONNull)) {
+                return element;
+            }
+        }
+        return array.isEmpty() ? null : array.get(0);
+    }
+
+    private static boolean isHomogeneous(JSONArray array) {
+        String type = getType(array.get(0));
+        int limit = Math.min(array.size(), SAMPLE_SIZE);
+        for (int i = 1; i < limit; i++) {
+            if (!type.equals(getType(array.get(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 拼接子路径，非标识符字段名使用['name']形式
+     */
+    private static String childPath(String parent, String key) {
+        boolean simple = !key.isEmpty();
+        for (int i = 0; i < key.length() && simple; i++) {
+            char c = key.charAt(i);
+            simple = Character.isLetterOrDigit(c) || c == '_' || c == '$';
+        }
+        return simple ? parent + "." + key : parent + "['" + key + "']";
+    }
+
+    /**
+     * 值类型描述
+     */
+    public String getType() {
+        return getType(value);
+    }
+
+    private static String getType(Object value) {
+        if (value == null || value instanceof JSONNull) {
+            return "null";
+        }
+        if (value instanceof String) {
+            return "string";
+        }
+        if (value instanceof Number) {
+            return "number";
+        }
+        if (value instanceof Boolean) {
+            return "boolean";
+        }
+        if (value instanceof JSONArray) {
+            return "array";
+        }
+        if (value instanceof JSONObject) {
+            return "object";
+        }
+        return "unknown";
+    }
+
+    /**
+     * 展示用的值：对象/数组显示大小，长字符串截断
+     */
+    public String getDisplayValue() {
+        if (isPage()) {
+            return "";
+        }
+        if (value == null || value instanceof JSONNull) {
+            return "null";
+        }
+        if (value instanceof JSONObject) {
+            return "{" + ((JSONObject) value).size() + "}";
+        }
+        if (value instanceof JSONArray) {
+            return "[" + ((JSONArray) value).size() + "]";
+        }
+        String str = value.toString();
+        return str.length() > 50 ? str.substring(0, 50) + "..." : str;
+    }
+
+    /**
+     * 按路径关键字增量搜索（不区分大小写），按深度优先顺序按需展开节点
+     *
+     * @param root    根节点
+     * @param keyword 关键字
+     * @param limit   最多返回的结果数
+     * @return 匹配的节点
+     */
+    public static List<JsonPathNode> search(JsonPathNode root, String keyword, int limit) {
+        List<JsonPathNode> result = new ArrayList<>();
+        if (root == null || keyword == null || keyword.trim().isEmpty()) {
+            return result;
+        }
+        String lower = keyword.trim().toLowerCase(Locale.ROOT);
+        List<JsonPathNode> stack = new ArrayList<>();
+        stack.add(root);
+        int visited = 0;
+        while (!stack.isEmpty() && result.size() < limit && visited < SEARCH_VISIT_LIMIT) {
+            JsonPathNode node = stack.remove(stack.size() - 1);
+            visited++;
+            if (!node.isPage() && node != root && node.path.toLowerCase(Locale.ROOT).contains(lower)) {
+                result.add(node);
+            }
+            List<JsonPathNode> nodeChildren = node.getChildren();
+            for (int i = nodeChildren.size() - 1; i >= 0; i--) {
+                stack.add(nodeChildren.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
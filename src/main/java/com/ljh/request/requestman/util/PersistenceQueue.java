@@ -0,0 +1,179 @@
+package com.ljh.request.requestman.util;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 写后延迟持久化队列：保存请求按key合并，短时间内对同一key的多次保存只执行最后一次。
+ * 序列化与写盘都在单个后台线程中按提交顺序执行，调用方（通常是EDT）只负责收集界面数据。
+ * 项目关闭前调用{@link #flush()}写入尚在延迟中的修改。
+ *
+ * @author leijianhui
+ * @Description 按key合并的后台持久化队列，支持原子写文件与关闭前刷新。
+ * @date 2025/09/15 16:00
+ */
+public final class PersistenceQueue {
+
+    /**
+     * 合并延迟（毫秒）
+     */
+    private static final long COALESCE_DELAY_MS = 300;
+
+    /**
+     * flush等待写入完成的最长时间（秒）
+     */
+    private static final long FLUSH_TIMEOUT_SECONDS = 10;
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "RequestMan-Persist");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * 每个key最新的待执行保存
+     */
+    private static final Map<String, Task> PENDING = new ConcurrentHashMap<>();
+
+    private static final AtomicBoolean DRAIN_SCHEDULED = new AtomicBoolean(false);
+
+    private static volatile Thread worker;
+
+    private PersistenceQueue() {
+    }
+
+    /**
+     * 保存任务：在后台线程中序列化并写盘
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    /**
+     * 提交保存，替换同一key尚未执行的保存
+     *
+     * @param key  合并key（通常为目标文件或存储键）
+     * @param task 保存任务
+     */
+    public static void submit(String key, Task task) {
+        PENDING.put(key, task);
+        if (DRAIN_SCHEDULED.compareAndSet(false, true)) {
+            EXECUTOR.schedule(PersistenceQueue::drain, COALESCE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 取消尚未执行的保存（如删除缓存时，避免被延迟的旧保存覆盖）
+     *
+     * @param key 合并key
+     */
+    public static void cancel(String key) {
+        PENDING.remove(key);
+    }
+
+    /**
+     * 是否有尚未执行的保存
+     *
+     * @param key 合并key
+     * @return 有待执行保存时返回true
+     */
+    public static boolean isPending(String key) {
+        return PENDING.containsKey(key);
+    }
+
+    /**
+     * 立即执行所有待执行的保存并等待完成（项目关闭或读取前调用）
+     */
+    public static void flush() {
+        if (Thread.currentThread() == worker) {
+            drain();
+            return;
+        }
+        try {
+            EXECUTOR.submit(PersistenceQueue::drain).get(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            LogUtil.warn("等待持久化完成失败: " + e.getMessage());
+        }
+    }
+
+    private static void drain() {
+        worker = Thread.currentThread();
+        DRAIN_SCHEDULED.set(false);
+        Iterator<Map.Entry<String, Task>> iterator = PENDING.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Task> entry = iterator.next();
+            // 只移除取到的这次保存，执行期间新提交的保存留待下一轮
+            if (!PENDING.remove(entry.getKey(), entry.getValue())) {
+                continue;
+            }
+            try {
+                entry.getValue().run();
+            } catch (Exception e) {
+                LogUtil.warn("后台保存失败[" + entry.getKey() + "]: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 流式写入的文件内容
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * 原子写文件：先写同目录临时文件并刷盘，再替换目标文件，崩溃时不会留下写了一半的文件
+     *
+     * @param file 目标文件
+     * @param data 文件内容
+     * @throws IOException 写入失败（目标文件保持不变）
+     */
+    public static void writeAtomically(Path file, byte[] data) throws IOException {
+        writeAtomically(file, out -> out.write(data));
+    }
+
+    /**
+     * 原子写文件，内容由writer流式写出，无需先在内存中拼出完整内容
+     *
+     * @param file   目标文件
+     * @param writer 内容写出器
+     * @throws IOException 写入失败（目标文件保持不变）
+     */
+    public static void writeAtomically(Path file, ContentWriter writer) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            writer.write(out);
+            out.flush();
+            channel.force(true);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -1,18 +1,23 @@
 package com.ljh.request.requestman.util;
 
 import cn.hutool.core.util.StrUtil;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
+import com.ljh.request.requestman.model.ApiParam;
 import com.ljh.request.requestman.ui.PostOpPanel.PostOpItem;
 import com.ljh.request.requestman.ui.VariablePanel;
 import com.ljh.request.requestman.util.RequestManBundle;
 
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 /**
  * @author leijianhui
- * @Description 后置操作执行工具类，支持变量提取与赋值。
+ * @Description 后置操作执行工具类，支持变量提取与赋值、响应断言。
  * @date 2025/06/19 09:36
  */
 public class PostOpExecutor {
@@ -24,29 +29,107 @@ public class PostOpExecutor {
      * @param postOps      后置操作列表
      */
     public static void execute(Project project, String responseBody, List<PostOpItem> postOps) {
-        if (StrUtil.isBlank(responseBody) || postOps == null || postOps.isEmpty() || project == null) {
+        execute(project, responseBody, postOps, null);
+    }
+
+    /**
+     * 执行所有后置操作。提供变量上下文时提取结果只写入该上下文（请求层），
+     * 需要时由调用方显式提升到全局；未提供时写入项目变量池。
+     *
+     * @param project      项目对象
+     * @param responseBody 响应内容（一般为JSON字符串）
+     * @param postOps      后置操作列表
+     * @param context      请求变量上下文，可为null
+     */
+    public static void execute(Project project, String responseBody, List<PostOpItem> postOps, VariableContext context) {
+        if (StrUtil.isBlank(responseBody)) {
             return;
         }
-        boolean changed = false;
+        execute(project, new ResponseAssertion.Response(0, 0, null, responseBody), postOps, context, null);
+    }
+
+    /**
+     * 执行所有后置操作（变量提取与断言）。变量提取、断言与响应结构校验用到的JSONPath
+     * 在同一次流式扫描中求值。
+     *
+     * @param project        项目对象
+     * @param response       响应（状态码、耗时、响应头、响应体）
+     * @param postOps        后置操作列表
+     * @param context        请求变量上下文，可为null
+     * @param responseSchema 扫描得到的响应结构，用于schema断言，可为null
+     * @return 断言结果，没有断言时为空列表
+     */
+    public static List<AssertionResult> execute(Project project, ResponseAssertion.Response response, List<PostOpItem> postOps,
+                                                VariableContext context, List<ApiParam> responseSchema) {
+        if (response == null || postOps == null || postOps.isEmpty() || project == null) {
+            return Collections.emptyList();
+        }
+        String responseBody = response.getBody();
+        Map<String, String> extracted = new LinkedHashMap<>();
+        Map<PostOpItem, CompiledPostOp> compiled = new LinkedHashMap<>();
+        List<StreamingJsonPath> jsonPaths = new ArrayList<>();
+        ResponseAssertion.Schema schema = null;
         for (PostOpItem item : postOps) {
             if (item == null || StrUtil.isBlank(item.name) || StrUtil.isBlank(item.type) || StrUtil.isBlank(item.value)) {
                 continue;
             }
+            CompiledPostOp op = CompiledPostOp.compile(item.type, item.value);
+            if (!op.isValid()) {
+                LogUtil.debug("跳过无效的后置操作[" + item.name + "]: " + op.getError());
+                continue;
+            }
+            compiled.put(item, op);
+            if (op.needsJson()) {
+                jsonPaths.add(op.getJsonPath());
+            }
+            ResponseAssertion assertion = op.getAssertion();
+            if (assertion != null && assertion.getJsonPath() != null) {
+                jsonPaths.add(assertion.getJsonPath());
+            }
+            if (assertion != null && assertion.isSchema() && schema == null && responseSchema != null) {
+                schema = ResponseAssertion.Schema.of(responseSchema);
+                jsonPaths.addAll(schema.getProbes());
+            }
+        }
+        // 所有JSONPath在一次流式扫描中求值，不构建JSON树
+        Map<StreamingJsonPath, List<String>> scanned = jsonPaths.isEmpty() || StrUtil.isBlank(responseBody)
+                ? Collections.emptyMap()
+                : StreamingJsonPath.scan(new StringReader(responseBody), jsonPaths);
+        Map<String, String> jsonResults = new LinkedHashMap<>();
+        for (Map.Entry<StreamingJsonPath, List<String>> entry : scanned.entrySet()) {
+            String value = entry.getKey().toValue(entry.getValue());
+            if (value != null) {
+                jsonResults.putIfAbsent(entry.getKey().getExpression(), value);
+            }
+        }
+        List<AssertionResult> assertions = new ArrayList<>();
+        for (Map.Entry<PostOpItem, CompiledPostOp> entry : compiled.entrySet()) {
+            CompiledPostOp op = entry.getValue();
             String result = null;
-            if ("JSONPath".equals(item.type)) {
-                result = extractByJsonPathWithAffix(responseBody, item.value);
-            } else if ("TEXT".equals(item.type)) {
-                result = extractByRegex(responseBody, item.value);
+            if (CompiledPostOp.TYPE_JSON_PATH.equals(op.getType())) {
+                result = op.evaluateJson(jsonResults);
+            } else if (CompiledPostOp.TYPE_TEXT.equals(op.getType())) {
+                result = op.evaluateText(responseBody);
+            } else if (op.getAssertion() != null) {
+                assertions.add(op.getAssertion().evaluate(entry.getKey().name, response, scanned, schema));
             }
             if (result != null) {
-                VariableManager.put(project, item.name, result);
-                changed = true;
+                extracted.put(entry.getKey().name, result);
             }
         }
-        // 自动刷新项目变量面板
-        if (changed) {
-            VariablePanel.reloadIfExists();
+        if (extracted.isEmpty()) {
+            return assertions;
+        }
+        if (context != null) {
+            // 隔离在请求上下文中，避免并行请求互相覆盖
+            context.putAll(extracted);
+            return assertions;
         }
+        // 批量写入，一次快照替换、一次持久化
+        VariableManager.putAll(project, extracted);
+        // 自动刷新项目变量面板（后置操作在请求线程执行，刷新需回到EDT）
+        ApplicationManager.getApplication().invokeLater(VariablePanel::reloadIfExists);
+        return assertions;
     }
 
     /**
@@ -60,72 +143,4 @@ public class PostOpExecutor {
     public static void execute(String responseBody, List<PostOpItem> postOps) {
         // 为了向后兼容，不执行任何操作
     }
-
-    /**
-     * 用JSONPath表达式提取内容
-     *
-     * @param json     响应内容
-     * @param jsonPath JSONPath表达式
-     * @return 提取结果，失败返回null
-     */
-    private static String extractByJsonPath(String json, String jsonPath) {
-        try {
-            Object value = cn.hutool.json.JSONUtil.parseObj(json).getByPath(jsonPath);
-            return value != null ? value.toString() : null;
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    /**
-     * 用正则表达式提取内容（取第一个分组）
-     *
-     * @param text  响应内容
-     * @param regex 正则表达式
-     * @return 提取结果，失败返回null
-     */
-    private static String extractByRegex(String text, String regex) {
-        try {
-            Pattern pattern = Pattern.compile(regex);
-            Matcher matcher = pattern.matcher(text);
-            if (matcher.find() && matcher.groupCount() >= 1) {
-                return matcher.group(1);
-            }
-        } catch (Exception ignored) {
-        }
-        return null;
-    }
-
-    /**
-     * 支持前后缀拼接的JSONPath提取
-     * 表达式格式：前缀+JSONPath+后缀，空格等字符原样保留
-     */
-    private static String extractByJsonPathWithAffix(String json, String expr) {
-        if (expr == null) {
-            return null;
-        }
-        int jsonPathStart = expr.indexOf('$');
-        if (jsonPathStart < 0) {
-            // 没有JSONPath，直接返回原表达式
-            return expr;
-        }
-        // JSONPath结尾：只包含字母、数字、点、下标、下划线、引号
-        int jsonPathEnd = jsonPathStart;
-        while (jsonPathEnd < expr.length()) {
-            char c = expr.charAt(jsonPathEnd);
-            if (Character.isLetterOrDigit(c) || c == '$' || c == '.' || c == '_' || c == '[' || c == ']' || c == '\'' || c == '"') {
-                jsonPathEnd++;
-            } else {
-                break;
-            }
-        }
-        String prefix = expr.substring(0, jsonPathStart);
-        String jsonPath = expr.substring(jsonPathStart, jsonPathEnd);
-        String suffix = expr.substring(jsonPathEnd);
-        String value = extractByJsonPath(json, jsonPath);
-        if (value != null) {
-            return prefix + value + suffix;
-        }
-        return null;
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,263 @@
+package com.ljh.request.requestman.util;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import cn.hutool.http.Method;
+import com.ljh.request.requestman.ui.PreOpPanel.PreOpItem;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 前置操作执行器：在请求组装前按顺序执行已编译的步骤（设置变量、签名、获取令牌、添加请求头），
+ * 步骤产生的变量对后续步骤及本次请求的模板渲染可见，但不写入变量池。
+ * 令牌通过{@link TokenCache}在所有请求间共享，到期前不会重复获取。
+ *
+ * @author leijianhui
+ * @Description 前置操作执行器，按顺序执行并逐步计时。
+ * @date 2025/09/13 10:00
+ */
+public class PreOpExecutor {
+
+    /**
+     * 获取令牌请求的超时（毫秒）
+     */
+    private static final int TOKEN_TIMEOUT_MS = 15_000;
+
+    private static final StreamingJsonPath EXPIRES_IN = StreamingJsonPath.compile("$.expires_in");
+
+    /**
+     * 单个步骤的耗时
+     */
+    public static class StepTiming {
+        private final String name;
+        private final String type;
+        private final long durationMicros;
+        private final boolean cached;
+
+        public StepTiming(String name, String type, long durationMicros, boolean cached) {
+            this.name = name;
+            this.type = type;
+            this.durationMicros = durationMicros;
+            this.cached = cached;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getDurationMicros() {
+            return durationMicros;
+        }
+
+        /**
+         * 令牌是否来自缓存（仅TOKEN步骤有意义）
+         */
+        public boolean isCached() {
+            return cached;
+        }
+
+        @Override
+        public String toString() {
+            return name + "(" + type + ")=" + String.format("%.2fms", durationMicros / 1000.0) + (cached ? "*" : "");
+        }
+    }
+
+    /**
+     * 前置操作的执行结果
+     */
+    public static class Result {
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private final List<StepTiming> timings = new ArrayList<>();
+
+        /**
+         * 需要追加到请求上的请求头
+         */
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public List<StepTiming> getTimings() {
+            return timings;
+        }
+    }
+
+    /**
+     * 执行所有前置操作
+     *
+     * @param requestParams 请求参数（用于签名时读取请求体类型）
+     * @param body          本次请求渲染后的请求体，签名与发送共用
+     * @param preOps        前置操作列表
+     * @param variables     本次请求的变量快照（可写），步骤产生的变量写入其中
+     * @return 执行结果
+     * @throws IllegalStateException 获取令牌失败
+     */
+    public static Result execute(RequestParams requestParams, RenderedBody body, List<PreOpItem> preOps, Map<String, String> variables) {
+        Result result = new Result();
+        if (preOps == null || preOps.isEmpty()) {
+            return result;
+        }
+        for (PreOpItem item : preOps) {
+            if (item == null || StrUtil.isBlank(item.name) || StrUtil.isBlank(item.type)) {
+                continue;
+            }
+            CompiledPreOp op = CompiledPreOp.compile(item.type, item.value);
+            if (!op.isValid()) {
+                LogUtil.debug("跳过无效的前置操作[" + item.name + "]: " + op.getError());
+                continue;
+            }
+            long start = System.nanoTime();
+            boolean cached = false;
+            switch (op.getType()) {
+                case CompiledPreOp.TYPE_SET_VAR:
+                    variables.put(item.name, VariableReplacer.render(op.getExpression(), variables));
+                    break;
+                case CompiledPreOp.TYPE_HEADER:
+                    result.headers.put(item.name, VariableReplacer.render(op.getExpression(), variables));
+                    break;
+                case CompiledPreOp.TYPE_SIGN:
+                    variables.put(item.name, sign(op, signingContent(requestParams.getBodyType(), body), variables));
+                    break;
+                case CompiledPreOp.TYPE_TOKEN:
+                    boolean[] fetched = new boolean[1];
+                    variables.put(item.name, fetchToken(item.name, op, variables, fetched));
+                    cached = !fetched[0];
+                    break;
+                default:
+                    break;
+            }
+            result.timings.add(new StepTiming(item.name, op.getType(), (System.nanoTime() - start) / 1000, cached));
+        }
+        if (!result.timings.isEmpty()) {
+            LogUtil.debug("前置操作耗时: " + result.timings);
+        }
+        return result;
+    }
+
+    /**
+     * 签名内容：JSON/XML为渲染后的请求体，表单为按参数名排序的"k=v&amp;k=v"，其它为空串。
+     * 与发送的请求体使用同一份渲染结果
+     */
+    private static String signingContent(String bodyType, RenderedBody body) {
+        if ("json".equals(bodyType) || "xml".equals(bodyType)) {
+            return body.text();
+        }
+        if ("form-data".equals(bodyType) || "x-www-form-urlencoded".equals(bodyType)) {
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<String, String> entry : new TreeMap<>(body.form()).entrySet()) {
+                if (sb.length() > 0) {
+                    sb.append('&');
+                }
+                sb.append(entry.getKey()).append('=').append(entry.getValue());
+            }
+            return sb.toString();
+        }
+        return "";
+    }
+
+    /**
+     * 计算摘要或HMAC，输出小写十六进制
+     */
+    private static String sign(CompiledPreOp op, String content, Map<String, String> variables) {
+        byte[] data = content.getBytes(StandardCharsets.UTF_8);
+        try {
+            byte[] digest;
+            String algorithm = op.getAlgorithm();
+            if (algorithm.startsWith("Hmac")) {
+                String secret = VariableReplacer.render(op.getSecret(), variables);
+                Mac mac = Mac.getInstance(algorithm);
+                mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), algorithm));
+                digest = mac.doFinal(data);
+            } else {
+                String name = "MD5".equals(algorithm) ? "MD5" : algorithm.replace("SHA", "SHA-");
+                digest = MessageDigest.getInstance(name).digest(data);
+            }
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException("Signature failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 获取令牌：按渲染后的请求作为缓存键，到期前直接复用
+     */
+    private static String fetchToken(String name, CompiledPreOp op, Map<String, String> variables, boolean[] fetched) {
+        String url = VariableReplacer.render(op.getUrl(), variables);
+        String body = VariableReplacer.render(op.getBody(), variables);
+        String key = op.getMethod() + ' ' + url + '\n' + body + '\n' + op.getTokenPath().getExpression();
+        try {
+            return TokenCache.get(key, () -> {
+                fetched[0] = true;
+                return requestToken(op, url, body, op.getTtlSeconds());
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException(RequestManBundle.message("preop.token.fail", name, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * 发送获取令牌请求并按JSONPath提取令牌，环境认证的登录方式共用此逻辑
+     *
+     * @param op         已编译的TOKEN操作
+     * @param url        渲染后的URL
+     * @param body       渲染后的请求体
+     * @param ttlSeconds 有效期（秒），不大于0时取响应中的expires_in或默认值
+     * @return 令牌
+     */
+    static TokenCache.Token requestToken(CompiledPreOp op, String url, String body, long ttlSeconds) {
+        HttpRequest request = HttpRequest.of(url).method(Method.valueOf(op.getMethod())).timeout(TOKEN_TIMEOUT_MS);
+        if (StrUtil.isNotBlank(body)) {
+            String trimmed = body.trim();
+            boolean json = trimmed.startsWith("{") || trimmed.startsWith("[");
+            request.body(body, json ? "application/json" : "application/x-www-form-urlencoded");
+        }
+        try (HttpResponse response = request.execute()) {
+            if (response.getStatus() < 200 || response.getStatus() >= 300) {
+                throw new IllegalStateException("HTTP " + response.getStatus());
+            }
+            Map<String, String> values = StreamingJsonPath.evaluate(new StringReader(response.body()),
+                    Arrays.asList(op.getTokenPath(), EXPIRES_IN));
+            String token = values.get(op.getTokenPath().getExpression());
+            if (token == null) {
+                throw new IllegalStateException(op.getTokenPath().getExpression() + " not found");
+            }
+            long ttl = ttlSeconds;
+            if (ttl <= 0) {
+                ttl = parseSeconds(values.get(EXPIRES_IN.getExpression()));
+            }
+            return new TokenCache.Token(token, ttl * 1000);
+        }
+    }
+
+    /**
+     * 解析有效期秒数，非数字时返回默认有效期
+     */
+    static long parseSeconds(String value) {
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException ignored) {
+                // 非数字时使用默认有效期
+            }
+        }
+        return CompiledPreOp.DEFAULT_TOKEN_TTL_SECONDS;
+    }
+}
@@ -3,9 +3,25 @@ package com.ljh.request.requestman.util;
 import com.intellij.ide.util.PropertiesComponent;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
- * 项目历史记录清理工具类，负责在项目关闭时清理该项目相关的历史记录。
+ * 项目历史记录清理工具类，负责在项目关闭时清理该项目相关的历史记录，
+ * 以及在后台删除长期未打开的项目的整个数据目录（需在设置中开启，默认关闭）。
  *
  * @author leijianhui
  * @Description 项目历史记录清理工具类。
@@ -13,6 +29,21 @@ import com.intellij.openapi.project.Project;
  */
 public class ProjectHistoryCleaner {
 
+    /**
+     * 未打开项目的缓存保留天数配置key，0表示不清理
+     */
+    public static final String RETENTION_DAYS_KEY = "requestman.projectCacheRetentionDays";
+
+    /**
+     * 默认不清理，由用户开启
+     */
+    public static final int DEFAULT_RETENTION_DAYS = 0;
+
+    /**
+     * 每次IDE运行只清理一次
+     */
+    private static final AtomicBoolean STALE_CLEANUP_DONE = new AtomicBoolean(false);
+
     /**
      * 清理项目相关的所有历史记录
      *
@@ -28,17 +59,128 @@ public class ProjectHistoryCleaner {
         // MySearchTextField使用的是全局的PropertiesComponent，所以我们也用全局的
         PropertiesComponent globalProperties = PropertiesComponent.getInstance();
 
-        // 清理ApiSearchPopup的历史记录
-        String apiSearchHistoryKey = "requestman.apiSearchPopup." + projectName;
+        // 清理ApiSearchPopup的历史记录（旧版本按项目名称保存）
+        String apiSearchHistoryKey = "requestman.apiSearchPopup." + ProjectIdentity.id(project);
+        String legacyHistoryKey = "requestman.apiSearchPopup." + projectName;
 
         // 清理全局级存储 - 使用setValue(null)而不是unsetValue
         globalProperties.unsetValue(apiSearchHistoryKey);
+        globalProperties.unsetValue(legacyHistoryKey);
 
         ApplicationManager.getApplication().saveSettings();
         // 可以在这里添加其他类型的历史记录清理
         // 例如：参数搜索历史、URL搜索历史等
     }
 
+    /**
+     * 记录项目打开，并在后台删除超过保留天数未打开的其他项目的数据（每次IDE运行只清理一次，需在后台线程调用）
+     *
+     * @param project 刚打开的项目
+     */
+    public static void onProjectOpened(Project project) {
+        ProjectIdentity.touch(project);
+        if (STALE_CLEANUP_DONE.compareAndSet(false, true)) {
+            cleanupStaleProjects(getRetentionDays());
+        }
+    }
+
+    /**
+     * 获取项目数据保留天数
+     *
+     * @return 天数，0表示不清理
+     */
+    public static int getRetentionDays() {
+        try {
+            return Math.max(0, Integer.parseInt(PropertiesComponent.getInstance()
+                    .getValue(RETENTION_DAYS_KEY, String.valueOf(DEFAULT_RETENTION_DAYS))));
+        } catch (NumberFormatException e) {
+            return DEFAULT_RETENTION_DAYS;
+        }
+    }
+
+    /**
+     * 删除超过保留天数未打开的项目的整个数据目录（接口缓存、项目设置、接口编辑记录、项目目录外的自定义接口等），
+     * 当前打开的项目不删除；只引用于这些项目的请求体由{@link CacheGarbageCollector}随后清理。
+     * 最近打开时间取标记文件的修改时间，没有标记文件时取目录中最新的修改时间。
+     *
+     * @param retentionDays 保留天数，0表示不清理
+     * @return 删除的项目目录数
+     */
+    public static int cleanupStaleProjects(int retentionDays) {
+        if (retentionDays <= 0) {
+            return 0;
+        }
+        Path projectsDir = Paths.get(StorageUtil.getCacheRoot(), ProjectIdentity.PROJECTS_DIR);
+        if (!Files.isDirectory(projectsDir)) {
+            return 0;
+        }
+        Set<String> openIds = new HashSet<>();
+        for (Project open : ProjectManager.getInstance().getOpenProjects()) {
+            openIds.add(ProjectIdentity.id(open));
+        }
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+        int cleaned = 0;
+        long freedBytes = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(projectsDir, Files::isDirectory)) {
+            for (Path dir : stream) {
+                if (openIds.contains(dir.getFileName().toString()) || lastOpened(dir) >= cutoff) {
+                    continue;
+                }
+                long size = deleteDataDir(dir);
+                if (size >= 0) {
+                    cleaned++;
+                    freedBytes += size;
+                }
+            }
+        } catch (IOException e) {
+            LogUtil.warn("清理过期项目数据失败: " + e.getMessage());
+        }
+        if (cleaned > 0) {
+            LogUtil.info("[RequestMan] 已删除 " + cleaned + " 个超过 " + retentionDays + " 天未打开的项目的数据，释放 "
+                    + freedBytes / 1024 + " KB");
+        }
+        return cleaned;
+    }
+
+    /**
+     * 项目最近打开时间
+     */
+    private static long lastOpened(Path dir) throws IOException {
+        Path marker = dir.resolve(ProjectIdentity.LAST_OPENED_FILE);
+        if (Files.exists(marker)) {
+            return Files.getLastModifiedTime(marker).toMillis();
+        }
+        long latest = Files.getLastModifiedTime(dir).toMillis();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                latest = Math.max(latest, Files.getLastModifiedTime(file).toMillis());
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * 删除项目数据目录（先删除文件再删除目录）
+     *
+     * @return 删除的字节数，删除失败时返回-1（已删除的部分不恢复，下次启动继续清理）
+     */
+    private static long deleteDataDir(Path dir) {
+        long size = 0;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            List<Path> paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+            for (Path path : paths) {
+                if (Files.isRegularFile(path)) {
+                    size += Files.size(path);
+                }
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            LogUtil.warn("删除项目数据目录失败: " + dir + " - " + e.getMessage());
+            return -1;
+        }
+        return size;
+    }
+
     /**
      * 获取项目历史记录统计信息
      *
@@ -0,0 +1,251 @@
+package com.ljh.request.requestman.util;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.intellij.openapi.project.Project;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 稳定的项目标识：首次由项目根目录绝对路径计算，不随项目显示名称变化，同名的不同项目（如git worktree）也不会冲突。
+ * 标识写入项目.idea目录下的标识文件（只含标识，可随项目提交，写入后不再修改）；标识当前对应的本机路径登记在缓存根目录下，
+ * 项目目录移动或改名后（登记的路径已不存在）沿用原标识，登记的路径仍存在时（复制出的副本、另一个worktree）按新路径重新计算。
+ * 没有根目录的项目（如默认项目）退化为按名称计算。
+ * 所有按项目隔离的缓存与设置都以该标识为key，数据统一存放在项目数据目录中；首次访问时把旧版本按项目名称命名的缓存目录内容移入。
+ *
+ * @author leijianhui
+ * @Description 基于项目路径哈希的稳定项目标识与项目数据目录。
+ * @date 2025/09/18 10:00
+ */
+public final class ProjectIdentity {
+
+    /**
+     * 项目数据目录的上级目录名（位于缓存根目录下）
+     */
+    public static final String PROJECTS_DIR = "projects";
+
+    /**
+     * 最近打开时间标记文件（位于项目数据目录下，以修改时间记录）
+     */
+    public static final String LAST_OPENED_FILE = ".last_opened";
+
+    /**
+     * 项目内的标识文件（位于.idea目录下），只含标识；旧版本在第二行记录了项目路径
+     */
+    static final String ID_FILE = "requestman.id";
+
+    /**
+     * 标识登记文件（位于缓存根目录/projects下），记录各标识当前对应的本机项目路径
+     */
+    static final String REGISTRY_FILE = "identities.json";
+
+    /**
+     * 登记文件的读写在本进程内串行
+     */
+    private static final Object REGISTRY_LOCK = new Object();
+
+    private static final int ID_LENGTH = 16;
+
+    /**
+     * 缓存根目录下的保留目录名，同名项目的旧目录不迁移
+     */
+    private static final Set<String> RESERVED_NAMES = Set.of(PROJECTS_DIR, "blobs");
+
+    private static final boolean IGNORE_CASE = File.separatorChar == '\\';
+
+    private static final Pattern ID_PATTERN = Pattern.compile("[0-9a-f]{" + ID_LENGTH + "}");
+
+    /**
+     * 根目录路径到标识的缓存
+     */
+    private static final Map<String, String> IDS = new ConcurrentHashMap<>();
+
+    /**
+     * 本次运行中已检查过旧目录的数据目录
+     */
+    private static final Set<Path> MIGRATED = ConcurrentHashMap.newKeySet();
+
+    private ProjectIdentity() {
+    }
+
+    /**
+     * 获取项目标识
+     *
+     * @param project 项目对象，为null时视为默认项目
+     * @return 16位十六进制标识
+     */
+    public static String id(Project project) {
+        String source = source(project);
+        return IDS.computeIfAbsent(source, s -> resolve(project, s));
+    }
+
+    /**
+     * 获取项目数据目录：缓存根目录/projects/标识
+     *
+     * @param project 项目对象
+     * @return 目录路径（不保证已创建）
+     */
+    public static Path dataDir(Project project) {
+        Path root = Paths.get(StorageUtil.getCacheRoot());
+        Path dir = root.resolve(PROJECTS_DIR).resolve(id(project));
+        if (MIGRATED.add(dir)) {
+            migrateLegacyDir(root, project != null ? project.getName() : "default", dir);
+        }
+        return dir;
+    }
+
+    /**
+     * 记录项目最近打开时间（项目打开时调用），供过期项目数据清理使用
+     *
+     * @param project 项目对象
+     */
+    public static void touch(Project project) {
+        Path marker = dataDir(project).resolve(LAST_OPENED_FILE);
+        String content = (project != null ? project.getName() + "\n" + project.getBasePath() : "default") + "\n";
+        try {
+            PersistenceQueue.writeAtomically(marker, content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LogUtil.warn("记录项目打开时间失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 把旧版本按项目名称命名的缓存目录内容移入项目数据目录：数据目录中已存在的文件保留，旧目录移空后删除。
+     * 同名的多个项目中先打开的一个获得旧数据。
+     */
+    private static void migrateLegacyDir(Path root, String projectName, Path dir) {
+        if (RESERVED_NAMES.contains(projectName)) {
+            return;
+        }
+        Path legacy = root.resolve(StorageUtil.safeFileName(projectName));
+        if (!Files.isDirectory(legacy)) {
+            return;
+        }
+        int moved = 0;
+        try {
+            Files.createDirectories(dir);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(legacy)) {
+                for (Path source : stream) {
+                    Path target = dir.resolve(source.getFileName().toString());
+                    if (!Files.exists(target)) {
+                        Files.move(source, target);
+                        moved++;
+                    }
+                }
+            }
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(legacy)) {
+                if (!stream.iterator().hasNext()) {
+                    Files.delete(legacy);
+                }
+            }
+            LogUtil.info("[RequestMan] 已迁移项目 " + projectName + " 的缓存目录（" + moved + " 项）到 " + dir);
+        } catch (IOException e) {
+            LogUtil.warn("迁移项目缓存目录失败: " + legacy + " - " + e.getMessage());
+        }
+    }
+
+    /**
+     * 确定标识：本机已登记的路径沿用登记的标识；否则读取项目中的标识文件，标识未登记（新克隆、首次打开）
+     * 或登记的路径已不存在（移动、改名）时沿用，登记的路径仍存在（副本）时按路径计算。
+     * 标识文件只在缺失时写入（旧版本带路径的文件改写一次为只含标识），本机路径只写入登记文件
+     */
+    private static String resolve(Project project, String source) {
+        String pathId = hash(source);
+        String basePath = project != null ? project.getBasePath() : null;
+        if (basePath == null || basePath.isEmpty()) {
+            return pathId;
+        }
+        try {
+            Path base = Paths.get(basePath).toAbsolutePath().normalize();
+            String current = base.toString();
+            synchronized (REGISTRY_LOCK) {
+                Path registryFile = Paths.get(StorageUtil.getCacheRoot(), PROJECTS_DIR, REGISTRY_FILE);
+                Map<String, String> registry = readRegistry(registryFile);
+                for (Map.Entry<String, String> entry : registry.entrySet()) {
+                    if (samePath(entry.getValue(), current)) {
+                        return entry.getKey();
+                    }
+                }
+                Path ideaDir = base.resolve(Project.DIRECTORY_STORE_FOLDER);
+                Path idFile = ideaDir.resolve(ID_FILE);
+                List<String> lines = Files.isRegularFile(idFile) ? Files.readAllLines(idFile, StandardCharsets.UTF_8) : List.of();
+                String storedId = lines.isEmpty() ? "" : lines.get(0).trim();
+                String id = pathId;
+                if (ID_PATTERN.matcher(storedId).matches()) {
+                    // 旧版本的标识文件记录了写入时的路径，登记文件中没有时以它为准
+                    String owner = registry.getOrDefault(storedId, lines.size() > 1 ? lines.get(1).trim() : "");
+                    if (owner.isEmpty() || samePath(owner, current)) {
+                        id = storedId;
+                    } else if (!Files.exists(Paths.get(owner))) {
+                        LogUtil.info("[RequestMan] 项目目录已从 " + owner + " 移动到 " + base + "，沿用原项目标识 " + storedId);
+                        id = storedId;
+                    }
+                    if (lines.size() > 1) {
+                        writeIdFile(idFile, storedId);
+                    }
+                } else if (Files.isDirectory(ideaDir)) {
+                    writeIdFile(idFile, pathId);
+                }
+                registry.put(id, current);
+                PersistenceQueue.writeAtomically(registryFile, JSONUtil.toJsonStr(registry).getBytes(StandardCharsets.UTF_8));
+                return id;
+            }
+        } catch (IOException | RuntimeException e) {
+            LogUtil.warn("读取项目标识失败: " + e.getMessage());
+        }
+        return pathId;
+    }
+
+    private static Map<String, String> readRegistry(Path file) throws IOException {
+        Map<String, String> registry = new LinkedHashMap<>();
+        if (Files.isRegularFile(file)) {
+            JSONObject json = JSONUtil.parseObj(Files.readString(file, StandardCharsets.UTF_8));
+            for (String key : json.keySet()) {
+                registry.put(key, json.getStr(key));
+            }
+        }
+        return registry;
+    }
+
+    private static void writeIdFile(Path idFile, String id) throws IOException {
+        PersistenceQueue.writeAtomically(idFile, (id + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean samePath(String a, String b) {
+        return IGNORE_CASE ? a.equalsIgnoreCase(b) : a.equals(b);
+    }
+
+    private static String source(Project project) {
+        String basePath = project != null ? project.getBasePath() : null;
+        if (basePath == null || basePath.isEmpty()) {
+            return "name:" + (project != null ? project.getName() : "default");
+        }
+        String normalized = Paths.get(basePath).toAbsolutePath().normalize().toString();
+        return "path:" + (IGNORE_CASE ? normalized.toLowerCase(Locale.ROOT) : normalized);
+    }
+
+    private static String hash(String source) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest).substring(0, ID_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
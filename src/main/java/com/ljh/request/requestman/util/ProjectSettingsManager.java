@@ -5,15 +5,24 @@ import com.intellij.ide.util.PropertiesComponent;
 import com.intellij.openapi.project.Project;
 import com.ljh.request.requestman.model.Environment;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 项目设置管理器，用于管理项目级别的设置。
  * 支持前置URL、全局认证、全局变量等项目特定配置。
+ * <p>
+ * 设置、变量与环境保存在项目数据目录（见{@link ProjectIdentity}）下的独立键值日志中，每个设置项、变量、环境各占一个键，
+ * 修改时只追加变化的键，首次访问项目时才加载。首次打开时迁移旧版本保存在PropertiesComponent中的数据并删除旧数据。
  *
  * @author leijianhui
  * @Description 项目设置管理器，管理项目级别的配置信息。
@@ -22,26 +31,40 @@ import java.util.Map;
 public class ProjectSettingsManager {
 
     /**
-     * 项目变量池，key为项目名称，value为变量Map
+     * 项目变量池，key为项目标识，value为写时复制的变量存储（请求线程与EDT并发读写）
      */
-    private static final Map<String, Map<String, String>> projectVariableMap = new HashMap<>();
+    private static final Map<String, VariableStore> projectVariableMap = new ConcurrentHashMap<>();
 
     /**
-     * 项目设置缓存，key为项目名称，value为设置Map
+     * 项目设置缓存，key为项目标识，value为设置Map
      */
-    private static final Map<String, Map<String, String>> projectSettingsMap = new HashMap<>();
+    private static final Map<String, Map<String, String>> projectSettingsMap = new ConcurrentHashMap<>();
 
     /**
-     * 项目环境缓存，key为项目名称，value为环境列表
+     * 项目环境缓存，key为项目标识，value为环境列表
      */
-    private static final Map<String, List<Environment>> projectEnvironmentsMap = new HashMap<>();
+    private static final Map<String, List<Environment>> projectEnvironmentsMap = new ConcurrentHashMap<>();
 
     /**
-     * 持久化key前缀
+     * 设置存储文件名（位于项目数据目录下）
      */
-    private static final String PROJECT_VARS_PREFIX = "requestman.project.vars.";
-    private static final String PROJECT_SETTINGS_PREFIX = "requestman.project.settings.";
-    private static final String PROJECT_ENVIRONMENTS_PREFIX = "requestman.project.environments.";
+    private static final String SETTINGS_FILE = "settings.log";
+
+    /**
+     * 存储键前缀：设置项、变量、环境；环境顺序与迁移标记为单独的键
+     */
+    private static final String SETTING_PREFIX = "s.";
+    private static final String VARIABLE_PREFIX = "v.";
+    private static final String ENVIRONMENT_PREFIX = "e.";
+    private static final String ENVIRONMENT_ORDER_KEY = "e#order";
+    private static final String MIGRATED_KEY = "meta.migrated";
+
+    /**
+     * 旧版本PropertiesComponent中的key前缀（按项目名称），仅用于迁移
+     */
+    private static final String LEGACY_VARS_PREFIX = "requestman.project.vars.";
+    private static final String LEGACY_SETTINGS_PREFIX = "requestman.project.settings.";
+    private static final String LEGACY_ENVIRONMENTS_PREFIX = "requestman.project.environments.";
 
     /**
      * 设置项key
@@ -49,6 +72,7 @@ public class ProjectSettingsManager {
     public static final String PRE_URL_KEY = "preUrl";
     public static final String GLOBAL_AUTH_KEY = "globalAuth";
     public static final String CURRENT_ENVIRONMENT_KEY = "currentEnvironment";
+    public static final String CUSTOM_API_FILE_KEY = "customApiFile";
 
     /**
      * 获取项目设置值
@@ -63,8 +87,7 @@ public class ProjectSettingsManager {
             return defaultValue;
         }
 
-        String projectName = project.getName();
-        Map<String, String> settings = projectSettingsMap.computeIfAbsent(projectName, k -> loadProjectSettings(project));
+        Map<String, String> settings = projectSettingsMap.computeIfAbsent(ProjectIdentity.id(project), k -> loadProjectSettings(project));
         return settings.getOrDefault(key, defaultValue);
     }
 
@@ -80,10 +103,9 @@ public class ProjectSettingsManager {
             return;
         }
 
-        String projectName = project.getName();
-        Map<String, String> settings = projectSettingsMap.computeIfAbsent(projectName, k -> loadProjectSettings(project));
+        Map<String, String> settings = projectSettingsMap.computeIfAbsent(ProjectIdentity.id(project), k -> loadProjectSettings(project));
         settings.put(key, value);
-        persistProjectSettings(project, settings);
+        persistProjectSetting(project, key, value);
     }
 
     /**
@@ -98,9 +120,7 @@ public class ProjectSettingsManager {
             return null;
         }
 
-        String projectName = project.getName();
-        Map<String, String> variables = projectVariableMap.computeIfAbsent(projectName, k -> loadProjectVariables(project));
-        return variables.get(varName);
+        return getVariableStore(project).get(varName);
     }
 
     /**
@@ -115,10 +135,33 @@ public class ProjectSettingsManager {
             return;
         }
 
-        String projectName = project.getName();
-        Map<String, String> variables = projectVariableMap.computeIfAbsent(projectName, k -> loadProjectVariables(project));
-        variables.put(varName, varValue != null ? varValue : "");
-        persistProjectVariables(project, variables);
+        getVariableStore(project).put(varName, varValue);
+    }
+
+    /**
+     * 批量设置项目变量（一次快照替换、一次持久化）
+     *
+     * @param project   项目对象
+     * @param variables 变量
+     */
+    public static void setProjectVariables(Project project, Map<String, String> variables) {
+        if (project == null || variables == null || variables.isEmpty()) {
+            return;
+        }
+        getVariableStore(project).putAll(variables);
+    }
+
+    /**
+     * 用给定变量整体替换项目变量
+     *
+     * @param project   项目对象
+     * @param variables 新变量
+     */
+    public static void replaceProjectVariables(Project project, Map<String, String> variables) {
+        if (project == null) {
+            return;
+        }
+        getVariableStore(project).replaceAll(variables);
     }
 
     /**
@@ -132,26 +175,21 @@ public class ProjectSettingsManager {
             return;
         }
 
-        String projectName = project.getName();
-        Map<String, String> variables = projectVariableMap.computeIfAbsent(projectName, k -> loadProjectVariables(project));
-        variables.remove(varName);
-        persistProjectVariables(project, variables);
+        getVariableStore(project).remove(varName);
     }
 
     /**
      * 获取项目所有变量（只读Map）
      *
      * @param project 项目对象
-     * @return 变量Map快照
+     * @return 变量Map快照（不可变，后续修改不影响已获取的快照）
      */
     public static Map<String, String> getAllProjectVariables(Project project) {
         if (project == null) {
             return Collections.emptyMap();
         }
 
-        String projectName = project.getName();
-        Map<String, String> variables = projectVariableMap.computeIfAbsent(projectName, k -> loadProjectVariables(project));
-        return Collections.unmodifiableMap(variables);
+        return getVariableStore(project).snapshot();
     }
 
     /**
@@ -164,10 +202,7 @@ public class ProjectSettingsManager {
             return;
         }
 
-        String projectName = project.getName();
-        Map<String, String> variables = projectVariableMap.computeIfAbsent(projectName, k -> loadProjectVariables(project));
-        variables.clear();
-        persistProjectVariables(project, variables);
+        getVariableStore(project).replaceAll(Collections.emptyMap());
     }
 
     /**
@@ -182,9 +217,7 @@ public class ProjectSettingsManager {
             return false;
         }
 
-        String projectName = project.getName();
-        Map<String, String> variables = projectVariableMap.computeIfAbsent(projectName, k -> loadProjectVariables(project));
-        return variables.containsKey(varName);
+        return getVariableStore(project).snapshot().containsKey(varName);
     }
 
     /**
@@ -194,86 +227,86 @@ public class ProjectSettingsManager {
      * @return 设置Map
      */
     private static Map<String, String> loadProjectSettings(Project project) {
-        String projectName = project.getName();
-        String key = PROJECT_SETTINGS_PREFIX + projectName;
-        String json = PropertiesComponent.getInstance().getValue(key, "{}");
+        return new HashMap<>(readStrings(project, SETTING_PREFIX));
+    }
 
-        Map<String, String> settings = new HashMap<>();
+    /**
+     * 持久化单个设置项
+     *
+     * @param project 项目对象
+     * @param key     设置项key
+     * @param value   设置值，为null时删除
+     */
+    private static void persistProjectSetting(Project project, String key, String value) {
+        Map<String, String> puts = value != null ? Collections.singletonMap(key, value) : Collections.emptyMap();
+        List<String> deletes = value != null ? Collections.emptyList() : Collections.singletonList(key);
         try {
-            Map<String, Object> map = JSONUtil.parseObj(json);
-            for (Map.Entry<String, Object> entry : map.entrySet()) {
-                settings.put(entry.getKey(), entry.getValue() != null ? entry.getValue().toString() : "");
-            }
-        } catch (Exception e) {
-            // 解析失败时使用空Map
+            writeStrings(openStore(project), SETTING_PREFIX, puts, deletes);
+        } catch (IOException e) {
+            LogUtil.warn("持久化项目设置失败: " + e.getMessage());
         }
-
-        return settings;
     }
 
     /**
-     * 持久化项目设置
+     * 获取项目变量存储，首次访问时从持久化加载
      *
-     * @param project  项目对象
-     * @param settings 设置Map
-     */
-    private static void persistProjectSettings(Project project, Map<String, String> settings) {
-        String projectName = project.getName();
-        String key = PROJECT_SETTINGS_PREFIX + projectName;
-        String json = JSONUtil.toJsonStr(settings);
-        PropertiesComponent.getInstance().setValue(key, json);
+     * @param project 项目对象
+     * @return 变量存储
+     */
+    private static VariableStore getVariableStore(Project project) {
+        return projectVariableMap.computeIfAbsent(ProjectIdentity.id(project), k -> {
+            Path file = settingsFile(project);
+            return new VariableStore(readStrings(project, VARIABLE_PREFIX),
+                    (puts, deletes) -> writeStrings(ApiEditStore.forFile(file), VARIABLE_PREFIX, puts, deletes));
+        });
     }
 
     /**
-     * 加载项目变量
+     * 立即持久化延迟中的项目变量修改（项目关闭时调用）
      *
      * @param project 项目对象
-     * @return 变量Map
      */
-    private static Map<String, String> loadProjectVariables(Project project) {
-        String projectName = project.getName();
-        String key = PROJECT_VARS_PREFIX + projectName;
-        String json = PropertiesComponent.getInstance().getValue(key, "{}");
-
-        Map<String, String> variables = new HashMap<>();
-        try {
-            Map<String, Object> map = JSONUtil.parseObj(json);
-            for (Map.Entry<String, Object> entry : map.entrySet()) {
-                variables.put(entry.getKey(), entry.getValue() != null ? entry.getValue().toString() : "");
-            }
-        } catch (Exception e) {
-            // 解析失败时使用空Map
+    public static void flushProjectVariables(Project project) {
+        if (project == null) {
+            return;
+        }
+        VariableStore store = projectVariableMap.get(ProjectIdentity.id(project));
+        if (store != null) {
+            store.flush();
         }
-
-        return variables;
     }
 
     /**
-     * 持久化项目变量
+     * 清理项目缓存（项目关闭时调用）
      *
-     * @param project   项目对象
-     * @param variables 变量Map
+     * @param project 项目对象
      */
-    private static void persistProjectVariables(Project project, Map<String, String> variables) {
-        String projectName = project.getName();
-        String key = PROJECT_VARS_PREFIX + projectName;
-        String json = JSONUtil.toJsonStr(variables);
-        PropertiesComponent.getInstance().setValue(key, json);
+    public static void clearProjectCache(Project project) {
+        if (project == null) {
+            return;
+        }
+
+        String projectId = ProjectIdentity.id(project);
+        VariableStore store = projectVariableMap.remove(projectId);
+        if (store != null) {
+            // 写入尚在延迟中的变量修改
+            store.flush();
+        }
+        projectSettingsMap.remove(projectId);
     }
 
     /**
-     * 清理项目缓存（项目关闭时调用）
+     * 项目关闭时调用：写入延迟中的变量修改、清理缓存并关闭设置存储
      *
      * @param project 项目对象
      */
-    public static void clearProjectCache(Project project) {
+    public static void closeProject(Project project) {
         if (project == null) {
             return;
         }
-
-        String projectName = project.getName();
-        projectVariableMap.remove(projectName);
-        projectSettingsMap.remove(projectName);
+        clearProjectCache(project);
+        clearProjectEnvironmentCache(project);
+        ApiEditStore.close(settingsFile(project));
     }
 
     /**
@@ -316,6 +349,16 @@ public class ProjectSettingsManager {
         setProjectSetting(project, GLOBAL_AUTH_KEY, globalAuth);
     }
 
+    /**
+     * 获取自定义接口文件路径设置（相对路径基于项目根目录，为空时使用默认位置）
+     *
+     * @param project 项目对象
+     * @return 路径设置
+     */
+    public static String getProjectCustomApiFile(Project project) {
+        return getProjectSetting(project, CUSTOM_API_FILE_KEY, "");
+    }
+
     // ==================== 环境管理方法 ====================
 
     /**
@@ -328,13 +371,13 @@ public class ProjectSettingsManager {
         if (project == null) {
             return new ArrayList<>();
         }
-        String projectName = project.getName();
-        List<Environment> environments = projectEnvironmentsMap.computeIfAbsent(projectName, k -> loadProjectEnvironments(project));
+        String projectId = ProjectIdentity.id(project);
+        List<Environment> environments = projectEnvironmentsMap.computeIfAbsent(projectId, k -> loadProjectEnvironments(project));
 
         // 如果环境列表为空，初始化默认环境
         if (environments.isEmpty()) {
             initializeDefaultEnvironments(project);
-            environments = projectEnvironmentsMap.get(projectName);
+            environments = projectEnvironmentsMap.get(projectId);
         }
 
         return environments;
@@ -351,11 +394,10 @@ public class ProjectSettingsManager {
             return;
         }
 
-        String projectName = project.getName();
-        List<Environment> environments = projectEnvironmentsMap.computeIfAbsent(projectName, k -> loadProjectEnvironments(project));
+        List<Environment> environments = projectEnvironmentsMap.computeIfAbsent(ProjectIdentity.id(project), k -> loadProjectEnvironments(project));
 
         environments.add(environment);
-        persistProjectEnvironments(project, environments);
+        persistProjectEnvironments(project, Collections.singletonList(environment), Collections.emptyList(), environments);
     }
 
     /**
@@ -369,8 +411,7 @@ public class ProjectSettingsManager {
             return;
         }
 
-        String projectName = project.getName();
-        List<Environment> environments = projectEnvironmentsMap.computeIfAbsent(projectName, k -> loadProjectEnvironments(project));
+        List<Environment> environments = projectEnvironmentsMap.computeIfAbsent(ProjectIdentity.id(project), k -> loadProjectEnvironments(project));
 
         for (int i = 0; i < environments.size(); i++) {
             if (environments.get(i).getId().equals(environment.getId())) {
@@ -379,7 +420,7 @@ public class ProjectSettingsManager {
             }
         }
 
-        persistProjectEnvironments(project, environments);
+        persistProjectEnvironments(project, Collections.singletonList(environment), Collections.emptyList(), environments);
     }
 
     /**
@@ -393,11 +434,10 @@ public class ProjectSettingsManager {
             return;
         }
 
-        String projectName = project.getName();
-        List<Environment> environments = projectEnvironmentsMap.computeIfAbsent(projectName, k -> loadProjectEnvironments(project));
+        List<Environment> environments = projectEnvironmentsMap.computeIfAbsent(ProjectIdentity.id(project), k -> loadProjectEnvironments(project));
 
         environments.removeIf(env -> env.getId().equals(environmentId));
-        persistProjectEnvironments(project, environments);
+        persistProjectEnvironments(project, Collections.emptyList(), Collections.singletonList(environmentId), environments);
     }
 
     // 移除默认环境相关方法
@@ -451,6 +491,17 @@ public class ProjectSettingsManager {
         setProjectSetting(project, CURRENT_ENVIRONMENT_KEY, environmentId);
     }
 
+    /**
+     * 获取当前环境
+     *
+     * @param project 项目对象
+     * @return 当前环境，未选择时返回null
+     */
+    public static Environment getCurrentEnvironment(Project project) {
+        String currentId = getCurrentEnvironmentId(project);
+        return currentId == null ? null : getEnvironmentById(project, currentId);
+    }
+
     /**
      * 获取当前环境的前置URL
      *
@@ -485,45 +536,60 @@ public class ProjectSettingsManager {
      * @return 环境列表
      */
     private static List<Environment> loadProjectEnvironments(Project project) {
-        String projectName = project.getName();
-        String key = PROJECT_ENVIRONMENTS_PREFIX + projectName;
-        String json = PropertiesComponent.getInstance().getValue(key, "[]");
-
         List<Environment> environments = new ArrayList<>();
         try {
-            List<?> list = JSONUtil.parseArray(json).toList(Object.class);
-            for (Object item : list) {
-                if (item instanceof Map) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> map = (Map<String, Object>) item;
-                    Environment env = new Environment();
-                    env.setId((String) map.get("id"));
-                    env.setName((String) map.get("name"));
-                    env.setPreUrl((String) map.get("preUrl"));
-                    // 全局认证现在从项目级别获取，不再从环境中加载
-                    env.setCreateTime(((Number) map.get("createTime")).longValue());
-                    env.setUpdateTime(((Number) map.get("updateTime")).longValue());
-                    environments.add(env);
+            ApiEditStore store = openStore(project);
+            byte[] order = store.get(ENVIRONMENT_ORDER_KEY);
+            if (order == null) {
+                return environments;
+            }
+            for (String id : new String(order, StandardCharsets.UTF_8).split("\n")) {
+                byte[] data = id.isEmpty() ? null : store.get(ENVIRONMENT_PREFIX + id);
+                if (data != null) {
+                    environments.add(RecordCodec.decodeEnvironment(data));
                 }
             }
-        } catch (Exception e) {
-            // 解析失败时使用空列表
+        } catch (IOException e) {
+            LogUtil.warn("加载项目环境失败: " + e.getMessage());
         }
-
         return environments;
     }
 
     /**
-     * 持久化项目环境配置
+     * 持久化环境修改：只写入变化的环境，并更新环境顺序
      *
      * @param project      项目对象
-     * @param environments 环境列表
-     */
-    private static void persistProjectEnvironments(Project project, List<Environment> environments) {
-        String projectName = project.getName();
-        String key = PROJECT_ENVIRONMENTS_PREFIX + projectName;
-        String json = JSONUtil.toJsonStr(environments);
-        PropertiesComponent.getInstance().setValue(key, json);
+     * @param changed      新增或修改的环境
+     * @param removedIds   删除的环境ID
+     * @param environments 修改后的环境列表
+     */
+    private static void persistProjectEnvironments(Project project, Collection<Environment> changed, Collection<String> removedIds,
+                                                   List<Environment> environments) {
+        Map<String, byte[]> puts = new LinkedHashMap<>();
+        for (Environment env : changed) {
+            puts.put(ENVIRONMENT_PREFIX + env.getId(), RecordCodec.encode(env));
+        }
+        List<String> deletes = new ArrayList<>(removedIds.size());
+        for (String id : removedIds) {
+            deletes.add(ENVIRONMENT_PREFIX + id);
+        }
+        puts.put(ENVIRONMENT_ORDER_KEY, environmentOrder(environments));
+        try {
+            openStore(project).write(puts, deletes);
+        } catch (IOException e) {
+            LogUtil.warn("持久化项目环境失败: " + e.getMessage());
+        }
+    }
+
+    private static byte[] environmentOrder(List<Environment> environments) {
+        StringBuilder order = new StringBuilder();
+        for (Environment env : environments) {
+            if (order.length() > 0) {
+                order.append('\n');
+            }
+            order.append(env.getId());
+        }
+        return order.toString().getBytes(StandardCharsets.UTF_8);
     }
 
     /**
@@ -536,8 +602,7 @@ public class ProjectSettingsManager {
             return;
         }
 
-        String projectName = project.getName();
-        projectEnvironmentsMap.remove(projectName);
+        projectEnvironmentsMap.remove(ProjectIdentity.id(project));
     }
 
     /**
@@ -550,7 +615,6 @@ public class ProjectSettingsManager {
             return;
         }
 
-        String projectName = project.getName();
         List<Environment> environments = new ArrayList<>();
 
         // 创建开发环境
@@ -566,7 +630,182 @@ public class ProjectSettingsManager {
         environments.add(prodEnv);
 
         // 保存到缓存和持久化
-        projectEnvironmentsMap.put(projectName, environments);
-        persistProjectEnvironments(project, environments);
+        projectEnvironmentsMap.put(ProjectIdentity.id(project), environments);
+        persistProjectEnvironments(project, environments, Collections.emptyList(), environments);
+    }
+
+    // ==================== 存储与迁移 ====================
+
+    private static Path settingsFile(Project project) {
+        return ProjectIdentity.dataDir(project).resolve(SETTINGS_FILE);
+    }
+
+    /**
+     * 打开项目设置存储，首次打开时迁移旧数据
+     *
+     * @param project 项目对象
+     * @return 存储
+     * @throws IOException 打开失败
+     */
+    private static ApiEditStore openStore(Project project) throws IOException {
+        ApiEditStore store = ApiEditStore.forFile(settingsFile(project));
+        synchronized (store) {
+            if (!store.contains(MIGRATED_KEY)) {
+                migrateLegacySettings(project, store);
+            }
+        }
+        return store;
+    }
+
+    /**
+     * 读取指定前缀下的所有字符串值
+     *
+     * @param project 项目对象
+     * @param prefix  键前缀
+     * @return 去掉前缀的键到值的映射，读取失败时返回已读取的部分
+     */
+    private static Map<String, String> readStrings(Project project, String prefix) {
+        Map<String, String> values = new HashMap<>();
+        try {
+            ApiEditStore store = openStore(project);
+            for (String key : store.keys()) {
+                if (key.startsWith(prefix)) {
+                    byte[] data = store.get(key);
+                    if (data != null) {
+                        values.put(key.substring(prefix.length()), new String(data, StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LogUtil.warn("加载项目设置失败: " + e.getMessage());
+        }
+        return values;
+    }
+
+    /**
+     * 批量写入字符串值（一帧）
+     */
+    private static void writeStrings(ApiEditStore store, String prefix, Map<String, String> puts, Collection<String> deletes)
+            throws IOException {
+        Map<String, byte[]> encoded = new LinkedHashMap<>();
+        puts.forEach((k, v) -> encoded.put(prefix + k, (v != null ? v : "").getBytes(StandardCharsets.UTF_8)));
+        List<String> keys = new ArrayList<>(deletes.size());
+        for (String name : deletes) {
+            keys.add(prefix + name);
+        }
+        store.write(encoded, keys);
+    }
+
+    /**
+     * 迁移旧版本保存在PropertiesComponent中的设置、变量与环境：全部写为一帧后删除旧数据
+     *
+     * @param project 项目对象
+     * @param store   设置存储
+     * @throws IOException 写入失败（旧数据保留，下次打开时重试）
+     */
+    private static void migrateLegacySettings(Project project, ApiEditStore store) throws IOException {
+        PropertiesComponent properties = PropertiesComponent.getInstance();
+        String projectName = project != null ? project.getName() : "default";
+        String settingsKey = LEGACY_SETTINGS_PREFIX + projectName;
+        String varsKey = LEGACY_VARS_PREFIX + projectName;
+        String environmentsKey = LEGACY_ENVIRONMENTS_PREFIX + projectName;
+
+        Map<String, byte[]> puts = new LinkedHashMap<>();
+        parseLegacyMap(properties.getValue(settingsKey)).forEach((k, v) -> puts.put(SETTING_PREFIX + k, v.getBytes(StandardCharsets.UTF_8)));
+        parseLegacyMap(properties.getValue(varsKey)).forEach((k, v) -> puts.put(VARIABLE_PREFIX + k, v.getBytes(StandardCharsets.UTF_8)));
+        String environmentsJson = properties.getValue(environmentsKey);
+        if (environmentsJson != null) {
+            List<Environment> environments = parseLegacyEnvironments(environmentsJson);
+            for (Environment env : environments) {
+                puts.put(ENVIRONMENT_PREFIX + env.getId(), RecordCodec.encode(env));
+            }
+            if (!environments.isEmpty()) {
+                puts.put(ENVIRONMENT_ORDER_KEY, environmentOrder(environments));
+            }
+        }
+        int migrated = puts.size();
+        puts.put(MIGRATED_KEY, String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+        store.write(puts, Collections.emptyList());
+
+        properties.unsetValue(settingsKey);
+        properties.unsetValue(varsKey);
+        properties.unsetValue(environmentsKey);
+        if (migrated > 0) {
+            LogUtil.info("[RequestMan] 已迁移项目 " + projectName + " 的 " + migrated + " 项设置到 " + settingsFile(project));
+        }
+    }
+
+    /**
+     * 解析旧版本的JSON对象，解析失败时返回空Map
+     */
+    private static Map<String, String> parseLegacyMap(String json) {
+        Map<String, String> values = new LinkedHashMap<>();
+        if (json == null || json.isEmpty()) {
+            return values;
+        }
+        try {
+            Map<String, Object> map = JSONUtil.parseObj(json);
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                values.put(entry.getKey(), entry.getValue() != null ? entry.getValue().toString() : "");
+            }
+        } catch (Exception e) {
+            // 解析失败时使用空Map
+        }
+        return values;
+    }
+
+    /**
+     * 解析旧版本的环境列表JSON
+     *
+     * @param json JSON文本
+     * @return 环境列表，解析失败时返回空列表
+     */
+    private static List<Environment> parseLegacyEnvironments(String json) {
+        List<Environment> environments = new ArrayList<>();
+        try {
+            List<?> list = JSONUtil.parseArray(json).toList(Object.class);
+            for (Object item : list) {
+                if (item instanceof Map) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> map = (Map<String, Object>) item;
+                    Environment env = new Environment();
+                    env.setId((String) map.get("id"));
+                    env.setName((String) map.get("name"));
+                    env.setPreUrl((String) map.get("preUrl"));
+                    // 超时为后续新增字段，旧数据中不存在时保持0（使用全局设置）
+                    env.setConnectTimeout(getIntValue(map, "connectTimeout"));
+                    env.setReadTimeout(getIntValue(map, "readTimeout"));
+                    env.setTotalTimeout(getIntValue(map, "totalTimeout"));
+                    Object envVars = map.get("variables");
+                    if (envVars instanceof Map) {
+                        Map<String, String> variables = new LinkedHashMap<>();
+                        ((Map<?, ?>) envVars).forEach((k, v) -> variables.put(String.valueOf(k), v != null ? v.toString() : ""));
+                        env.setVariables(variables);
+                    }
+                    // 全局认证现在从项目级别获取，环境中只保存动态认证提供者配置
+                    env.setAuthType((String) map.get("authType"));
+                    env.setAuthConfig((String) map.get("authConfig"));
+                    env.setAuthHeader((String) map.get("authHeader"));
+                    env.setAuthTtl(getIntValue(map, "authTtl"));
+                    env.setCreateTime(((Number) map.get("createTime")).longValue());
+                    env.setUpdateTime(((Number) map.get("updateTime")).longValue());
+                    environments.add(env);
+                }
+            }
+        } catch (Exception e) {
+            // 解析失败时使用空列表
+        }
+        return environments;
+    }
+    /**
+     * 读取数值字段，缺失或格式错误时返回0
+     *
+     * @param map 字段映射
+     * @param key 字段名
+     * @return 数值
+     */
+    private static int getIntValue(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,664 @@
+package com.ljh.request.requestman.util;
+
+import com.ljh.request.requestman.enums.ParamDataType;
+import com.ljh.request.requestman.model.ApiInfo;
+import com.ljh.request.requestman.model.ApiParam;
+import com.ljh.request.requestman.model.Environment;
+import com.ljh.request.requestman.ui.CookiesPanel;
+import com.ljh.request.requestman.ui.HeadersPanel;
+import com.ljh.request.requestman.ui.PostOpPanel;
+import com.ljh.request.requestman.ui.PreOpPanel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 缓存记录的紧凑二进制编码，替代存储路径上的反射式JSON序列化。
+ * <pre>
+ * 记录 = 'R' 'M' 版本(byte) 标志(byte) [原始长度(varint)] 消息      标志bit0：消息经过Deflate压缩
+ * 消息 = (标签(varint) 值)*                                        标签 = 字段号 &lt;&lt; 3 | 类型
+ * 类型 0 = varint（整数zigzag编码）  类型 2 = 长度(varint) + 字节（字符串、嵌套消息、列表）
+ * 列表 = (长度(varint) 元素)*
+ * </pre>
+ * 字段按编号识别：新版本只新增字段号，不复用旧编号；读取时跳过未知字段，缺失字段保留默认值，
+ * 因此新旧版本写入的记录可以互相读取。null字段不写入，空字符串与空列表会写入以区别于null。
+ * 编码本身不访问磁盘：大请求体由调用方先写入{@link BodyBlobStore}，把哈希传入后记录中只保存哈希。
+ *
+ * @author leijianhui
+ * @Description 带版本与字段号的二进制记录编码（Deflate压缩），用于接口编辑内容与项目环境存储。
+ * @date 2025/09/17 16:00
+ */
+public final class RecordCodec {
+
+    private static final byte MAGIC_0 = 'R';
+    private static final byte MAGIC_1 = 'M';
+
+    /**
+     * 当前格式版本，头部结构变化时递增；字段增减不需要递增
+     */
+    private static final byte VERSION = 1;
+
+    private static final int FLAG_DEFLATED = 1;
+
+    /**
+     * 消息小于该值时不压缩
+     */
+    private static final int COMPRESS_MIN_BYTES = 256;
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_BYTES = 2;
+
+    // ApiInfo字段号
+    private static final int API_NAME = 1;
+    private static final int API_METHOD_NAME = 2;
+    private static final int API_URL = 3;
+    private static final int API_HTTP_METHOD = 4;
+    private static final int API_PARAMS = 5;
+    private static final int API_BODY_PARAMS = 6;
+    private static final int API_DESCRIPTION = 7;
+    private static final int API_RESPONSE_PARAMS = 8;
+    private static final int API_PARAM_TYPES = 9;
+    private static final int API_CLASS_NAME = 10;
+    private static final int API_HEADERS = 11;
+    private static final int API_COOKIES = 12;
+    private static final int API_AUTH_MODE = 13;
+    private static final int API_AUTH_VALUE = 14;
+    private static final int API_BODY_TYPE = 15;
+    private static final int API_BODY = 16;
+    private static final int API_BODY_BLOB = 17;
+    private static final int API_PRE_OPS = 18;
+    private static final int API_POST_OPS = 19;
+
+    // ApiParam字段号
+    private static final int PARAM_NAME = 1;
+    private static final int PARAM_TYPE = 2;
+    private static final int PARAM_DESCRIPTION = 3;
+    private static final int PARAM_DATA_TYPE = 4;
+    private static final int PARAM_CHILDREN = 5;
+    private static final int PARAM_RAW_TYPE = 6;
+    private static final int PARAM_RAW_CANONICAL_TYPE = 7;
+    private static final int PARAM_VALUE = 8;
+    private static final int PARAM_CONTENT_TYPE = 9;
+    private static final int PARAM_RECURSIVE = 10;
+
+    // 请求头/Cookie字段号
+    private static final int ITEM_NAME = 1;
+    private static final int ITEM_VALUE = 2;
+    private static final int ITEM_TYPE = 3;
+    private static final int ITEM_DESCRIPTION = 4;
+
+    // 前置/后置操作字段号
+    private static final int OP_NAME = 1;
+    private static final int OP_TYPE = 2;
+    private static final int OP_VALUE = 3;
+
+    // Environment字段号
+    private static final int ENV_ID = 1;
+    private static final int ENV_NAME = 2;
+    private static final int ENV_PRE_URL = 3;
+    private static final int ENV_CONNECT_TIMEOUT = 4;
+    private static final int ENV_READ_TIMEOUT = 5;
+    private static final int ENV_TOTAL_TIMEOUT = 6;
+    private static final int ENV_VARIABLES = 7;
+    private static final int ENV_AUTH_TYPE = 8;
+    private static final int ENV_AUTH_CONFIG = 9;
+    private static final int ENV_AUTH_HEADER = 10;
+    private static final int ENV_AUTH_TTL = 11;
+    private static final int ENV_CREATE_TIME = 12;
+    private static final int ENV_UPDATE_TIME = 13;
+
+    // 变量键值对字段号
+    private static final int ENTRY_KEY = 1;
+    private static final int ENTRY_VALUE = 2;
+
+    private RecordCodec() {
+    }
+
+    /**
+     * 是否为本编码的记录（否则为旧版本写入的JSON）
+     *
+     * @param data 记录
+     * @return 是本编码时返回true
+     */
+    public static boolean isEncoded(byte[] data) {
+        return data != null && data.length >= 4 && data[0] == MAGIC_0 && data[1] == MAGIC_1;
+    }
+
+    /**
+     * 编码接口编辑内容
+     *
+     * @param api      接口信息
+     * @param bodyBlob 已外置存储的请求体哈希，记录中以它代替请求体；为null时请求体内联
+     * @return 记录
+     */
+    public static byte[] encode(ApiInfo api, String bodyBlob) {
+        Out out = new Out();
+        out.string(API_NAME, api.getName());
+        out.string(API_METHOD_NAME, api.getMethodName());
+        out.string(API_URL, api.getUrl());
+        out.string(API_HTTP_METHOD, api.getHttpMethod());
+        out.list(API_PARAMS, api.getParams(), RecordCodec::writeParam);
+        out.list(API_BODY_PARAMS, api.getBodyParams(), RecordCodec::writeParam);
+        out.string(API_DESCRIPTION, api.getDescription());
+        out.list(API_RESPONSE_PARAMS, api.getResponseParams(), RecordCodec::writeParam);
+        out.list(API_PARAM_TYPES, api.getParamTypes(), RecordCodec::writeString);
+        out.string(API_CLASS_NAME, api.getClassName());
+        out.list(API_HEADERS, api.getHeaders(), (o, h) -> writeItem(o, h.getName(), h.getValue(), h.getType(), h.getDescription()));
+        out.list(API_COOKIES, api.getCookieItems(), (o, c) -> writeItem(o, c.getName(), c.getValue(), c.getType(), c.getDescription()));
+        out.int32(API_AUTH_MODE, api.getAuthMode());
+        out.string(API_AUTH_VALUE, api.getAuthValue());
+        out.string(API_BODY_TYPE, api.getBodyType());
+        if (bodyBlob == null) {
+            out.string(API_BODY, api.getBody());
+        }
+        out.string(API_BODY_BLOB, bodyBlob);
+        out.list(API_PRE_OPS, api.getPreOps(), (o, op) -> writeOp(o, op.name, op.type, op.value));
+        out.list(API_POST_OPS, api.getPostOps(), (o, op) -> writeOp(o, op.name, op.type, op.value));
+        return seal(out.toByteArray());
+    }
+
+    /**
+     * 解码接口编辑内容，外置的请求体延迟读取
+     *
+     * @param data 记录
+     * @return 接口信息
+     * @throws IOException 格式错误或版本不支持
+     */
+    public static ApiInfo decodeApiInfo(byte[] data) throws IOException {
+        In in = open(data);
+        ApiInfo api = new ApiInfo(null, null, null, null, null);
+        String blob = null;
+        try {
+            while (in.hasMore()) {
+                int tag = in.tag();
+                switch (tag >>> 3) {
+                    case API_NAME -> api.setName(in.string());
+                    case API_METHOD_NAME -> api.setMethodName(in.string());
+                    case API_URL -> api.setUrl(in.string());
+                    case API_HTTP_METHOD -> api.setHttpMethod(in.string());
+                    case API_PARAMS -> api.setParams(in.list(RecordCodec::readParam));
+                    case API_BODY_PARAMS -> api.setBodyParams(in.list(RecordCodec::readParam));
+                    case API_DESCRIPTION -> api.setDescription(in.string());
+                    case API_RESPONSE_PARAMS -> api.setResponseParams(in.list(RecordCodec::readParam));
+                    case API_PARAM_TYPES -> api.setParamTypes(in.list(In::rest));
+                    case API_CLASS_NAME -> api.setClassName(in.string());
+                    case API_HEADERS -> api.setHeaders(in.list(RecordCodec::readHeader));
+                    case API_COOKIES -> api.setCookieItems(in.list(RecordCodec::readCookie));
+                    case API_AUTH_MODE -> api.setAuthMode(in.int32());
+                    case API_AUTH_VALUE -> api.setAuthValue(in.string());
+                    case API_BODY_TYPE -> api.setBodyType(in.string());
+                    case API_BODY -> api.setBody(in.string());
+                    case API_BODY_BLOB -> blob = in.string();
+                    case API_PRE_OPS -> api.setPreOps(in.list(m -> {
+                        String[] op = readOp(m);
+                        return new PreOpPanel.PreOpItem(op[0], op[1], op[2]);
+                    }));
+                    case API_POST_OPS -> api.setPostOps(in.list(m -> {
+                        String[] op = readOp(m);
+                        return new PostOpPanel.PostOpItem(op[0], op[1], op[2]);
+                    }));
+                    default -> in.skip(tag);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupted record: " + e.getMessage(), e);
+        }
+        if (blob != null) {
+            api.attachBodyBlob(blob);
+        }
+        return api;
+    }
+
+    /**
+     * 编码环境
+     *
+     * @param env 环境
+     * @return 记录
+     */
+    public static byte[] encode(Environment env) {
+        Out out = new Out();
+        out.string(ENV_ID, env.getId());
+        out.string(ENV_NAME, env.getName());
+        out.string(ENV_PRE_URL, env.getPreUrl());
+        out.int32(ENV_CONNECT_TIMEOUT, env.getConnectTimeout());
+        out.int32(ENV_READ_TIMEOUT, env.getReadTimeout());
+        out.int32(ENV_TOTAL_TIMEOUT, env.getTotalTimeout());
+        if (env.getVariables() != null) {
+            out.list(ENV_VARIABLES, new ArrayList<>(env.getVariables().entrySet()), (o, e) -> {
+                o.string(ENTRY_KEY, e.getKey());
+                o.string(ENTRY_VALUE, e.getValue());
+            });
+        }
+        out.string(ENV_AUTH_TYPE, env.getAuthType());
+        out.string(ENV_AUTH_CONFIG, env.getAuthConfig());
+        out.string(ENV_AUTH_HEADER, env.getAuthHeader());
+        out.int32(ENV_AUTH_TTL, env.getAuthTtl());
+        out.int64(ENV_CREATE_TIME, env.getCreateTime());
+        out.int64(ENV_UPDATE_TIME, env.getUpdateTime());
+        return seal(out.toByteArray());
+    }
+
+    /**
+     * 解码环境
+     *
+     * @param data 记录
+     * @return 环境
+     * @throws IOException 格式错误或版本不支持
+     */
+    public static Environment decodeEnvironment(byte[] data) throws IOException {
+        In in = open(data);
+        Environment env = new Environment();
+        long createTime = 0;
+        long updateTime = 0;
+        try {
+            while (in.hasMore()) {
+                int tag = in.tag();
+                switch (tag >>> 3) {
+                    case ENV_ID -> env.setId(in.string());
+                    case ENV_NAME -> env.setName(in.string());
+                    case ENV_PRE_URL -> env.setPreUrl(in.string());
+                    case ENV_CONNECT_TIMEOUT -> env.setConnectTimeout(in.int32());
+                    case ENV_READ_TIMEOUT -> env.setReadTimeout(in.int32());
+                    case ENV_TOTAL_TIMEOUT -> env.setTotalTimeout(in.int32());
+                    case ENV_VARIABLES -> {
+                        Map<String, String> variables = new LinkedHashMap<>();
+                        for (String[] entry : in.list(RecordCodec::readEntry)) {
+                            variables.put(entry[0], entry[1] != null ? entry[1] : "");
+                        }
+                        env.setVariables(variables);
+                    }
+                    case ENV_AUTH_TYPE -> env.setAuthType(in.string());
+                    case ENV_AUTH_CONFIG -> env.setAuthConfig(in.string());
+                    case ENV_AUTH_HEADER -> env.setAuthHeader(in.string());
+                    case ENV_AUTH_TTL -> env.setAuthTtl(in.int32());
+                    case ENV_CREATE_TIME -> createTime = in.int64();
+                    case ENV_UPDATE_TIME -> updateTime = in.int64();
+                    default -> in.skip(tag);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupted record: " + e.getMessage(), e);
+        }
+        // 时间最后设置，避免被其他setter刷新
+        env.setCreateTime(createTime);
+        env.setUpdateTime(updateTime);
+        return env;
+    }
+
+    private static String[] readEntry(In in) {
+        String[] entry = new String[2];
+        while (in.hasMore()) {
+            int tag = in.tag();
+            switch (tag >>> 3) {
+                case ENTRY_KEY -> entry[0] = in.string();
+                case ENTRY_VALUE -> entry[1] = in.string();
+                default -> in.skip(tag);
+            }
+        }
+        if (entry[0] == null) {
+            entry[0] = "";
+        }
+        return entry;
+    }
+
+    private static void writeParam(Out out, ApiParam param) {
+        out.string(PARAM_NAME, param.getName());
+        out.string(PARAM_TYPE, param.getType());
+        out.string(PARAM_DESCRIPTION, param.getDescription());
+        out.string(PARAM_DATA_TYPE, param.getDataType() != null ? param.getDataType().name() : null);
+        out.list(PARAM_CHILDREN, param.getChildren(), RecordCodec::writeParam);
+        out.string(PARAM_RAW_TYPE, param.getRawType());
+        out.string(PARAM_RAW_CANONICAL_TYPE, param.getRawCanonicalType());
+        out.string(PARAM_VALUE, param.getValue());
+        out.string(PARAM_CONTENT_TYPE, param.getContentType());
+        out.int32(PARAM_RECURSIVE, param.isRecursive() ? 1 : 0);
+    }
+
+    private static ApiParam readParam(In in) {
+        ApiParam param = new ApiParam();
+        while (in.hasMore()) {
+            int tag = in.tag();
+            switch (tag >>> 3) {
+                case PARAM_NAME -> param.setName(in.string());
+                case PARAM_TYPE -> param.setType(in.string());
+                case PARAM_DESCRIPTION -> param.setDescription(in.string());
+                case PARAM_DATA_TYPE -> param.setDataType(dataType(in.string()));
+                case PARAM_CHILDREN -> param.setChildren(in.list(RecordCodec::readParam));
+                case PARAM_RAW_TYPE -> param.setRawType(in.string());
+                case PARAM_RAW_CANONICAL_TYPE -> param.setRawCanonicalType(in.string());
+                case PARAM_VALUE -> param.setValue(in.string());
+                case PARAM_CONTENT_TYPE -> param.setContentType(in.string());
+                case PARAM_RECURSIVE -> param.setRecursive(in.int32() != 0);
+                default -> in.skip(tag);
+            }
+        }
+        return param;
+    }
+
+    /**
+     * 新版本新增的枚举值在旧版本中读为null
+     */
+    private static ParamDataType dataType(String name) {
+        for (ParamDataType type : ParamDataType.values()) {
+            if (type.name().equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 字符串列表元素直接保存UTF-8字节（元素长度即字符串长度）
+     */
+    private static void writeString(Out out, String value) {
+        byte[] data = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        out.bytes(data, 0, data.length);
+    }
+
+    private static void writeItem(Out out, String name, String value, String type, String description) {
+        out.string(ITEM_NAME, name);
+        out.string(ITEM_VALUE, value);
+        out.string(ITEM_TYPE, type);
+        out.string(ITEM_DESCRIPTION, description);
+    }
+
+    private static String[] readItem(In in) {
+        String[] item = new String[4];
+        while (in.hasMore()) {
+            int tag = in.tag();
+            int field = tag >>> 3;
+            if (field >= ITEM_NAME && field <= ITEM_DESCRIPTION) {
+                item[field - ITEM_NAME] = in.string();
+            } else {
+                in.skip(tag);
+            }
+        }
+        return item;
+    }
+
+    private static HeadersPanel.HeaderItem readHeader(In in) {
+        String[] item = readItem(in);
+        return new HeadersPanel.HeaderItem(item[0], item[1], item[2], item[3]);
+    }
+
+    private static CookiesPanel.CookieItem readCookie(In in) {
+        String[] item = readItem(in);
+        return new CookiesPanel.CookieItem(item[0], item[1], item[2], item[3]);
+    }
+
+    private static void writeOp(Out out, String name, String type, String value) {
+        out.string(OP_NAME, name);
+        out.string(OP_TYPE, type);
+        out.string(OP_VALUE, value);
+    }
+
+    private static String[] readOp(In in) {
+        String[] op = new String[3];
+        while (in.hasMore()) {
+            int tag = in.tag();
+            int field = tag >>> 3;
+            if (field >= OP_NAME && field <= OP_VALUE) {
+                op[field - OP_NAME] = in.string();
+            } else {
+                in.skip(tag);
+            }
+        }
+        return op;
+    }
+
+    /**
+     * 加上头部，消息较大且压缩有效时以Deflate压缩
+     */
+    private static byte[] seal(byte[] message) {
+        if (message.length >= COMPRESS_MIN_BYTES) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(message);
+                deflater.finish();
+                byte[] buffer = new byte[message.length];
+                int length = 0;
+                while (!deflater.finished() && length < buffer.length) {
+                    length += deflater.deflate(buffer, length, buffer.length - length);
+                }
+                if (deflater.finished()) {
+                    Out out = new Out();
+                    out.header(FLAG_DEFLATED);
+                    out.varint(message.length);
+                    out.bytes(buffer, 0, length);
+                    return out.toByteArray();
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+        Out out = new Out();
+        out.header(0);
+        out.bytes(message, 0, message.length);
+        return out.toByteArray();
+    }
+
+    private static In open(byte[] data) throws IOException {
+        if (!isEncoded(data)) {
+            throw new IOException("Not an encoded record");
+        }
+        if (data[2] > VERSION) {
+            throw new IOException("Unsupported record version " + data[2]);
+        }
+        In in = new In(data, 4, data.length);
+        if ((data[3] & FLAG_DEFLATED) == 0) {
+            return in;
+        }
+        int length = (int) in.varint();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, in.pos, data.length - in.pos);
+            byte[] message = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(message, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new IOException("Truncated record");
+            }
+            return new In(message, 0, length);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted record: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Writer<T> {
+        void write(Out out, T value);
+    }
+
+    /**
+     * 消息写入器
+     */
+    private static final class Out {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+
+        void header(int flags) {
+            buffer.write(MAGIC_0);
+            buffer.write(MAGIC_1);
+            buffer.write(VERSION);
+            buffer.write(flags);
+        }
+
+        void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.write((int) value);
+        }
+
+        void bytes(byte[] data, int offset, int length) {
+            buffer.write(data, offset, length);
+        }
+
+        void string(int field, String value) {
+            if (value != null) {
+                byte[] data = value.getBytes(StandardCharsets.UTF_8);
+                varint((long) field << 3 | WIRE_BYTES);
+                varint(data.length);
+                bytes(data, 0, data.length);
+            }
+        }
+
+        void int32(int field, int value) {
+            if (value != 0) {
+                varint((long) field << 3 | WIRE_VARINT);
+                // zigzag
+                varint(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+            }
+        }
+
+        void int64(int field, long value) {
+            if (value != 0) {
+                varint((long) field << 3 | WIRE_VARINT);
+                varint((value << 1) ^ (value >> 63));
+            }
+        }
+
+        /**
+         * 写入列表，null列表不写入；null元素写为空消息
+         */
+        <T> void list(int field, List<T> values, Writer<T> writer) {
+            if (values == null) {
+                return;
+            }
+            Out content = new Out();
+            for (T value : values) {
+                Out element = new Out();
+                if (value != null) {
+                    writer.write(element, value);
+                }
+                byte[] data = element.toByteArray();
+                content.varint(data.length);
+                content.bytes(data, 0, data.length);
+            }
+            byte[] data = content.toByteArray();
+            varint((long) field << 3 | WIRE_BYTES);
+            varint(data.length);
+            bytes(data, 0, data.length);
+        }
+
+        byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+    }
+
+    /**
+     * 消息读取器
+     */
+    private static final class In {
+        private final byte[] data;
+        private final int limit;
+        private int pos;
+
+        In(byte[] data, int pos, int limit) {
+            this.data = data;
+            this.pos = pos;
+            this.limit = limit;
+        }
+
+        boolean hasMore() {
+            return pos < limit;
+        }
+
+        int tag() {
+            return (int) varint();
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (pos >= limit) {
+                    throw new IllegalStateException("Truncated varint");
+                }
+                byte b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Malformed varint");
+        }
+
+        int int32() {
+            int value = (int) varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long int64() {
+            long value = varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private int length() {
+            long length = varint();
+            if (length < 0 || length > limit - pos) {
+                throw new IllegalStateException("Invalid length " + length);
+            }
+            return (int) length;
+        }
+
+        String string() {
+            int length = length();
+            String value = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        /**
+         * 读取消息剩余部分为字符串（字符串列表元素）
+         */
+        String rest() {
+            String value = new String(data, pos, limit - pos, StandardCharsets.UTF_8);
+            pos = limit;
+            return value;
+        }
+
+        <T> List<T> list(Function<In, T> reader) {
+            int end = pos + length();
+            List<T> values = new ArrayList<>();
+            while (pos < end) {
+                int length = length();
+                In element = new In(data, pos, pos + length);
+                values.add(reader.apply(element));
+                pos += length;
+            }
+            return values;
+        }
+
+        /**
+         * 跳过未知字段
+         */
+        void skip(int tag) {
+            switch (tag & 0x7) {
+                case WIRE_VARINT -> varint();
+                case WIRE_BYTES -> {
+                    // 先读长度再移动位置（pos += length()会在读长度前取pos的旧值）
+                    int length = length();
+                    pos += length;
+                }
+                default -> throw new IllegalStateException("Unknown wire type " + (tag & 0x7) + " at " + pos);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.ljh.request.requestman.util;
+
+import cn.hutool.json.JSONUtil;
+import com.ljh.request.requestman.enums.ParamDataType;
+import com.ljh.request.requestman.model.ApiInfo;
+import com.ljh.request.requestman.model.ApiParam;
+import com.ljh.request.requestman.ui.HeadersPanel;
+import com.ljh.request.requestman.ui.PostOpPanel;
+import com.ljh.request.requestman.ui.PreOpPanel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 存储格式基准：同一批接口编辑内容分别用JSON（Hutool反射序列化）与{@link RecordCodec}编码、解码，
+ * 比较体积与耗时。两种格式的请求体都内联（外置的请求体先读取），基准不写入blob存储。
+ * 样本优先使用项目中已保存的编辑内容，没有时使用生成的样本。
+ *
+ * @author leijianhui
+ * @Description JSON与二进制记录编码的体积/耗时对比。
+ * @date 2025/09/17 18:00
+ */
+public final class RecordCodecBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 10;
+
+    private RecordCodecBenchmark() {
+    }
+
+    /**
+     * 运行基准（耗时操作，需在后台线程调用）
+     *
+     * @param samples 样本，为空时使用生成的样本
+     * @return 报告文本
+     */
+    public static String run(List<ApiInfo> samples) {
+        boolean synthetic = samples == null || samples.isEmpty();
+        List<ApiInfo> apis = synthetic ? syntheticSamples(500) : samples;
+        try {
+            List<String> json = new ArrayList<>(apis.size());
+            List<byte[]> binary = new ArrayList<>(apis.size());
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                encodeJson(apis, json);
+                decodeJson(json);
+                encodeBinary(apis, binary);
+                decodeBinary(binary);
+            }
+            long jsonEncode = 0;
+            long jsonDecode = 0;
+            long binaryEncode = 0;
+            long binaryDecode = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                long start = System.nanoTime();
+                encodeJson(apis, json);
+                jsonEncode += System.nanoTime() - start;
+                start = System.nanoTime();
+                decodeJson(json);
+                jsonDecode += System.nanoTime() - start;
+                start = System.nanoTime();
+                encodeBinary(apis, binary);
+                binaryEncode += System.nanoTime() - start;
+                start = System.nanoTime();
+                decodeBinary(binary);
+                binaryDecode += System.nanoTime() - start;
+            }
+            long jsonBytes = 0;
+            for (String text : json) {
+                jsonBytes += text.getBytes(StandardCharsets.UTF_8).length;
+            }
+            long binaryBytes = 0;
+            for (byte[] data : binary) {
+                binaryBytes += data.length;
+            }
+            StringBuilder report = new StringBuilder();
+            report.append("=== RequestMan Storage Format Benchmark ===\n");
+            report.append("Records: ").append(apis.size()).append(synthetic ? " (synthetic)" : " (saved edits)")
+                    .append(", rounds: ").append(ROUNDS).append('\n');
+            report.append(String.format("%-8s %12s %12s %12s%n", "Format", "Size(KB)", "Encode(ms)", "Decode(ms)"));
+            report.append(String.format("%-8s %12.1f %12.2f %12.2f%n", "JSON", jsonBytes / 1024.0,
+                    millis(jsonEncode), millis(jsonDecode)));
+            report.append(String.format("%-8s %12.1f %12.2f %12.2f%n", "Binary", binaryBytes / 1024.0,
+                    millis(binaryEncode), millis(binaryDecode)));
+            report.append(String.format("Binary size: %.1f%% of JSON, encode %.1fx, decode %.1fx faster%n",
+                    jsonBytes == 0 ? 0 : binaryBytes * 100.0 / jsonBytes,
+                    ratio(jsonEncode, binaryEncode), ratio(jsonDecode, binaryDecode)));
+            return report.toString();
+        } catch (Exception e) {
+            LogUtil.warn("存储格式基准运行失败: " + e.getMessage());
+            return "Benchmark failed: " + e.getMessage();
+        }
+    }
+
+    private static void encodeJson(List<ApiInfo> apis, List<String> out) {
+        out.clear();
+        for (ApiInfo api : apis) {
+            out.add(JSONUtil.toJsonStr(api));
+        }
+    }
+
+    private static void decodeJson(List<String> records) {
+        for (String record : records) {
+            JSONUtil.toBean(record, ApiInfo.class);
+        }
+    }
+
+    private static void encodeBinary(List<ApiInfo> apis, List<byte[]> out) {
+        out.clear();
+        for (ApiInfo api : apis) {
+            out.add(RecordCodec.encode(api, null));
+        }
+    }
+
+    private static void decodeBinary(List<byte[]> records) throws Exception {
+        for (byte[] record : records) {
+            RecordCodec.decodeApiInfo(record);
+        }
+    }
+
+    /**
+     * 每轮平均耗时（毫秒）
+     */
+    private static double millis(long totalNanos) {
+        return totalNanos / (double) ROUNDS / 1_000_000;
+    }
+
+    private static double ratio(long baseline, long value) {
+        return value == 0 ? 0 : (double) baseline / value;
+    }
+
+    /**
+     * 生成样本：每个接口含查询参数、三层嵌套的请求体参数树、请求头与前后置操作
+     */
+    static List<ApiInfo> syntheticSamples(int count) {
+        List<ApiInfo> apis = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<ApiParam> params = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                ApiParam param = new ApiParam("query" + p, "query", "查询参数" + p, ParamDataType.STRING, "java.lang.String");
+                param.setValue("value-" + i + "-" + p);
+                params.add(param);
+            }
+            List<ApiParam> bodyParams = new ArrayList<>();
+            ApiParam root = new ApiParam("request", "body", "请求体", ParamDataType.OBJECT, "com.example.dto.Request" + i);
+            root.setChildren(children(3, "field"));
+            bodyParams.add(root);
+            ApiInfo api = new ApiInfo("接口" + i, "method" + i, "/api/v1/resource/" + i + "/{id}", i % 2 == 0 ? "GET" : "POST",
+                    params, bodyParams, List.of("java.lang.String", "com.example.dto.Request" + i), "示例接口" + i,
+                    new ArrayList<>(), "com.example.controller.ResourceController");
+            api.setBody("{\"id\":" + i + ",\"name\":\"item-" + i + "\",\"tags\":[\"a\",\"b\",\"c\"],\"enabled\":true}");
+            List<HeadersPanel.HeaderItem> headers = new ArrayList<>();
+            headers.add(new HeadersPanel.HeaderItem("Content-Type", "application/json", "string", ""));
+            headers.add(new HeadersPanel.HeaderItem("X-Trace-Id", "{{$uuid}}", "string", "链路ID"));
+            api.setHeaders(headers);
+            api.setPreOps(new ArrayList<>(List.of(new PreOpPanel.PreOpItem("token", "TOKEN", "POST {{host}}/login | $.data.token"))));
+            api.setPostOps(new ArrayList<>(List.of(new PostOpPanel.PostOpItem("userId", "JSONPath", "$.data.id"))));
+            apis.add(api);
+        }
+        return apis;
+    }
+
+    private static List<ApiParam> children(int depth, String prefix) {
+        List<ApiParam> children = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String name = prefix + i;
+            if (depth > 1) {
+                ApiParam child = new ApiParam(name, "body", "嵌套对象" + name, ParamDataType.OBJECT, "com.example.dto.Nested");
+                child.setChildren(children(depth - 1, name + "_"));
+                children.add(child);
+            } else {
+                children.add(new ApiParam(name, "body", "字段" + name, ParamDataType.STRING, "java.lang.String"));
+            }
+        }
+        return children;
+    }
+}
@@ -0,0 +1,63 @@
+package com.ljh.request.requestman.util;
+
+import cn.hutool.core.util.StrUtil;
+import com.ljh.request.requestman.model.ApiParam;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 本次请求渲染后的请求体：JSON/XML为渲染后的文本，表单为渲染后的参数。
+ * 首次使用时渲染（签名前置操作或组装请求），之后签名内容与实际发送的请求体共用同一结果，
+ * 保证{{$timestamp}}、{{$uuid}}等每次渲染取值不同的函数在签名与发送时一致。
+ *
+ * @author leijianhui
+ * @Description 每个请求只渲染一次的请求体。
+ * @date 2025/09/20 14:00
+ */
+public final class RenderedBody {
+
+    private final RequestParams requestParams;
+    private final Map<String, String> variables;
+    private String text;
+    private Map<String, String> form;
+
+    /**
+     * @param requestParams 请求参数
+     * @param variables     本次请求的变量快照（前置操作可继续写入，渲染时取当时的值）
+     */
+    RenderedBody(RequestParams requestParams, Map<String, String> variables) {
+        this.requestParams = requestParams;
+        this.variables = variables;
+    }
+
+    /**
+     * 渲染后的文本请求体（JSON/XML），为空时返回空串
+     */
+    public String text() {
+        if (text == null) {
+            String content = requestParams.getBodyContent();
+            text = StrUtil.isNotBlank(content) ? VariableReplacer.render(content, variables) : "";
+        }
+        return text;
+    }
+
+    /**
+     * 渲染后的表单参数（参数名 -> 值），忽略空参数名，只读
+     */
+    public Map<String, String> form() {
+        if (form == null) {
+            Map<String, String> map = new HashMap<>();
+            if (requestParams.getBodyParams() != null) {
+                for (ApiParam param : requestParams.getBodyParams()) {
+                    if (param != null && StrUtil.isNotBlank(param.getName())) {
+                        map.put(param.getName(), VariableReplacer.render(StrUtil.nullToEmpty(param.getValue()), variables));
+                    }
+                }
+            }
+            form = Collections.unmodifiableMap(map);
+        }
+        return form;
+    }
+}
@@ -0,0 +1,220 @@
+package com.ljh.request.requestman.util;
+
+import com.intellij.ide.util.PropertiesComponent;
+
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 请求执行器工厂与按主机并发限流器。
+ * 运行时支持虚拟线程时每个请求一个虚拟线程，否则退化为可伸缩的守护线程池；
+ * 任何情况下都不会在调用线程（EDT）上执行请求。
+ *
+ * @author leijianhui
+ * @Description 请求执行器工厂，提供虚拟线程执行器与按主机并发限流。
+ * @date 2025/09/04 09:40
+ */
+public class RequestExecutors {
+
+    /**
+     * 每个主机的最大并发请求数配置key
+     */
+    public static final String MAX_CONCURRENT_PER_HOST_KEY = "requestman.maxConcurrentPerHost";
+
+    /**
+     * 每个主机的默认最大并发请求数
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_PER_HOST = 6;
+
+    /**
+     * 全局连接超时（毫秒）配置key，0表示不限制
+     */
+    public static final String CONNECT_TIMEOUT_KEY = "requestman.connectTimeout";
+
+    /**
+     * 全局读取超时（毫秒）配置key，0表示不限制
+     */
+    public static final String READ_TIMEOUT_KEY = "requestman.readTimeout";
+
+    /**
+     * 全局总超时（毫秒）配置key，0表示不限制
+     */
+    public static final String TOTAL_TIMEOUT_KEY = "requestman.totalTimeout";
+
+    /**
+     * 平台线程降级方案的最大线程数
+     */
+    private static final int FALLBACK_MAX_THREADS = 32;
+
+    /**
+     * 主机 -> 信号量
+     */
+    private static final Map<String, HostSemaphore> HOST_PERMITS = new ConcurrentHashMap<>();
+
+    /**
+     * 总超时看门狗调度器（单个守护线程，只负责触发取消）
+     */
+    private static final ScheduledExecutorService TIMEOUT_SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "RequestMan-RequestTimeout");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private RequestExecutors() {
+    }
+
+    /**
+     * 为请求安排总超时看门狗，到期后取消请求
+     *
+     * @param handle         请求取消句柄
+     * @param totalTimeoutMs 总超时（毫秒），小于等于0时不安排
+     */
+    public static void scheduleTotalTimeout(RequestHandle handle, int totalTimeoutMs) {
+        if (handle == null || totalTimeoutMs <= 0) {
+            return;
+        }
+        handle.setWatchdog(TIMEOUT_SCHEDULER.schedule(handle::timeout, totalTimeoutMs, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 按"请求 > 环境 > 全局"的优先级解析超时，取第一个大于0的值
+     *
+     * @param requestValue     请求级超时
+     * @param environmentValue 环境级超时
+     * @param globalKey        全局配置key
+     * @return 超时（毫秒），0表示不限制
+     */
+    public static int resolveTimeout(int requestValue, int environmentValue, String globalKey) {
+        if (requestValue > 0) {
+            return requestValue;
+        }
+        if (environmentValue > 0) {
+            return environmentValue;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(PropertiesComponent.getInstance().getValue(globalKey, "0")));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 创建请求执行器：优先使用虚拟线程（每个请求一个），旧运行时降级为平台线程池
+     *
+     * @param threadName 平台线程名称前缀
+     * @return 执行器
+     */
+    public static ExecutorService newRequestExecutor(String threadName) {
+        try {
+            // 编译目标为Java 17，通过反射使用Java 21的虚拟线程执行器
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService executor = (ExecutorService) factory.invoke(null);
+            LogUtil.info("[RequestMan] 请求执行器使用虚拟线程");
+            return executor;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LogUtil.info("[RequestMan] 当前运行时不支持虚拟线程，使用平台线程池");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                FALLBACK_MAX_THREADS,
+                FALLBACK_MAX_THREADS,
+                60L,
+                TimeUnit.SECONDS,
+                // 无界队列：饱和时排队等待，而不是在调用线程上执行
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, threadName + "-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 获取目标主机的并发许可，阻塞直到可用
+     *
+     * @param url 请求URL
+     * @return 许可，使用完毕后需关闭以释放
+     * @throws InterruptedException 等待期间被中断（如请求被取消）
+     */
+    public static HostPermit acquireHostPermit(String url) throws InterruptedException {
+        int permits = getPermitsPerHost();
+        // 信号量按创建时的并发数记录，配置变更后在下次获取时原子替换（正在使用的许可仍归还给旧信号量）
+        HostSemaphore semaphore = HOST_PERMITS.compute(hostKey(url),
+                (k, current) -> current != null && current.permits == permits ? current : new HostSemaphore(permits));
+        semaphore.acquire();
+        return new HostPermit(semaphore);
+    }
+
+    /**
+     * 获取每主机最大并发数
+     */
+    private static int getPermitsPerHost() {
+        int configured;
+        try {
+            configured = Integer.parseInt(PropertiesComponent.getInstance()
+                    .getValue(MAX_CONCURRENT_PER_HOST_KEY, String.valueOf(DEFAULT_MAX_CONCURRENT_PER_HOST)));
+        } catch (NumberFormatException e) {
+            configured = DEFAULT_MAX_CONCURRENT_PER_HOST;
+        }
+        return Math.max(1, configured);
+    }
+
+    /**
+     * 由URL计算限流key（协议+主机+端口）
+     */
+    private static String hostKey(String url) {
+        try {
+            URI uri = URI.create(url);
+            if (uri.getHost() != null) {
+                return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+            }
+        } catch (Exception ignored) {
+        }
+        return url != null ? url : "";
+    }
+
+    /**
+     * 记录创建时并发数的公平信号量
+     */
+    private static final class HostSemaphore extends Semaphore {
+        final int permits;
+
+        HostSemaphore(int permits) {
+            super(permits, true);
+            this.permits = permits;
+        }
+    }
+
+    /**
+     * 主机并发许可，关闭时释放
+     */
+    public static class HostPermit implements AutoCloseable {
+        private final Semaphore semaphore;
+        private boolean released;
+
+        private HostPermit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                semaphore.release();
+            }
+        }
+    }
+}
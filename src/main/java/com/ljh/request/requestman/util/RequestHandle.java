@@ -0,0 +1,148 @@
+package com.ljh.request.requestman.util;
+
+import cn.hutool.http.HttpConnection;
+import cn.hutool.http.HttpRequest;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+
+/**
+ * 请求取消句柄，每个已提交的请求对应一个实例。
+ * 取消时中断执行线程并断开底层连接，使阻塞在网络读写上的请求立即结束。
+ *
+ * @author leijianhui
+ * @Description 请求取消句柄，支持用户取消与总超时取消。
+ * @date 2025/09/05 15:20
+ */
+public class RequestHandle {
+
+    /**
+     * 执行请求的任务
+     */
+    private volatile Future<?> future;
+
+    /**
+     * 总超时看门狗任务
+     */
+    private volatile Future<?> watchdog;
+
+    /**
+     * 正在发送的Hutool请求，用于断开连接
+     */
+    private volatile HttpRequest request;
+
+    /**
+     * 是否已取消
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * 是否因总超时而取消
+     */
+    private volatile boolean timedOut;
+
+    /**
+     * 是否已结束
+     */
+    private volatile boolean done;
+
+    /**
+     * 绑定执行任务
+     *
+     * @param future 执行任务
+     */
+    void setFuture(Future<?> future) {
+        this.future = future;
+        if (cancelled) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * 绑定总超时看门狗
+     *
+     * @param watchdog 看门狗任务
+     */
+    void setWatchdog(Future<?> watchdog) {
+        this.watchdog = watchdog;
+    }
+
+    /**
+     * 绑定即将发送的请求，若已被取消则直接抛出取消异常
+     *
+     * @param request Hutool请求
+     */
+    void attach(HttpRequest request) {
+        this.request = request;
+        checkCancelled();
+    }
+
+    /**
+     * 若已被取消则抛出取消异常
+     */
+    void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException(timedOut ? "Request timed out" : "Request cancelled");
+        }
+    }
+
+    /**
+     * 取消请求：中断执行线程并断开连接
+     */
+    public void cancel() {
+        if (done || cancelled) {
+            return;
+        }
+        cancelled = true;
+        HttpRequest current = request;
+        if (current != null) {
+            HttpConnection connection = current.getConnection();
+            if (connection != null) {
+                try {
+                    connection.disconnect();
+                } catch (Exception e) {
+                    LogUtil.debug("断开请求连接失败: " + e.getMessage());
+                }
+            }
+        }
+        Future<?> task = future;
+        if (task != null) {
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * 因总超时取消请求
+     */
+    void timeout() {
+        if (done || cancelled) {
+            return;
+        }
+        timedOut = true;
+        cancel();
+    }
+
+    /**
+     * 标记请求结束，并停止看门狗
+     */
+    void markDone() {
+        done = true;
+        request = null;
+        Future<?> timer = watchdog;
+        if (timer != null) {
+            timer.cancel(false);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+}
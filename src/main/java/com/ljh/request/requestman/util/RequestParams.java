@@ -1,7 +1,9 @@
 package com.ljh.request.requestman.util;
 
 import com.ljh.request.requestman.model.ApiParam;
+import com.ljh.request.requestman.model.Environment;
 import com.ljh.request.requestman.ui.PostOpPanel.PostOpItem;
+import com.ljh.request.requestman.ui.PreOpPanel.PreOpItem;
 
 import java.util.List;
 import java.util.Map;
@@ -51,6 +53,42 @@ public class RequestParams {
      */
     private byte[] binaryData;
     
+    /**
+     * 二进制请求体文件路径（发送时从磁盘流式读取）
+     */
+    private String binaryFilePath;
+
+    /**
+     * 传输进度监听器（上传文件时回报进度）
+     */
+    private TransferProgressListener progressListener;
+    
+    /**
+     * 连接超时（毫秒），0表示使用环境/全局默认值
+     */
+    private int connectTimeout;
+
+    /**
+     * 读取超时（毫秒），0表示使用环境/全局默认值
+     */
+    private int readTimeout;
+
+    /**
+     * 总超时（毫秒），0表示使用环境/全局默认值
+     */
+    private int totalTimeout;
+
+    /**
+     * 请求取消句柄
+     */
+    private RequestHandle requestHandle;
+
+    /**
+     * 请求变量上下文（请求 -> 迭代 -> 集合 -> 环境 -> 全局），为null时使用全局与当前环境变量，
+     * 且后置操作结果直接写入全局变量池
+     */
+    private VariableContext variableContext;
+    
     /**
      * 请求头映射
      */
@@ -66,11 +104,41 @@ public class RequestParams {
      */
     private String auth;
     
+    /**
+     * 全局认证由环境认证提供者动态获取时的环境，组装请求时解析令牌（为null表示使用auth）
+     */
+    private Environment authEnvironment;
+    
+    /**
+     * 本次请求使用的环境认证信息，组装请求时填充，服务端返回401时据此只失效该令牌
+     */
+    private EnvironmentAuthProvider.Credential authCredential;
+    
+    /**
+     * 前置操作列表（按顺序执行）
+     */
+    private List<PreOpItem> preOps;
+    
+    /**
+     * 本次请求各前置操作步骤的耗时，组装请求时填充
+     */
+    private List<PreOpExecutor.StepTiming> preOpTimings;
+    
     /**
      * 后置操作列表
      */
     private List<PostOpItem> postOps;
     
+    /**
+     * 响应结构（扫描得到的响应参数），用于schema断言
+     */
+    private List<ApiParam> responseSchema;
+    
+    /**
+     * 本次请求的断言结果，发送后由后置操作填充
+     */
+    private List<AssertionResult> assertionResults;
+    
     /**
      * URL前缀
      */
@@ -142,6 +210,62 @@ public class RequestParams {
         this.binaryData = binaryData; 
     }
     
+    public String getBinaryFilePath() { 
+        return binaryFilePath; 
+    }
+    
+    public void setBinaryFilePath(String binaryFilePath) { 
+        this.binaryFilePath = binaryFilePath; 
+    }
+    
+    public TransferProgressListener getProgressListener() { 
+        return progressListener; 
+    }
+    
+    public void setProgressListener(TransferProgressListener progressListener) { 
+        this.progressListener = progressListener; 
+    }
+    
+    public int getConnectTimeout() { 
+        return connectTimeout; 
+    }
+    
+    public void setConnectTimeout(int connectTimeout) { 
+        this.connectTimeout = connectTimeout; 
+    }
+    
+    public int getReadTimeout() { 
+        return readTimeout; 
+    }
+    
+    public void setReadTimeout(int readTimeout) { 
+        this.readTimeout = readTimeout; 
+    }
+    
+    public int getTotalTimeout() { 
+        return totalTimeout; 
+    }
+    
+    public void setTotalTimeout(int totalTimeout) { 
+        this.totalTimeout = totalTimeout; 
+    }
+    
+    public RequestHandle getRequestHandle() { 
+        return requestHandle; 
+    }
+    
+    public void setRequestHandle(RequestHandle requestHandle) { 
+        this.requestHandle = requestHandle; 
+    }
+    
+    public VariableContext getVariableContext() { 
+        return variableContext; 
+    }
+    
+    public void setVariableContext(VariableContext variableContext) { 
+        this.variableContext = variableContext; 
+    }
+    
     public Map<String, String> getHeaders() { 
         return headers; 
     }
@@ -166,6 +290,38 @@ public class RequestParams {
         this.auth = auth; 
     }
     
+    public Environment getAuthEnvironment() { 
+        return authEnvironment; 
+    }
+    
+    public void setAuthEnvironment(Environment authEnvironment) { 
+        this.authEnvironment = authEnvironment; 
+    }
+    
+    public EnvironmentAuthProvider.Credential getAuthCredential() { 
+        return authCredential; 
+    }
+    
+    public void setAuthCredential(EnvironmentAuthProvider.Credential authCredential) { 
+        this.authCredential = authCredential; 
+    }
+    
+    public List<PreOpItem> getPreOps() { 
+        return preOps; 
+    }
+    
+    public void setPreOps(List<PreOpItem> preOps) { 
+        this.preOps = preOps; 
+    }
+    
+    public List<PreOpExecutor.StepTiming> getPreOpTimings() { 
+        return preOpTimings; 
+    }
+    
+    public void setPreOpTimings(List<PreOpExecutor.StepTiming> preOpTimings) { 
+        this.preOpTimings = preOpTimings; 
+    }
+    
     public List<PostOpItem> getPostOps() { 
         return postOps; 
     }
@@ -174,6 +330,22 @@ public class RequestParams {
         this.postOps = postOps; 
     }
     
+    public List<ApiParam> getResponseSchema() { 
+        return responseSchema; 
+    }
+    
+    public void setResponseSchema(List<ApiParam> responseSchema) { 
+        this.responseSchema = responseSchema; 
+    }
+    
+    public List<AssertionResult> getAssertionResults() { 
+        return assertionResults; 
+    }
+    
+    public void setAssertionResults(List<AssertionResult> assertionResults) { 
+        this.assertionResults = assertionResults; 
+    }
+    
     public String getUrlPrefix() { 
         return urlPrefix; 
     }
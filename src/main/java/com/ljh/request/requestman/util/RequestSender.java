@@ -14,101 +14,38 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * @author leijianhui
- * @Description 请求发送工具类，支持多种HTTP请求的发送与响应处理。负责统一组装请求参数、变量替换、发起HTTP请求（Hutool）、处理响应、调用后置操作执行器。
+ * @Description 请求发送工具类，支持多种HTTP请求的发送与响应处理。负责统一组装请求参数、执行前置操作、变量替换、发起HTTP请求（Hutool）、处理响应、调用后置操作执行器。
  * @date 2025/06/19 09:36
  */
 public class RequestSender {
+    /**
+     * 路径变量占位符正则，匹配{xxx}
+     */
+    private static final Pattern PATH_VARIABLE_PATTERN = Pattern.compile("\\{([^}]+)\\}");
+
+    /**
+     * 上传文件时的分块传输块大小
+     */
+    private static final int UPLOAD_CHUNK_SIZE = 64 * 1024;
+
     /**
      * 发送HTTP请求，返回响应字符串。
      */
     public static String sendRequest(Project project, String url, String method, List<ApiParam> params, String bodyType,
                                      List<ApiParam> bodyParams, String bodyContent, byte[] binaryData, Map<String, String> headers,
                                      Map<String, String> cookies, String auth, List<PostOpItem> postOps, String urlPrefix) {
-        // 1. 变量替换（URL、Params、Body、Headers、Cookies、Auth）
-        url = VariableReplacer.replace(project, url);
-        if (StrUtil.isNotBlank(urlPrefix)) {
-            url = urlPrefix + url;
-        }
-        Map<String, String> paramMap = paramListToMap(params);
-        paramMap.replaceAll((k, v) -> VariableReplacer.replace(project, v));
-        // 路径变量替换
-        url = replacePathVariables(url, paramMap);
-        // 移除已用作路径变量的参数
-        Set<String> usedKeys = new HashSet<>();
-        Matcher m = Pattern.compile("\\{([^}]+)\\}").matcher(url);
-        while (m.find()) {
-            usedKeys.add(m.group(1));
-        }
-        for (String key : usedKeys) {
-            paramMap.remove(key);
-        }
-        Map<String, String> headerMap = headers != null ? new HashMap<>(headers) : new HashMap<>();
-        headerMap.replaceAll((k, v) -> VariableReplacer.replace(project, v));
-        Map<String, String> cookieMap = cookies != null ? new HashMap<>(cookies) : new HashMap<>();
-        cookieMap.replaceAll((k, v) -> VariableReplacer.replace(project, v));
-        String realAuth = VariableReplacer.replace(project, auth);
-        // 2. 构建请求
-        HttpRequest request = HttpRequest.of(url).method(Method.valueOf(method));
-        // 2.1 Headers
-        for (Map.Entry<String, String> entry : headerMap.entrySet()) {
-            request.header(entry.getKey(), entry.getValue());
-        }
-        // 2.2 Cookies
-        if (!cookieMap.isEmpty()) {
-            StringBuilder cookieStr = new StringBuilder();
-            for (Map.Entry<String, String> entry : cookieMap.entrySet()) {
-                cookieStr.append(entry.getKey()).append("=").append(entry.getValue()).append("; ");
-            }
-            request.header("Cookie", cookieStr.toString());
-        }
-        // 2.3 Auth（如有，加入header）
-        if (StrUtil.isNotBlank(realAuth)) {
-            request.header("Authorization", realAuth);
-        }
-        // 2.4 Params/Body
-        if ("form-data".equals(bodyType) || "x-www-form-urlencoded".equals(bodyType)) {
-            Map<String, String> bodyMap = paramListToMap(bodyParams);
-            bodyMap.replaceAll((k, v) -> VariableReplacer.replace(project, v));
-
-            if ("form-data".equals(bodyType)) {
-                // 处理form-data，支持文件上传
-                for (Map.Entry<String, String> entry : bodyMap.entrySet()) {
-                    String key = entry.getKey();
-                    String value = entry.getValue();
-
-                    // 检查是否是文件路径
-                    if (value != null && !value.startsWith("<") && new File(value).exists()) {
-                        // 是文件，使用form方法上传
-                        request.form(key, new File(value));
-                    } else {
-                        // 是普通参数，使用form方法
-                        request.form(key, value);
-                    }
-                }
-            } else {
-                // x-www-form-urlencoded使用form方法
-                request.form(toObjectMap(bodyMap));
-            }
-        } else if ("json".equals(bodyType)) {
-            request.body(StrUtil.isNotBlank(bodyContent) ? VariableReplacer.replace(project, bodyContent) : "");
-            request.header("Content-Type", "application/json");
-        } else if ("xml".equals(bodyType)) {
-            request.body(StrUtil.isNotBlank(bodyContent) ? VariableReplacer.replace(project, bodyContent) : "");
-            request.header("Content-Type", "application/xml");
-        } else if ("binary".equals(bodyType)) {
-            // 二进制数据处理，不进行变量替换以避免破坏文件内容
-            if (binaryData != null && binaryData.length > 0) {
-                request.body(binaryData);
-                request.header("Content-Type", "application/octet-stream");
-            }
-        }
+        RequestParams requestParams = toRequestParams(url, method, params, bodyType, bodyParams, bodyContent, binaryData,
+                headers, cookies, auth, postOps, urlPrefix);
+        // 1-2. 变量替换并构建请求
+        HttpRequest request = buildRequest(project, requestParams);
         // 3. 发送请求
-        HttpResponse execute = request.execute();
+        HttpResponse execute = execute(request, requestParams.getRequestHandle());
         String respStr = execute.body();
         // 4. 执行后置操作
         PostOpExecutor.execute(project, respStr, postOps);
@@ -132,30 +69,187 @@ public class RequestSender {
     public static HttpResponse sendRequestRaw(Project project, String url, String method, List<ApiParam> params, String bodyType,
                                               List<ApiParam> bodyParams, String bodyContent, byte[] binaryData, Map<String, String> headers,
                                               Map<String, String> cookies, String auth, String urlPrefix, List<PostOpItem> postOps) {
-        url = VariableReplacer.replace(project, url);
-        if (StrUtil.isNotBlank(urlPrefix)) {
-            url = urlPrefix + url;
+        return sendRequestRaw(project, toRequestParams(url, method, params, bodyType, bodyParams, bodyContent, binaryData,
+                headers, cookies, auth, postOps, urlPrefix));
+    }
+
+    /**
+     * 发送HTTP请求，返回原始响应对象（响应体已读入内存，并执行后置操作）。
+     *
+     * @param project       项目对象
+     * @param requestParams 请求参数
+     * @return 原始响应
+     */
+    public static HttpResponse sendRequestRaw(Project project, RequestParams requestParams) {
+        HttpRequest request = buildRequest(project, requestParams);
+        // 发送请求并返回原始响应
+        long start = System.currentTimeMillis();
+        HttpResponse execute = execute(request, requestParams.getRequestHandle());
+        if (execute.getStatus() == 401 && requestParams.getAuthCredential() != null) {
+            // 缓存的令牌可能已被服务端提前吊销：失效后重新获取并重试一次
+            LogUtil.debug("环境认证令牌被拒绝(401)，刷新后重试: " + requestParams.getAuthEnvironment().getName());
+            execute.close();
+            EnvironmentAuthProvider.invalidate(requestParams.getAuthCredential());
+            start = System.currentTimeMillis();
+            execute = execute(buildRequest(project, requestParams), requestParams.getRequestHandle());
         }
-        Map<String, String> paramMap = paramListToMap(params);
-        paramMap.replaceAll((k, v) -> VariableReplacer.replace(project, v));
+        String body = execute.body();
+        long durationMs = System.currentTimeMillis() - start;
+        // 4. 执行后置操作（变量提取与断言共用一次响应扫描）
+        ResponseAssertion.Response response = new ResponseAssertion.Response(execute.getStatus(), durationMs,
+                execute.headers(), body);
+        requestParams.setAssertionResults(PostOpExecutor.execute(project, response, requestParams.getPostOps(),
+                requestParams.getVariableContext(), requestParams.getResponseSchema()));
+        return execute;
+    }
+
+    /**
+     * 以流式方式发送HTTP请求，用于"发送并下载"。
+     * 响应体不会被读入内存，调用方需通过 {@link HttpResponse#bodyStream()} 自行消费，并在读取完毕或取消后关闭返回的下载响应。
+     * 下载模式下响应通常为文件，因此不执行后置操作。环境认证令牌被拒绝(401)时同样刷新后重试一次，
+     * 此时响应体尚未读取，直接关闭即可。
+     *
+     * @param project       项目对象
+     * @param requestParams 请求参数
+     * @return 尚未读取响应体的下载响应（持有目标主机的并发许可，关闭时释放）
+     */
+    public static DownloadResponse sendRequestForDownload(Project project, RequestParams requestParams) {
+        RequestHandle handle = requestParams.getRequestHandle();
+        DownloadResponse download = executeForDownload(buildRequest(project, requestParams), handle);
+        if (download.getResponse().getStatus() == 401 && requestParams.getAuthCredential() != null) {
+            LogUtil.debug("环境认证令牌被拒绝(401)，刷新后重试下载: " + requestParams.getAuthEnvironment().getName());
+            download.close();
+            EnvironmentAuthProvider.invalidate(requestParams.getAuthCredential());
+            download = executeForDownload(buildRequest(project, requestParams), handle);
+        }
+        return download;
+    }
+
+    /**
+     * 在目标主机的并发许可内发送请求并读取响应头，响应体留给调用方读取。
+     * 读取响应体同样占用连接，许可随下载响应一起关闭时才释放
+     */
+    private static DownloadResponse executeForDownload(HttpRequest request, RequestHandle handle) {
+        RequestExecutors.HostPermit permit;
+        try {
+            permit = RequestExecutors.acquireHostPermit(request.getUrl());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Request interrupted");
+        }
+        try {
+            if (handle != null) {
+                handle.attach(request);
+            }
+            return new DownloadResponse(request.executeAsync(), permit);
+        } catch (RuntimeException | Error e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 在目标主机的并发许可内执行请求，避免单个慢主机占满所有连接
+     *
+     * @param request 待发送请求
+     * @param handle  请求取消句柄，可为null
+     * @return 响应（响应体已读入内存）
+     */
+    private static HttpResponse execute(HttpRequest request, RequestHandle handle) {
+        try (RequestExecutors.HostPermit ignored = RequestExecutors.acquireHostPermit(request.getUrl())) {
+            if (handle != null) {
+                handle.attach(request);
+            }
+            HttpResponse response = request.execute();
+            if (handle != null) {
+                // 取消与响应返回可能并发，取消后不再继续处理响应
+                handle.checkCancelled();
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Request interrupted");
+        }
+    }
+
+    /**
+     * 向后兼容的方法，使用全局变量（已废弃）
+     */
+    @Deprecated
+    public static HttpResponse sendRequestRaw(String url, String method, List<ApiParam> params, String bodyType,
+                                              List<ApiParam> bodyParams, String bodyContent, byte[] binaryData, Map<String, String> headers,
+                                              Map<String, String> cookies, String auth, String urlPrefix, List<PostOpItem> postOps) {
+        // 为了向后兼容，返回null
+        return null;
+    }
+
+    /**
+     * 组装请求：执行前置操作，变量替换（URL、Params、Body、Headers、Cookies、Auth）并构建Hutool请求对象。
+     *
+     * @param project       项目对象
+     * @param requestParams 请求参数
+     * @return 待发送的请求
+     */
+    private static HttpRequest buildRequest(Project project, RequestParams requestParams) {
+        // 整个请求共用一份变量快照（按作用域合并），模板编译结果由VariableReplacer缓存
+        VariableContext context = requestParams.getVariableContext() != null
+                ? requestParams.getVariableContext() : VariableContext.forRequest(project);
+        boolean hasPreOps = requestParams.getPreOps() != null && !requestParams.getPreOps().isEmpty();
+        Map<String, String> variables = hasPreOps ? new HashMap<>(context.flatten()) : context.flatten();
+        // 请求体只渲染一次，签名与发送使用同一结果
+        RenderedBody body = new RenderedBody(requestParams, variables);
+        // 0. 前置操作：步骤产生的变量只在本次请求内可见，生成的请求头在最后追加
+        PreOpExecutor.Result preOps = null;
+        if (hasPreOps) {
+            preOps = PreOpExecutor.execute(requestParams, body, requestParams.getPreOps(), variables);
+            requestParams.setPreOpTimings(preOps.getTimings());
+        }
+        String url = VariableReplacer.render(requestParams.getUrl(), variables);
+        if (StrUtil.isNotBlank(requestParams.getUrlPrefix())) {
+            url = requestParams.getUrlPrefix() + url;
+        }
+        Map<String, String> paramMap = paramListToMap(requestParams.getParams());
+        paramMap.replaceAll((k, v) -> VariableReplacer.render(v, variables));
+        // 路径变量替换
         url = replacePathVariables(url, paramMap);
+        // 移除已用作路径变量的参数
         Set<String> usedKeys = new HashSet<>();
-        Matcher m = Pattern.compile("\\{([^}]+)\\}").matcher(url);
+        Matcher m = PATH_VARIABLE_PATTERN.matcher(url);
         while (m.find()) {
             usedKeys.add(m.group(1));
         }
         for (String key : usedKeys) {
             paramMap.remove(key);
         }
-        Map<String, String> headerMap = headers != null ? new HashMap<>(headers) : new HashMap<>();
-        headerMap.replaceAll((k, v) -> VariableReplacer.replace(project, v));
-        Map<String, String> cookieMap = cookies != null ? new HashMap<>(cookies) : new HashMap<>();
-        cookieMap.replaceAll((k, v) -> VariableReplacer.replace(project, v));
-        String realAuth = VariableReplacer.replace(project, auth);
-        HttpRequest request = HttpRequest.of(url).method(Method.valueOf(method));
+        Map<String, String> headerMap = requestParams.getHeaders() != null ? new HashMap<>(requestParams.getHeaders()) : new HashMap<>();
+        headerMap.replaceAll((k, v) -> VariableReplacer.render(v, variables));
+        if (preOps != null) {
+            headerMap.putAll(preOps.getHeaders());
+        }
+        Map<String, String> cookieMap = requestParams.getCookies() != null ? new HashMap<>(requestParams.getCookies()) : new HashMap<>();
+        cookieMap.replaceAll((k, v) -> VariableReplacer.render(v, variables));
+        // 环境认证提供者的令牌在此获取（缓存命中时不发请求）
+        String realAuth;
+        if (requestParams.getAuthEnvironment() != null) {
+            EnvironmentAuthProvider.Credential credential = EnvironmentAuthProvider.resolve(requestParams.getAuthEnvironment(), variables);
+            requestParams.setAuthCredential(credential);
+            realAuth = credential.getHeader();
+        } else {
+            realAuth = VariableReplacer.render(requestParams.getAuth(), variables);
+        }
+        // 2. 构建请求
+        HttpRequest request = HttpRequest.of(url).method(Method.valueOf(requestParams.getMethod()));
+        if (requestParams.getConnectTimeout() > 0) {
+            request.setConnectionTimeout(requestParams.getConnectTimeout());
+        }
+        if (requestParams.getReadTimeout() > 0) {
+            request.setReadTimeout(requestParams.getReadTimeout());
+        }
+        // 2.1 Headers
         for (Map.Entry<String, String> entry : headerMap.entrySet()) {
             request.header(entry.getKey(), entry.getValue());
         }
+        // 2.2 Cookies
         if (!cookieMap.isEmpty()) {
             StringBuilder cookieStr = new StringBuilder();
             for (Map.Entry<String, String> entry : cookieMap.entrySet()) {
@@ -163,12 +257,15 @@ public class RequestSender {
             }
             request.header("Cookie", cookieStr.toString());
         }
+        // 2.3 Auth（如有，加入header）
         if (StrUtil.isNotBlank(realAuth)) {
             request.header("Authorization", realAuth);
         }
+        // 2.4 Params/Body
+        UploadFileResource.Progress uploadProgress = new UploadFileResource.Progress(requestParams.getProgressListener());
+        String bodyType = requestParams.getBodyType();
         if ("form-data".equals(bodyType) || "x-www-form-urlencoded".equals(bodyType)) {
-            Map<String, String> bodyMap = paramListToMap(bodyParams);
-            bodyMap.replaceAll((k, v) -> VariableReplacer.replace(project, v));
+            Map<String, String> bodyMap = body.form();
 
             if ("form-data".equals(bodyType)) {
                 // 处理form-data，支持文件上传
@@ -177,9 +274,9 @@ public class RequestSender {
                     String value = entry.getValue();
 
                     // 检查是否是文件路径
-                    if (value != null && !value.startsWith("<") && new File(value).exists()) {
-                        // 是文件，使用form方法上传
-                        request.form(key, new File(value));
+                    if (value != null && !value.startsWith("<") && new File(value).isFile()) {
+                        // 是文件，以流式资源上传，发送时按块从磁盘读取
+                        request.form(key, new UploadFileResource(new File(value), uploadProgress));
                     } else {
                         // 是普通参数，使用form方法
                         request.form(key, value);
@@ -190,34 +287,52 @@ public class RequestSender {
                 request.form(toObjectMap(bodyMap));
             }
         } else if ("json".equals(bodyType)) {
-            request.body(StrUtil.isNotBlank(bodyContent) ? VariableReplacer.replace(project, bodyContent) : "");
+            request.body(body.text());
             request.header("Content-Type", "application/json");
         } else if ("xml".equals(bodyType)) {
-            request.body(StrUtil.isNotBlank(bodyContent) ? VariableReplacer.replace(project, bodyContent) : "");
+            request.body(body.text());
             request.header("Content-Type", "application/xml");
         } else if ("binary".equals(bodyType)) {
             // 二进制数据处理，不进行变量替换以避免破坏文件内容
-            if (binaryData != null && binaryData.length > 0) {
+            byte[] binaryData = requestParams.getBinaryData();
+            String binaryFilePath = requestParams.getBinaryFilePath();
+            if (StrUtil.isNotBlank(binaryFilePath) && new File(binaryFilePath).isFile()) {
+                // 文件从磁盘流式读取，不整体载入内存
+                request.body(new UploadFileResource(new File(binaryFilePath), uploadProgress));
+                request.header("Content-Type", "application/octet-stream");
+            } else if (binaryData != null && binaryData.length > 0) {
                 request.body(binaryData);
                 request.header("Content-Type", "application/octet-stream");
             }
         }
-        // 发送请求并返回原始响应
-        HttpResponse execute = request.execute();
-        // 4. 执行后置操作
-        PostOpExecutor.execute(project, execute.body(), postOps);
-        return execute;
+        if (uploadProgress.hasFiles()) {
+            // 分块传输，避免HttpURLConnection在发送前把整个请求体缓存在内存中
+            request.setChunkedStreamingMode(UPLOAD_CHUNK_SIZE);
+        }
+        return request;
     }
 
     /**
-     * 向后兼容的方法，使用全局变量（已废弃）
+     * 将旧版按位置传入的参数转换为请求参数对象
      */
-    @Deprecated
-    public static HttpResponse sendRequestRaw(String url, String method, List<ApiParam> params, String bodyType,
-                                              List<ApiParam> bodyParams, String bodyContent, byte[] binaryData, Map<String, String> headers,
-                                              Map<String, String> cookies, String auth, String urlPrefix, List<PostOpItem> postOps) {
-        // 为了向后兼容，返回null
-        return null;
+    private static RequestParams toRequestParams(String url, String method, List<ApiParam> params, String bodyType,
+                                                 List<ApiParam> bodyParams, String bodyContent, byte[] binaryData,
+                                                 Map<String, String> headers, Map<String, String> cookies, String auth,
+                                                 List<PostOpItem> postOps, String urlPrefix) {
+        RequestParams requestParams = new RequestParams();
+        requestParams.setUrl(url);
+        requestParams.setMethod(method);
+        requestParams.setParams(params);
+        requestParams.setBodyType(bodyType);
+        requestParams.setBodyParams(bodyParams);
+        requestParams.setBodyContent(bodyContent);
+        requestParams.setBinaryData(binaryData);
+        requestParams.setHeaders(headers);
+        requestParams.setCookies(cookies);
+        requestParams.setAuth(auth);
+        requestParams.setPostOps(postOps);
+        requestParams.setUrlPrefix(urlPrefix);
+        return requestParams;
     }
 
     /**
@@ -267,4 +382,33 @@ public class RequestSender {
         }
         return result;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 下载响应：响应体读取完毕或取消后关闭，关闭时先关闭连接再释放目标主机的并发许可
+     */
+    public static final class DownloadResponse implements AutoCloseable {
+        private final HttpResponse response;
+        private final RequestExecutors.HostPermit permit;
+
+        private DownloadResponse(HttpResponse response, RequestExecutors.HostPermit permit) {
+            this.response = response;
+            this.permit = permit;
+        }
+
+        /**
+         * @return 尚未读取响应体的原始响应
+         */
+        public HttpResponse getResponse() {
+            return response;
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                permit.close();
+            }
+        }
+    }
+}
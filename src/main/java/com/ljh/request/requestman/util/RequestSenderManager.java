@@ -6,21 +6,26 @@ import com.intellij.openapi.project.Project;
 import com.ljh.request.requestman.model.ApiInfo;
 import com.ljh.request.requestman.model.ApiParam;
 import com.ljh.request.requestman.model.CustomApiInfo;
+import com.ljh.request.requestman.model.Environment;
 import com.ljh.request.requestman.ui.PostOpPanel.PostOpItem;
+import com.ljh.request.requestman.ui.PreOpPanel.PreOpItem;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.swing.*;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.InputStream;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * RequestMan请求发送管理器，统一处理自定义接口和扫描接口的请求发送逻辑。
@@ -33,22 +38,15 @@ import java.util.concurrent.TimeUnit;
 public class RequestSenderManager {
     
     /**
-     * 线程池，用于异步处理请求发送等操作
-     * 使用ThreadPoolExecutor手动创建，避免使用Executors工具类
+     * 请求执行器：支持时每个请求一个虚拟线程，否则为平台线程池；
+     * 不使用CallerRunsPolicy，避免饱和时请求在EDT上执行导致IDE卡死
      */
-    private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(
-            2, // 核心线程数
-            4, // 最大线程数
-            60L, // 空闲线程存活时间
-            TimeUnit.SECONDS, // 时间单位
-            new LinkedBlockingQueue<>(100), // 工作队列
-            r -> {
-                Thread t = new Thread(r, "RequestMan-RequestSender");
-                t.setDaemon(true);
-                return t;
-            },
-            new ThreadPoolExecutor.CallerRunsPolicy() // 拒绝策略
-    );
+    private static final ExecutorService EXECUTOR = RequestExecutors.newRequestExecutor("RequestMan-RequestSender");
+
+    /**
+     * 发送按钮上记录进行中请求的客户端属性key
+     */
+    private static final String ACTIVE_REQUEST_KEY = "requestman.activeRequest";
 
     /**
      * 静态初始化块，添加JVM关闭时的清理
@@ -76,19 +74,21 @@ public class RequestSenderManager {
      * @param customMethodBox 方法选择框
      * @param customParamsPanel 参数面板
      * @param customBodyPanel 请求体面板
+     * @param customPreOpPanel 前置操作面板
      * @param customPostOpPanel 后置操作面板
      * @param customAuthPanel 认证面板
      * @param responseHandler 响应处理器
+     * @return 请求取消句柄
      */
-    public static void sendCustomRequest(Project project, CustomApiInfo customApi,
+    public static RequestHandle sendCustomRequest(Project project, CustomApiInfo customApi,
                                        Object customUrlField, Object customMethodBox,
                                        Object customParamsPanel, Object customBodyPanel,
-                                       Object customPostOpPanel, Object customAuthPanel,
+                                       Object customPreOpPanel, Object customPostOpPanel, Object customAuthPanel,
                                        ResponseHandler responseHandler) {
         
         RequestParams params = buildCustomRequestParams(project, customApi, customUrlField, customMethodBox,
-                                                      customParamsPanel, customBodyPanel, customPostOpPanel, customAuthPanel);
-        sendRequest(project, params, responseHandler, false);
+                                                      customParamsPanel, customBodyPanel, customPreOpPanel, customPostOpPanel, customAuthPanel);
+        return sendRequest(project, params, responseHandler, false);
     }
 
     /**
@@ -100,18 +100,20 @@ public class RequestSenderManager {
      * @param headersPanel 请求头面板
      * @param cookiesPanel Cookie面板
      * @param authPanel 认证面板
+     * @param preOpPanel 前置操作面板
      * @param postOpPanel 后置操作面板
      * @param responseHandler 响应处理器
+     * @return 请求取消句柄
      */
-    public static void sendScanRequest(Project project, ApiInfo apiInfo,
+    public static RequestHandle sendScanRequest(Project project, ApiInfo apiInfo,
                                      Object paramsPanel, Object bodyPanel,
                                      Object headersPanel, Object cookiesPanel,
-                                     Object authPanel, Object postOpPanel,
+                                     Object authPanel, Object preOpPanel, Object postOpPanel,
                                      ResponseHandler responseHandler) {
         
         RequestParams params = buildScanRequestParams(project, apiInfo, paramsPanel, bodyPanel,
-                                                    headersPanel, cookiesPanel, authPanel, postOpPanel);
-        sendRequest(project, params, responseHandler, false);
+                                                    headersPanel, cookiesPanel, authPanel, preOpPanel, postOpPanel);
+        return sendRequest(project, params, responseHandler, false);
     }
 
         /**
@@ -122,19 +124,21 @@ public class RequestSenderManager {
      * @param customMethodBox 方法选择框
      * @param customParamsPanel 参数面板
      * @param customBodyPanel 请求体面板
+     * @param customPreOpPanel 前置操作面板
      * @param customPostOpPanel 后置操作面板
      * @param customAuthPanel 认证面板
      * @param responseHandler 响应处理器
+     * @return 请求取消句柄
      */
-    public static void sendCustomRequestAndDownload(Project project, CustomApiInfo customApi,
+    public static RequestHandle sendCustomRequestAndDownload(Project project, CustomApiInfo customApi,
                                                    Object customUrlField, Object customMethodBox,
                                                    Object customParamsPanel, Object customBodyPanel,
-                                                   Object customPostOpPanel, Object customAuthPanel,
+                                                   Object customPreOpPanel, Object customPostOpPanel, Object customAuthPanel,
                                                    ResponseHandler responseHandler) {
         
         RequestParams params = buildCustomRequestParams(project, customApi, customUrlField, customMethodBox,
-                                                      customParamsPanel, customBodyPanel, customPostOpPanel, customAuthPanel);
-        sendRequest(project, params, responseHandler, true);
+                                                      customParamsPanel, customBodyPanel, customPreOpPanel, customPostOpPanel, customAuthPanel);
+        return sendRequest(project, params, responseHandler, true);
     }
 
     /**
@@ -146,18 +150,20 @@ public class RequestSenderManager {
      * @param headersPanel 请求头面板
      * @param cookiesPanel Cookie面板
      * @param authPanel 认证面板
+     * @param preOpPanel 前置操作面板
      * @param postOpPanel 后置操作面板
      * @param responseHandler 响应处理器
+     * @return 请求取消句柄
      */
-    public static void sendScanRequestAndDownload(Project project, ApiInfo apiInfo,
+    public static RequestHandle sendScanRequestAndDownload(Project project, ApiInfo apiInfo,
                                                 Object paramsPanel, Object bodyPanel,
                                                 Object headersPanel, Object cookiesPanel,
-                                                Object authPanel, Object postOpPanel,
+                                                Object authPanel, Object preOpPanel, Object postOpPanel,
                                                 ResponseHandler responseHandler) {
         
         RequestParams params = buildScanRequestParams(project, apiInfo, paramsPanel, bodyPanel,
-                                                    headersPanel, cookiesPanel, authPanel, postOpPanel);
-        sendRequest(project, params, responseHandler, true);
+                                                    headersPanel, cookiesPanel, authPanel, preOpPanel, postOpPanel);
+        return sendRequest(project, params, responseHandler, true);
     }
 
     /**
@@ -168,6 +174,7 @@ public class RequestSenderManager {
      * @param customMethodBox 方法选择框
      * @param customParamsPanel 参数面板
      * @param customBodyPanel 请求体面板
+     * @param customPreOpPanel 前置操作面板
      * @param customPostOpPanel 后置操作面板
      * @param customAuthPanel 认证面板
      * @return 请求参数对象
@@ -175,7 +182,7 @@ public class RequestSenderManager {
     private static RequestParams buildCustomRequestParams(Project project, CustomApiInfo customApi,
                                                         Object customUrlField, Object customMethodBox,
                                                         Object customParamsPanel, Object customBodyPanel,
-                                                        Object customPostOpPanel, Object customAuthPanel) {
+                                                        Object customPreOpPanel, Object customPostOpPanel, Object customAuthPanel) {
         
         RequestParams params = new RequestParams();
         
@@ -189,14 +196,16 @@ public class RequestSenderManager {
         // 请求体信息 - 从请求体面板提取
         extractBodyFromPanel(customBodyPanel, params);
         
-        // 后置操作 - 从后置操作面板提取
+        // 前置/后置操作 - 从对应面板提取
+        params.setPreOps(extractPreOpsFromPanel(customPreOpPanel));
         params.setPostOps(extractPostOpsFromPanel(customPostOpPanel));
         
         // 认证信息 - 使用封装的方法，传入null作为authPanel表示自定义接口模式
-        params.setAuth(extractAuthFromPanel(project, null, customApi));
+        params.setAuth(extractAuthFromPanel(project, null, customApi, params));
         
         // 环境配置
         params.setUrlPrefix(ProjectSettingsManager.getCurrentEnvironmentPreUrl(project));
+        applyTimeouts(project, params, customApi);
 
         // 默认值
         params.setHeaders(new HashMap<>());
@@ -205,6 +214,48 @@ public class RequestSenderManager {
         return params;
     }
 
+    /**
+     * 直接由已保存的自定义接口构建请求参数（不依赖编辑面板，供批量运行使用）
+     * @param project 项目对象
+     * @param customApi 自定义接口信息
+     * @return 请求参数对象
+     */
+    public static RequestParams buildRequestParams(Project project, CustomApiInfo customApi) {
+        RequestParams params = new RequestParams();
+        params.setUrl(customApi.getUrl());
+        params.setMethod(StringUtils.defaultIfBlank(customApi.getHttpMethod(), "GET"));
+        params.setParams(customApi.getParams() != null ? customApi.getParams() : new ArrayList<>());
+        String bodyType = StringUtils.defaultIfBlank(customApi.getBodyType(), "none");
+        params.setBodyType(bodyType);
+        params.setBodyParams(customApi.getBodyParams() != null ? customApi.getBodyParams() : new ArrayList<>());
+        if ("binary".equals(bodyType)) {
+            // binary类型的body保存的是文件路径
+            params.setBinaryFilePath(customApi.getBody());
+        } else {
+            params.setBodyContent(customApi.getBody());
+        }
+        params.setPreOps(customApi.getPreOps() != null ? customApi.getPreOps() : new ArrayList<>());
+        params.setPostOps(customApi.getPostOps() != null ? customApi.getPostOps() : new ArrayList<>());
+        params.setAuth(extractAuthFromPanel(project, null, customApi, params));
+        params.setUrlPrefix(ProjectSettingsManager.getCurrentEnvironmentPreUrl(project));
+        applyTimeouts(project, params, customApi);
+        Map<String, String> headers = new HashMap<>();
+        if (customApi.getHeaders() != null) {
+            customApi.getHeaders().stream()
+                    .filter(h -> h != null && StringUtils.isNotBlank(h.getName()))
+                    .forEach(h -> headers.put(h.getName(), StringUtils.defaultString(h.getValue())));
+        }
+        params.setHeaders(headers);
+        Map<String, String> cookies = new HashMap<>();
+        if (customApi.getCookieItems() != null) {
+            customApi.getCookieItems().stream()
+                    .filter(c -> c != null && StringUtils.isNotBlank(c.getName()))
+                    .forEach(c -> cookies.put(c.getName(), StringUtils.defaultString(c.getValue())));
+        }
+        params.setCookies(cookies);
+        return params;
+    }
+
     /**
      * 构建扫描接口请求参数
      * @param project 项目对象
@@ -214,13 +265,14 @@ public class RequestSenderManager {
      * @param headersPanel 请求头面板
      * @param cookiesPanel Cookie面板
      * @param authPanel 认证面板
+     * @param preOpPanel 前置操作面板
      * @param postOpPanel 后置操作面板
      * @return 请求参数对象
      */
     private static RequestParams buildScanRequestParams(Project project, ApiInfo apiInfo,
                                                       Object paramsPanel, Object bodyPanel,
                                                       Object headersPanel, Object cookiesPanel,
-                                                      Object authPanel, Object postOpPanel) {
+                                                      Object authPanel, Object preOpPanel, Object postOpPanel) {
         
         RequestParams params = new RequestParams();
         
@@ -241,101 +293,237 @@ public class RequestSenderManager {
         params.setCookies(extractCookiesFromPanel(cookiesPanel));
         
         // 认证信息
-        params.setAuth(extractAuthFromPanel(project, authPanel, null));
+        params.setAuth(extractAuthFromPanel(project, authPanel, null, params));
         
-        // 后置操作
+        // 前置/后置操作
+        params.setPreOps(extractPreOpsFromPanel(preOpPanel));
         params.setPostOps(extractPostOpsFromPanel(postOpPanel));
+        // 响应结构，供schema断言使用
+        params.setResponseSchema(apiInfo.getResponseParams());
         
         // 环境配置
         params.setUrlPrefix(ProjectSettingsManager.getCurrentEnvironmentPreUrl(project));
+        applyTimeouts(project, params, null);
         
         return params;
     }
 
+    /**
+     * 按"请求 > 当前环境 > 全局设置"的优先级解析超时
+     * @param project 项目对象
+     * @param params 请求参数
+     * @param customApi 自定义接口信息（扫描接口为null）
+     */
+    private static void applyTimeouts(Project project, RequestParams params, CustomApiInfo customApi) {
+        Environment env = ProjectSettingsManager.getCurrentEnvironment(project);
+        params.setConnectTimeout(RequestExecutors.resolveTimeout(customApi != null ? customApi.getConnectTimeout() : 0,
+                env != null ? env.getConnectTimeout() : 0, RequestExecutors.CONNECT_TIMEOUT_KEY));
+        params.setReadTimeout(RequestExecutors.resolveTimeout(customApi != null ? customApi.getReadTimeout() : 0,
+                env != null ? env.getReadTimeout() : 0, RequestExecutors.READ_TIMEOUT_KEY));
+        params.setTotalTimeout(RequestExecutors.resolveTimeout(customApi != null ? customApi.getTotalTimeout() : 0,
+                env != null ? env.getTotalTimeout() : 0, RequestExecutors.TOTAL_TIMEOUT_KEY));
+    }
+
+    /**
+     * 若按钮对应的请求仍在进行中则取消它
+     * @param button 发送按钮
+     * @return 是否取消了进行中的请求（为true时调用方不应再发起新请求）
+     */
+    public static boolean cancelActiveRequest(JButton button) {
+        if (button == null) {
+            return false;
+        }
+        Object active = button.getClientProperty(ACTIVE_REQUEST_KEY);
+        if (active instanceof RequestHandle && !((RequestHandle) active).isDone()) {
+            ((RequestHandle) active).cancel();
+            return true;
+        }
+        return false;
+    }
+
     /**
      * 统一的请求发送方法
      * @param project 项目对象
      * @param params 请求参数
      * @param responseHandler 响应处理器
      * @param downloadResponse 是否下载响应
+     * @return 请求取消句柄
      */
-    private static void sendRequest(Project project, RequestParams params, 
-                                  ResponseHandler responseHandler, boolean downloadResponse) {
-        
-        if (responseHandler.getButton() != null) {
-            responseHandler.getButton().setEnabled(false);
+    private static RequestHandle sendRequest(Project project, RequestParams params,
+                                             ResponseHandler responseHandler, boolean downloadResponse) {
+        
+        RequestHandle handle = new RequestHandle();
+        params.setRequestHandle(handle);
+        JButton button = responseHandler.getButton();
+        String buttonText = button != null ? button.getText() : null;
+        if (button != null) {
+            // 请求进行中按钮切换为"取消"
+            button.putClientProperty(ACTIVE_REQUEST_KEY, handle);
+            button.setText(RequestManBundle.message("common.cancel"));
         }
 
-        EXECUTOR.submit(() -> {
+        // 上传进度回调到响应处理器
+        params.setProgressListener((transferred, total, bytesPerSecond) ->
+                ApplicationManager.getApplication().invokeLater(() -> responseHandler.onProgress(transferred, total, bytesPerSecond)));
+
+        // 任务开始执行或在开始前被取消，二者只有一个生效
+        AtomicBoolean started = new AtomicBoolean(false);
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
             try {
+                if (downloadResponse) {
+                    // 下载模式：响应体直接流式落盘，不在堆内存中保留
+                    downloadToFile(project, params, responseHandler, () -> finishRequest(handle, button, buttonText));
+                    return;
+                }
                 // 发送请求
-                try (HttpResponse response = RequestSender.sendRequestRaw(
-                        project, params.getUrl(), params.getMethod(), params.getParams(),
-                        params.getBodyType(), params.getBodyParams(), params.getBodyContent(),
-                        params.getBinaryData(), params.getHeaders(), params.getCookies(),
-                        params.getAuth(), params.getUrlPrefix(), params.getPostOps())) {
+                try (HttpResponse response = RequestSender.sendRequestRaw(project, params)) {
                     
                     int status = response.getStatus();
                     String responseText = response.body();
                     byte[] responseBytes = response.bodyBytes();
                     String contentType = response.header("Content-Type");
+                    List<AssertionResult> assertions = params.getAssertionResults();
+                    handle.checkCancelled();
                     
                     // 处理响应
                     ApplicationManager.getApplication().invokeLater(() -> {
+                        finishRequest(handle, button, buttonText);
                         responseHandler.onSuccess(status, responseText, responseBytes, contentType);
-                        
-                        // 如果需要下载响应
-                        if (downloadResponse) {
-                            handleResponseDownload(responseBytes, contentType, responseHandler);
-                        }
-                        
-                        // 恢复按钮状态
-                        if (responseHandler.getButton() != null) {
-                            responseHandler.getButton().setEnabled(true);
-                        }
+                        responseHandler.onAssertions(assertions != null ? assertions : Collections.emptyList());
                     });
                 }
                 
             } catch (Exception ex) {
                 ApplicationManager.getApplication().invokeLater(() -> {
-                    responseHandler.onError(ex);
-                    
-                    // 恢复按钮状态
-                    if (responseHandler.getButton() != null) {
-                        responseHandler.getButton().setEnabled(true);
+                    finishRequest(handle, button, buttonText);
+                    if (handle.isCancelled()) {
+                        responseHandler.onCancelled(handle.isTimedOut());
+                    } else {
+                        responseHandler.onError(ex);
                     }
                 });
             }
-        });
+        }, null) {
+            @Override
+            protected void done() {
+                // 排队中被取消（用户取消或总超时）时任务体不会执行，在这里恢复按钮
+                if (isCancelled() && started.compareAndSet(false, true)) {
+                    ApplicationManager.getApplication().invokeLater(() -> {
+                        finishRequest(handle, button, buttonText);
+                        responseHandler.onCancelled(handle.isTimedOut());
+                    });
+                }
+            }
+        };
+        handle.setFuture(task);
+        EXECUTOR.execute(task);
+        RequestExecutors.scheduleTotalTimeout(handle, params.getTotalTimeout());
+        return handle;
+    }
+
+    /**
+     * 请求结束：停止看门狗并恢复按钮状态
+     * @param handle 请求取消句柄
+     * @param button 发送按钮
+     * @param buttonText 按钮原文本
+     */
+    private static void finishRequest(RequestHandle handle, JButton button, String buttonText) {
+        handle.markDone();
+        if (button != null && button.getClientProperty(ACTIVE_REQUEST_KEY) == handle) {
+            button.putClientProperty(ACTIVE_REQUEST_KEY, null);
+            button.setText(buttonText);
+        }
+    }
+
+    /**
+     * 以流式方式发送请求并将响应写入临时文件，完成后由用户选择保存位置
+     * @param project 项目对象
+     * @param params 请求参数
+     * @param responseHandler 响应处理器
+     * @param onFinish 请求结束回调（在EDT上执行）
+     * @throws Exception 请求或写盘失败
+     */
+    private static void downloadToFile(Project project, RequestParams params, ResponseHandler responseHandler,
+                                       Runnable onFinish) throws Exception {
+        // 下载响应在传输完成、失败或取消后关闭，期间一直占用目标主机的并发许可
+        try (RequestSender.DownloadResponse download = RequestSender.sendRequestForDownload(project, params)) {
+            HttpResponse response = download.getResponse();
+            int status = response.getStatus();
+            String contentType = response.header("Content-Type");
+            String ext = suggestFileExtension(contentType);
+            long total = parseContentLength(response.header("Content-Length"));
+            Path temp = StreamingDownloader.createTempTarget(ext);
+            long start = System.currentTimeMillis();
+            long size;
+            try (InputStream in = response.bodyStream()) {
+                size = in == null ? 0 : StreamingDownloader.transferToFile(in, temp, total, (transferred, all, bytesPerSecond) ->
+                        ApplicationManager.getApplication().invokeLater(() -> responseHandler.onProgress(transferred, all, bytesPerSecond)));
+                params.getRequestHandle().checkCancelled();
+            } catch (Exception ex) {
+                Files.deleteIfExists(temp);
+                throw ex;
+            }
+            long cost = Math.max(System.currentTimeMillis() - start, 1);
+            String speed = StreamingDownloader.formatBytes(size * 1000 / cost) + "/s";
+            String summary = RequestManBundle.message("main.download.summary", status,
+                    StreamingDownloader.formatBytes(size), cost, speed);
+            ApplicationManager.getApplication().invokeLater(() -> {
+                onFinish.run();
+                responseHandler.onSuccess(status, summary, null, contentType);
+                handleResponseDownload(temp, ext, responseHandler);
+            });
+        }
     }
 
     /**
-     * 处理响应下载
-     * @param responseBytes 响应字节数组
-     * @param contentType 响应内容类型
+     * 处理响应下载：将已落盘的临时文件移动到用户选择的位置
+     * @param temp 已写入响应内容的临时文件
+     * @param ext 建议的文件扩展名
      * @param responseHandler 响应处理器
      */
-    private static void handleResponseDownload(byte[] responseBytes, String contentType, 
-                                            ResponseHandler responseHandler) {
-        
-        String ext = suggestFileExtension(contentType, responseBytes);
+    private static void handleResponseDownload(Path temp, String ext, ResponseHandler responseHandler) {
         
         JFileChooser fileChooser = new JFileChooser();
-        fileChooser.setDialogTitle("请选择保存文件的位置");
+        fileChooser.setDialogTitle(RequestManBundle.message("main.download.choose.target"));
         fileChooser.setSelectedFile(new File("response" + ext));
         
         int userSelection = fileChooser.showSaveDialog(responseHandler.getResponsePanel());
         if (userSelection == JFileChooser.APPROVE_OPTION) {
             File fileToSave = fileChooser.getSelectedFile();
-            try (FileOutputStream fos = new FileOutputStream(fileToSave)) {
-                fos.write(responseBytes);
-                fos.flush();
+            try {
+                StreamingDownloader.moveToTarget(temp, fileToSave.toPath());
                 JOptionPane.showMessageDialog(responseHandler.getResponsePanel(), 
-                    "文件已保存: " + fileToSave.getAbsolutePath());
+                    RequestManBundle.message("main.download.saved", fileToSave.getAbsolutePath()));
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(responseHandler.getResponsePanel(), 
-                    "保存文件失败: " + ex.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+                    RequestManBundle.message("main.download.save.fail") + ex.getMessage(),
+                    RequestManBundle.message("common.error"), JOptionPane.ERROR_MESSAGE);
             }
+        } else {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (Exception ex) {
+                LogUtil.warn("删除下载临时文件失败: " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 解析Content-Length响应头
+     * @param header 响应头值
+     * @return 字节数，未知时返回-1
+     */
+    private static long parseContentLength(String header) {
+        if (StringUtils.isBlank(header)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return -1;
         }
     }
 
@@ -390,10 +578,10 @@ public class RequestSenderManager {
                 String xmlBody = (String) getXmlBodyMethod.invoke(bodyPanel);
                 params.setBodyContent(xmlBody != null ? xmlBody : "");
             } else if ("binary".equals(bodyType)) {
-                // 对于binary类型，获取二进制数据
-                Method getBinaryDataMethod = bodyPanel.getClass().getMethod("getBinaryData");
-                byte[] binaryData = (byte[]) getBinaryDataMethod.invoke(bodyPanel);
-                params.setBinaryData(binaryData);
+                // 对于binary类型，只获取文件路径，发送时再从磁盘流式读取
+                Method getBinaryContentMethod = bodyPanel.getClass().getMethod("getFilePathFromBinaryText");
+                String binaryFilePath = (String) getBinaryContentMethod.invoke(bodyPanel);
+                params.setBinaryFilePath(binaryFilePath);
             } else if ("form-data".equals(bodyType) || "x-www-form-urlencoded".equals(bodyType)) {
                 Method getBodyParamsMethod = bodyPanel.getClass().getMethod("getBodyParams");
                 @SuppressWarnings("unchecked")
@@ -415,6 +603,27 @@ public class RequestSenderManager {
         }
     }
 
+    /**
+     * 从前置操作面板提取前置操作列表
+     * @param preOpPanel 前置操作面板
+     * @return 前置操作列表
+     */
+    private static List<PreOpItem> extractPreOpsFromPanel(Object preOpPanel) {
+        if (preOpPanel == null) {
+            return new ArrayList<>();
+        }
+        
+        try {
+            Method getPreOpDataMethod = preOpPanel.getClass().getMethod("getPreOpData");
+            @SuppressWarnings("unchecked")
+            List<PreOpItem> preOps = (List<PreOpItem>) getPreOpDataMethod.invoke(preOpPanel);
+            return preOps != null ? preOps : new ArrayList<>();
+        } catch (Exception e) {
+            LogUtil.warn("无法从前置操作面板提取数据: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
     /**
      * 从后置操作面板提取后置操作列表
      * @param postOpPanel 后置操作面板
@@ -441,9 +650,10 @@ public class RequestSenderManager {
      * @param project 项目对象
      * @param authPanel 认证面板
      * @param customApi 自定义接口信息（可为null）
+     * @param params 请求参数，全局认证由环境认证提供者获取时记录环境
      * @return 认证值
      */
-    private static String extractAuthFromPanel(Project project, Object authPanel, CustomApiInfo customApi) {
+    private static String extractAuthFromPanel(Project project, Object authPanel, CustomApiInfo customApi, RequestParams params) {
         String auth = "";
         
         try {
@@ -452,7 +662,7 @@ public class RequestSenderManager {
                 // 自定义接口模式：从editingApi获取认证信息
                 if (customApi.getAuthMode() == 0) {
                     // 全局认证
-                    auth = ProjectSettingsManager.getCurrentEnvironmentGlobalAuth(project);
+                    auth = globalAuth(project, params);
                 } else {
                     // 自定义认证
                     auth = customApi.getAuthValue();
@@ -464,7 +674,7 @@ public class RequestSenderManager {
                 
                 if (authMode != null && authMode == 0) {
                     // 全局认证
-                    auth = ProjectSettingsManager.getCurrentEnvironmentGlobalAuth(project);
+                    auth = globalAuth(project, params);
                 } else {
                     // 自定义认证
                     Method getAuthValueMethod = authPanel.getClass().getMethod("getAuthValue");
@@ -481,6 +691,21 @@ public class RequestSenderManager {
         return auth;
     }
 
+    /**
+     * 全局认证：当前环境配置了认证提供者时，令牌在组装请求时（请求线程中）获取，避免阻塞界面
+     * @param project 项目对象
+     * @param params 请求参数
+     * @return 静态全局认证值，使用认证提供者时为空串
+     */
+    private static String globalAuth(Project project, RequestParams params) {
+        Environment env = ProjectSettingsManager.getCurrentEnvironment(project);
+        if (EnvironmentAuthProvider.isEnabled(env)) {
+            params.setAuthEnvironment(env);
+            return "";
+        }
+        return ProjectSettingsManager.getCurrentEnvironmentGlobalAuth(project);
+    }
+
     /**
      * 从请求头面板提取请求头信息
      * @param headersPanel 请求头面板
@@ -566,10 +791,9 @@ public class RequestSenderManager {
     /**
      * 根据内容类型建议文件扩展名
      * @param contentType 内容类型
-     * @param bytes 字节数组
      * @return 文件扩展名
      */
-    private static String suggestFileExtension(String contentType, byte[] bytes) {
+    private static String suggestFileExtension(String contentType) {
         if (StringUtils.isBlank(contentType)) {
             return ".bin";
         }
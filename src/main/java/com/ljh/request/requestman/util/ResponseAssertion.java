@@ -0,0 +1,523 @@
+package com.ljh.request.requestman.util;
+
+import com.ljh.request.requestman.enums.ParamDataType;
+import com.ljh.request.requestman.model.ApiParam;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 编译后的响应断言，表达式格式为"主体 运算符 期望值"，例如：
+ * <pre>
+ * status == 200
+ * time &lt; 500
+ * header.Content-Type contains json
+ * body contains success
+ * $.code == 0
+ * $.data.list[*].id exists
+ * p95 &lt; 300
+ * schema
+ * </pre>
+ * 主体：status、time（毫秒）、size（响应体字符数）、header.名称、body、JSONPath、
+ * p50/p90/p95/p99/avg/min/max（耗时聚合，单次请求时即为本次耗时，批量运行时按接口汇总）、
+ * schema（按扫描得到的响应结构校验字段类型）。
+ * 运算符：== != &gt; &gt;= &lt; &lt;= contains !contains matches exists !exists。
+ * JSONPath主体与变量提取在同一次流式扫描中求值。
+ *
+ * @author leijianhui
+ * @Description 响应断言：状态码、耗时、响应头、响应体、JSONPath值与响应结构校验。
+ * @date 2025/09/12 15:00
+ */
+public final class ResponseAssertion {
+
+    private static final int STATUS = 0;
+    private static final int TIME = 1;
+    private static final int SIZE = 2;
+    private static final int HEADER = 3;
+    private static final int BODY = 4;
+    private static final int JSON = 5;
+    private static final int AGGREGATE = 6;
+    private static final int SCHEMA = 7;
+
+    private static final List<String> OPERATORS = List.of("==", "!=", ">=", "<=", ">", "<",
+            "contains", "!contains", "matches", "exists", "!exists");
+    private static final List<String> AGGREGATES = List.of("p50", "p90", "p95", "p99", "avg", "min", "max");
+
+    private final String expression;
+    private final int subject;
+    private final String argument;
+    private final StreamingJsonPath jsonPath;
+    private final String operator;
+    private final String expected;
+    private final Pattern pattern;
+
+    private ResponseAssertion(String expression, int subject, String argument, StreamingJsonPath jsonPath,
+                              String operator, String expected, Pattern pattern) {
+        this.expression = expression;
+        this.subject = subject;
+        this.argument = argument;
+        this.jsonPath = jsonPath;
+        this.operator = operator;
+        this.expected = expected;
+        this.pattern = pattern;
+    }
+
+    /**
+     * 一次响应的断言输入
+     */
+    public static final class Response {
+        private final int status;
+        private final long durationMs;
+        private final Map<String, List<String>> headers;
+        private final String body;
+
+        public Response(int status, long durationMs, Map<String, List<String>> headers, String body) {
+            this.status = status;
+            this.durationMs = durationMs;
+            this.headers = headers != null ? headers : Collections.emptyMap();
+            this.body = body != null ? body : "";
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        /**
+         * 获取响应头（名称不区分大小写，多值以逗号连接）
+         */
+        public String header(String name) {
+            for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                if (entry.getKey() != null && entry.getKey().equalsIgnoreCase(name)) {
+                    return entry.getValue() != null ? String.join(",", entry.getValue()) : "";
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 编译断言表达式
+     *
+     * @param expression 表达式
+     * @return 编译结果
+     * @throws IllegalArgumentException 语法错误
+     */
+    public static ResponseAssertion compile(String expression) {
+        String expr = expression == null ? "" : expression.trim();
+        if (expr.isEmpty()) {
+            throw new IllegalArgumentException("empty assertion");
+        }
+        int subjectEnd = expr.startsWith("$") ? jsonPathEnd(expr) : indexOfWhitespace(expr, 0);
+        String subjectText = expr.substring(0, subjectEnd);
+        String rest = expr.substring(subjectEnd).trim();
+        StreamingJsonPath jsonPath = subjectText.startsWith("$") ? StreamingJsonPath.compile(subjectText) : null;
+        if ("schema".equalsIgnoreCase(subjectText)) {
+            if (!rest.isEmpty()) {
+                throw new IllegalArgumentException("schema takes no operator");
+            }
+            return new ResponseAssertion(expr, SCHEMA, null, null, null, null, null);
+        }
+        int opEnd = indexOfWhitespace(rest, 0);
+        String operator = rest.substring(0, opEnd);
+        if (!OPERATORS.contains(operator)) {
+            throw new IllegalArgumentException("unknown operator: " + (operator.isEmpty() ? "<none>" : operator));
+        }
+        String expected = unquote(rest.substring(opEnd).trim());
+        boolean unary = "exists".equals(operator) || "!exists".equals(operator);
+        if (unary != expected.isEmpty()) {
+            throw new IllegalArgumentException(unary ? operator + " takes no value" : "missing expected value");
+        }
+        Pattern pattern = null;
+        if ("matches".equals(operator)) {
+            try {
+                pattern = Pattern.compile(expected);
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("invalid regex: " + e.getDescription());
+            }
+        }
+        String lower = subjectText.toLowerCase();
+        if (jsonPath != null) {
+            return new ResponseAssertion(expr, JSON, null, jsonPath, operator, expected, pattern);
+        }
+        if (lower.startsWith("header.") && lower.length() > "header.".length()) {
+            return new ResponseAssertion(expr, HEADER, subjectText.substring("header.".length()), null, operator, expected, pattern);
+        }
+        String aggregate = lower.endsWith("(time)") ? lower.substring(0, lower.length() - "(time)".length()) : lower;
+        if (AGGREGATES.contains(aggregate)) {
+            return new ResponseAssertion(expr, AGGREGATE, aggregate, null, operator, expected, pattern);
+        }
+        switch (lower) {
+            case "status":
+                return new ResponseAssertion(expr, STATUS, null, null, operator, expected, pattern);
+            case "time":
+                return new ResponseAssertion(expr, TIME, null, null, operator, expected, pattern);
+            case "size":
+                return new ResponseAssertion(expr, SIZE, null, null, operator, expected, pattern);
+            case "body":
+                return new ResponseAssertion(expr, BODY, null, null, operator, expected, pattern);
+            default:
+                throw new IllegalArgumentException("unknown subject: " + subjectText);
+        }
+    }
+
+    /**
+     * JSONPath主体的结束位置：括号外的第一个空白
+     */
+    private static int jsonPathEnd(String expr) {
+        int depth = 0;
+        char quote = 0;
+        for (int i = 0; i < expr.length(); i++) {
+            char c = expr.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '[' || c == '(') {
+                depth++;
+            } else if (c == ']' || c == ')') {
+                depth--;
+            } else if (depth == 0 && Character.isWhitespace(c)) {
+                return i;
+            }
+        }
+        return expr.length();
+    }
+
+    private static int indexOfWhitespace(String text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i;
+            }
+        }
+        return text.length();
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.charAt(0) == '\'' || value.charAt(0) == '"')
+                && value.charAt(value.length() - 1) == value.charAt(0)) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * JSONPath主体的路径，其它主体为null
+     */
+    public StreamingJsonPath getJsonPath() {
+        return jsonPath;
+    }
+
+    public boolean isSchema() {
+        return subject == SCHEMA;
+    }
+
+    /**
+     * 是否为耗时聚合断言（批量运行时按接口汇总求值）
+     */
+    public boolean isAggregate() {
+        return subject == AGGREGATE;
+    }
+
+    /**
+     * 对单次响应求值
+     *
+     * @param name     断言名称
+     * @param response 响应
+     * @param scanned  本次流式扫描的原始命中
+     * @param schema   响应结构，可为null
+     * @return 断言结果
+     */
+    public AssertionResult evaluate(String name, Response response, Map<StreamingJsonPath, List<String>> scanned, Schema schema) {
+        switch (subject) {
+            case STATUS:
+                return compare(name, String.valueOf(response.getStatus()));
+            case TIME:
+                return compare(name, String.valueOf(response.getDurationMs()));
+            case SIZE:
+                return compare(name, String.valueOf(response.getBody().length()));
+            case HEADER:
+                return compare(name, response.header(argument));
+            case BODY:
+                return compare(name, response.getBody());
+            case JSON:
+                return compare(name, jsonPath.toValue(scanned != null ? scanned.get(jsonPath) : null));
+            case AGGREGATE:
+                return evaluateAggregate(name, Collections.singletonList(response.getDurationMs()));
+            default:
+                if (schema == null || schema.isEmpty()) {
+                    return new AssertionResult(name, expression, true, null, RequestManBundle.message("assert.schema.none"));
+                }
+                String mismatch = schema.check(scanned);
+                return new AssertionResult(name, expression, mismatch == null, null, mismatch == null ? "" : mismatch);
+        }
+    }
+
+    /**
+     * 对一组耗时求聚合值并比较
+     *
+     * @param name      断言名称
+     * @param durations 耗时（毫秒）
+     * @return 断言结果
+     */
+    public AssertionResult evaluateAggregate(String name, List<Long> durations) {
+        if (durations == null || durations.isEmpty()) {
+            return compare(name, null);
+        }
+        List<Long> sorted = new ArrayList<>(durations);
+        Collections.sort(sorted);
+        long value;
+        switch (argument) {
+            case "avg":
+                value = Math.round(sorted.stream().mapToLong(Long::longValue).average().orElse(0));
+                break;
+            case "min":
+                value = sorted.get(0);
+                break;
+            case "max":
+                value = sorted.get(sorted.size() - 1);
+                break;
+            default:
+                // 最近秩百分位
+                int percent = Integer.parseInt(argument.substring(1));
+                int rank = (int) Math.ceil(percent / 100.0 * sorted.size());
+                value = sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1)));
+        }
+        return compare(name, String.valueOf(value));
+    }
+
+    private AssertionResult compare(String name, String actual) {
+        boolean passed;
+        switch (operator) {
+            case "exists":
+                passed = actual != null;
+                break;
+            case "!exists":
+                passed = actual == null;
+                break;
+            case "contains":
+                passed = actual != null && actual.contains(expected);
+                break;
+            case "!contains":
+                passed = actual == null || !actual.contains(expected);
+                break;
+            case "matches":
+                passed = actual != null && pattern.matcher(actual).find();
+                break;
+            default:
+                passed = compareValues(actual);
+        }
+        String shown = actual == null ? "null" : abbreviate(actual);
+        String message = passed ? "" : RequestManBundle.message("assert.fail", operator, expected, shown);
+        return new AssertionResult(name, expression, passed, actual, message);
+    }
+
+    private boolean compareValues(String actual) {
+        String value = actual == null ? "null" : actual;
+        BigDecimal left = toNumber(value);
+        BigDecimal right = toNumber(expected);
+        int cmp;
+        if (left != null && right != null) {
+            cmp = left.compareTo(right);
+        } else if ("==".equals(operator) || "!=".equals(operator)) {
+            return "==".equals(operator) == value.equals(expected);
+        } else {
+            return false;
+        }
+        switch (operator) {
+            case "==":
+                return cmp == 0;
+            case "!=":
+                return cmp != 0;
+            case ">":
+                return cmp > 0;
+            case ">=":
+                return cmp >= 0;
+            case "<":
+                return cmp < 0;
+            default:
+                return cmp <= 0;
+        }
+    }
+
+    private static BigDecimal toNumber(String value) {
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String abbreviate(String value) {
+        return value.length() > 80 ? value.substring(0, 80) + "..." : value;
+    }
+
+    /**
+     * 扫描得到的响应结构：每个字段对应一个类型探测路径，随变量提取在同一次扫描中求值
+     */
+    public static final class Schema {
+        private static final int MAX_DEPTH = 10;
+        private static final int MAX_REPORTED = 3;
+
+        private final List<StreamingJsonPath> probes = new ArrayList<>();
+        private final List<ParamDataType> types = new ArrayList<>();
+
+        private Schema() {
+        }
+
+        /**
+         * 由扫描到的响应参数构建
+         *
+         * @param params 响应参数（顶层为对象字段）
+         * @return 响应结构
+         */
+        public static Schema of(List<ApiParam> params) {
+            Schema schema = new Schema();
+            schema.collect(params, "$", 0);
+            return schema;
+        }
+
+        private void collect(List<ApiParam> params, String parent, int depth) {
+            if (params == null || depth > MAX_DEPTH) {
+                return;
+            }
+            for (ApiParam param : params) {
+                if (param == null || param.getName() == null || param.getName().isEmpty() || param.isRecursive()) {
+                    continue;
+                }
+                String path = childPath(parent, param.getName());
+                ParamDataType type = param.getDataType();
+                boolean hasChildren = param.getChildren() != null && !param.getChildren().isEmpty();
+                if (type == ParamDataType.ARRAY) {
+                    addProbe(path, ParamDataType.ARRAY);
+                    if (hasChildren) {
+                        collect(param.getChildren(), path + "[*]", depth + 1);
+                    }
+                } else if (hasChildren) {
+                    addProbe(path, ParamDataType.OBJECT);
+                    collect(param.getChildren(), path, depth + 1);
+                } else if (type != null && type != ParamDataType.UNKNOWN && type != ParamDataType.FILE) {
+                    addProbe(path, type);
+                }
+            }
+        }
+
+        private void addProbe(String path, ParamDataType type) {
+            try {
+                probes.add(StreamingJsonPath.compile(path).typeProbe());
+                types.add(type);
+            } catch (IllegalArgumentException e) {
+                LogUtil.debug("忽略无法校验的响应字段: " + path);
+            }
+        }
+
+        private static String childPath(String parent, String name) {
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (!Character.isLetterOrDigit(c) && c != '_' && c != '$') {
+                    return parent + "['" + name + "']";
+                }
+            }
+            return parent + "." + name;
+        }
+
+        public boolean isEmpty() {
+            return probes.isEmpty();
+        }
+
+        /**
+         * 需要加入本次扫描的类型探测路径
+         */
+        public List<StreamingJsonPath> getProbes() {
+            return probes;
+        }
+
+        /**
+         * 校验扫描结果：出现的字段类型必须与声明一致（null与缺失不视为错误）
+         *
+         * @param scanned 本次扫描的原始命中
+         * @return 不一致说明，全部一致时返回null
+         */
+        public String check(Map<StreamingJsonPath, List<String>> scanned) {
+            List<String> mismatches = new ArrayList<>();
+            int total = 0;
+            for (int i = 0; i < probes.size(); i++) {
+                List<String> markers = scanned != null ? scanned.get(probes.get(i)) : null;
+                if (markers == null) {
+                    continue;
+                }
+                for (String marker : markers) {
+                    if (!matches(types.get(i), marker)) {
+                        total++;
+                        if (mismatches.size() < MAX_REPORTED) {
+                            mismatches.add(RequestManBundle.message("assert.schema.mismatch", probes.get(i).getExpression(),
+                                    types.get(i).name().toLowerCase(), describe(marker)));
+                        }
+                        break;
+                    }
+                }
+            }
+            if (total == 0) {
+                return null;
+            }
+            return String.join("; ", mismatches) + (total > mismatches.size() ? " (+" + (total - mismatches.size()) + ")" : "");
+        }
+
+        private static boolean matches(ParamDataType type, String marker) {
+            if (marker.isEmpty() || marker.charAt(0) == 'n') {
+                return true;
+            }
+            char c = marker.charAt(0);
+            switch (type) {
+                case STRING:
+                case ENUM:
+                    return c == '"';
+                case INTEGER:
+                case NUMBER:
+                    return c == '-' || (c >= '0' && c <= '9');
+                case BOOLEAN:
+                    return c == 't' || c == 'f';
+                case ARRAY:
+                    return c == '[';
+                case OBJECT:
+                    return c == '{';
+                default:
+                    return true;
+            }
+        }
+
+        private static String describe(String marker) {
+            switch (marker.charAt(0)) {
+                case '"':
+                    return "string";
+                case '{':
+                    return "object";
+                case '[':
+                    return "array";
+                case 't':
+                case 'f':
+                    return "boolean";
+                default:
+                    return "number";
+            }
+        }
+    }
+}
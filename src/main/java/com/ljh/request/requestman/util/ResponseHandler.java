@@ -2,6 +2,7 @@ package com.ljh.request.requestman.util;
 
 import javax.swing.JButton;
 import javax.swing.JComponent;
+import java.util.List;
 
 /**
  * 请求响应处理器，用于处理请求响应结果。
@@ -29,6 +30,33 @@ public interface ResponseHandler {
      * @param exception 异常信息
      */
     void onError(Exception exception);
+
+    /**
+     * 处理传输进度（如"发送并下载"时的下载进度），默认不处理
+     *
+     * @param transferred    已传输字节数
+     * @param total          总字节数，未知时为-1
+     * @param bytesPerSecond 平均吞吐量（字节/秒）
+     */
+    default void onProgress(long transferred, long total, double bytesPerSecond) {
+    }
+    
+    /**
+     * 处理请求被取消（用户取消或总超时），默认按异常处理
+     *
+     * @param timedOut 是否因总超时而取消
+     */
+    default void onCancelled(boolean timedOut) {
+        onError(new java.util.concurrent.CancellationException(timedOut ? "Request timed out" : "Request cancelled"));
+    }
+    
+    /**
+     * 处理本次请求的断言结果（在onSuccess之后调用），默认不处理
+     *
+     * @param results 断言结果，没有断言时为空列表
+     */
+    default void onAssertions(List<AssertionResult> results) {
+    }
     
     /**
      * 获取按钮组件，用于恢复按钮状态
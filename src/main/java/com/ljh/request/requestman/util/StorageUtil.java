@@ -6,8 +6,6 @@ import com.intellij.openapi.project.Project;
 import com.ljh.request.requestman.model.ApiInfo;
 
 import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 
 /**
@@ -33,11 +31,10 @@ public class StorageUtil {
     }
 
     /**
-     * 构建接口唯一key（项目名+url+method+参数结构hash）
+     * 构建接口唯一key（项目标识+url+method）
      */
     public static String buildApiKey(ApiInfo apiInfo, Project project) {
-        String projectName = project != null ? project.getName() : "default";
-        String base = projectName + "#" + apiInfo.getUrl() + "#" + apiInfo.getHttpMethod();
+        String base = ProjectIdentity.id(project) + "#" + apiInfo.getUrl() + "#" + apiInfo.getHttpMethod();
         return base;
     }
 
@@ -47,6 +44,16 @@ public class StorageUtil {
      * @return 缓存目录绝对路径，结尾带分隔符，系统兼容
      */
     public static String getCacheDir(Project project) {
+        // 按项目标识（项目路径哈希）创建子目录，项目改名或同名项目不影响隔离
+        return ProjectIdentity.dataDir(project).toString() + File.separator;
+    }
+
+    /**
+     * 获取缓存根目录（各项目子目录与跨项目共享数据的上级目录），优先使用用户配置
+     *
+     * @return 缓存根目录绝对路径，结尾带分隔符
+     */
+    public static String getCacheRoot() {
         String dir = PropertiesComponent.getInstance().getValue("requestman.cacheDir");
         if (dir == null || dir.isEmpty()) {
             dir = Paths.get(System.getProperty("user.home"), ".requestman_cache").toString() + File.separator;
@@ -54,22 +61,6 @@ public class StorageUtil {
         if (!dir.endsWith(File.separator)) {
             dir = dir + File.separator;
         }
-        // 按项目名称创建子目录，实现项目隔离
-        String projectName = project != null ? project.getName() : "default";
-        return dir + projectName + File.separator;
-    }
-
-    /**
-     * 检查接口参数结构是否变更，变更则清除本地缓存
-     *
-     * @param apiInfo 当前接口信息
-     */
-    public static void clearCacheIfParamChanged(ApiInfo apiInfo, Project project) {
-        String key = buildApiKey(apiInfo, project);
-        Path file = Paths.get(getCacheDir(project), key + CACHE_SUFFIX);
-        if (Files.exists(file)) {
-            // 只要参数结构hash变了，key就变了，旧文件不会被加载
-            // 可定期清理CACHE_DIR下的无用文件
-        }
+        return dir;
     }
 }
@@ -0,0 +1,134 @@
+package com.ljh.request.requestman.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 流式下载工具类，将响应流通过NIO通道直接写入磁盘，响应体不会整体驻留在堆内存中。
+ *
+ * @author leijianhui
+ * @Description 流式下载工具类，基于FileChannel.transferFrom将响应流落盘并回报进度。
+ * @date 2025/09/02 10:30
+ */
+public class StreamingDownloader {
+
+    /**
+     * 单次transferFrom的最大字节数，兼顾吞吐量与进度刷新频率
+     */
+    private static final long CHUNK_SIZE = 1024L * 1024L;
+
+    /**
+     * 进度回调最小间隔（纳秒），避免过于频繁地刷新UI
+     */
+    private static final long PROGRESS_INTERVAL_NANOS = 200_000_000L;
+
+    /**
+     * 临时文件前缀
+     */
+    private static final String TEMP_PREFIX = "requestman-download-";
+
+    /**
+     * 将输入流写入目标文件
+     *
+     * @param in       响应输入流（由调用方负责关闭）
+     * @param target   目标文件
+     * @param total    总字节数，未知时传-1
+     * @param listener 进度监听器，可为null
+     * @return 实际写入的字节数
+     * @throws IOException 读写失败
+     */
+    public static long transferToFile(InputStream in, Path target, long total, TransferProgressListener listener) throws IOException {
+        long startNanos = System.nanoTime();
+        long lastReportNanos = startNanos;
+        long position = 0;
+        ReadableByteChannel source = Channels.newChannel(in);
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IOException("Download interrupted");
+                }
+                // 阻塞通道下返回0表示源已读完
+                long transferred = out.transferFrom(source, position, CHUNK_SIZE);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                long now = System.nanoTime();
+                if (listener != null && now - lastReportNanos >= PROGRESS_INTERVAL_NANOS) {
+                    lastReportNanos = now;
+                    listener.onProgress(position, total, throughput(position, now - startNanos));
+                }
+            }
+            out.force(false);
+        }
+        if (listener != null) {
+            listener.onProgress(position, total, throughput(position, System.nanoTime() - startNanos));
+        }
+        return position;
+    }
+
+    /**
+     * 创建下载用的临时文件
+     *
+     * @param ext 文件扩展名（含点）
+     * @return 临时文件路径
+     * @throws IOException 创建失败
+     */
+    public static Path createTempTarget(String ext) throws IOException {
+        Path temp = Files.createTempFile(TEMP_PREFIX, ext);
+        temp.toFile().deleteOnExit();
+        return temp;
+    }
+
+    /**
+     * 将临时文件移动到用户选择的位置，同一文件系统下为原子重命名，不会复制数据
+     *
+     * @param temp   临时文件
+     * @param target 目标文件
+     * @throws IOException 移动失败
+     */
+    public static void moveToTarget(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // 跨文件系统时无法原子移动，退化为普通移动
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 格式化字节数，用于进度展示
+     *
+     * @param bytes 字节数
+     * @return 格式化后的字符串
+     */
+    public static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        } else if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        } else if (bytes < 1024L * 1024 * 1024) {
+            return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+        } else {
+            return String.format("%.1f GB", bytes / (1024.0 * 1024.0 * 1024.0));
+        }
+    }
+
+    /**
+     * 计算平均吞吐量
+     */
+    private static double throughput(long bytes, long elapsedNanos) {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return bytes * 1_000_000_000.0 / elapsedNanos;
+    }
+}
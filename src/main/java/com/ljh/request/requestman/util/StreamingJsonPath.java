@@ -0,0 +1,933 @@
+package com.ljh.request.requestman.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 流式JSONPath求值器：对响应内容单次顺序扫描，同时求值多个路径，不构建JSON树。
+ * 与目标路径无关的子树直接跳过（不分配对象），只有命中的值才被截取为紧凑JSON文本；
+ * 所有目标都已确定后立即停止扫描。内存占用与响应大小无关，只与命中值大小和嵌套深度有关。
+ * <p>
+ * 支持的语法：{@code $.a.b}、{@code $['a']}、{@code $.a[0]}、{@code $.a[*]}、{@code $.a.*}、
+ * {@code $..name}（递归查找）、{@code $.a[?(@.b == 'x')]}（过滤，支持 == != > < >= <= 及存在性判断）。
+ * 顶层为数组时同样支持（如 {@code $[0].id}）。
+ *
+ * @author leijianhui
+ * @Description 流式、事件驱动的JSONPath求值器，一次扫描提取多个路径且不构建DOM。
+ * @date 2025/09/11 14:00
+ */
+public final class StreamingJsonPath {
+
+    private static final int KEY = 0;
+    private static final int INDEX = 1;
+    private static final int WILDCARD = 2;
+    private static final int DESCENDANT = 3;
+    private static final int FILTER = 4;
+
+    private final String expression;
+    private final Segment[] segments;
+
+    /**
+     * 第一个非确定片段（通配、递归、过滤）的位置；确定路径为-1
+     */
+    private final int anchor;
+
+    /**
+     * 只探测命中值的类型（记录首字符），不截取内容
+     */
+    private final boolean typeProbe;
+
+    private StreamingJsonPath(String expression, Segment[] segments) {
+        this(expression, segments, false);
+    }
+
+    private StreamingJsonPath(String expression, Segment[] segments, boolean typeProbe) {
+        this.expression = expression;
+        this.segments = segments;
+        this.typeProbe = typeProbe;
+        int first = -1;
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].kind >= WILDCARD) {
+                first = i;
+                break;
+            }
+        }
+        this.anchor = first;
+    }
+
+    /**
+     * 编译JSONPath表达式
+     *
+     * @param expression 表达式，前导$可省略
+     * @return 编译结果
+     * @throws IllegalArgumentException 语法错误或不支持的语法
+     */
+    public static StreamingJsonPath compile(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new IllegalArgumentException("empty path");
+        }
+        String expr = expression.trim();
+        List<Segment> segments = new ArrayList<>();
+        int i = expr.startsWith("$") ? 1 : 0;
+        int length = expr.length();
+        if (i == 0) {
+            // 省略$时首段按字段名处理
+            i = parseName(expr, 0, segments);
+        }
+        while (i < length) {
+            char c = expr.charAt(i);
+            if (c == '.') {
+                if (i + 1 < length && expr.charAt(i + 1) == '.') {
+                    segments.add(new Segment(DESCENDANT, null, 0, null));
+                    i += 2;
+                    if (i < length && expr.charAt(i) == '[') {
+                        continue;
+                    }
+                } else {
+                    i++;
+                }
+                if (i < length && expr.charAt(i) == '*') {
+                    segments.add(new Segment(WILDCARD, null, 0, null));
+                    i++;
+                } else {
+                    i = parseName(expr, i, segments);
+                }
+            } else if (c == '[') {
+                i = parseBracket(expr, i, segments);
+            } else {
+                throw new IllegalArgumentException("unexpected '" + c + "' at " + i);
+            }
+        }
+        if (!segments.isEmpty() && segments.get(segments.size() - 1).kind == DESCENDANT) {
+            throw new IllegalArgumentException("path ends with '..'");
+        }
+        return new StreamingJsonPath(expr, segments.toArray(new Segment[0]));
+    }
+
+    private static int parseName(String expr, int start, List<Segment> segments) {
+        int j = start;
+        while (j < expr.length() && expr.charAt(j) != '.' && expr.charAt(j) != '[') {
+            j++;
+        }
+        if (j == start) {
+            throw new IllegalArgumentException("empty field name at " + start);
+        }
+        segments.add(new Segment(KEY, expr.substring(start, j), 0, null));
+        return j;
+    }
+
+    private static int parseBracket(String expr, int start, List<Segment> segments) {
+        int length = expr.length();
+        int i = start + 1;
+        if (i >= length) {
+            throw new IllegalArgumentException("unclosed '[' at " + start);
+        }
+        char c = expr.charAt(i);
+        if (c == '\'' || c == '"') {
+            int end = expr.indexOf(c, i + 1);
+            if (end < 0 || end + 1 >= length || expr.charAt(end + 1) != ']') {
+                throw new IllegalArgumentException("unclosed quoted name at " + start);
+            }
+            segments.add(new Segment(KEY, expr.substring(i + 1, end), 0, null));
+            return end + 2;
+        }
+        if (c == '*') {
+            if (i + 1 >= length || expr.charAt(i + 1) != ']') {
+                throw new IllegalArgumentException("unclosed '[' at " + start);
+            }
+            segments.add(new Segment(WILDCARD, null, 0, null));
+            return i + 2;
+        }
+        if (c == '?') {
+            if (i + 1 >= length || expr.charAt(i + 1) != '(') {
+                throw new IllegalArgumentException("filter must be [?(...)] at " + start);
+            }
+            int end = findFilterEnd(expr, i + 2);
+            segments.add(new Segment(FILTER, null, 0, Filter.parse(expr.substring(i + 2, end))));
+            return end + 2;
+        }
+        int end = expr.indexOf(']', i);
+        if (end < 0) {
+            throw new IllegalArgumentException("unclosed '[' at " + start);
+        }
+        String index = expr.substring(i, end).trim();
+        try {
+            int value = Integer.parseInt(index);
+            if (value < 0) {
+                throw new IllegalArgumentException("negative index is not supported: " + index);
+            }
+            segments.add(new Segment(INDEX, null, value, null));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid index: " + index);
+        }
+        return end + 1;
+    }
+
+    /**
+     * 查找过滤表达式的结束位置（与起始括号配对的")"，其后须为"]"）
+     */
+    private static int findFilterEnd(String expr, int from) {
+        int depth = 0;
+        char quote = 0;
+        for (int k = from; k < expr.length(); k++) {
+            char c = expr.charAt(k);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (depth == 0) {
+                    if (k + 1 >= expr.length() || expr.charAt(k + 1) != ']') {
+                        throw new IllegalArgumentException("filter must end with )]");
+                    }
+                    return k;
+                }
+                depth--;
+            }
+        }
+        throw new IllegalArgumentException("unclosed filter");
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * 是否为确定路径（最多一个结果）
+     */
+    public boolean isDefinite() {
+        return anchor < 0;
+    }
+
+    /**
+     * 生成同一路径的类型探测版本：命中时只记录值的首字符（'{'、'['、'"'、数字、't'、'f'、'n'），
+     * 不截取内容，用于结构校验
+     *
+     * @return 类型探测路径
+     */
+    public StreamingJsonPath typeProbe() {
+        return new StreamingJsonPath(expression, segments, true);
+    }
+
+    /**
+     * 将一次扫描中该路径的原始命中转换为结果值：确定路径取第一个命中并解码（null命中返回null），
+     * 非确定路径返回所有命中组成的JSON数组
+     *
+     * @param matches 原始命中（紧凑JSON文本）
+     * @return 结果，未命中返回null
+     */
+    public String toValue(List<String> matches) {
+        if (matches == null || matches.isEmpty()) {
+            return null;
+        }
+        return isDefinite() ? decode(matches.get(0)) : "[" + String.join(",", matches) + "]";
+    }
+
+    /**
+     * 对字符串求值单个路径
+     *
+     * @param json JSON文本
+     * @param path JSONPath表达式
+     * @return 结果，未命中或语法错误返回null
+     */
+    public static String evaluate(String json, String path) {
+        if (json == null || path == null) {
+            return null;
+        }
+        try {
+            StreamingJsonPath compiled = compile(path);
+            return evaluate(new StringReader(json), Collections.singletonList(compiled)).get(compiled.expression);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 对字节流单次扫描求值多个路径
+     *
+     * @param in      响应字节流
+     * @param charset 字符集
+     * @param paths   已编译的路径
+     * @return 表达式 -> 结果
+     */
+    public static Map<String, String> evaluate(InputStream in, Charset charset, Collection<StreamingJsonPath> paths) {
+        return evaluate(new InputStreamReader(in, charset), paths);
+    }
+
+    /**
+     * 单次扫描求值多个路径。确定路径返回命中的值（字符串为解码后的内容，对象/数组为紧凑JSON），
+     * 非确定路径返回所有命中值组成的JSON数组；未命中（或确定路径命中null）的表达式不出现在结果中。
+     * 非法JSON时返回扫描到出错位置为止的结果。
+     *
+     * @param reader 输入
+     * @param paths  已编译的路径
+     * @return 表达式 -> 结果
+     */
+    public static Map<String, String> evaluate(Reader reader, Collection<StreamingJsonPath> paths) {
+        Map<String, String> results = new LinkedHashMap<>();
+        for (Map.Entry<StreamingJsonPath, List<String>> entry : scan(reader, paths).entrySet()) {
+            String value = entry.getKey().toValue(entry.getValue());
+            if (value != null) {
+                results.putIfAbsent(entry.getKey().expression, value);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 单次扫描，返回每个路径的全部原始命中（紧凑JSON文本；类型探测路径为首字符）。
+     * 结果以路径对象为key，同一表达式的不同路径对象（如普通与类型探测版本）互不影响。
+     *
+     * @param reader 输入
+     * @param paths  已编译的路径
+     * @return 路径 -> 原始命中列表
+     */
+    public static Map<StreamingJsonPath, List<String>> scan(Reader reader, Collection<StreamingJsonPath> paths) {
+        Map<StreamingJsonPath, List<String>> results = new LinkedHashMap<>();
+        if (paths == null || paths.isEmpty()) {
+            return results;
+        }
+        Scan scan = new Scan(new Tokenizer(reader), paths);
+        try {
+            scan.run();
+        } catch (StopScan ignored) {
+            // 所有目标已确定，提前结束
+        } catch (IOException | IllegalStateException e) {
+            LogUtil.debug("流式JSONPath扫描中止: " + e.getMessage());
+        }
+        for (Target target : scan.targets) {
+            results.put(target.path, target.matches);
+        }
+        return results;
+    }
+
+    /**
+     * 将命中的紧凑JSON文本转换为结果值：字符串解码、null返回null、其余原样
+     */
+    private static String decode(String raw) {
+        if ("null".equals(raw)) {
+            return null;
+        }
+        if (raw.startsWith("\"")) {
+            try {
+                return new Tokenizer(new StringReader(raw)).readString();
+            } catch (IOException e) {
+                return raw;
+            }
+        }
+        return raw;
+    }
+
+    /**
+     * 路径片段
+     */
+    private static final class Segment {
+        final int kind;
+        final String name;
+        final int index;
+        final Filter filter;
+
+        Segment(int kind, String name, int index, Filter filter) {
+            this.kind = kind;
+            this.name = name;
+            this.index = index;
+            this.filter = filter;
+        }
+
+        boolean matches(Object step) {
+            switch (kind) {
+                case KEY:
+                    return step instanceof String && name.equals(step);
+                case INDEX:
+                    return step instanceof Integer && (Integer) step == index;
+                default:
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * 过滤条件：@.相对路径 [运算符 字面量]
+     */
+    private static final class Filter {
+        final StreamingJsonPath left;
+        final String operator;
+        final String literal;
+        final boolean literalString;
+
+        private Filter(StreamingJsonPath left, String operator, String literal, boolean literalString) {
+            this.left = left;
+            this.operator = operator;
+            this.literal = literal;
+            this.literalString = literalString;
+        }
+
+        static Filter parse(String text) {
+            String expr = text.trim();
+            if (!expr.startsWith("@")) {
+                throw new IllegalArgumentException("filter must start with @: " + text);
+            }
+            String[] operators = {"==", "!=", ">=", "<=", ">", "<"};
+            int opIndex = -1;
+            String operator = null;
+            for (String op : operators) {
+                int k = indexOutsideQuotes(expr, op);
+                if (k > 0 && (opIndex < 0 || k < opIndex)) {
+                    opIndex = k;
+                    operator = op;
+                }
+            }
+            String leftText = (opIndex < 0 ? expr : expr.substring(0, opIndex)).trim();
+            String relative = leftText.length() > 1 ? leftText.substring(1) : "";
+            StreamingJsonPath left = compile("$" + relative);
+            if (left.anchor >= 0) {
+                throw new IllegalArgumentException("filter operand must be a simple path: " + leftText);
+            }
+            if (operator == null) {
+                return new Filter(left, null, null, false);
+            }
+            String literal = expr.substring(opIndex + operator.length()).trim();
+            if (literal.isEmpty()) {
+                throw new IllegalArgumentException("missing filter value: " + text);
+            }
+            boolean quoted = literal.length() >= 2 && (literal.charAt(0) == '\'' || literal.charAt(0) == '"')
+                    && literal.charAt(literal.length() - 1) == literal.charAt(0);
+            return new Filter(left, operator, quoted ? literal.substring(1, literal.length() - 1) : literal, quoted);
+        }
+
+        private static int indexOutsideQuotes(String expr, String token) {
+            char quote = 0;
+            for (int k = 0; k < expr.length(); k++) {
+                char c = expr.charAt(k);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (expr.startsWith(token, k)) {
+                    return k;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 在单个候选元素（紧凑JSON文本）上判断过滤条件
+         */
+        boolean test(String element) {
+            String raw = evaluateRaw(element, left);
+            if (operator == null) {
+                return raw != null && !"null".equals(raw) && !"false".equals(raw);
+            }
+            if (raw == null) {
+                return "!=".equals(operator);
+            }
+            boolean rawString = raw.startsWith("\"");
+            String value = rawString ? decode(raw) : raw;
+            int cmp;
+            if (!rawString && !literalString && isNumber(value) && isNumber(literal)) {
+                cmp = new BigDecimal(value).compareTo(new BigDecimal(literal));
+            } else if ("==".equals(operator) || "!=".equals(operator)) {
+                boolean equal = rawString == literalString && literal.equals(value);
+                return "==".equals(operator) == equal;
+            } else {
+                cmp = value.compareTo(literal);
+            }
+            switch (operator) {
+                case "==":
+                    return cmp == 0;
+                case "!=":
+                    return cmp != 0;
+                case ">":
+                    return cmp > 0;
+                case "<":
+                    return cmp < 0;
+                case ">=":
+                    return cmp >= 0;
+                default:
+                    return cmp <= 0;
+            }
+        }
+
+        private static boolean isNumber(String value) {
+            try {
+                new BigDecimal(value);
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 在紧凑JSON文本上求值确定路径，返回命中的原始JSON文本
+     */
+    private static String evaluateRaw(String json, StreamingJsonPath path) {
+        Scan scan = new Scan(new Tokenizer(new StringReader(json)), Collections.singletonList(path));
+        try {
+            scan.run();
+        } catch (StopScan ignored) {
+            // 已命中
+        } catch (IOException | IllegalStateException e) {
+            return null;
+        }
+        List<String> matches = scan.targets.get(0).matches;
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    /**
+     * 单个路径在一次扫描中的状态
+     */
+    private static final class Target {
+        final StreamingJsonPath path;
+        final List<String> matches = new ArrayList<>();
+        boolean done;
+
+        Target(StreamingJsonPath path) {
+            this.path = path;
+        }
+    }
+
+    /**
+     * 当前位置与某个路径的匹配结果
+     */
+    private static final class Match {
+        boolean full;
+        boolean prefix;
+        int probe = -1;
+
+        void reset() {
+            full = false;
+            prefix = false;
+            probe = -1;
+        }
+    }
+
+    /**
+     * 提前结束扫描的信号（不填充堆栈）
+     */
+    private static final class StopScan extends RuntimeException {
+        private static final StopScan INSTANCE = new StopScan();
+
+        private StopScan() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * 一次扫描：按当前位置栈决定每个值是跳过、继续深入还是截取
+     */
+    private static final class Scan {
+        private final Tokenizer tokenizer;
+        private final List<Target> targets = new ArrayList<>();
+        private final List<Object> stack = new ArrayList<>();
+        private final Match match = new Match();
+        private int remaining;
+
+        Scan(Tokenizer tokenizer, Collection<StreamingJsonPath> paths) {
+            this.tokenizer = tokenizer;
+            for (StreamingJsonPath path : paths) {
+                targets.add(new Target(path));
+            }
+            this.remaining = targets.size();
+        }
+
+        void run() throws IOException {
+            walk();
+        }
+
+        private void walk() throws IOException {
+            List<Target> full = null;
+            List<Target> probes = null;
+            List<Integer> probeSegments = null;
+            boolean descend = false;
+            int c = tokenizer.peek();
+            for (Target target : targets) {
+                if (target.done) {
+                    continue;
+                }
+                match.reset();
+                status(target.path.segments, 0, 0);
+                if (match.full && target.path.typeProbe) {
+                    target.matches.add(c < 0 ? "" : String.valueOf((char) c));
+                    if (target.path.isDefinite()) {
+                        finish(target);
+                    }
+                } else if (match.full) {
+                    full = add(full, target);
+                }
+                if (match.probe >= 0) {
+                    probes = add(probes, target);
+                    probeSegments = add(probeSegments, match.probe);
+                }
+                descend |= match.prefix;
+            }
+            boolean capture = full != null || probes != null;
+            if (capture) {
+                tokenizer.beginCapture();
+            }
+            if (c == '{') {
+                if (descend) {
+                    walkObject();
+                } else {
+                    tokenizer.skipValue();
+                }
+            } else if (c == '[') {
+                if (descend) {
+                    walkArray();
+                } else {
+                    tokenizer.skipValue();
+                }
+            } else {
+                tokenizer.skipValue();
+            }
+            if (capture) {
+                String raw = tokenizer.endCapture();
+                if (full != null) {
+                    for (Target target : full) {
+                        target.matches.add(raw);
+                        if (target.path.isDefinite()) {
+                            finish(target);
+                        }
+                    }
+                }
+                if (probes != null) {
+                    for (int k = 0; k < probes.size(); k++) {
+                        probe(probes.get(k), probeSegments.get(k), raw);
+                    }
+                }
+            }
+            if (c == '{' || c == '[') {
+                closeAnchors();
+            }
+        }
+
+        private void walkObject() throws IOException {
+            tokenizer.expect('{');
+            if (tokenizer.peek() == '}') {
+                tokenizer.expect('}');
+                return;
+            }
+            while (true) {
+                String name = tokenizer.readString();
+                tokenizer.expect(':');
+                stack.add(name);
+                walk();
+                stack.remove(stack.size() - 1);
+                int c = tokenizer.peek();
+                if (c == ',') {
+                    tokenizer.expect(',');
+                } else {
+                    tokenizer.expect('}');
+                    return;
+                }
+            }
+        }
+
+        private void walkArray() throws IOException {
+            tokenizer.expect('[');
+            if (tokenizer.peek() == ']') {
+                tokenizer.expect(']');
+                return;
+            }
+            int index = 0;
+            while (true) {
+                stack.add(index++);
+                walk();
+                stack.remove(stack.size() - 1);
+                int c = tokenizer.peek();
+                if (c == ',') {
+                    tokenizer.expect(',');
+                } else {
+                    tokenizer.expect(']');
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 计算位置栈[i..]与路径片段[j..]的匹配情况，结果累积到match
+         */
+        private void status(Segment[] segments, int i, int j) {
+            int depth = stack.size();
+            if (j == segments.length) {
+                if (i == depth) {
+                    match.full = true;
+                }
+                return;
+            }
+            if (i == depth) {
+                match.prefix = true;
+                return;
+            }
+            Segment segment = segments[j];
+            if (segment.kind == DESCENDANT) {
+                // 跳过任意层级
+                status(segments, i, j + 1);
+                status(segments, i + 1, j);
+                return;
+            }
+            if (segment.kind == FILTER) {
+                // 过滤片段作用于容器的每个子元素：在该元素处截取并判断，剩余路径在截取内容上求值
+                if (i == depth - 1 && match.probe < 0) {
+                    match.probe = j;
+                }
+                return;
+            }
+            if (segment.matches(stack.get(i))) {
+                status(segments, i + 1, j + 1);
+            }
+        }
+
+        private void probe(Target target, int segmentIndex, String element) {
+            Segment[] segments = target.path.segments;
+            if (!segments[segmentIndex].filter.test(element)) {
+                return;
+            }
+            if (segmentIndex == segments.length - 1) {
+                target.matches.add(target.path.typeProbe ? element.substring(0, 1) : element);
+                return;
+            }
+            Segment[] rest = new Segment[segments.length - segmentIndex - 1];
+            System.arraycopy(segments, segmentIndex + 1, rest, 0, rest.length);
+            Scan sub = new Scan(new Tokenizer(new StringReader(element)),
+                    Collections.singletonList(new StreamingJsonPath("$", rest, target.path.typeProbe)));
+            try {
+                sub.run();
+            } catch (StopScan ignored) {
+                // 已命中
+            } catch (IOException | IllegalStateException e) {
+                return;
+            }
+            target.matches.addAll(sub.targets.get(0).matches);
+        }
+
+        /**
+         * 离开非确定路径的锚点容器后，该路径不会再有新的命中
+         */
+        private void closeAnchors() {
+            for (Target target : targets) {
+                int anchor = target.path.anchor;
+                if (target.done || anchor < 0 || stack.size() != anchor) {
+                    continue;
+                }
+                boolean same = true;
+                for (int k = 0; k < anchor && same; k++) {
+                    same = target.path.segments[k].matches(stack.get(k));
+                }
+                if (same) {
+                    finish(target);
+                }
+            }
+        }
+
+        private void finish(Target target) {
+            if (!target.done) {
+                target.done = true;
+                if (--remaining == 0) {
+                    throw StopScan.INSTANCE;
+                }
+            }
+        }
+
+        private static <T> List<T> add(List<T> list, T value) {
+            List<T> result = list != null ? list : new ArrayList<>(2);
+            result.add(value);
+            return result;
+        }
+    }
+
+    /**
+     * 基于Reader的JSON词法扫描器，固定大小缓冲区；截取时仅记录有效字符（字符串外的空白被丢弃）
+     */
+    private static final class Tokenizer {
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private final List<StringBuilder> captures = new ArrayList<>(2);
+
+        Tokenizer(Reader reader) {
+            this.reader = reader;
+        }
+
+        void beginCapture() {
+            captures.add(new StringBuilder());
+        }
+
+        String endCapture() {
+            return captures.remove(captures.size() - 1).toString();
+        }
+
+        private boolean fill() throws IOException {
+            if (position < limit) {
+                return true;
+            }
+            int n = reader.read(buffer, 0, buffer.length);
+            if (n <= 0) {
+                return false;
+            }
+            position = 0;
+            limit = n;
+            return true;
+        }
+
+        /**
+         * 跳过空白后查看下一个字符，不消费；到达末尾返回-1
+         */
+        int peek() throws IOException {
+            while (fill()) {
+                char c = buffer[position];
+                if (c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\uFEFF') {
+                    position++;
+                } else {
+                    return c;
+                }
+            }
+            return -1;
+        }
+
+        private char next() throws IOException {
+            if (!fill()) {
+                throw new IllegalStateException("unexpected end of JSON");
+            }
+            char c = buffer[position++];
+            if (!captures.isEmpty()) {
+                for (StringBuilder capture : captures) {
+                    capture.append(c);
+                }
+            }
+            return c;
+        }
+
+        void expect(char expected) throws IOException {
+            int c = peek();
+            if (c != expected) {
+                throw new IllegalStateException("expected '" + expected + "' but was " + (c < 0 ? "EOF" : "'" + (char) c + "'"));
+            }
+            next();
+        }
+
+        /**
+         * 读取并解码字符串
+         */
+        String readString() throws IOException {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c == '\\') {
+                    char e = next();
+                    switch (e) {
+                        case 'n':
+                            sb.append('\n');
+                            break;
+                        case 't':
+                            sb.append('\t');
+                            break;
+                        case 'r':
+                            sb.append('\r');
+                            break;
+                        case 'b':
+                            sb.append('\b');
+                            break;
+                        case 'f':
+                            sb.append('\f');
+                            break;
+                        case 'u':
+                            char[] hex = {next(), next(), next(), next()};
+                            try {
+                                sb.append((char) Integer.parseInt(new String(hex), 16));
+                            } catch (NumberFormatException ex) {
+                                throw new IllegalStateException("invalid unicode escape");
+                            }
+                            break;
+                        default:
+                            sb.append(e);
+                    }
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+
+        /**
+         * 跳过字符串（不解码）
+         */
+        private void skipString() throws IOException {
+            next();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return;
+                }
+                if (c == '\\') {
+                    next();
+                }
+            }
+        }
+
+        /**
+         * 跳过一个完整的值，迭代处理嵌套，不分配对象
+         */
+        void skipValue() throws IOException {
+            int depth = 0;
+            do {
+                int c = peek();
+                if (c < 0) {
+                    throw new IllegalStateException("unexpected end of JSON");
+                }
+                if (c == '"') {
+                    skipString();
+                } else if (c == '{' || c == '[') {
+                    next();
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    next();
+                    depth--;
+                } else if (c == ',' || c == ':') {
+                    next();
+                } else {
+                    skipLiteral();
+                }
+            } while (depth > 0);
+        }
+
+        /**
+         * 跳过数字、true、false、null
+         */
+        private void skipLiteral() throws IOException {
+            boolean consumed = false;
+            while (fill()) {
+                char c = buffer[position];
+                if (c == ',' || c == '}' || c == ']' || c == ':' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                    break;
+                }
+                next();
+                consumed = true;
+            }
+            if (!consumed) {
+                throw new IllegalStateException("unexpected end of JSON");
+            }
+        }
+    }
+}
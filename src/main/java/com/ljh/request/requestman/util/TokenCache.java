@@ -0,0 +1,146 @@
+package com.ljh.request.requestman.util;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 进程内共享的令牌缓存：令牌在到期前被所有请求复用，到期（或临近到期）后由第一个请求刷新，
+ * 刷新期间其它并发请求等待同一次刷新结果（single-flight），避免批量运行时每个请求都重新登录。
+ *
+ * @author leijianhui
+ * @Description 带过期时间与单飞刷新的令牌缓存。
+ * @date 2025/09/13 10:00
+ */
+public final class TokenCache {
+
+    /**
+     * 提前刷新的最大余量，避免令牌在请求途中过期
+     */
+    private static final long REFRESH_MARGIN_MS = 30_000L;
+
+    private static final Map<String, CompletableFuture<Token>> TOKENS = new ConcurrentHashMap<>();
+
+    private TokenCache() {
+    }
+
+    /**
+     * 令牌及其有效期
+     */
+    public static final class Token {
+        private final String value;
+        private final long issuedAt;
+        private final long expiresAt;
+
+        /**
+         * @param value     令牌
+         * @param ttlMillis 有效期（毫秒）
+         */
+        public Token(String value, long ttlMillis) {
+            this.value = value;
+            this.issuedAt = System.currentTimeMillis();
+            this.expiresAt = issuedAt + Math.max(0, ttlMillis);
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        /**
+         * 是否仍可使用：有效期较短的令牌按十分之一有效期提前刷新
+         */
+        public boolean isFresh() {
+            long margin = Math.min(REFRESH_MARGIN_MS, (expiresAt - issuedAt) / 10);
+            return System.currentTimeMillis() < expiresAt - margin;
+        }
+    }
+
+    /**
+     * 获取令牌，缓存缺失或过期时调用loader刷新；同一key同时只有一次刷新在进行
+     *
+     * @param key    缓存键（通常为渲染后的获取请求）
+     * @param loader 刷新逻辑
+     * @return 令牌
+     * @throws Exception 刷新失败
+     */
+    public static String get(String key, Callable<Token> loader) throws Exception {
+        return getToken(key, loader).getValue();
+    }
+
+    /**
+     * 获取令牌对象（含有效期），语义同{@link #get(String, Callable)}
+     */
+    public static Token getToken(String key, Callable<Token> loader) throws Exception {
+        while (true) {
+            CompletableFuture<Token> existing = TOKENS.get(key);
+            if (existing != null) {
+                Token token;
+                try {
+                    // 进行中的刷新在此等待，已完成的直接取结果
+                    token = existing.get();
+                } catch (ExecutionException | CancellationException e) {
+                    TOKENS.remove(key, existing);
+                    if (e instanceof ExecutionException && e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    if (e instanceof ExecutionException && e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    throw e;
+                }
+                if (token != null && token.isFresh()) {
+                    return token;
+                }
+                TOKENS.remove(key, existing);
+                continue;
+            }
+            CompletableFuture<Token> refresh = new CompletableFuture<>();
+            if (TOKENS.putIfAbsent(key, refresh) != null) {
+                continue;
+            }
+            try {
+                Token token = loader.call();
+                refresh.complete(token);
+                return token;
+            } catch (Throwable e) {
+                // 失败结果不缓存，等待中的请求收到同一个异常；Error也需结束刷新，否则等待者会一直阻塞
+                TOKENS.remove(key, refresh);
+                refresh.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 使被服务端拒绝（如返回401）的令牌失效：只有缓存中仍是该令牌时才移除，
+     * 并发请求已刷新得到的新令牌不受影响
+     *
+     * @param key      缓存键
+     * @param rejected 被拒绝的令牌
+     */
+    public static void invalidate(String key, String rejected) {
+        CompletableFuture<Token> existing = TOKENS.get(key);
+        if (existing == null || !existing.isDone() || existing.isCompletedExceptionally()) {
+            return;
+        }
+        Token token = existing.getNow(null);
+        if (token != null && Objects.equals(token.getValue(), rejected)) {
+            TOKENS.remove(key, existing);
+        }
+    }
+
+    /**
+     * 清空所有缓存的令牌
+     */
+    public static void clear() {
+        TOKENS.clear();
+    }
+}
@@ -0,0 +1,21 @@
+package com.ljh.request.requestman.util;
+
+/**
+ * 传输进度监听器，用于上传/下载过程中回报已传输字节数与吞吐量。
+ *
+ * @author leijianhui
+ * @Description 传输进度监听器，回报已传输字节数、总字节数与实时吞吐量。
+ * @date 2025/09/02 10:20
+ */
+@FunctionalInterface
+public interface TransferProgressListener {
+
+    /**
+     * 传输进度回调（在传输线程中调用，实现方如需更新UI需自行切换到EDT）
+     *
+     * @param transferred    已传输字节数
+     * @param total          总字节数，未知时为-1
+     * @param bytesPerSecond 平均吞吐量（字节/秒）
+     */
+    void onProgress(long transferred, long total, double bytesPerSecond);
+}
@@ -0,0 +1,215 @@
+package com.ljh.request.requestman.util;
+
+import cn.hutool.core.io.resource.FileResource;
+import cn.hutool.core.io.resource.NoResourceException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 上传文件资源，供form-data文件字段与binary请求体使用。
+ * 文件内容在发送时按块从磁盘读取（大文件使用内存映射分段读取），配合分块传输模式，整个文件不会被读入堆内存。
+ *
+ * @author leijianhui
+ * @Description 流式上传文件资源，按块读取磁盘文件并回报上传进度。
+ * @date 2025/09/03 14:10
+ */
+public class UploadFileResource extends FileResource {
+
+    private static final long serialVersionUID = -3160845318223394207L;
+
+    /**
+     * 超过该大小的文件使用内存映射分段读取
+     */
+    private static final long MMAP_THRESHOLD = 64L * 1024 * 1024;
+
+    /**
+     * 内存映射单段大小
+     */
+    private static final long MMAP_WINDOW_SIZE = 32L * 1024 * 1024;
+
+    /**
+     * 上传进度汇总
+     */
+    private final transient Progress progress;
+
+    /**
+     * 构造方法
+     *
+     * @param file     上传文件
+     * @param progress 上传进度汇总，可为null
+     */
+    public UploadFileResource(File file, Progress progress) {
+        super(file);
+        this.progress = progress;
+        if (progress != null) {
+            progress.register(file.length());
+        }
+    }
+
+    @Override
+    public InputStream getStream() throws NoResourceException {
+        File file = getFile();
+        try {
+            InputStream in = file.length() >= MMAP_THRESHOLD
+                    ? new MappedFileInputStream(FileChannel.open(file.toPath(), StandardOpenOption.READ))
+                    : Channels.newInputStream(FileChannel.open(file.toPath(), StandardOpenOption.READ));
+            return progress != null ? new ProgressInputStream(in, progress) : in;
+        } catch (IOException e) {
+            throw new NoResourceException(e);
+        }
+    }
+
+    /**
+     * 上传进度汇总，一个请求中的多个文件共享同一个实例
+     */
+    public static class Progress {
+        /**
+         * 进度回调最小间隔（纳秒）
+         */
+        private static final long PROGRESS_INTERVAL_NANOS = 200_000_000L;
+
+        private final TransferProgressListener listener;
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong transferred = new AtomicLong();
+        private volatile long startNanos;
+        private volatile long lastReportNanos;
+
+        public Progress(TransferProgressListener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * 登记一个待上传文件的大小
+         */
+        void register(long size) {
+            total.addAndGet(size);
+        }
+
+        /**
+         * 累加已上传字节数，并按间隔回调监听器
+         */
+        void add(long bytes) {
+            long now = System.nanoTime();
+            if (startNanos == 0) {
+                startNanos = now;
+            }
+            long done = transferred.addAndGet(bytes);
+            boolean finished = done >= total.get();
+            if (listener != null && (finished || now - lastReportNanos >= PROGRESS_INTERVAL_NANOS)) {
+                lastReportNanos = now;
+                long elapsed = now - startNanos;
+                listener.onProgress(done, total.get(), elapsed > 0 ? done * 1_000_000_000.0 / elapsed : 0);
+            }
+        }
+
+        /**
+         * 是否登记了待上传的文件
+         */
+        public boolean hasFiles() {
+            return total.get() > 0;
+        }
+    }
+
+    /**
+     * 统计读取字节数的输入流
+     */
+    private static class ProgressInputStream extends InputStream {
+        private final InputStream delegate;
+        private final Progress progress;
+
+        ProgressInputStream(InputStream delegate, Progress progress) {
+            this.delegate = delegate;
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                progress.add(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = delegate.read(b, off, len);
+            if (n > 0) {
+                progress.add(n);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    /**
+     * 基于内存映射的顺序读取输入流，按固定窗口逐段映射文件，避免一次映射超大文件
+     */
+    private static class MappedFileInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedFileInputStream(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        /**
+         * 确保当前窗口仍有可读数据，必要时映射下一段
+         *
+         * @return 是否还有数据
+         */
+        private boolean ensureWindow() throws IOException {
+            if (window != null && window.hasRemaining()) {
+                return true;
+            }
+            long next = window == null ? 0 : windowStart + window.capacity();
+            if (next >= size) {
+                return false;
+            }
+            windowStart = next;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, next, Math.min(MMAP_WINDOW_SIZE, size - next));
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureWindow()) {
+                return -1;
+            }
+            return window.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!ensureWindow()) {
+                return -1;
+            }
+            int n = Math.min(len, window.remaining());
+            window.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            window = null;
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.ljh.request.requestman.util;
+
+import com.intellij.openapi.project.Project;
+import com.ljh.request.requestman.model.Environment;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分层变量上下文：请求 -> 迭代 -> 集合 -> 环境 -> 全局。
+ * 查找沿链自上而下进行；写入只落在当前层，并发请求各自持有独立的请求层，互不干扰；
+ * 写入全局变量池必须显式调用promote。
+ *
+ * @author leijianhui
+ * @Description 分层变量上下文，为并行执行提供隔离的请求级变量作用域。
+ * @date 2025/09/10 15:00
+ */
+public class VariableContext {
+
+    /**
+     * 变量作用域，由低到高
+     */
+    public enum Scope {
+        GLOBAL, ENVIRONMENT, COLLECTION, ITERATION, REQUEST
+    }
+
+    private final Project project;
+    private final Scope scope;
+    private final VariableContext parent;
+
+    /**
+     * 当前层变量；全局层不使用，直接读写项目变量池
+     */
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+
+    private VariableContext(Project project, Scope scope, VariableContext parent) {
+        this.project = project;
+        this.scope = scope;
+        this.parent = parent;
+    }
+
+    /**
+     * 创建根上下文：全局层 + 当前环境层
+     *
+     * @param project 项目对象
+     * @return 环境层上下文
+     */
+    public static VariableContext root(Project project) {
+        VariableContext global = new VariableContext(project, Scope.GLOBAL, null);
+        Environment env = ProjectSettingsManager.getCurrentEnvironment(project);
+        return global.child(Scope.ENVIRONMENT, env != null ? env.getVariables() : null);
+    }
+
+    /**
+     * 创建单个请求的上下文（全局 -> 环境 -> 请求）
+     *
+     * @param project 项目对象
+     * @return 请求层上下文
+     */
+    public static VariableContext forRequest(Project project) {
+        return root(project).child(Scope.REQUEST);
+    }
+
+    /**
+     * 创建子层
+     *
+     * @param childScope 子层作用域
+     * @return 子层上下文
+     */
+    public VariableContext child(Scope childScope) {
+        return child(childScope, null);
+    }
+
+    /**
+     * 创建带初始变量的子层
+     *
+     * @param childScope 子层作用域
+     * @param initial    初始变量，可为null
+     * @return 子层上下文
+     */
+    public VariableContext child(Scope childScope, Map<String, String> initial) {
+        VariableContext child = new VariableContext(project, childScope, this);
+        child.putAll(initial);
+        return child;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    /**
+     * 沿链查找变量
+     *
+     * @param name 变量名
+     * @return 变量值，不存在时返回null
+     */
+    public String get(String name) {
+        for (VariableContext ctx = this; ctx != null; ctx = ctx.parent) {
+            String value = ctx.scope == Scope.GLOBAL ? VariableManager.get(project, name) : ctx.values.get(name);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 写入当前层（全局层即写入项目变量池）
+     *
+     * @param name  变量名
+     * @param value 变量值
+     */
+    public void put(String name, String value) {
+        if (name == null) {
+            return;
+        }
+        if (scope == Scope.GLOBAL) {
+            VariableManager.put(project, name, value);
+        } else {
+            values.put(name, value != null ? value : "");
+        }
+    }
+
+    /**
+     * 批量写入当前层
+     *
+     * @param variables 变量，可为null
+     */
+    public void putAll(Map<String, String> variables) {
+        if (variables == null || variables.isEmpty()) {
+            return;
+        }
+        if (scope == Scope.GLOBAL) {
+            VariableManager.putAll(project, variables);
+        } else {
+            variables.forEach(this::put);
+        }
+    }
+
+    /**
+     * 当前层自身的变量（不含上层）
+     *
+     * @return 只读视图
+     */
+    public Map<String, String> getLocalValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * 将当前层的指定变量显式提升到全局变量池
+     *
+     * @param name 变量名
+     */
+    public void promote(String name) {
+        String value = get(name);
+        if (value != null) {
+            VariableManager.put(project, name, value);
+        }
+    }
+
+    /**
+     * 将当前层全部变量显式提升到全局变量池（一次批量写入）
+     */
+    public void promoteAll() {
+        if (scope != Scope.GLOBAL && !values.isEmpty()) {
+            VariableManager.putAll(project, new HashMap<>(values));
+        }
+    }
+
+    /**
+     * 合并为单个Map（上层覆盖下层），供一次请求的模板渲染使用
+     *
+     * @return 变量快照
+     */
+    public Map<String, String> flatten() {
+        if (scope == Scope.GLOBAL) {
+            return VariableManager.getAll(project);
+        }
+        Map<String, String> base = parent != null ? parent.flatten() : Collections.emptyMap();
+        if (values.isEmpty()) {
+            return base;
+        }
+        Map<String, String> merged = new HashMap<>(base);
+        merged.putAll(values);
+        return merged;
+    }
+}
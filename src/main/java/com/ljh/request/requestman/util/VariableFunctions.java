@@ -0,0 +1,176 @@
+package com.ljh.request.requestman.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 动态变量函数注册表，供{{$函数名(参数...)}}占位符使用。
+ * 函数在模板编译时解析，每次渲染求值；随机数使用ThreadLocalRandom，
+ * 摘要与HMAC实例每次调用创建（创建开销很小，请求可能运行在虚拟线程上，按线程缓存不能复用），高并发下无锁竞争。
+ *
+ * @author leijianhui
+ * @Description 动态变量函数：时间戳、UUID、随机数据、哈希、编码、假数据等。
+ * @date 2025/09/09 10:30
+ */
+public class VariableFunctions {
+
+    /**
+     * 动态变量函数
+     */
+    @FunctionalInterface
+    public interface VariableFunction {
+        /**
+         * 求值
+         *
+         * @param args 已渲染的参数
+         * @return 函数结果
+         */
+        String apply(List<String> args);
+    }
+
+    /**
+     * 函数名（不含$） -> 函数
+     */
+    private static final Map<String, VariableFunction> FUNCTIONS = new ConcurrentHashMap<>();
+
+    private static final char[] ALPHANUMERIC = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Linda", "Robert", "Emma", "Michael", "Olivia",
+            "David", "Sophia", "Daniel", "Mia", "Lucas", "Chloe", "Ethan", "Grace"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Brown", "Taylor", "Miller", "Wilson", "Moore",
+            "Clark", "Lewis", "Walker", "Hall", "Young", "King", "Wright", "Green", "Baker"};
+    private static final String[] CITIES = {"Beijing", "Shanghai", "Shenzhen", "Hangzhou", "London", "Paris", "Berlin",
+            "Tokyo", "New York", "Toronto", "Sydney", "Singapore"};
+    private static final String[] DOMAINS = {"example.com", "example.org", "test.com", "mail.test"};
+
+    static {
+        // 时间
+        register("timestamp", args -> String.valueOf(System.currentTimeMillis() / 1000));
+        register("timestampMs", args -> String.valueOf(System.currentTimeMillis()));
+        register("isoTimestamp", args -> Instant.now().toString());
+        // 唯一标识
+        register("uuid", args -> UUID.randomUUID().toString());
+        register("guid", args -> UUID.randomUUID().toString());
+        // 随机数据
+        register("randomInt", args -> {
+            int min = args.size() > 0 ? parseInt(args.get(0), 0) : 0;
+            int max = args.size() > 1 ? parseInt(args.get(1), 1000) : 1000;
+            if (max < min) {
+                int t = min;
+                min = max;
+                max = t;
+            }
+            return String.valueOf(ThreadLocalRandom.current().nextLong(min, (long) max + 1));
+        });
+        register("randomString", args -> {
+            int length = args.size() > 0 ? Math.max(0, parseInt(args.get(0), 8)) : 8;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = ALPHANUMERIC[random.nextInt(ALPHANUMERIC.length)];
+            }
+            return new String(chars);
+        });
+        register("randomBoolean", args -> String.valueOf(ThreadLocalRandom.current().nextBoolean()));
+        // 编码
+        register("base64", args -> Base64.getEncoder().encodeToString(join(args).getBytes(StandardCharsets.UTF_8)));
+        register("base64Decode", args -> new String(Base64.getDecoder().decode(join(args).trim()), StandardCharsets.UTF_8));
+        register("urlEncode", args -> URLEncoder.encode(join(args), StandardCharsets.UTF_8));
+        register("urlDecode", args -> URLDecoder.decode(join(args), StandardCharsets.UTF_8));
+        // 哈希
+        register("md5", args -> hex(hash("MD5", join(args))));
+        register("sha256", args -> hex(hash("SHA-256", join(args))));
+        register("hmacSha256", args -> {
+            String key = args.size() > 0 ? args.get(0) : "";
+            String data = args.size() > 1 ? String.join(",", args.subList(1, args.size())) : "";
+            Mac mac;
+            try {
+                mac = Mac.getInstance("HmacSHA256");
+                mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            } catch (Exception e) {
+                throw new IllegalArgumentException(e);
+            }
+            return hex(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+        });
+        // 假数据
+        register("faker.firstName", args -> pick(FIRST_NAMES));
+        register("faker.lastName", args -> pick(LAST_NAMES));
+        register("faker.name", args -> pick(FIRST_NAMES) + " " + pick(LAST_NAMES));
+        register("faker.email", args -> pick(FIRST_NAMES).toLowerCase() + "." + pick(LAST_NAMES).toLowerCase()
+                + ThreadLocalRandom.current().nextInt(1000) + "@" + pick(DOMAINS));
+        register("faker.phone", args -> "1" + (3 + ThreadLocalRandom.current().nextInt(7))
+                + String.format("%09d", ThreadLocalRandom.current().nextInt(1_000_000_000)));
+        register("faker.city", args -> pick(CITIES));
+    }
+
+    private VariableFunctions() {
+    }
+
+    /**
+     * 注册函数（同名覆盖）
+     *
+     * @param name     函数名（不含$）
+     * @param function 函数实现
+     */
+    public static void register(String name, VariableFunction function) {
+        FUNCTIONS.put(name, function);
+    }
+
+    /**
+     * 查找函数
+     *
+     * @param name 函数名（不含$）
+     * @return 函数，不存在时返回null
+     */
+    public static VariableFunction get(String name) {
+        return FUNCTIONS.get(name);
+    }
+
+    private static String join(List<String> args) {
+        return args.size() == 1 ? args.get(0) : String.join(",", args);
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static String pick(String[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+
+    private static byte[] hash(String algorithm, String value) {
+        try {
+            return MessageDigest.getInstance(algorithm).digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
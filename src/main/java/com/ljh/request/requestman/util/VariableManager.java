@@ -58,6 +58,26 @@ public class VariableManager {
         ProjectSettingsManager.setProjectVariable(project, name, value);
     }
 
+    /**
+     * 批量设置变量（一次写入，一次持久化）
+     *
+     * @param project   项目对象
+     * @param variables 变量
+     */
+    public static void putAll(Project project, Map<String, String> variables) {
+        ProjectSettingsManager.setProjectVariables(project, variables);
+    }
+
+    /**
+     * 用给定变量整体替换变量池（读线程不会看到中间的空状态）
+     *
+     * @param project   项目对象
+     * @param variables 新变量
+     */
+    public static void replaceAll(Project project, Map<String, String> variables) {
+        ProjectSettingsManager.replaceProjectVariables(project, variables);
+    }
+
     /**
      * 删除变量
      *
@@ -2,19 +2,44 @@ package com.ljh.request.requestman.util;
 
 import com.intellij.openapi.project.Project;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author leijianhui
- * @Description 变量占位符替换工具类，支持${}格式变量的动态替换。
+ * @Description 变量占位符替换工具类，支持{{变量名}}格式变量与{{$函数名(参数)}}动态函数的替换。
+ * 模板只解析一次为"文本/变量/函数"片段列表并按原字符串缓存，渲染时单次StringBuilder拼接，
+ * 变量值中嵌套的占位符递归渲染，通过解析栈检测循环引用。
  * @date 2025/06/19 09:36
  */
 public class VariableReplacer {
+
+    /**
+     * 编译模板缓存的最大条目数
+     */
+    private static final int TEMPLATE_CACHE_SIZE = 512;
+
     /**
-     * 变量占位符正则，匹配{{变量名}}
+     * 参与缓存的模板最大长度，超长字符串（如大请求体）每次直接解析，避免缓存长期持有大对象
      */
-    private static final Pattern VAR_PATTERN = Pattern.compile("\\{\\{([a-zA-Z0-9_]+)\\}\\}");
+    private static final int MAX_CACHEABLE_LENGTH = 64 * 1024;
+
+    /**
+     * 编译模板缓存（LRU），key为原始字符串
+     */
+    private static final Map<String, Template> TEMPLATE_CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Template> eldest) {
+                    return size() > TEMPLATE_CACHE_SIZE;
+                }
+            });
 
     /**
      * 替换字符串中的所有{{变量名}}为变量池中的值，支持递归替换。
@@ -24,29 +49,365 @@ public class VariableReplacer {
      * @return 替换后的字符串
      */
     public static String replace(Project project, String input) {
+        return replace(project, input, null);
+    }
+
+    /**
+     * 替换字符串中的所有{{变量名}}，请求级变量优先于项目变量。
+     *
+     * @param project   项目对象
+     * @param input     输入字符串
+     * @param variables 请求级变量，可为null
+     * @return 替换后的字符串
+     */
+    public static String replace(Project project, String input, Map<String, String> variables) {
         if (input == null || input.isEmpty() || project == null) {
             return input;
         }
-        String result = input;
-        // 防止死循环
-        int maxDepth = 5;
-        for (int i = 0; i < maxDepth; i++) {
-            Matcher matcher = VAR_PATTERN.matcher(result);
-            boolean found = false;
-            StringBuffer sb = new StringBuffer();
-            while (matcher.find()) {
-                found = true;
-                String varName = matcher.group(1);
-                String value = VariableManager.get(project, varName);
-                matcher.appendReplacement(sb, value != null ? Matcher.quoteReplacement(value) : "");
-            }
-            matcher.appendTail(sb);
-            result = sb.toString();
-            if (!found) {
-                break;
-            }
-        }
-        return result;
+        if (input.indexOf("{{") < 0) {
+            return input;
+        }
+        return render(input, snapshot(project, variables));
+    }
+
+    /**
+     * 生成一次请求使用的变量快照：项目变量 + 请求级变量（后者优先）。
+     * 同一请求的URL、参数、请求头、请求体等应共用同一份快照。
+     *
+     * @param project   项目对象
+     * @param variables 请求级变量，可为null
+     * @return 变量快照
+     */
+    public static Map<String, String> snapshot(Project project, Map<String, String> variables) {
+        // 项目变量本身即为不可变快照，无请求级变量时直接使用
+        Map<String, String> projectVariables = VariableManager.getAll(project);
+        if (variables == null || variables.isEmpty()) {
+            return projectVariables;
+        }
+        Map<String, String> snapshot = new HashMap<>(projectVariables);
+        snapshot.putAll(variables);
+        return snapshot;
+    }
+
+    /**
+     * 使用变量快照渲染模板
+     *
+     * @param input     输入字符串
+     * @param variables 变量快照
+     * @return 渲染结果
+     */
+    public static String render(String input, Map<String, String> variables) {
+        if (input == null || input.isEmpty() || input.indexOf("{{") < 0) {
+            return input;
+        }
+        StringBuilder sb = new StringBuilder(input.length());
+        compile(input).render(sb, variables, new HashSet<>());
+        return sb.toString();
+    }
+
+    /**
+     * 获取编译后的模板，可缓存时优先从缓存读取
+     */
+    private static Template compile(String input) {
+        if (input.length() > MAX_CACHEABLE_LENGTH) {
+            return Template.parse(input);
+        }
+        Template template = TEMPLATE_CACHE.get(input);
+        if (template == null) {
+            template = Template.parse(input);
+            TEMPLATE_CACHE.put(input, template);
+        }
+        return template;
+    }
+
+    /**
+     * 编译后的模板：文本、变量、函数片段的序列
+     */
+    private static final class Template {
+        private static final int TEXT = 0;
+        private static final int VARIABLE = 1;
+        private static final int FUNCTION = 2;
+
+        private final List<Segment> segments;
+
+        private Template(List<Segment> segments) {
+            this.segments = segments;
+        }
+
+        /**
+         * 模板片段：文本片段text为原文；变量片段text为变量名；函数片段text为函数名，args为已编译的参数
+         */
+        private static final class Segment {
+            final int kind;
+            final String text;
+            final VariableFunctions.VariableFunction function;
+            final List<Template> args;
+
+            Segment(int kind, String text, VariableFunctions.VariableFunction function, List<Template> args) {
+                this.kind = kind;
+                this.text = text;
+                this.function = function;
+                this.args = args;
+            }
+        }
+
+        /**
+         * 单次线性扫描解析{{变量名}}与{{$函数名(参数...)}}，无法识别的部分原样作为文本
+         */
+        static Template parse(String input) {
+            List<Segment> segments = new ArrayList<>();
+            int length = input.length();
+            int textStart = 0;
+            int i = input.indexOf("{{");
+            while (i >= 0) {
+                int end = i + 2 < length && input.charAt(i + 2) == '$'
+                        ? parseFunction(input, i, segments, textStart)
+                        : parseVariable(input, i, segments, textStart);
+                if (end > 0) {
+                    textStart = end;
+                    i = input.indexOf("{{", textStart);
+                } else {
+                    i = input.indexOf("{{", i + 1);
+                }
+            }
+            if (textStart < length) {
+                segments.add(new Segment(TEXT, input.substring(textStart), null, null));
+            }
+            return new Template(segments);
+        }
+
+        /**
+         * 解析{{变量名}}，成功时返回占位符之后的位置，否则返回-1
+         */
+        private static int parseVariable(String input, int start, List<Segment> segments, int textStart) {
+            int nameStart = start + 2;
+            int j = nameStart;
+            while (j < input.length() && isNameChar(input.charAt(j))) {
+                j++;
+            }
+            if (j == nameStart || !input.startsWith("}}", j)) {
+                return -1;
+            }
+            addText(input, textStart, start, segments);
+            segments.add(new Segment(VARIABLE, input.substring(nameStart, j), null, null));
+            return j + 2;
+        }
+
+        /**
+         * 解析{{$函数名}}或{{$函数名(参数1, 参数2)}}，参数本身可包含占位符（可多层嵌套）；
+         * 括号、方括号、花括号内的逗号不分隔参数（如JSON参数），参数也可用引号包裹或用\\,转义逗号。
+         * 未注册的函数不解析，保留原文
+         */
+        private static int parseFunction(String input, int start, List<Segment> segments, int textStart) {
+            int length = input.length();
+            int nameStart = start + 3;
+            int j = nameStart;
+            while (j < length && (isNameChar(input.charAt(j)) || input.charAt(j) == '.')) {
+                j++;
+            }
+            if (j == nameStart) {
+                return -1;
+            }
+            String name = input.substring(nameStart, j);
+            VariableFunctions.VariableFunction function = VariableFunctions.get(name);
+            if (function == null) {
+                return -1;
+            }
+            List<Template> args = new ArrayList<>();
+            if (j < length && input.charAt(j) == '(') {
+                // 圆括号、方括号、花括号的嵌套深度
+                int depth = 0;
+                int argStart = j + 1;
+                int k = j + 1;
+                boolean closed = false;
+                while (k < length) {
+                    char c = input.charAt(k);
+                    if (input.startsWith("{{", k)) {
+                        // 跳过嵌套占位符
+                        k = skipPlaceholder(input, k);
+                        if (k < 0) {
+                            return -1;
+                        }
+                        continue;
+                    }
+                    if (c == '\\' && k + 1 < length) {
+                        k += 2;
+                        continue;
+                    }
+                    // 括号内的双引号为JSON字符串；顶层只有参数开头的引号表示引号参数
+                    if (c == '"' && depth > 0 || (c == '"' || c == '\'') && depth == 0 && isBlank(input, argStart, k)) {
+                        k = skipQuoted(input, k);
+                        if (k < 0) {
+                            return -1;
+                        }
+                        continue;
+                    }
+                    if (c == '(' || c == '[' || c == '{') {
+                        depth++;
+                    } else if (c == ')' || c == ']' || c == '}') {
+                        if (depth > 0) {
+                            depth--;
+                        } else if (c == ')') {
+                            args.add(compileArg(input.substring(argStart, k)));
+                            closed = true;
+                            break;
+                        }
+                    } else if (c == ',' && depth == 0) {
+                        args.add(compileArg(input.substring(argStart, k)));
+                        argStart = k + 1;
+                    }
+                    k++;
+                }
+                if (!closed) {
+                    return -1;
+                }
+                j = k + 1;
+                if (args.size() == 1 && args.get(0).segments.isEmpty()) {
+                    args.clear();
+                }
+            }
+            if (!input.startsWith("}}", j)) {
+                return -1;
+            }
+            addText(input, textStart, start, segments);
+            segments.add(new Segment(FUNCTION, name, function, args));
+            return j + 2;
+        }
+
+        /**
+         * 跳过从start开始的占位符，按{{与}}配对计算嵌套深度，返回其后的位置；未闭合时返回-1
+         */
+        private static int skipPlaceholder(String input, int start) {
+            int depth = 0;
+            int k = start;
+            while (k < input.length()) {
+                if (input.startsWith("{{", k)) {
+                    depth++;
+                    k += 2;
+                } else if (input.startsWith("}}", k)) {
+                    k += 2;
+                    if (--depth == 0) {
+                        return k;
+                    }
+                } else {
+                    k++;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 跳过从start开始的引号字符串（反斜杠转义），返回结束引号之后的位置；未闭合时返回-1
+         */
+        private static int skipQuoted(String input, int start) {
+            char quote = input.charAt(start);
+            for (int k = start + 1; k < input.length(); k++) {
+                char c = input.charAt(k);
+                if (c == '\\') {
+                    k++;
+                } else if (c == quote) {
+                    return k + 1;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean isBlank(String input, int from, int to) {
+            for (int k = from; k < to; k++) {
+                if (!Character.isWhitespace(input.charAt(k))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 编译参数：引号参数去掉引号并还原\\引号与\\\\；其余参数只还原\\,、\\(、\\)，保留JSON等内容中的转义
+         */
+        private static Template compileArg(String raw) {
+            String arg = raw.trim();
+            StringBuilder sb = new StringBuilder(arg.length());
+            if (arg.length() >= 2 && (arg.charAt(0) == '"' || arg.charAt(0) == '\'')
+                    && arg.charAt(arg.length() - 1) == arg.charAt(0)) {
+                char quote = arg.charAt(0);
+                for (int k = 1; k < arg.length() - 1; k++) {
+                    char c = arg.charAt(k);
+                    if (c == '\\' && k + 1 < arg.length() - 1 && (arg.charAt(k + 1) == quote || arg.charAt(k + 1) == '\\')) {
+                        c = arg.charAt(++k);
+                    }
+                    sb.append(c);
+                }
+            } else {
+                for (int k = 0; k < arg.length(); k++) {
+                    char c = arg.charAt(k);
+                    if (c == '\\' && k + 1 < arg.length() && ",()".indexOf(arg.charAt(k + 1)) >= 0) {
+                        c = arg.charAt(++k);
+                    }
+                    sb.append(c);
+                }
+            }
+            return compile(sb.toString());
+        }
+
+        private static void addText(String input, int from, int to, List<Segment> segments) {
+            if (to > from) {
+                segments.add(new Segment(TEXT, input.substring(from, to), null, null));
+            }
+        }
+
+        /**
+         * 渲染到sb；resolving为当前解析栈，变量再次出现在栈中即为循环引用，原样保留占位符
+         */
+        void render(StringBuilder sb, Map<String, String> variables, Set<String> resolving) {
+            for (Segment segment : segments) {
+                if (segment.kind == TEXT) {
+                    sb.append(segment.text);
+                } else if (segment.kind == FUNCTION) {
+                    sb.append(evaluate(segment, variables, resolving));
+                } else {
+                    renderVariable(sb, segment.text, variables, resolving);
+                }
+            }
+        }
+
+        private static void renderVariable(StringBuilder sb, String name, Map<String, String> variables, Set<String> resolving) {
+            String value = variables.get(name);
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf("{{") < 0) {
+                sb.append(value);
+            } else if (!resolving.add(name)) {
+                LogUtil.warn("变量存在循环引用: " + name);
+                sb.append("{{").append(name).append("}}");
+            } else {
+                compile(value).render(sb, variables, resolving);
+                resolving.remove(name);
+            }
+        }
+
+        /**
+         * 函数求值，参数先按当前变量渲染；求值失败时输出空串
+         */
+        private static String evaluate(Segment segment, Map<String, String> variables, Set<String> resolving) {
+            List<String> values = new ArrayList<>(segment.args.size());
+            for (Template arg : segment.args) {
+                StringBuilder argBuilder = new StringBuilder();
+                arg.render(argBuilder, variables, resolving);
+                values.add(argBuilder.toString());
+            }
+            try {
+                String result = segment.function.apply(values);
+                return result != null ? result : "";
+            } catch (Exception e) {
+                LogUtil.warn("动态变量函数执行失败: $" + segment.text + " " + e.getMessage());
+                return "";
+            }
+        }
+
+        private static boolean isNameChar(char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+        }
     }
 
     /**
@@ -61,4 +422,4 @@ public class VariableReplacer {
         // 为了向后兼容，直接返回原字符串
         return input;
     }
-} 
\ No newline at end of file
+}
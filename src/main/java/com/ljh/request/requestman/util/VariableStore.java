@@ -0,0 +1,207 @@
+package com.ljh.request.requestman.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 单个项目的变量存储：不可变快照 + 原子替换（写时复制）。
+ * 读操作直接读取当前快照，不加锁；写操作复制后CAS替换，多个变量可一次批量写入。
+ * 持久化为写后延迟合并：短时间内的多次修改合并为一次，且只写入与上次持久化相比变化的变量。
+ *
+ * @author leijianhui
+ * @Description 写时复制的项目变量存储，支持批量写入与合并延迟持久化。
+ * @date 2025/09/10 09:20
+ */
+public class VariableStore {
+
+    /**
+     * 持久化合并延迟（毫秒）
+     */
+    private static final long PERSIST_DELAY_MS = 300;
+
+    /**
+     * 持久化调度器（单个守护线程）
+     */
+    private static final ScheduledExecutorService PERSIST_SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "RequestMan-VariablePersist");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * 持久化目标
+     */
+    private final Sink sink;
+
+    /**
+     * 上次成功持久化的快照，用于计算增量
+     */
+    private Map<String, String> persisted;
+
+    /**
+     * 当前快照（不可变Map）
+     */
+    private final AtomicReference<Map<String, String>> snapshot;
+
+    /**
+     * 是否已安排持久化任务
+     */
+    private final AtomicBoolean persistScheduled = new AtomicBoolean(false);
+
+    /**
+     * 增量持久化目标
+     */
+    @FunctionalInterface
+    public interface Sink {
+        /**
+         * 写入变化的变量
+         *
+         * @param puts    新增或修改的变量
+         * @param deletes 删除的变量名
+         * @throws Exception 写入失败（变化保留到下次持久化）
+         */
+        void write(Map<String, String> puts, Collection<String> deletes) throws Exception;
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param initial 已持久化的变量
+     * @param sink    持久化目标
+     */
+    public VariableStore(Map<String, String> initial, Sink sink) {
+        this.sink = sink;
+        this.persisted = Collections.unmodifiableMap(new HashMap<>(initial));
+        this.snapshot = new AtomicReference<>(persisted);
+    }
+
+    /**
+     * 获取当前快照（不可变，可在任意线程安全遍历）
+     *
+     * @return 变量快照
+     */
+    public Map<String, String> snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * 获取变量值
+     *
+     * @param name 变量名
+     * @return 变量值，不存在时返回null
+     */
+    public String get(String name) {
+        return snapshot.get().get(name);
+    }
+
+    /**
+     * 设置单个变量
+     *
+     * @param name  变量名
+     * @param value 变量值
+     */
+    public void put(String name, String value) {
+        update(map -> map.put(name, value != null ? value : ""));
+    }
+
+    /**
+     * 批量设置变量，只产生一次快照替换与一次持久化
+     *
+     * @param values 变量
+     */
+    public void putAll(Map<String, String> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        update(map -> values.forEach((k, v) -> map.put(k, v != null ? v : "")));
+    }
+
+    /**
+     * 删除变量
+     *
+     * @param name 变量名
+     */
+    public void remove(String name) {
+        update(map -> map.remove(name));
+    }
+
+    /**
+     * 用给定变量整体替换当前内容
+     *
+     * @param values 新变量
+     */
+    public void replaceAll(Map<String, String> values) {
+        update(map -> {
+            map.clear();
+            if (values != null) {
+                values.forEach((k, v) -> map.put(k, v != null ? v : ""));
+            }
+        });
+    }
+
+    /**
+     * 复制当前快照、应用修改后CAS替换，冲突时重试；之后安排延迟持久化
+     *
+     * @param mutation 对副本的修改
+     */
+    private void update(Consumer<Map<String, String>> mutation) {
+        Map<String, String> current;
+        Map<String, String> next;
+        do {
+            current = snapshot.get();
+            Map<String, String> copy = new HashMap<>(current);
+            mutation.accept(copy);
+            next = Collections.unmodifiableMap(copy);
+        } while (!snapshot.compareAndSet(current, next));
+        schedulePersist();
+    }
+
+    /**
+     * 安排一次延迟持久化，已安排时直接合并
+     */
+    private void schedulePersist() {
+        if (persistScheduled.compareAndSet(false, true)) {
+            PERSIST_SCHEDULER.schedule(this::flush, PERSIST_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 立即持久化与上次相比变化的变量（项目关闭时调用，确保延迟中的修改不丢失）
+     */
+    public synchronized void flush() {
+        persistScheduled.set(false);
+        Map<String, String> current = snapshot.get();
+        if (current == persisted) {
+            return;
+        }
+        Map<String, String> puts = new HashMap<>();
+        current.forEach((k, v) -> {
+            if (!Objects.equals(persisted.get(k), v)) {
+                puts.put(k, v);
+            }
+        });
+        List<String> deletes = new ArrayList<>();
+        for (String name : persisted.keySet()) {
+            if (!current.containsKey(name)) {
+                deletes.add(name);
+            }
+        }
+        try {
+            sink.write(puts, deletes);
+            persisted = current;
+        } catch (Exception e) {
+            LogUtil.warn("持久化项目变量失败: " + e.getMessage());
+        }
+    }
+}
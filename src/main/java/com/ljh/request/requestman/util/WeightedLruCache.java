@@ -0,0 +1,183 @@
+package com.ljh.request.requestman.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * 线程安全的按权重限制的LRU缓存：按访问顺序淘汰，总权重（近似字节数）不超过上限。
+ * 权重在写入时计算，值被修改后需重新写入才会更新权重。所有操作在同一把锁内完成，单次操作为O(1)。
+ *
+ * @author leijianhui
+ * @Description 按权重限制的线程安全LRU缓存，带命中/未命中/淘汰统计。
+ * @date 2025/09/16 10:00
+ */
+public class WeightedLruCache<K, V> {
+
+    private static final class Entry<V> {
+        final V value;
+        final long weight;
+
+        Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * accessOrder=true，迭代顺序即从最久未访问到最近访问
+     */
+    private final LinkedHashMap<K, Entry<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+    private final ToLongFunction<V> weigher;
+    private long maxWeight;
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxWeight 权重上限
+     * @param weigher   权重计算函数
+     */
+    public WeightedLruCache(long maxWeight, ToLongFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * 读取并刷新访问顺序
+     *
+     * @param key 键
+     * @return 值，不存在时返回null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * 写入（替换旧值），超过权重上限时淘汰最久未访问的条目；单个条目超过上限时不缓存
+     *
+     * @param key   键
+     * @param value 值，不能为null
+     */
+    public synchronized void put(K key, V value) {
+        long entryWeight = Math.max(1, weigher.applyAsLong(value));
+        Entry<V> previous = map.remove(key);
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        if (entryWeight > maxWeight) {
+            evictions++;
+            return;
+        }
+        map.put(key, new Entry<>(value, entryWeight));
+        weight += entryWeight;
+        evictToFit();
+    }
+
+    public synchronized V remove(K key) {
+        Entry<V> entry = map.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        weight -= entry.weight;
+        return entry.value;
+    }
+
+    public synchronized void clear() {
+        map.clear();
+        weight = 0;
+    }
+
+    /**
+     * 调整权重上限，缩小时立即淘汰
+     *
+     * @param maxWeight 新的权重上限
+     */
+    public synchronized void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+        evictToFit();
+    }
+
+    private void evictToFit() {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = map.entrySet().iterator();
+        while (weight > maxWeight && iterator.hasNext()) {
+            weight -= iterator.next().getValue().weight;
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * 当前统计快照
+     */
+    public synchronized Stats stats() {
+        return new Stats(map.size(), weight, maxWeight, hits, misses, evictions);
+    }
+
+    /**
+     * 缓存统计
+     */
+    public static final class Stats {
+        private final int size;
+        private final long weight;
+        private final long maxWeight;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        Stats(int size, long weight, long maxWeight, long hits, long misses, long evictions) {
+            this.size = size;
+            this.weight = weight;
+            this.maxWeight = maxWeight;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+
+        public long getMaxWeight() {
+            return maxWeight;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * 命中率（0~1），无访问时为0
+         */
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "entries=" + size + ", weight=" + weight + "/" + maxWeight + ", hits=" + hits + ", misses=" + misses
+                    + ", evictions=" + evictions + String.format(", hitRate=%.1f%%", getHitRate() * 100);
+        }
+    }
+}
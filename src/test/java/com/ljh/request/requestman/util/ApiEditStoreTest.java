@@ -0,0 +1,210 @@
+package com.ljh.request.requestman.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author leijianhui
+ * @Description ApiEditStore的测试：末尾残缺帧截断，中间损坏的帧跳过并备份，压缩与键前缀迁移。
+ * @date 2025/09/21 10:00
+ */
+public class ApiEditStoreTest {
+
+    private Path dir;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("api-edit-store");
+        file = dir.resolve("test.log");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        ApiEditStore.close(file);
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void tornTailIsTruncated() throws IOException {
+        long[] ends = writeFrames("a", "b", "c");
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            // 帧头声明100字节负载，只写了10字节
+            raf.seek(ends[2]);
+            raf.writeInt(100);
+            raf.writeInt(0);
+            raf.write(new byte[10]);
+        }
+        ApiEditStore store = reopen();
+        assertValue(store, "a");
+        assertValue(store, "b");
+        assertValue(store, "c");
+        assertEquals(ends[2], Files.size(file));
+        assertEquals(0, backups().size());
+    }
+
+    @Test
+    public void badFirstFrameKeepsLaterFrames() throws IOException {
+        long[] ends = writeFrames("a", "b", "c");
+        flipByte(ends[0] - 1);
+        ApiEditStore store = reopen();
+        assertNull(store.get("a"));
+        assertValue(store, "b");
+        assertValue(store, "c");
+        assertEquals(1, backups().size());
+        // 损坏的帧已在备份后重写掉，再次打开不再产生备份
+        store = reopen();
+        assertValue(store, "c");
+        assertEquals(1, backups().size());
+    }
+
+    @Test
+    public void badFrameInMiddleIsSkipped() throws IOException {
+        long[] ends = writeFrames("a", "b", "c");
+        flipByte(ends[1] - 1);
+        ApiEditStore store = reopen();
+        assertValue(store, "a");
+        assertNull(store.get("b"));
+        assertValue(store, "c");
+        assertEquals(1, backups().size());
+        store.put("d", value("d"));
+        store = reopen();
+        assertValue(store, "a");
+        assertValue(store, "c");
+        assertValue(store, "d");
+    }
+
+    @Test
+    public void damagedHeaderIsBackedUp() throws IOException {
+        long[] ends = writeFrames("a", "b", "c");
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(ends[0]);
+            raf.writeInt(-1);
+        }
+        long before = Files.size(file);
+        ApiEditStore store = reopen();
+        assertValue(store, "a");
+        List<Path> backups = backups();
+        assertEquals(1, backups.size());
+        assertEquals(before, Files.size(backups.get(0)));
+    }
+
+    @Test
+    public void compactKeepsLatestValues() throws IOException {
+        ApiEditStore store = ApiEditStore.forFile(file);
+        for (int i = 0; i < 20; i++) {
+            store.put("a", ("value-a-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        store.put("b", value("b"));
+        store.remove("b");
+        long before = store.fileSize();
+        store.compact();
+        assertTrue(store.fileSize() < before);
+        assertEquals("value-a-19", new String(store.get("a"), StandardCharsets.UTF_8));
+        assertNull(store.get("b"));
+        store = reopen();
+        assertEquals(Set.of("a"), store.keys());
+        assertEquals("value-a-19", new String(store.get("a"), StandardCharsets.UTF_8));
+        assertEquals(0, backups().size());
+    }
+
+    @Test
+    public void writeCompactsWhenMostlyGarbage() throws IOException {
+        ApiEditStore store = ApiEditStore.forFile(file);
+        byte[] large = new byte[64 * 1024];
+        for (int i = 0; i < 40; i++) {
+            large[0] = (byte) i;
+            store.put("a", large);
+        }
+        // 累计写入约2.5MB，只有最后一个值存活，超过1MB后应已压缩
+        assertTrue(store.fileSize() < 1024 * 1024 + large.length * 2L);
+        store = reopen();
+        assertEquals(39, store.get("a")[0]);
+    }
+
+    @Test
+    public void migrateKeyPrefixRewritesOldKeys() throws IOException {
+        ApiEditStore store = ApiEditStore.forFile(file);
+        store.put("oldName#k1", value("k1"));
+        store.put("id#k2", value("k2"));
+        store.put("oldName#k2", value("stale"));
+        store.put("plain", value("plain"));
+        store.migrateKeyPrefix("id#");
+        assertEquals(Set.of("id#k1", "id#k2", "plain"), store.keys());
+        assertValue(store, "plain");
+        assertEquals("value-k1", new String(store.get("id#k1"), StandardCharsets.UTF_8));
+        // 新键已存在时以新键为准
+        assertEquals("value-k2", new String(store.get("id#k2"), StandardCharsets.UTF_8));
+        store = reopen();
+        assertEquals(Set.of("id#k1", "id#k2", "plain"), store.keys());
+    }
+
+    /**
+     * 每个键单独写一帧
+     *
+     * @return 各帧结束位置
+     */
+    private long[] writeFrames(String... keys) throws IOException {
+        ApiEditStore store = ApiEditStore.forFile(file);
+        long[] ends = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            store.put(keys[i], value(keys[i]));
+            ends[i] = store.fileSize();
+        }
+        ApiEditStore.close(file);
+        return ends;
+    }
+
+    private ApiEditStore reopen() throws IOException {
+        ApiEditStore.close(file);
+        return ApiEditStore.forFile(file);
+    }
+
+    private void flipByte(long position) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(position);
+            int b = raf.read();
+            raf.seek(position);
+            raf.write(b ^ 0xFF);
+        }
+    }
+
+    private List<Path> backups() throws IOException {
+        List<Path> backups = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.corrupt")) {
+            stream.forEach(backups::add);
+        }
+        return backups;
+    }
+
+    private static byte[] value(String key) {
+        return ("value-" + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void assertValue(ApiEditStore store, String key) throws IOException {
+        byte[] value = store.get(key);
+        assertTrue("missing " + key, value != null);
+        assertEquals("value-" + key, new String(value, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,64 @@
+package com.ljh.request.requestman.util;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author leijianhui
+ * @Description CompiledPostOp中JSONPath与前后缀拆分的测试。
+ * @date 2025/09/20 10:00
+ */
+public class CompiledPostOpTest {
+
+    private static final String JSON = "{\"items\":[{\"id\":1,\"x\":0},{\"id\":2,\"x\":5}],\"a-b\":\"v\",\"token\":\"t1\"}";
+
+    @Test
+    public void wildcardPath() {
+        CompiledPostOp op = CompiledPostOp.compile(CompiledPostOp.TYPE_JSON_PATH, "ids=$.items[*].id;");
+        assertTrue(op.isValid());
+        assertEquals("$.items[*].id", op.getPath());
+        assertEquals("ids=[1,2];", evaluate(op));
+    }
+
+    @Test
+    public void filterPath() {
+        CompiledPostOp op = CompiledPostOp.compile(CompiledPostOp.TYPE_JSON_PATH, "$.items[?(@.x > 1)].id end");
+        assertTrue(op.isValid());
+        assertEquals("$.items[?(@.x > 1)].id", op.getPath());
+        assertEquals("[2] end", evaluate(op));
+    }
+
+    @Test
+    public void filterPathWithQuotedBracket() {
+        CompiledPostOp op = CompiledPostOp.compile(CompiledPostOp.TYPE_JSON_PATH, "$.items[?(@.name == 'a]b')]");
+        assertTrue(op.isValid());
+        assertEquals("$.items[?(@.name == 'a]b')]", op.getPath());
+    }
+
+    @Test
+    public void quotedKeyPath() {
+        CompiledPostOp op = CompiledPostOp.compile(CompiledPostOp.TYPE_JSON_PATH, "$['a-b']-suffix");
+        assertTrue(op.isValid());
+        assertEquals("$['a-b']", op.getPath());
+        assertEquals("v-suffix", evaluate(op));
+    }
+
+    @Test
+    public void prefixAndSuffix() {
+        CompiledPostOp op = CompiledPostOp.compile(CompiledPostOp.TYPE_JSON_PATH, "Bearer $.token\"");
+        assertEquals("$.token", op.getPath());
+        assertEquals("Bearer t1\"", evaluate(op));
+    }
+
+    private static String evaluate(CompiledPostOp op) {
+        Map<String, String> results = StreamingJsonPath.evaluate(new StringReader(JSON),
+                Collections.singletonList(op.getJsonPath()));
+        return op.evaluateJson(results);
+    }
+}
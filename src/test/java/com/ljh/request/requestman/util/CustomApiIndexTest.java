@@ -0,0 +1,95 @@
+package com.ljh.request.requestman.util;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author leijianhui
+ * @Description CustomApiIndex的测试：元数据与字节范围，跳过嵌套值与转义字符。
+ * @date 2025/09/21 14:00
+ */
+public class CustomApiIndexTest {
+
+    private Path dir;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("custom-api-index");
+        file = dir.resolve("custom_apis.json");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.delete(dir);
+    }
+
+    @Test
+    public void scanReadsMetadataAndRanges() throws IOException {
+        String first = "{\"id\":\"a1\",\"version\":3,\"name\":\"登录\",\"url\":\"/login\",\"httpMethod\":\"POST\","
+                + "\"body\":\"{\\\"user\\\":\\\"x]}\\\"}\",\"params\":[{\"name\":\"p\",\"children\":[]}],\"authMode\":1}";
+        String second = "{\"params\":null,\"httpMethod\":\"GET\",\"url\":\"/items/{id}\",\"name\":\"详情 \\\"quoted\\\"\"}";
+        String text = "﻿[\n  " + first + " ,\n  " + second + "\n]\n";
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        byte[] bytes = Files.readAllBytes(file);
+
+        List<CustomApiIndex.Entry> entries = CustomApiIndex.scan(file);
+        assertEquals(2, entries.size());
+
+        CustomApiIndex.Entry a = entries.get(0);
+        assertEquals("a1", a.id);
+        assertEquals(3, a.version);
+        assertEquals("登录", a.name);
+        assertEquals("/login", a.url);
+        assertEquals("POST", a.httpMethod);
+        assertEquals(first, slice(bytes, a));
+        assertEquals(CustomApiIndex.hash(first.getBytes(StandardCharsets.UTF_8)), a.hash);
+
+        CustomApiIndex.Entry b = entries.get(1);
+        assertNull(b.id);
+        assertEquals(0, b.version);
+        assertEquals("详情 \"quoted\"", b.name);
+        assertEquals("/items/{id}", b.url);
+        assertEquals("GET", b.httpMethod);
+        JSONObject parsed = JSONUtil.parseObj(slice(bytes, b));
+        assertEquals(b.name, parsed.getStr("name"));
+    }
+
+    @Test
+    public void emptyArray() throws IOException {
+        Files.writeString(file, " [ ] ");
+        assertTrue(CustomApiIndex.scan(file).isEmpty());
+    }
+
+    @Test
+    public void notAnArrayIsRejected() throws IOException {
+        Files.writeString(file, "{\"name\":\"x\"}");
+        try {
+            CustomApiIndex.scan(file);
+            fail("expected IOException");
+        } catch (IOException expected) {
+            // 由调用方回退为完整解析
+        }
+    }
+
+    private static String slice(byte[] bytes, CustomApiIndex.Entry entry) {
+        byte[] part = Arrays.copyOfRange(bytes, (int) entry.offset, (int) entry.offset + entry.length);
+        return new String(part, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,199 @@
+package com.ljh.request.requestman.util;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.ljh.request.requestman.model.CustomApiInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author leijianhui
+ * @Description 自定义接口文件与外部修改三方合并的测试：单边修改、两边修改、删除与修改并发。
+ * @date 2025/09/21 14:30
+ */
+public class CustomApiStorageTest {
+
+    private Path dir;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("custom-api-storage");
+        file = dir.resolve("custom_apis.json");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.list(dir)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void externalEditIsApplied() throws IOException {
+        List<CustomApiInfo> list = saved("A", "B");
+        editExternally("B", obj -> obj.set("url", "/b-external"));
+
+        CustomApiStorage.MergeResult result = CustomApiStorage.sync(file, list, false);
+        assertNotNull(result);
+        assertTrue(result.conflicts.isEmpty());
+        assertEquals("/b-external", list.get(1).getUrl());
+        assertEquals("/a", list.get(0).getUrl());
+        assertEquals("/b-external", find(reload(), "B").getUrl());
+    }
+
+    @Test
+    public void localEditKeepsExternalEditOfOtherEntry() throws IOException {
+        List<CustomApiInfo> list = saved("A", "B");
+        list.get(0).setDescription("local");
+        editExternally("B", obj -> obj.set("url", "/b-external"));
+
+        CustomApiStorage.MergeResult result = CustomApiStorage.sync(file, list, true);
+        assertNotNull(result);
+        assertTrue(result.conflicts.isEmpty());
+        List<CustomApiInfo> reloaded = reload();
+        assertEquals(2, reloaded.size());
+        assertEquals("local", find(reloaded, "A").getDescription());
+        assertEquals("/b-external", find(reloaded, "B").getUrl());
+    }
+
+    @Test
+    public void editsOnBothSidesKeepLocalAndCopyExternal() throws IOException {
+        List<CustomApiInfo> list = saved("A", "B");
+        String id = list.get(0).getId();
+        list.get(0).setDescription("local");
+        editExternally("A", obj -> obj.set("url", "/a-external"));
+
+        CustomApiStorage.MergeResult result = CustomApiStorage.sync(file, list, true);
+        assertNotNull(result);
+        assertEquals(List.of("A"), result.conflicts);
+        List<CustomApiInfo> reloaded = reload();
+        assertEquals(3, reloaded.size());
+        CustomApiInfo local = find(reloaded, "A");
+        assertEquals(id, local.getId());
+        assertEquals("/a", local.getUrl());
+        assertEquals("local", local.getDescription());
+        CustomApiInfo copy = null;
+        for (CustomApiInfo api : reloaded) {
+            if ("/a-external".equals(api.getUrl())) {
+                copy = api;
+            }
+        }
+        assertNotNull(copy);
+        assertTrue(!id.equals(copy.getId()));
+    }
+
+    @Test
+    public void localDeleteLosesToExternalEdit() throws IOException {
+        List<CustomApiInfo> list = saved("A", "B");
+        editExternally("A", obj -> obj.set("url", "/a-external"));
+
+        CustomApiStorage.MergeResult result = CustomApiStorage.sync(file, new ArrayList<>(list.subList(1, 2)), true);
+        assertNotNull(result);
+        assertEquals(List.of("A"), result.conflicts);
+        List<CustomApiInfo> reloaded = reload();
+        assertEquals(2, reloaded.size());
+        assertEquals("/a-external", find(reloaded, "A").getUrl());
+    }
+
+    @Test
+    public void externalDeleteLosesToLocalEdit() throws IOException {
+        List<CustomApiInfo> list = saved("A", "B");
+        list.get(1).setDescription("local");
+        editExternally("B", null);
+
+        CustomApiStorage.MergeResult result = CustomApiStorage.sync(file, list, true);
+        assertNotNull(result);
+        assertEquals(List.of("B"), result.conflicts);
+        List<CustomApiInfo> reloaded = reload();
+        assertEquals(2, reloaded.size());
+        assertEquals("local", find(reloaded, "B").getDescription());
+    }
+
+    @Test
+    public void unchangedEntriesDeletedOnEitherSideStayDeleted() throws IOException {
+        List<CustomApiInfo> list = saved("A", "B", "C");
+        editExternally("C", null);
+
+        CustomApiStorage.MergeResult result = CustomApiStorage.sync(file, new ArrayList<>(list.subList(1, 3)), true);
+        assertNotNull(result);
+        assertTrue(result.conflicts.isEmpty());
+        List<CustomApiInfo> reloaded = reload();
+        assertEquals(1, reloaded.size());
+        assertEquals("B", reloaded.get(0).getName());
+    }
+
+    @Test
+    public void ownWriteIsNotTreatedAsExternalChange() throws IOException {
+        List<CustomApiInfo> list = saved("A");
+        list.get(0).setDescription("local");
+        assertNull(CustomApiStorage.sync(file, list, true));
+        assertNull(CustomApiStorage.sync(file, list, false));
+    }
+
+    /**
+     * 保存后重新加载，返回的条目详情未加载
+     */
+    private List<CustomApiInfo> saved(String... names) throws IOException {
+        CustomApiStorage.load(file);
+        List<CustomApiInfo> apis = new ArrayList<>();
+        for (String name : names) {
+            String url = "/" + name.toLowerCase();
+            apis.add(new CustomApiInfo(name, url, "GET", new ArrayList<>(), "", ""));
+        }
+        CustomApiStorage.sync(file, apis, true);
+        return CustomApiStorage.load(file);
+    }
+
+    private List<CustomApiInfo> reload() throws IOException {
+        return CustomApiStorage.load(file);
+    }
+
+    /**
+     * 模拟其他编辑者修改文件：edit为null时删除条目，否则修改后递增版本
+     */
+    private void editExternally(String name, Consumer<JSONObject> edit) throws IOException {
+        JSONArray array = JSONUtil.parseArray(Files.readString(file, StandardCharsets.UTF_8));
+        JSONArray result = new JSONArray();
+        for (int i = 0; i < array.size(); i++) {
+            JSONObject obj = array.getJSONObject(i);
+            if (name.equals(obj.getStr("name"))) {
+                if (edit == null) {
+                    continue;
+                }
+                edit.accept(obj);
+                obj.set("version", obj.getLong("version", 0L) + 1);
+            }
+            result.add(obj);
+        }
+        Files.writeString(file, result.toString(), StandardCharsets.UTF_8);
+    }
+
+    private static CustomApiInfo find(List<CustomApiInfo> apis, String name) {
+        for (CustomApiInfo api : apis) {
+            if (name.equals(api.getName())) {
+                return api;
+            }
+        }
+        throw new AssertionError("missing " + name);
+    }
+}
@@ -0,0 +1,171 @@
+package com.ljh.request.requestman.util;
+
+import com.ljh.request.requestman.enums.ParamDataType;
+import com.ljh.request.requestman.model.ApiInfo;
+import com.ljh.request.requestman.model.ApiParam;
+import com.ljh.request.requestman.model.Environment;
+import com.ljh.request.requestman.ui.HeadersPanel;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author leijianhui
+ * @Description RecordCodec的测试：接口与环境的往返编码，未知字段跳过。
+ * @date 2025/09/21 11:00
+ */
+public class RecordCodecTest {
+
+    @Test
+    public void apiInfoRoundTrip() throws IOException {
+        ApiInfo api = RecordCodecBenchmark.syntheticSamples(1).get(0);
+        api.setAuthMode(2);
+        api.setAuthValue("Bearer abc");
+        api.setBodyType("json");
+        byte[] data = RecordCodec.encode(api, null);
+        assertTrue(RecordCodec.isEncoded(data));
+
+        ApiInfo decoded = RecordCodec.decodeApiInfo(data);
+        assertEquals(api.getName(), decoded.getName());
+        assertEquals(api.getMethodName(), decoded.getMethodName());
+        assertEquals(api.getUrl(), decoded.getUrl());
+        assertEquals(api.getHttpMethod(), decoded.getHttpMethod());
+        assertEquals(api.getDescription(), decoded.getDescription());
+        assertEquals(api.getClassName(), decoded.getClassName());
+        assertEquals(api.getParamTypes(), decoded.getParamTypes());
+        assertEquals(api.getAuthMode(), decoded.getAuthMode());
+        assertEquals(api.getAuthValue(), decoded.getAuthValue());
+        assertEquals(api.getBodyType(), decoded.getBodyType());
+        assertEquals(api.getBody(), decoded.getBody());
+        assertNull(decoded.bodyBlob());
+        assertParams(api.getParams(), decoded.getParams());
+        assertParams(api.getBodyParams(), decoded.getBodyParams());
+        assertEquals(api.getHeaders().size(), decoded.getHeaders().size());
+        for (int i = 0; i < api.getHeaders().size(); i++) {
+            HeadersPanel.HeaderItem expected = api.getHeaders().get(i);
+            HeadersPanel.HeaderItem actual = decoded.getHeaders().get(i);
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getValue(), actual.getValue());
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getDescription(), actual.getDescription());
+        }
+        assertEquals(api.getPreOps().get(0).value, decoded.getPreOps().get(0).value);
+        assertEquals(api.getPostOps().get(0).value, decoded.getPostOps().get(0).value);
+    }
+
+    @Test
+    public void bodyBlobReplacesBody() throws IOException {
+        ApiInfo api = RecordCodecBenchmark.syntheticSamples(1).get(0);
+        String hash = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+        ApiInfo decoded = RecordCodec.decodeApiInfo(RecordCodec.encode(api, hash));
+        assertEquals(hash, decoded.bodyBlob());
+    }
+
+    @Test
+    public void environmentRoundTrip() throws IOException {
+        Environment env = environment();
+        Environment decoded = RecordCodec.decodeEnvironment(RecordCodec.encode(env));
+        assertEnvironment(env, decoded);
+    }
+
+    @Test
+    public void unknownFieldsAreSkipped() throws IOException {
+        Environment env = environment();
+        byte[] data = RecordCodec.encode(env);
+        // 小记录不压缩，消息直接跟在4字节头部之后，可以在末尾追加新版本的字段
+        assertEquals(0, data[3]);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(data, 0, data.length);
+        varint(out, 98L << 3);
+        varint(out, 123456);
+        byte[] text = "future".getBytes(StandardCharsets.UTF_8);
+        varint(out, 99L << 3 | 2);
+        varint(out, text.length);
+        out.write(text, 0, text.length);
+
+        assertEnvironment(env, RecordCodec.decodeEnvironment(out.toByteArray()));
+    }
+
+    @Test
+    public void newerVersionIsRejected() {
+        byte[] data = RecordCodec.encode(environment());
+        data[2] = (byte) (data[2] + 1);
+        try {
+            RecordCodec.decodeEnvironment(data);
+            fail("expected IOException");
+        } catch (IOException expected) {
+            // 新版本头部格式不兼容
+        }
+    }
+
+    private static Environment environment() {
+        Environment env = new Environment("dev", "http://localhost:8080");
+        env.setConnectTimeout(3000);
+        env.setReadTimeout(-1);
+        env.setAuthType("TOKEN");
+        env.setAuthHeader("Authorization");
+        env.setAuthTtl(600);
+        Map<String, String> variables = new LinkedHashMap<>();
+        variables.put("host", "localhost");
+        variables.put("empty", "");
+        env.setVariables(variables);
+        env.setCreateTime(1_700_000_000_000L);
+        env.setUpdateTime(1_700_000_123_000L);
+        return env;
+    }
+
+    private static void assertEnvironment(Environment expected, Environment actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getPreUrl(), actual.getPreUrl());
+        assertEquals(expected.getConnectTimeout(), actual.getConnectTimeout());
+        assertEquals(expected.getReadTimeout(), actual.getReadTimeout());
+        assertEquals(expected.getTotalTimeout(), actual.getTotalTimeout());
+        assertEquals(expected.getVariables(), actual.getVariables());
+        assertEquals(new ArrayList<>(expected.getVariables().keySet()), new ArrayList<>(actual.getVariables().keySet()));
+        assertEquals(expected.getAuthType(), actual.getAuthType());
+        assertEquals(expected.getAuthConfig(), actual.getAuthConfig());
+        assertEquals(expected.getAuthHeader(), actual.getAuthHeader());
+        assertEquals(expected.getAuthTtl(), actual.getAuthTtl());
+        assertEquals(expected.getCreateTime(), actual.getCreateTime());
+        assertEquals(expected.getUpdateTime(), actual.getUpdateTime());
+    }
+
+    private static void assertParams(List<ApiParam> expected, List<ApiParam> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            ApiParam e = expected.get(i);
+            ApiParam a = actual.get(i);
+            assertEquals(e.getName(), a.getName());
+            assertEquals(e.getType(), a.getType());
+            assertEquals(e.getDescription(), a.getDescription());
+            assertEquals(e.getDataType(), a.getDataType());
+            assertEquals(e.getRawType(), a.getRawType());
+            assertEquals(e.getValue(), a.getValue());
+            assertEquals(e.isRecursive(), a.isRecursive());
+            List<ApiParam> children = e.getChildren() != null ? e.getChildren() : List.of();
+            if (!children.isEmpty() || e.getDataType() == ParamDataType.OBJECT) {
+                assertParams(children, a.getChildren() != null ? a.getChildren() : List.of());
+            }
+        }
+    }
+
+    private static void varint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}